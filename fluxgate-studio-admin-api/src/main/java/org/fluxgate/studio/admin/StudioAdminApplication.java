@@ -2,9 +2,11 @@ package org.fluxgate.studio.admin;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /** Main application class for FluxGate Studio Admin API. */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class StudioAdminApplication {
 
   public static void main(String[] args) {
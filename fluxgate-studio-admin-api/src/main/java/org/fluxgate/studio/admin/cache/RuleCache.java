@@ -0,0 +1,267 @@
+package org.fluxgate.studio.admin.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.repository.StoredRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional write-through cache holding an immutable {@link RuleSnapshot} of all rules.
+ *
+ * <p>Reads never lock: they use the current snapshot, which is swapped atomically. Write-through
+ * updates are serialized by a lock and replace the snapshot copy-on-write. A load reads MongoDB
+ * without holding the lock, so writes are not blocked by it; writes made meanwhile are replayed on
+ * the loaded snapshot before it replaces the old one, so a load never loses them. Writes made by
+ * other Admin API instances become visible once the snapshot is older than the configured refresh
+ * interval and gets reloaded.
+ */
+@Component
+public class RuleCache {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleCache.class);
+
+  private final RuleStore ruleStore;
+  private final RuleCacheProperties properties;
+  private final Counter hits;
+  private final Counter misses;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private volatile RuleSnapshot snapshot;
+  private volatile long oversizedUntilNanos;
+
+  /** Writes made while a load reads MongoDB, or null. Changed under {@link #lock}. */
+  private volatile List<UnaryOperator<RuleSnapshot>> pending;
+
+  /** Whether the running load was invalidated before it finished. Guarded by {@link #lock}. */
+  private boolean loadInvalidated;
+
+  public RuleCache(RuleStore ruleStore, RuleCacheProperties properties, MeterRegistry registry) {
+    this.ruleStore = ruleStore;
+    this.properties = properties;
+    this.hits = registry.counter("studio.rule.cache.requests", "result", "hit");
+    this.misses = registry.counter("studio.rule.cache.requests", "result", "miss");
+    Gauge.builder("studio.rule.cache.size", this, RuleCache::size).register(registry);
+  }
+
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  /**
+   * Get the current snapshot, loading it first if it is missing or expired. While another thread
+   * loads it, the expired snapshot is served, or none if there is no snapshot yet.
+   *
+   * @return the snapshot, or empty when the cache is disabled, cannot hold all rules or is still
+   *     being loaded
+   */
+  public Optional<RuleSnapshot> snapshot() {
+    if (!properties.enabled()) {
+      return Optional.empty();
+    }
+    RuleSnapshot current = snapshot;
+    if (current == null || isExpired(current)) {
+      misses.increment();
+      return Optional.ofNullable(reload(current));
+    }
+    hits.increment();
+    return Optional.of(current);
+  }
+
+  /**
+   * Write-through: add a rule or replace an older version of it in the current snapshot. A write
+   * whose version is not newer than the cached one, such as a slower concurrent writer's result or
+   * a refresh that read before the write, is ignored, and so is a version at or below the one the
+   * rule was evicted at.
+   */
+  public void put(StoredRule rule) {
+    update(current -> current.withRule(rule));
+  }
+
+  /** Write-through for a created rule, which may reuse the ID of a rule evicted before. */
+  public void putCreated(StoredRule rule) {
+    update(current -> current.withCreatedRules(List.of(rule)));
+  }
+
+  /** Write-through: add or replace many rules in the current snapshot at once, as {@link #put}. */
+  public void putAll(Collection<StoredRule> rules) {
+    update(current -> current.withRules(rules));
+  }
+
+  /**
+   * Write-through for writes that do not return the stored versions: re-read the rules with their
+   * versions and put them. The rules may have been created by the write, so they are put as
+   * {@link #putCreated} does.
+   */
+  public void putLatest(Collection<String> ids) {
+    if (!isActive() || ids.isEmpty()) {
+      return;
+    }
+    List<StoredRule> rules = ruleStore.findStoredByIds(ids);
+    update(current -> current.withCreatedRules(rules));
+  }
+
+  /**
+   * Write-through: remove a rule from the current snapshot and ignore later writes of its versions
+   * up to the deleted one.
+   *
+   * @param id the deleted rule
+   * @param version the version the rule was deleted at
+   */
+  public void evict(String id, long version) {
+    update(current -> current.withoutRule(id, version));
+  }
+
+  /** Write-through: remove all rules of a rule set from the current snapshot. */
+  public void evictRuleSet(String ruleSetId) {
+    update(current -> current.withoutRuleSet(ruleSetId));
+  }
+
+  /** Drop the snapshot so that the next read reloads it from MongoDB. */
+  public void invalidate() {
+    lock.lock();
+    try {
+      snapshot = null;
+      // A load that read before the change could not see it either
+      loadInvalidated = pending != null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Whether there is a snapshot or a load whose snapshot a write must reach. */
+  private boolean isActive() {
+    return properties.enabled() && (snapshot != null || pending != null);
+  }
+
+  private void update(UnaryOperator<RuleSnapshot> mutation) {
+    if (!isActive()) {
+      return;
+    }
+    lock.lock();
+    try {
+      if (pending != null) {
+        pending.add(mutation);
+      }
+      RuleSnapshot current = snapshot;
+      if (current != null) {
+        swap(mutation.apply(current));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private RuleSnapshot reload(RuleSnapshot stale) {
+    if (System.nanoTime() < oversizedUntilNanos) {
+      return null;
+    }
+    lock.lock();
+    try {
+      RuleSnapshot current = snapshot;
+      if (current != null && !isExpired(current)) {
+        return current;
+      }
+      if (pending != null) {
+        // Another thread is already loading: keep serving the stale snapshot if there is one
+        return stale;
+      }
+      pending = new ArrayList<>();
+      loadInvalidated = false;
+    } finally {
+      lock.unlock();
+    }
+
+    long startedAtNanos = System.nanoTime();
+    List<StoredRule> rules = new ArrayList<>();
+    try {
+      ruleStore.forEachStored(
+          null,
+          rule -> {
+            if (rules.size() >= properties.maxRules()) {
+              throw new CacheCapacityExceededException();
+            }
+            rules.add(rule);
+          });
+    } catch (CacheCapacityExceededException e) {
+      lock.lock();
+      try {
+        pending = null;
+        dropOversized();
+      } finally {
+        lock.unlock();
+      }
+      return null;
+    } catch (RuntimeException e) {
+      lock.lock();
+      try {
+        pending = null;
+      } finally {
+        lock.unlock();
+      }
+      throw e;
+    }
+
+    lock.lock();
+    try {
+      RuleSnapshot loaded = RuleSnapshot.of(rules, startedAtNanos);
+      for (UnaryOperator<RuleSnapshot> mutation : pending) {
+        loaded = mutation.apply(loaded);
+      }
+      pending = null;
+      if (loadInvalidated) {
+        return null;
+      }
+      swap(loaded);
+      log.debug("Rule cache loaded with {} rules", loaded.size());
+      return snapshot;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Replace the snapshot, or drop it if it exceeds the configured bound. */
+  private void swap(RuleSnapshot updated) {
+    if (updated.size() > properties.maxRules()) {
+      dropOversized();
+    } else {
+      snapshot = updated;
+    }
+  }
+
+  private void dropOversized() {
+    log.warn("Rule cache exceeds {} rules, serving reads from MongoDB", properties.maxRules());
+    markOversized();
+    snapshot = null;
+  }
+
+  private boolean isExpired(RuleSnapshot current) {
+    return System.nanoTime() - current.loadedAtNanos() > properties.refreshInterval().toNanos();
+  }
+
+  private void markOversized() {
+    oversizedUntilNanos = System.nanoTime() + properties.refreshInterval().toNanos();
+  }
+
+  private double size() {
+    RuleSnapshot current = snapshot;
+    return current != null ? current.size() : 0;
+  }
+
+  /** Aborts a load as soon as the rule count passes the configured bound. */
+  private static final class CacheCapacityExceededException extends RuntimeException {
+
+    CacheCapacityExceededException() {
+      super(null, null, false, false);
+    }
+  }
+}
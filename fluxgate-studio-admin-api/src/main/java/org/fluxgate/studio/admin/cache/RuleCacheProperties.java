@@ -0,0 +1,25 @@
+package org.fluxgate.studio.admin.cache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the in-memory rule cache.
+ *
+ * @param enabled whether reads are served from the cache
+ * @param maxRules largest rule count the cache will hold before falling back to MongoDB
+ * @param refreshInterval maximum age of a snapshot before it is reloaded, which bounds staleness
+ *     caused by writes from other Admin API instances
+ */
+@ConfigurationProperties(prefix = "app.rules.cache")
+public record RuleCacheProperties(boolean enabled, int maxRules, Duration refreshInterval) {
+
+  public RuleCacheProperties {
+    if (maxRules <= 0) {
+      maxRules = 100_000;
+    }
+    if (refreshInterval == null) {
+      refreshInterval = Duration.ofSeconds(30);
+    }
+  }
+}
@@ -0,0 +1,234 @@
+package org.fluxgate.studio.admin.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.repository.StoredRule;
+
+/**
+ * Immutable point-in-time view of all rules, indexed by ID and by rule set ID.
+ *
+ * <p>Mutations return a new snapshot and never modify the existing one, so readers can use a
+ * snapshot without locking. The stored version of every rule is kept, so a rule is only replaced
+ * by a newer version of itself. A rule removed since the snapshot was loaded leaves a tombstone
+ * with the version it was deleted at, so a slower write of that or an older version cannot bring
+ * it back; only a create does.
+ */
+public final class RuleSnapshot {
+
+  private final TreeMap<String, RateLimitRule> byId;
+  private final Map<String, Long> versions;
+  private final Map<String, Long> tombstones;
+  private final Map<String, List<RateLimitRule>> byRuleSet;
+  private final List<RateLimitRule> all;
+  private final long loadedAtNanos;
+
+  private RuleSnapshot(
+      TreeMap<String, RateLimitRule> byId,
+      Map<String, Long> versions,
+      Map<String, Long> tombstones,
+      Map<String, List<RateLimitRule>> byRuleSet,
+      long loadedAtNanos) {
+    this.byId = byId;
+    this.versions = versions;
+    this.tombstones = tombstones;
+    this.byRuleSet = byRuleSet;
+    this.all = List.copyOf(byId.values());
+    this.loadedAtNanos = loadedAtNanos;
+  }
+
+  static RuleSnapshot of(Collection<StoredRule> rules, long loadedAtNanos) {
+    TreeMap<String, RateLimitRule> byId = new TreeMap<>();
+    Map<String, Long> versions = new HashMap<>();
+    for (StoredRule stored : rules) {
+      byId.put(stored.rule().getId(), stored.rule());
+      versions.put(stored.rule().getId(), stored.version());
+    }
+    return new RuleSnapshot(
+        byId, versions, Map.of(), indexByRuleSet(byId.values()), loadedAtNanos);
+  }
+
+  /** All rules ordered by ID. */
+  public List<RateLimitRule> all() {
+    return all;
+  }
+
+  public Optional<RateLimitRule> get(String id) {
+    return Optional.ofNullable(byId.get(id));
+  }
+
+  /** Rules of a rule set ordered by ID. */
+  public List<RateLimitRule> ruleSet(String ruleSetId) {
+    return byRuleSet.getOrDefault(ruleSetId, List.of());
+  }
+
+  public int size() {
+    return byId.size();
+  }
+
+  long loadedAtNanos() {
+    return loadedAtNanos;
+  }
+
+  /** Stored version of a rule, empty if the snapshot does not hold it. */
+  Optional<Long> version(String id) {
+    return Optional.ofNullable(versions.get(id));
+  }
+
+  /**
+   * Add a rule or replace an older version of it; an equal or older version, or a version at or
+   * below the one the rule was deleted at, is ignored.
+   */
+  RuleSnapshot withRule(StoredRule stored) {
+    if (!isNewer(stored)) {
+      return this;
+    }
+    RateLimitRule rule = stored.rule();
+    TreeMap<String, RateLimitRule> copy = new TreeMap<>(byId);
+    RateLimitRule previous = copy.put(rule.getId(), rule);
+    Map<String, Long> versionsCopy = new HashMap<>(versions);
+    versionsCopy.put(rule.getId(), stored.version());
+    Map<String, List<RateLimitRule>> ruleSets = new HashMap<>(byRuleSet);
+    if (previous != null) {
+      replaceMember(ruleSets, previous.getRuleSetIdOrNull(), rule.getId(), null);
+    }
+    replaceMember(ruleSets, rule.getRuleSetIdOrNull(), rule.getId(), rule);
+    return new RuleSnapshot(
+        copy, versionsCopy, tombstones, Collections.unmodifiableMap(ruleSets), loadedAtNanos);
+  }
+
+  /** Add or replace many rules with a single copy and rule set re-index, as {@link #withRule}. */
+  RuleSnapshot withRules(Collection<StoredRule> rules) {
+    List<StoredRule> newer = rules.stream().filter(this::isNewer).toList();
+    if (newer.isEmpty()) {
+      return this;
+    }
+    TreeMap<String, RateLimitRule> copy = new TreeMap<>(byId);
+    Map<String, Long> versionsCopy = new HashMap<>(versions);
+    for (StoredRule stored : newer) {
+      copy.put(stored.rule().getId(), stored.rule());
+      versionsCopy.put(stored.rule().getId(), stored.version());
+    }
+    return new RuleSnapshot(
+        copy, versionsCopy, tombstones, indexByRuleSet(copy.values()), loadedAtNanos);
+  }
+
+  /**
+   * Add or replace rules that were created, or read back from MongoDB after their write, as
+   * {@link #withRules}. Their tombstones are dropped first: a rule created again after a delete
+   * starts over at the initial version.
+   */
+  RuleSnapshot withCreatedRules(Collection<StoredRule> rules) {
+    if (rules.stream().noneMatch(stored -> tombstones.containsKey(stored.rule().getId()))) {
+      return withRules(rules);
+    }
+    Map<String, Long> tombstonesCopy = new HashMap<>(tombstones);
+    rules.forEach(stored -> tombstonesCopy.remove(stored.rule().getId()));
+    return new RuleSnapshot(
+            byId, versions, Collections.unmodifiableMap(tombstonesCopy), byRuleSet, loadedAtNanos)
+        .withRules(rules);
+  }
+
+  /**
+   * Remove a rule and leave a tombstone, so versions up to the deleted one are ignored afterwards.
+   *
+   * @param id the deleted rule
+   * @param version the version the rule was deleted at
+   */
+  RuleSnapshot withoutRule(String id, long version) {
+    TreeMap<String, RateLimitRule> copy = new TreeMap<>(byId);
+    RateLimitRule removed = copy.remove(id);
+    Map<String, Long> versionsCopy = new HashMap<>(versions);
+    Long cached = versionsCopy.remove(id);
+    Map<String, Long> tombstonesCopy = new HashMap<>(tombstones);
+    tombstonesCopy.merge(id, Math.max(version, cached != null ? cached : 0), Math::max);
+    Map<String, List<RateLimitRule>> ruleSets = new HashMap<>(byRuleSet);
+    if (removed != null) {
+      replaceMember(ruleSets, removed.getRuleSetIdOrNull(), id, null);
+    }
+    return new RuleSnapshot(
+        copy,
+        versionsCopy,
+        Collections.unmodifiableMap(tombstonesCopy),
+        Collections.unmodifiableMap(ruleSets),
+        loadedAtNanos);
+  }
+
+  /** Remove all rules of a rule set, leaving a tombstone at the cached version of each. */
+  RuleSnapshot withoutRuleSet(String ruleSetId) {
+    List<RateLimitRule> members = byRuleSet.get(ruleSetId);
+    if (members == null) {
+      return this;
+    }
+    TreeMap<String, RateLimitRule> copy = new TreeMap<>(byId);
+    Map<String, Long> versionsCopy = new HashMap<>(versions);
+    Map<String, Long> tombstonesCopy = new HashMap<>(tombstones);
+    for (RateLimitRule rule : members) {
+      copy.remove(rule.getId());
+      tombstonesCopy.merge(rule.getId(), versionsCopy.remove(rule.getId()), Math::max);
+    }
+    Map<String, List<RateLimitRule>> ruleSets = new HashMap<>(byRuleSet);
+    ruleSets.remove(ruleSetId);
+    return new RuleSnapshot(
+        copy,
+        versionsCopy,
+        Collections.unmodifiableMap(tombstonesCopy),
+        Collections.unmodifiableMap(ruleSets),
+        loadedAtNanos);
+  }
+
+  /**
+   * Whether a write is newer than the version held and than the version the rule was deleted at,
+   * e.g. not a slower writer's older result.
+   */
+  private boolean isNewer(StoredRule stored) {
+    String id = stored.rule().getId();
+    Long deletedAt = tombstones.get(id);
+    if (deletedAt != null && stored.version() <= deletedAt) {
+      return false;
+    }
+    Long current = versions.get(id);
+    return current == null || stored.version() > current;
+  }
+
+  private static Map<String, List<RateLimitRule>> indexByRuleSet(Collection<RateLimitRule> rules) {
+    Map<String, List<RateLimitRule>> index = new HashMap<>();
+    for (RateLimitRule rule : rules) {
+      String ruleSetId = rule.getRuleSetIdOrNull();
+      if (ruleSetId != null) {
+        index.computeIfAbsent(ruleSetId, key -> new ArrayList<>()).add(rule);
+      }
+    }
+    index.replaceAll((key, value) -> List.copyOf(value));
+    return Collections.unmodifiableMap(index);
+  }
+
+  /** Replace (or remove, when {@code replacement} is null) one member of a rule set. */
+  private static void replaceMember(
+      Map<String, List<RateLimitRule>> ruleSets,
+      String ruleSetId,
+      String id,
+      RateLimitRule replacement) {
+    if (ruleSetId == null) {
+      return;
+    }
+    List<RateLimitRule> members = new ArrayList<>(ruleSets.getOrDefault(ruleSetId, List.of()));
+    members.removeIf(rule -> rule.getId().equals(id));
+    if (replacement != null) {
+      members.add(replacement);
+      members.sort(Comparator.comparing(RateLimitRule::getId));
+    }
+    if (members.isEmpty()) {
+      ruleSets.remove(ruleSetId);
+    } else {
+      ruleSets.put(ruleSetId, List.copyOf(members));
+    }
+  }
+}
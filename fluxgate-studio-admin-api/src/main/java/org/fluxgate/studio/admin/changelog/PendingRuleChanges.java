@@ -0,0 +1,42 @@
+package org.fluxgate.studio.admin.changelog;
+
+import java.util.List;
+import java.util.function.Consumer;
+import org.fluxgate.studio.admin.repository.RuleChangeRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A rule write prepared by {@link RuleChangeLog} before it runs. It must be completed once the
+ * write is done, has been rejected or has failed, so its changes are recorded.
+ */
+public final class PendingRuleChanges {
+
+  private static final Logger log = LoggerFactory.getLogger(PendingRuleChanges.class);
+
+  /** Nothing prepared, for a disabled log or an empty write. */
+  static final PendingRuleChanges NONE = new PendingRuleChanges(changes -> {});
+
+  private final Consumer<List<RuleChangeRecord>> completion;
+
+  PendingRuleChanges(Consumer<List<RuleChangeRecord>> completion) {
+    this.completion = completion;
+  }
+
+  /**
+   * Record the written changes; a rejected write records nothing.
+   *
+   * <p>Never throws: the rules are already stored, and a write left incomplete is recorded on its
+   * behalf once the reservation timeout has passed.
+   *
+   * @param changes the changes that were written, empty if nothing was written, {@code null} if
+   *     the outcome of the write is unknown
+   */
+  public void complete(List<RuleChangeRecord> changes) {
+    try {
+      completion.accept(changes);
+    } catch (RuntimeException e) {
+      log.warn("Could not complete rule change log entries: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package org.fluxgate.studio.admin.changelog;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.RuleChangeResponse;
+import org.fluxgate.studio.admin.dto.response.RuleChangesResponse;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.repository.RuleChangeEntry;
+import org.fluxgate.studio.admin.repository.RuleChangeLogPosition;
+import org.fluxgate.studio.admin.repository.RuleChangeLogStore;
+import org.fluxgate.studio.admin.repository.RuleChangeReservation;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.service.RuleMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records every stored rule change in the {@link RuleChangeLogStore} and serves the changes after
+ * a sequence number, so gateways reload only what changed instead of their whole rule set.
+ *
+ * <p>The log holds the latest sequence number per rule, not the change itself: deltas are built
+ * from the current rules when they are read. Reads stop at {@link
+ * RuleChangeLogPosition#visibleThrough()}, below changes that concurrent writers are still
+ * writing, so a reader's position never moves past a change it has not seen.
+ *
+ * <p>Deletions are purged after {@link RuleChangeLogProperties#tombstoneRetention()}. Readers
+ * positioned before a purged deletion are told to reload in full.
+ */
+@Component
+public class RuleChangeLog {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleChangeLog.class);
+
+  private final RuleChangeLogStore store;
+  private final RuleStore ruleStore;
+  private final RuleChangeLogProperties properties;
+  private final ScheduledThreadPoolExecutor executor;
+
+  public RuleChangeLog(
+      RuleChangeLogStore store, RuleStore ruleStore, RuleChangeLogProperties properties) {
+    this.store = store;
+    this.ruleStore = ruleStore;
+    this.properties = properties;
+    this.executor =
+        new ScheduledThreadPoolExecutor(1, Thread.ofVirtual().name("rule-change-purge").factory());
+  }
+
+  /** Whether rule changes are recorded. */
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  /**
+   * Note rules about to be written, before writing them, so a change is recorded even if this
+   * instance stops right after storing it. Nothing is recorded until the write is completed, and
+   * nothing at all if it is rejected.
+   *
+   * @param ruleIds the rules about to be written
+   * @param deleting whether the rules are about to be deleted
+   * @throws StorageOperationException if MongoDB cannot be written; nothing was prepared
+   */
+  public PendingRuleChanges prepare(Collection<String> ruleIds, boolean deleting) {
+    if (!properties.enabled() || ruleIds.isEmpty()) {
+      return PendingRuleChanges.NONE;
+    }
+    try {
+      RuleChangeReservation reservation = store.prepareRules(ruleIds, deleting);
+      return new PendingRuleChanges(changes -> store.completeRules(reservation, changes));
+    } catch (RuntimeException e) {
+      throw new StorageOperationException("prepareChanges", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Note a rule set about to be deleted, before deleting its rules.
+   *
+   * @throws StorageOperationException if MongoDB cannot be written; nothing was prepared
+   */
+  public PendingRuleChanges prepareRuleSetDeleted(String ruleSetId) {
+    if (!properties.enabled()) {
+      return PendingRuleChanges.NONE;
+    }
+    try {
+      RuleChangeReservation reservation = store.prepareRuleSetDeleted(ruleSetId);
+      return new PendingRuleChanges(
+          changes -> store.completeRuleSetDeleted(reservation, ruleSetId));
+    } catch (RuntimeException e) {
+      throw new StorageOperationException("prepareChanges", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Get the rule changes after a sequence number.
+   *
+   * @param since sequence number the caller is up to date with, {@code null} to start from a full
+   *     reload
+   * @param ruleSetId optional rule set filter, {@code null} for changes to all rules
+   * @param limit maximum number of log entries to read
+   * @return the changes in sequence order, or a resync marker
+   * @throws InvalidRequestException if the change log is disabled or an argument is out of range
+   * @throws StorageOperationException if MongoDB cannot be read
+   */
+  public RuleChangesResponse getChanges(Long since, String ruleSetId, int limit) {
+    checkRequest(since, limit);
+    try {
+      return readChanges(since, ruleSetId, limit, store.position());
+    } catch (RuntimeException e) {
+      throw new StorageOperationException("getChanges", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Get the current bounds of the log.
+   *
+   * @throws StorageOperationException if MongoDB cannot be read
+   */
+  public RuleChangeLogPosition position() {
+    try {
+      return store.position();
+    } catch (RuntimeException e) {
+      throw new StorageOperationException("position", e.getMessage(), e);
+    }
+  }
+
+  /** Validate the arguments of {@link #getChanges} without reading the log. */
+  void checkRequest(Long since, int limit) {
+    if (!properties.enabled()) {
+      throw new InvalidRequestException("The rule change log is disabled");
+    }
+    if (since != null && since < 0) {
+      throw new InvalidRequestException("since must not be negative");
+    }
+    if (limit < 1 || limit > properties.maxPageSize()) {
+      throw new InvalidRequestException(
+          "limit must be between 1 and " + properties.maxPageSize());
+    }
+  }
+
+  /**
+   * Purge expired deletions in the background every purge interval, and record abandoned writes
+   * every reservation timeout.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (properties.enabled()) {
+      long intervalMillis = properties.purgeInterval().toMillis();
+      executor.scheduleWithFixedDelay(
+          this::purge, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+      long timeoutMillis = Math.max(properties.reservationTimeout().toMillis(), 1);
+      executor.scheduleWithFixedDelay(
+          this::recordAbandonedWrites, timeoutMillis, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Stop purging and recording abandoned writes. */
+  @PreDestroy
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /** Remove deletions older than the retention. Runs on the executor only. */
+  void purge() {
+    try {
+      long purged = store.purgeTombstones(Instant.now().minus(properties.tombstoneRetention()));
+      if (purged > 0) {
+        log.info("Purged {} rule change tombstones", purged);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Could not purge rule change tombstones: {}", e.getMessage());
+    }
+  }
+
+  /** Record the writes whose writer stopped before completing them. Runs on the executor only. */
+  void recordAbandonedWrites() {
+    try {
+      int recorded = store.recordAbandonedWrites();
+      if (recorded > 0) {
+        log.warn("Recorded the changes of {} abandoned rule writes", recorded);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Could not record abandoned rule writes: {}", e.getMessage());
+    }
+  }
+
+  private RuleChangesResponse readChanges(
+      Long since, String ruleSetId, int limit, RuleChangeLogPosition position) {
+    // A position above the head comes from another deployment or a reset database
+    if (since == null || since < position.purgedThrough() || since > position.lastSeq()) {
+      return new RuleChangesResponse(since, position.visibleThrough(), true, false, List.of());
+    }
+    if (since >= position.visibleThrough()) {
+      return new RuleChangesResponse(since, since, false, false, List.of());
+    }
+    List<RuleChangeEntry> entries =
+        store.findSince(since, position.visibleThrough(), ruleSetId, limit + 1);
+    boolean more = entries.size() > limit;
+    if (more) {
+      entries = entries.subList(0, limit);
+    }
+
+    List<String> ruleIds = new ArrayList<>(entries.size());
+    for (RuleChangeEntry entry : entries) {
+      if (entry.kind() == RuleChangeEntry.Kind.RULE) {
+        ruleIds.add(entry.id());
+      }
+    }
+    Map<String, RateLimitRule> rules = new HashMap<>();
+    for (RateLimitRule rule : ruleStore.findByIds(ruleIds)) {
+      rules.put(rule.getId(), rule);
+    }
+
+    List<RuleChangeResponse> changes = new ArrayList<>(entries.size());
+    for (RuleChangeEntry entry : entries) {
+      switch (entry.kind()) {
+        case RULE -> changes.add(toChange(entry, rules.get(entry.id()), ruleSetId));
+        case RULE_SET -> {
+          changes.add(RuleChangeResponse.ruleSetDeleted(entry.seq(), entry.id()));
+          // A rule written to the set while it was being deleted can have a lower sequence number
+          ruleStore.forEach(
+              entry.id(),
+              rule ->
+                  changes.add(RuleChangeResponse.upsert(entry.seq(), RuleMapper.toResponse(rule))));
+        }
+      }
+    }
+    // Without more entries the caller has seen everything up to the visible end of the log
+    long nextSince = more ? entries.get(entries.size() - 1).seq() : position.visibleThrough();
+    return new RuleChangesResponse(since, nextSince, false, more, changes);
+  }
+
+  private static RuleChangeResponse toChange(
+      RuleChangeEntry entry, RateLimitRule rule, String ruleSetId) {
+    // A rule moved out of the requested rule set is gone from the caller's point of view
+    if (rule == null || (ruleSetId != null && !ruleSetId.equals(rule.getRuleSetIdOrNull()))) {
+      return RuleChangeResponse.delete(entry.seq(), entry.id(), ruleSetId);
+    }
+    return RuleChangeResponse.upsert(entry.seq(), RuleMapper.toResponse(rule));
+  }
+}
@@ -0,0 +1,45 @@
+package org.fluxgate.studio.admin.changelog;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the rule change log behind the delta sync API.
+ *
+ * @param enabled whether rule changes are recorded and served as deltas
+ * @param collection change log collection name
+ * @param reservationTimeout how long readers wait for a writer that reserved sequence numbers to
+ *     write its changes before treating the reservation as abandoned, and how long a prepared rule
+ *     write may run before its changes are recorded on its behalf
+ * @param tombstoneRetention how long deletions are kept; readers that fall further behind must
+ *     reload in full
+ * @param purgeInterval how often expired deletions are purged
+ * @param maxPageSize largest number of changes one request may ask for
+ */
+@ConfigurationProperties(prefix = "app.rules.changes")
+public record RuleChangeLogProperties(
+    boolean enabled,
+    String collection,
+    Duration reservationTimeout,
+    Duration tombstoneRetention,
+    Duration purgeInterval,
+    int maxPageSize) {
+
+  public RuleChangeLogProperties {
+    if (collection == null || collection.isBlank()) {
+      collection = "rule_changes";
+    }
+    if (reservationTimeout == null) {
+      reservationTimeout = Duration.ofSeconds(5);
+    }
+    if (tombstoneRetention == null) {
+      tombstoneRetention = Duration.ofDays(7);
+    }
+    if (purgeInterval == null) {
+      purgeInterval = Duration.ofHours(1);
+    }
+    if (maxPageSize <= 0) {
+      maxPageSize = 1000;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package org.fluxgate.studio.admin.changelog;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the rule watch endpoint.
+ *
+ * @param maxWatchers largest number of concurrently waiting watches
+ * @param defaultTimeout how long a watch waits for changes when the caller does not say
+ * @param maxTimeout longest wait a caller may ask for
+ * @param pollInterval how often the change log is checked for writes from other Admin API
+ *     instances; writes on this instance wake watches right away
+ */
+@ConfigurationProperties(prefix = "app.rules.watch")
+public record RuleWatchProperties(
+    int maxWatchers, Duration defaultTimeout, Duration maxTimeout, Duration pollInterval) {
+
+  public RuleWatchProperties {
+    if (maxWatchers <= 0) {
+      maxWatchers = 10_000;
+    }
+    if (defaultTimeout == null) {
+      defaultTimeout = Duration.ofSeconds(30);
+    }
+    if (maxTimeout == null) {
+      maxTimeout = Duration.ofMinutes(5);
+    }
+    if (pollInterval == null) {
+      pollInterval = Duration.ofSeconds(1);
+    }
+  }
+}
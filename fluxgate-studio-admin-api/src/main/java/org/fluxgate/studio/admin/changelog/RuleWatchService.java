@@ -0,0 +1,269 @@
+package org.fluxgate.studio.admin.changelog;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fluxgate.studio.admin.dto.response.RuleChangesResponse;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.exception.TooManyWatchersException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Holds rule watches until the {@link RuleChangeLog} moves past their position, then answers them
+ * with the changes.
+ *
+ * <p>A waiting watch holds no thread: the servlet request is asynchronous and is completed through
+ * its {@link DeferredResult}. One background task tracks the visible end of the change log. It
+ * checks MongoDB every {@link RuleWatchProperties#pollInterval()} while watches wait, for writes
+ * from other Admin API instances, and right away after a write on this instance. When the end
+ * moves, waiting watches are grouped by rule set, position and limit, and each group is answered
+ * from one read on its own virtual thread, so any number of gateways at the same position cost
+ * one query. A watch whose rule set has no new changes moves to the new position and keeps
+ * waiting; on timeout it is answered without changes at its latest position.
+ */
+@Component
+public class RuleWatchService {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleWatchService.class);
+
+  private final RuleChangeLog changeLog;
+  private final RuleWatchProperties properties;
+  private final Set<Watcher> watchers = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger slots = new AtomicInteger();
+  private final AtomicBoolean pollScheduled = new AtomicBoolean();
+  private final ScheduledThreadPoolExecutor poller;
+  private final ExecutorService readers;
+
+  /** Visible end of the change log as of the last poll, -1 before the first one. */
+  private volatile long visibleThrough = -1;
+
+  public RuleWatchService(
+      RuleChangeLog changeLog, RuleWatchProperties properties, MeterRegistry registry) {
+    this.changeLog = changeLog;
+    this.properties = properties;
+    this.poller =
+        new ScheduledThreadPoolExecutor(1, Thread.ofVirtual().name("rule-watch").factory());
+    this.readers =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rule-watch-read").factory());
+    Gauge.builder("studio.rule.watch.watchers", watchers, Set::size).register(registry);
+  }
+
+  /**
+   * Wait for rule changes after a position.
+   *
+   * @param ruleSetId optional rule set filter, {@code null} for changes to all rules
+   * @param resourceVersion sequence number the caller is up to date with, {@code null} to start
+   *     from a full reload
+   * @param limit maximum number of log entries to read
+   * @param timeoutSeconds how long to wait, {@code null} for the default
+   * @return completed with the changes once there are any, with a resync marker, or with no
+   *     changes when the timeout expires
+   * @throws InvalidRequestException if the change log is disabled or an argument is out of range
+   * @throws TooManyWatchersException if the watcher limit is reached
+   * @throws StorageOperationException if MongoDB cannot be read
+   */
+  public DeferredResult<RuleChangesResponse> watch(
+      String ruleSetId, Long resourceVersion, int limit, Integer timeoutSeconds) {
+    changeLog.checkRequest(resourceVersion, limit);
+    Duration timeout =
+        timeoutSeconds != null ? Duration.ofSeconds(timeoutSeconds) : properties.defaultTimeout();
+    if (timeout.compareTo(Duration.ofSeconds(1)) < 0
+        || timeout.compareTo(properties.maxTimeout()) > 0) {
+      throw new InvalidRequestException(
+          "timeoutSeconds must be between 1 and " + properties.maxTimeout().toSeconds());
+    }
+
+    DeferredResult<RuleChangesResponse> result = new DeferredResult<>(timeout.toMillis());
+    long position;
+    // A caller at the last polled end has nothing to read yet; everyone else is checked first
+    if (resourceVersion != null && resourceVersion == visibleThrough) {
+      position = resourceVersion;
+    } else {
+      RuleChangesResponse response = changeLog.getChanges(resourceVersion, ruleSetId, limit);
+      if (isAnswer(response)) {
+        result.setResult(response);
+        return result;
+      }
+      position = response.nextSince();
+    }
+
+    // Reserve the slot first, so concurrent watches cannot all pass the limit check
+    if (slots.incrementAndGet() > properties.maxWatchers()) {
+      slots.decrementAndGet();
+      throw new TooManyWatchersException(properties.maxWatchers());
+    }
+    Watcher watcher = new Watcher(ruleSetId, limit, resourceVersion, position, result);
+    result.onTimeout(() -> result.setResult(watcher.noChanges()));
+    result.onCompletion(() -> remove(watcher));
+    result.onError(error -> remove(watcher));
+    watchers.add(watcher);
+    // The end may have moved between the read above and the registration
+    if (visibleThrough > position) {
+      schedulePoll();
+    }
+    return result;
+  }
+
+  /** Wake watches right away after a stored rule change on this instance. */
+  @EventListener
+  public void onRuleChanged(RuleChangedEvent event) {
+    if (!watchers.isEmpty()) {
+      schedulePoll();
+    }
+  }
+
+  /** Poll the change log every poll interval. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    long intervalMillis = properties.pollInterval().toMillis();
+    poller.scheduleWithFixedDelay(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Stop polling and answer all watches, so gateways watch another instance. */
+  @PreDestroy
+  public void close() {
+    poller.shutdownNow();
+    readers.shutdownNow();
+    for (Watcher watcher : watchers) {
+      complete(watcher, watcher.noChanges());
+    }
+  }
+
+  int watcherCount() {
+    return watchers.size();
+  }
+
+  /** Read the visible end of the change log and answer the watches behind it. */
+  void poll() {
+    pollScheduled.set(false);
+    if (watchers.isEmpty()) {
+      return;
+    }
+    long visible;
+    try {
+      visible = changeLog.position().visibleThrough();
+    } catch (RuntimeException e) {
+      log.warn("Could not read the rule change log position: {}", e.getMessage());
+      return;
+    }
+    visibleThrough = visible;
+
+    Map<Group, List<Watcher>> groups = new HashMap<>();
+    for (Watcher watcher : watchers) {
+      if (watcher.position < visible && !watcher.result.isSetOrExpired()) {
+        groups
+            .computeIfAbsent(
+                new Group(watcher.ruleSetId, watcher.position, watcher.limit),
+                group -> new ArrayList<>())
+            .add(watcher);
+      }
+    }
+    if (groups.isEmpty()) {
+      return;
+    }
+    List<Callable<Void>> reads = new ArrayList<>(groups.size());
+    groups.forEach(
+        (group, members) ->
+            reads.add(
+                () -> {
+                  answer(group, members);
+                  return null;
+                }));
+    try {
+      readers.invokeAll(reads);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void answer(Group group, List<Watcher> members) {
+    RuleChangesResponse response;
+    try {
+      response = changeLog.getChanges(group.position(), group.ruleSetId(), group.limit());
+    } catch (RuntimeException e) {
+      // The watches keep waiting and are retried by the next poll
+      log.warn("Could not read rule changes for watches: {}", e.getMessage());
+      return;
+    }
+    for (Watcher watcher : members) {
+      if (isAnswer(response)) {
+        complete(watcher, response);
+      } else {
+        watcher.position = response.nextSince();
+      }
+    }
+  }
+
+  private void complete(Watcher watcher, RuleChangesResponse response) {
+    // Completion also removes the watcher, but only once the request is dispatched again
+    remove(watcher);
+    watcher.result.setResult(response);
+  }
+
+  private void remove(Watcher watcher) {
+    if (watchers.remove(watcher)) {
+      slots.decrementAndGet();
+    }
+  }
+
+  private void schedulePoll() {
+    if (pollScheduled.compareAndSet(false, true)) {
+      poller.execute(this::poll);
+    }
+  }
+
+  private static boolean isAnswer(RuleChangesResponse response) {
+    return response.resyncRequired() || !response.changes().isEmpty();
+  }
+
+  /** Watches that are answered by the same read. */
+  private record Group(String ruleSetId, long position, int limit) {}
+
+  /** One waiting watch. */
+  private static final class Watcher {
+
+    final String ruleSetId;
+    final int limit;
+    final Long since;
+    final DeferredResult<RuleChangesResponse> result;
+    volatile long position;
+
+    Watcher(
+        String ruleSetId,
+        int limit,
+        Long since,
+        long position,
+        DeferredResult<RuleChangesResponse> result) {
+      this.ruleSetId = ruleSetId;
+      this.limit = limit;
+      this.since = since;
+      this.position = position;
+      this.result = result;
+    }
+
+    RuleChangesResponse noChanges() {
+      return new RuleChangesResponse(since, position, false, false, List.of());
+    }
+  }
+}
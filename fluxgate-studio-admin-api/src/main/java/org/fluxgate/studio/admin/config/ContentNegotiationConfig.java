@@ -0,0 +1,57 @@
+package org.fluxgate.studio.admin.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Binary encodings of API responses and request bodies, negotiated through the {@code Accept} and
+ * {@code Content-Type} headers: {@code application/cbor} and {@code application/x-jackson-smile}.
+ *
+ * <p>Spring MVC registers CBOR and Smile converters on its own when the Jackson data formats are on
+ * the classpath, but with plain Jackson defaults. They are replaced by converters whose mappers
+ * come from the application's {@link Jackson2ObjectMapperBuilder}, so every encoding carries the
+ * same fields in the same form as JSON, dates included. The converters follow the JSON converter,
+ * so clients that accept anything keep getting JSON.
+ */
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+  private final ObjectMapper cborMapper;
+  private final ObjectMapper smileMapper;
+
+  public ContentNegotiationConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    this.cborMapper = build(objectMapperBuilder, new CBORFactory());
+    this.smileMapper = build(objectMapperBuilder, new SmileFactory());
+  }
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.removeIf(
+        converter ->
+            converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+    int json = 0;
+    while (json < converters.size()
+        && !(converters.get(json) instanceof MappingJackson2HttpMessageConverter)) {
+      json++;
+    }
+    int position = json < converters.size() ? json + 1 : converters.size();
+    converters.add(position, new MappingJackson2CborHttpMessageConverter(cborMapper));
+    converters.add(position + 1, new MappingJackson2SmileHttpMessageConverter(smileMapper));
+  }
+
+  private static ObjectMapper build(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+    // The builder is a prototype owned by this configuration; build() copies its settings
+    return builder.factory(factory).build();
+  }
+}
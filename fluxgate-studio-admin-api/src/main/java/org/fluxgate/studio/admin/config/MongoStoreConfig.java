@@ -0,0 +1,55 @@
+package org.fluxgate.studio.admin.config;
+
+import org.fluxgate.studio.admin.changelog.RuleChangeLogProperties;
+import org.fluxgate.studio.admin.notify.RuleOutboxProperties;
+import org.fluxgate.studio.admin.repository.MongoConnection;
+import org.fluxgate.studio.admin.repository.MongoConnectionProperties;
+import org.fluxgate.studio.admin.repository.MongoRuleChangeLogStore;
+import org.fluxgate.studio.admin.repository.MongoRuleOutboxStore;
+import org.fluxgate.studio.admin.repository.MongoRuleStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Wires the Studio MongoDB repositories against the FluxGate MongoDB settings. */
+@Configuration
+@ConditionalOnProperty(prefix = "fluxgate.mongo", name = "enabled", havingValue = "true")
+public class MongoStoreConfig {
+
+  @Bean(destroyMethod = "close")
+  public MongoConnection studioMongoConnection(
+      @Value("${fluxgate.mongo.uri}") String uri,
+      @Value("${fluxgate.mongo.database}") String database,
+      MongoConnectionProperties connectionProperties) {
+    return new MongoConnection(uri, database, connectionProperties);
+  }
+
+  @Bean
+  public MongoRuleStore ruleStore(
+      MongoConnection studioMongoConnection,
+      @Value("${fluxgate.mongo.rule-collection:rate_limit_rules}") String ruleCollection) {
+    MongoRuleStore store =
+        new MongoRuleStore(studioMongoConnection.getCollection(ruleCollection));
+    store.ensureIndexes();
+    return store;
+  }
+
+  @Bean
+  public MongoRuleChangeLogStore ruleChangeLogStore(
+      MongoConnection studioMongoConnection, RuleChangeLogProperties changeLogProperties) {
+    MongoRuleChangeLogStore store =
+        new MongoRuleChangeLogStore(
+            studioMongoConnection.getCollection(changeLogProperties.collection()),
+            changeLogProperties.reservationTimeout());
+    store.ensureIndexes();
+    return store;
+  }
+
+  @Bean
+  public MongoRuleOutboxStore ruleOutboxStore(
+      MongoConnection studioMongoConnection, RuleOutboxProperties outboxProperties) {
+    return new MongoRuleOutboxStore(
+        studioMongoConnection.getCollection(outboxProperties.collection()));
+  }
+}
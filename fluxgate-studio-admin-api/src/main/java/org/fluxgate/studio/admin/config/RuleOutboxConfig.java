@@ -0,0 +1,48 @@
+package org.fluxgate.studio.admin.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fluxgate.studio.admin.notify.OutboxRuleChangeNotifier;
+import org.fluxgate.studio.admin.notify.RuleChangePublisher;
+import org.fluxgate.studio.admin.notify.RuleNotifyProperties;
+import org.fluxgate.studio.admin.notify.RuleOutboxDispatcher;
+import org.fluxgate.studio.admin.notify.RuleOutboxProperties;
+import org.fluxgate.studio.admin.repository.RuleOutboxStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Routes rule change notifications through the MongoDB outbox. */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "app.rules.notify.outbox",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class RuleOutboxConfig {
+
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  public RuleOutboxDispatcher ruleOutboxDispatcher(
+      RuleOutboxStore ruleOutboxStore,
+      RuleChangePublisher ruleChangePublisher,
+      RuleNotifyProperties notifyProperties,
+      RuleOutboxProperties outboxProperties,
+      MeterRegistry meterRegistry) {
+    return new RuleOutboxDispatcher(
+        ruleOutboxStore, ruleChangePublisher, notifyProperties, outboxProperties, meterRegistry);
+  }
+
+  @Bean
+  public OutboxRuleChangeNotifier outboxRuleChangeNotifier(
+      RuleOutboxStore ruleOutboxStore,
+      RuleOutboxDispatcher ruleOutboxDispatcher,
+      RuleChangePublisher ruleChangePublisher,
+      RuleNotifyProperties notifyProperties,
+      MeterRegistry meterRegistry) {
+    return new OutboxRuleChangeNotifier(
+        ruleOutboxStore,
+        ruleOutboxDispatcher,
+        ruleChangePublisher,
+        notifyProperties,
+        meterRegistry);
+  }
+}
@@ -0,0 +1,94 @@
+package org.fluxgate.studio.admin.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
+import org.fluxgate.studio.admin.changelog.RuleWatchService;
+import org.fluxgate.studio.admin.dto.response.RuleChangesResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/** REST controller for incremental rule sync. */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Rules", description = "Rate limit rule management APIs")
+public class RuleChangeController {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleChangeController.class);
+
+  private final RuleChangeLog changeLog;
+  private final RuleWatchService watchService;
+
+  public RuleChangeController(RuleChangeLog changeLog, RuleWatchService watchService) {
+    this.changeLog = changeLog;
+    this.watchService = watchService;
+  }
+
+  @GetMapping("/rules/changes")
+  @Operation(
+      summary = "Get rule changes since a sequence number",
+      description =
+          "Return the rules created, updated or deleted after 'since', in sequence order, so a "
+              + "gateway applies only what changed. Without 'since', or when it is older than the "
+              + "retained history, 'resyncRequired' tells the caller to reload in full and "
+              + "continue from 'nextSince'")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+    @ApiResponse(responseCode = "400", description = "Invalid since or limit, or disabled")
+  })
+  public ResponseEntity<RuleChangesResponse> getRuleChanges(
+      @Parameter(description = "Sequence number the caller is up to date with")
+          @RequestParam(required = false)
+          Long since,
+      @Parameter(description = "Only changes to this rule set") @RequestParam(required = false)
+          String ruleSetId,
+      @Parameter(description = "Maximum number of log entries to read")
+          @RequestParam(defaultValue = "500")
+          int limit) {
+    log.debug("GET /api/rules/changes - since={}, ruleSetId={}, limit={}", since, ruleSetId, limit);
+    return ResponseEntity.ok(changeLog.getChanges(since, ruleSetId, limit));
+  }
+
+  @GetMapping("/rules/watch")
+  @Operation(
+      summary = "Wait for rule changes after a resource version",
+      description =
+          "Hold the request until rules change after 'resourceVersion', then return the changes "
+              + "like /api/rules/changes. When nothing changes before the timeout the response "
+              + "has no changes. Either way 'nextSince' is the resourceVersion of the next watch, "
+              + "so a gateway that keeps watching never misses a change")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Changes, or none on timeout"),
+    @ApiResponse(
+        responseCode = "400",
+        description = "Invalid resourceVersion, limit or timeout, or disabled"),
+    @ApiResponse(responseCode = "503", description = "Watch limit reached")
+  })
+  public DeferredResult<RuleChangesResponse> watchRuleChanges(
+      @Parameter(description = "Only changes to this rule set") @RequestParam(required = false)
+          String ruleSetId,
+      @Parameter(description = "Sequence number the caller is up to date with")
+          @RequestParam(required = false)
+          Long resourceVersion,
+      @Parameter(description = "Maximum number of log entries to read")
+          @RequestParam(defaultValue = "500")
+          int limit,
+      @Parameter(description = "Seconds to wait for changes") @RequestParam(required = false)
+          Integer timeoutSeconds) {
+    log.debug(
+        "GET /api/rules/watch - ruleSetId={}, resourceVersion={}, timeoutSeconds={}",
+        ruleSetId,
+        resourceVersion,
+        timeoutSeconds);
+    return watchService.watch(ruleSetId, resourceVersion, limit, timeoutSeconds);
+  }
+}
@@ -1,20 +1,35 @@
 package org.fluxgate.studio.admin.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import org.fluxgate.studio.admin.dto.request.BatchRuleRequest;
 import org.fluxgate.studio.admin.dto.request.CreateRuleRequest;
+import org.fluxgate.studio.admin.dto.request.RuleSearchRequest;
+import org.fluxgate.studio.admin.dto.request.SetEnabledRequest;
 import org.fluxgate.studio.admin.dto.request.UpdateRuleRequest;
+import org.fluxgate.studio.admin.dto.response.BatchRuleResponse;
+import org.fluxgate.studio.admin.dto.response.RulePageResponse;
 import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.fluxgate.studio.admin.dto.response.RuleSearchResponse;
+import org.fluxgate.studio.admin.dto.response.SetEnabledResponse;
+import org.fluxgate.studio.admin.service.RuleBatchService;
 import org.fluxgate.studio.admin.service.RuleService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -23,33 +38,54 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** REST controller for rate limit rule management. */
 @RestController
-@RequestMapping("/api/rules")
+@RequestMapping("/api")
 @Tag(name = "Rules", description = "Rate limit rule management APIs")
 public class RuleController {
 
   private static final Logger log = LoggerFactory.getLogger(RuleController.class);
 
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
   private final RuleService ruleService;
+  private final RuleBatchService ruleBatchService;
+  private final ObjectMapper objectMapper;
 
-  public RuleController(RuleService ruleService) {
+  public RuleController(
+      RuleService ruleService, RuleBatchService ruleBatchService, ObjectMapper objectMapper) {
     this.ruleService = ruleService;
+    this.ruleBatchService = ruleBatchService;
+    this.objectMapper = objectMapper;
   }
 
-  @GetMapping
+  @GetMapping("/rules")
   @Operation(summary = "List rules", description = "Get all rules or filter by ruleSetId")
-  @ApiResponses({@ApiResponse(responseCode = "200", description = "Rules retrieved successfully")})
-  public ResponseEntity<List<RuleResponse>> listRules(
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Rules retrieved successfully"),
+    @ApiResponse(responseCode = "400", description = "Unknown field")
+  })
+  public ResponseEntity<List<?>> listRules(
       @Parameter(description = "Filter by rule set ID") @RequestParam(required = false)
-          String ruleSetId) {
-    log.debug("GET /api/rules - ruleSetId={}", ruleSetId);
+          String ruleSetId,
+      @Parameter(description = "Comma-separated fields to return, e.g. id,name,enabled,ruleSetId")
+          @RequestParam(required = false)
+          String fields) {
+    log.debug("GET /api/rules - ruleSetId={}, fields={}", ruleSetId, fields);
+    boolean hasRuleSetId = ruleSetId != null && !ruleSetId.isEmpty();
+    if (isProjection(fields)) {
+      return ResponseEntity.ok(
+          ruleService.getPartialRules(hasRuleSetId ? ruleSetId : null, fields));
+    }
     List<RuleResponse> rules;
-    if (ruleSetId != null && !ruleSetId.isEmpty()) {
+    if (hasRuleSetId) {
       rules = ruleService.getRulesByRuleSetId(ruleSetId);
     } else {
       rules = ruleService.getAllRules();
@@ -57,19 +93,133 @@ public class RuleController {
     return ResponseEntity.ok(rules);
   }
 
-  @GetMapping("/{id}")
-  @Operation(summary = "Get rule by ID", description = "Get a specific rule by its ID")
+  @GetMapping(value = "/rules", params = "limit")
+  @Operation(
+      summary = "List rules page",
+      description = "Get a page of rules ordered by ID using an opaque keyset cursor")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Rules retrieved successfully"),
+    @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or field")
+  })
+  public ResponseEntity<RulePageResponse<?>> listRulesPage(
+      @Parameter(description = "Filter by rule set ID") @RequestParam(required = false)
+          String ruleSetId,
+      @Parameter(description = "Page size (1-1000)") @RequestParam int limit,
+      @Parameter(description = "Cursor returned by the previous page")
+          @RequestParam(required = false)
+          String cursor,
+      @Parameter(description = "Comma-separated fields to return, e.g. id,name,enabled,ruleSetId")
+          @RequestParam(required = false)
+          String fields) {
+    log.debug("GET /api/rules - ruleSetId={}, limit={}, cursor={}", ruleSetId, limit, cursor);
+    String filter = ruleSetId != null && !ruleSetId.isEmpty() ? ruleSetId : null;
+    if (isProjection(fields)) {
+      return ResponseEntity.ok(ruleService.getPartialRulePage(filter, cursor, limit, fields));
+    }
+    return ResponseEntity.ok(ruleService.getRulePage(filter, cursor, limit));
+  }
+
+  @GetMapping("/rules:stream")
+  @Operation(
+      summary = "Stream rules",
+      description =
+          "Stream all rules (or one rule set) as newline-delimited JSON, ordered by ID, "
+              + "while they are read from the database")
+  @ApiResponses({@ApiResponse(responseCode = "200", description = "Rules streamed successfully")})
+  public ResponseEntity<StreamingResponseBody> streamRules(
+      @Parameter(description = "Filter by rule set ID") @RequestParam(required = false)
+          String ruleSetId) {
+    log.debug("GET /api/rules:stream - ruleSetId={}", ruleSetId);
+    String filter = ruleSetId != null && !ruleSetId.isEmpty() ? ruleSetId : null;
+    StreamingResponseBody body =
+        out -> {
+          try (SequenceWriter writer =
+              objectMapper
+                  .writerFor(RuleResponse.class)
+                  .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                  .withRootValueSeparator("\n")
+                  .writeValues(out)) {
+            ruleService.forEachRule(
+                filter,
+                rule -> {
+                  try {
+                    writer.write(rule);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          }
+        };
+    return ResponseEntity.ok().contentType(NDJSON).body(body);
+  }
+
+  @GetMapping("/rules:search")
+  @Operation(
+      summary = "Search rules",
+      description =
+          "Get a page of rules matching all given filters, ordered by ID, with optional counts "
+              + "of all matching rules per scope, policy, key strategy and tag")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Rules retrieved successfully"),
+    @ApiResponse(responseCode = "400", description = "Invalid filter, cursor, limit or field")
+  })
+  public ResponseEntity<RuleSearchResponse<?>> searchRules(
+      @Parameter(description = "Filter by rule set ID") @RequestParam(required = false)
+          String ruleSetId,
+      @Parameter(description = "Filter by scope, e.g. PER_API_KEY") @RequestParam(required = false)
+          String scope,
+      @Parameter(description = "Filter by enabled flag") @RequestParam(required = false)
+          Boolean enabled,
+      @Parameter(description = "Filter by limit-exceeded policy") @RequestParam(required = false)
+          String onLimitExceedPolicy,
+      @Parameter(description = "Filter by key strategy ID") @RequestParam(required = false)
+          String keyStrategyId,
+      @Parameter(description = "Tags the rule must all have; repeat for several")
+          @RequestParam(name = "tag", required = false)
+          List<String> tags,
+      @Parameter(description = "Filter by case-sensitive name prefix")
+          @RequestParam(required = false)
+          String namePrefix,
+      @Parameter(description = "Page size (1-1000)") @RequestParam(defaultValue = "100")
+          int limit,
+      @Parameter(description = "Cursor returned by the previous page")
+          @RequestParam(required = false)
+          String cursor,
+      @Parameter(description = "Whether to count all matching rules per field value")
+          @RequestParam(defaultValue = "true")
+          boolean facets,
+      @Parameter(description = "Comma-separated fields to return, e.g. id,name,enabled,ruleSetId")
+          @RequestParam(required = false)
+          String fields) {
+    RuleSearchRequest request =
+        new RuleSearchRequest(
+            ruleSetId, scope, enabled, onLimitExceedPolicy, keyStrategyId, tags, namePrefix);
+    log.debug("GET /api/rules:search - {}, limit={}, cursor={}", request, limit, cursor);
+    if (isProjection(fields)) {
+      return ResponseEntity.ok(
+          ruleService.searchPartialRules(request, cursor, limit, facets, fields));
+    }
+    return ResponseEntity.ok(ruleService.searchRules(request, cursor, limit, facets));
+  }
+
+  @GetMapping("/rules/{id}")
+  @Operation(
+      summary = "Get rule by ID",
+      description =
+          "Get a specific rule by its ID. The ETag holds the rule version; send it as If-Match "
+              + "to update only that version")
   @ApiResponses({
     @ApiResponse(responseCode = "200", description = "Rule retrieved successfully"),
+    @ApiResponse(responseCode = "304", description = "Rule unchanged since the given ETag"),
     @ApiResponse(responseCode = "404", description = "Rule not found")
   })
   public ResponseEntity<RuleResponse> getRule(
       @Parameter(description = "Rule ID", required = true) @PathVariable String id) {
     log.debug("GET /api/rules/{}", id);
-    return ResponseEntity.ok(ruleService.getRuleById(id));
+    return withETag(ruleService.getRuleById(id));
   }
 
-  @PostMapping
+  @PostMapping("/rules")
   @Operation(summary = "Create rule", description = "Create a new rate limit rule")
   @ApiResponses({
     @ApiResponse(responseCode = "201", description = "Rule created successfully"),
@@ -79,24 +229,95 @@ public class RuleController {
   public ResponseEntity<RuleResponse> createRule(@Valid @RequestBody CreateRuleRequest request) {
     log.debug("POST /api/rules - id={}", request.id());
     RuleResponse created = ruleService.createRule(request);
-    return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .eTag(RuleETags.of(created.version()))
+        .body(created);
   }
 
-  @PutMapping("/{id}")
-  @Operation(summary = "Update rule", description = "Update an existing rate limit rule")
+  @PostMapping("/rules:batch")
+  @Operation(
+      summary = "Import rules",
+      description =
+          "Create and update many rules in one request. Each item is validated and applied "
+              + "independently; gateways are notified once per affected rule set")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+    @ApiResponse(responseCode = "400", description = "Invalid request")
+  })
+  public ResponseEntity<BatchRuleResponse> batchRules(
+      @Valid @RequestBody BatchRuleRequest request) {
+    log.debug("POST /api/rules:batch - items={}", request.items().size());
+    return ResponseEntity.ok(ruleBatchService.applyBatch(request));
+  }
+
+  @PostMapping("/rules:setEnabled")
+  @Operation(
+      summary = "Enable or disable rules",
+      description =
+          "Enable or disable every rule that matches the filter (ruleSetId, tags, scope, ids) with "
+              + "one update. At least one filter is required; gateways are notified once per "
+              + "affected rule set")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Rules updated, see matched and modified"),
+    @ApiResponse(responseCode = "400", description = "Invalid request")
+  })
+  public ResponseEntity<SetEnabledResponse> setEnabled(
+      @Valid @RequestBody SetEnabledRequest request) {
+    log.debug("POST /api/rules:setEnabled - enabled={}", request.enabled());
+    return ResponseEntity.ok(ruleBatchService.setEnabled(request));
+  }
+
+  @PutMapping("/rules/{id}")
+  @Operation(
+      summary = "Update rule",
+      description =
+          "Update an existing rate limit rule. With If-Match the update only applies to the "
+              + "rule version in the entity tag")
   @ApiResponses({
     @ApiResponse(responseCode = "200", description = "Rule updated successfully"),
     @ApiResponse(responseCode = "400", description = "Invalid request"),
-    @ApiResponse(responseCode = "404", description = "Rule not found")
+    @ApiResponse(responseCode = "404", description = "Rule not found"),
+    @ApiResponse(responseCode = "412", description = "Rule is at another version")
   })
   public ResponseEntity<RuleResponse> updateRule(
       @Parameter(description = "Rule ID", required = true) @PathVariable String id,
+      @Parameter(description = "ETag of the rule version to update")
+          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch,
       @Valid @RequestBody UpdateRuleRequest request) {
-    log.debug("PUT /api/rules/{}", id);
-    return ResponseEntity.ok(ruleService.updateRule(id, request));
+    log.debug("PUT /api/rules/{} - If-Match={}", id, ifMatch);
+    return withETag(ruleService.updateRule(id, request, RuleETags.expectedVersion(ifMatch)));
   }
 
-  @DeleteMapping("/{id}")
+  @PatchMapping(
+      value = "/rules/{id}",
+      consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+  @Operation(
+      summary = "Patch rule",
+      description =
+          "Change only the given fields of a rule with a JSON Merge Patch. null removes ruleSetId, "
+              + "tags or an attribute; bands replaces all bands, while bandOperations adds, "
+              + "removes or updates single bands by label, e.g. "
+              + "[{\"op\":\"update\",\"label\":\"per-second\",\"capacity\":200}]. "
+              + "A patch that changes nothing returns the rule without a new version. With "
+              + "If-Match the patch only applies to the rule version in the entity tag")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Rule patched successfully"),
+    @ApiResponse(responseCode = "400", description = "Invalid patch"),
+    @ApiResponse(responseCode = "404", description = "Rule not found"),
+    @ApiResponse(responseCode = "412", description = "Rule is at another version")
+  })
+  public ResponseEntity<RuleResponse> patchRule(
+      @Parameter(description = "Rule ID", required = true) @PathVariable String id,
+      @Parameter(description = "ETag of the rule version to patch")
+          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch,
+      @RequestBody Map<String, Object> patch) {
+    log.debug("PATCH /api/rules/{} - fields={}, If-Match={}", id, patch.keySet(), ifMatch);
+    return withETag(ruleService.patchRule(id, patch, RuleETags.expectedVersion(ifMatch)));
+  }
+
+  @DeleteMapping("/rules/{id}")
   @Operation(summary = "Delete rule", description = "Delete a rate limit rule by ID")
   @ApiResponses({
     @ApiResponse(responseCode = "204", description = "Rule deleted successfully"),
@@ -109,19 +330,27 @@ public class RuleController {
     return ResponseEntity.noContent().build();
   }
 
-  @PatchMapping("/{id}/toggle")
-  @Operation(summary = "Toggle rule", description = "Toggle rule enabled/disabled status")
+  @PatchMapping("/rules/{id}/toggle")
+  @Operation(
+      summary = "Toggle rule",
+      description =
+          "Toggle rule enabled/disabled status. With If-Match the toggle only applies to the "
+              + "rule version in the entity tag")
   @ApiResponses({
     @ApiResponse(responseCode = "200", description = "Rule toggled successfully"),
-    @ApiResponse(responseCode = "404", description = "Rule not found")
+    @ApiResponse(responseCode = "404", description = "Rule not found"),
+    @ApiResponse(responseCode = "412", description = "Rule is at another version")
   })
   public ResponseEntity<RuleResponse> toggleRule(
-      @Parameter(description = "Rule ID", required = true) @PathVariable String id) {
-    log.debug("PATCH /api/rules/{}/toggle", id);
-    return ResponseEntity.ok(ruleService.toggleRule(id));
+      @Parameter(description = "Rule ID", required = true) @PathVariable String id,
+      @Parameter(description = "ETag of the rule version to toggle")
+          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
+    log.debug("PATCH /api/rules/{}/toggle - If-Match={}", id, ifMatch);
+    return withETag(ruleService.toggleRule(id, RuleETags.expectedVersion(ifMatch)));
   }
 
-  @DeleteMapping
+  @DeleteMapping("/rules")
   @Operation(summary = "Delete rules by ruleSetId", description = "Delete all rules in a rule set")
   @ApiResponses({@ApiResponse(responseCode = "200", description = "Rules deleted successfully")})
   public ResponseEntity<Map<String, Object>> deleteByRuleSetId(
@@ -134,4 +363,13 @@ public class RuleController {
             "ruleSetId", ruleSetId,
             "deletedCount", count));
   }
+
+  private static ResponseEntity<RuleResponse> withETag(RuleResponse rule) {
+    return ResponseEntity.ok().eTag(RuleETags.of(rule.version())).body(rule);
+  }
+
+  /** Whether a {@code fields} parameter selects fields, so partial rules are returned. */
+  private static boolean isProjection(String fields) {
+    return fields != null && !fields.isBlank();
+  }
 }
@@ -0,0 +1,52 @@
+package org.fluxgate.studio.admin.controller;
+
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+
+/** Entity tags of single-rule responses, which carry the version of the stored rule. */
+public final class RuleETags {
+
+  private RuleETags() {}
+
+  /**
+   * Format a rule version as a strong entity tag.
+   *
+   * @param version the rule version
+   * @return the quoted entity tag
+   */
+  public static String of(long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * Read the rule version an {@code If-Match} header requires.
+   *
+   * @param ifMatch the header value, may be {@code null}
+   * @return the version, or {@code null} without a header or for {@code *}
+   * @throws InvalidRequestException if the header is not a single rule version entity tag
+   */
+  public static Long expectedVersion(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank()) {
+      return null;
+    }
+    String tag = ifMatch.strip();
+    if (tag.equals("*")) {
+      return null;
+    }
+    // Response compression may weaken the tag; the version still identifies the content
+    if (tag.startsWith("W/")) {
+      tag = tag.substring(2);
+    }
+    if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      try {
+        long version = Long.parseLong(tag.substring(1, tag.length() - 1));
+        if (version >= 0) {
+          return version;
+        }
+      } catch (NumberFormatException e) {
+        // Reported below
+      }
+    }
+    throw new InvalidRequestException(
+        "If-Match must be a single rule version entity tag, e.g. \"3\"");
+  }
+}
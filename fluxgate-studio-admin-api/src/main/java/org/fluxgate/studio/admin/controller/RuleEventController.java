@@ -0,0 +1,44 @@
+package org.fluxgate.studio.admin.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.fluxgate.studio.admin.event.RuleEventBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/** REST controller streaming rule changes to the Studio UI. */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Rules", description = "Rate limit rule management APIs")
+public class RuleEventController {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleEventController.class);
+
+  private final RuleEventBroadcaster broadcaster;
+
+  public RuleEventController(RuleEventBroadcaster broadcaster) {
+    this.broadcaster = broadcaster;
+  }
+
+  @GetMapping(value = "/rules/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Stream rule changes",
+      description =
+          "Server-Sent Events stream of rule changes ('rule' events) and refreshed dashboard "
+              + "statistics ('stats' events)")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Event stream opened"),
+    @ApiResponse(responseCode = "503", description = "Connection limit reached")
+  })
+  public SseEmitter streamRuleEvents() {
+    log.debug("GET /api/rules/events");
+    return broadcaster.subscribe();
+  }
+}
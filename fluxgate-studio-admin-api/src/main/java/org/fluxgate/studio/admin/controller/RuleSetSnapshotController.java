@@ -0,0 +1,61 @@
+package org.fluxgate.studio.admin.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.fluxgate.studio.admin.service.RuleSetSnapshotService;
+import org.fluxgate.studio.admin.snapshot.RuleSetSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller serving compiled rule set snapshots to gateways. */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Rule Sets", description = "Rule set distribution APIs for gateways")
+public class RuleSetSnapshotController {
+
+  /** Media type of {@link org.fluxgate.studio.admin.snapshot.RuleSetSnapshotCodec} output. */
+  public static final String SNAPSHOT_MEDIA_TYPE = "application/vnd.fluxgate.rule-set-snapshot";
+
+  private static final Logger log = LoggerFactory.getLogger(RuleSetSnapshotController.class);
+
+  private final RuleSetSnapshotService snapshotService;
+
+  public RuleSetSnapshotController(RuleSetSnapshotService snapshotService) {
+    this.snapshotService = snapshotService;
+  }
+
+  @GetMapping("/rulesets/{id}/snapshot")
+  @Operation(
+      summary = "Get rule set snapshot",
+      description =
+          "Get all rules of a rule set as a compact binary snapshot. The ETag is the SHA-256 of "
+              + "the snapshot; send it as If-None-Match to get 304 Not Modified while the rule "
+              + "set is unchanged")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Snapshot compiled"),
+    @ApiResponse(responseCode = "304", description = "Snapshot unchanged since the given ETag")
+  })
+  public ResponseEntity<byte[]> getSnapshot(
+      @Parameter(description = "Rule set ID", required = true) @PathVariable String id) {
+    log.debug("GET /api/rulesets/{}/snapshot", id);
+    RuleSetSnapshot snapshot = snapshotService.getSnapshot(id);
+    // Served from the compiled snapshot while the rule set is unchanged; a matching
+    // If-None-Match turns this into 304 without a body
+    return ResponseEntity.ok()
+        .eTag(snapshot.etag())
+        .cacheControl(CacheControl.noCache())
+        .contentType(MediaType.parseMediaType(SNAPSHOT_MEDIA_TYPE))
+        .header("X-Rule-Count", Integer.toString(snapshot.ruleCount()))
+        .body(snapshot.data());
+  }
+}
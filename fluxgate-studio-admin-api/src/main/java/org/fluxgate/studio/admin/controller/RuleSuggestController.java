@@ -0,0 +1,50 @@
+package org.fluxgate.studio.admin.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestResponse;
+import org.fluxgate.studio.admin.search.RuleSuggestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller for rule type-ahead suggestions. */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Rules", description = "Rate limit rule management APIs")
+public class RuleSuggestController {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleSuggestController.class);
+
+  private final RuleSuggestService suggestService;
+
+  public RuleSuggestController(RuleSuggestService suggestService) {
+    this.suggestService = suggestService;
+  }
+
+  @GetMapping("/rules:suggest")
+  @Operation(
+      summary = "Suggest rules",
+      description =
+          "Find rules whose ID, name or tags start with the typed words, tolerating typos, best "
+              + "matches first. Served from memory; 'ready' is false until the index is built")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+    @ApiResponse(responseCode = "400", description = "Blank query, invalid limit or disabled")
+  })
+  public ResponseEntity<RuleSuggestResponse> suggestRules(
+      @Parameter(description = "Text typed so far") @RequestParam(required = false) String q,
+      @Parameter(description = "Maximum number of suggestions")
+          @RequestParam(defaultValue = "10")
+          int limit) {
+    log.debug("GET /api/rules:suggest - q={}, limit={}", q, limit);
+    return ResponseEntity.ok(suggestService.suggest(q, limit));
+  }
+}
@@ -0,0 +1,107 @@
+package org.fluxgate.studio.admin.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.fluxgate.studio.admin.dto.request.InlineSimulationRequest;
+import org.fluxgate.studio.admin.dto.request.LoadModelRequest;
+import org.fluxgate.studio.admin.dto.request.ReplayRequest;
+import org.fluxgate.studio.admin.dto.request.SimulationRequest;
+import org.fluxgate.studio.admin.dto.response.LoadModelResponse;
+import org.fluxgate.studio.admin.dto.response.ReplayResponse;
+import org.fluxgate.studio.admin.dto.response.SimulationResponse;
+import org.fluxgate.studio.admin.service.ReplayService;
+import org.fluxgate.studio.admin.service.SimulationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller for simulating rate limit rules against synthetic or recorded traffic. */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Simulation", description = "Rate limit rule simulation APIs")
+public class SimulationController {
+
+  private static final Logger log = LoggerFactory.getLogger(SimulationController.class);
+
+  private final SimulationService simulationService;
+  private final ReplayService replayService;
+
+  public SimulationController(SimulationService simulationService, ReplayService replayService) {
+    this.simulationService = simulationService;
+    this.replayService = replayService;
+  }
+
+  @PostMapping("/rules/{id}/simulate")
+  @Operation(
+      summary = "Simulate rule",
+      description = "Evaluate every band of a stored rule against a request timeline")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Simulation completed"),
+    @ApiResponse(responseCode = "400", description = "Invalid request"),
+    @ApiResponse(responseCode = "404", description = "Rule not found")
+  })
+  public ResponseEntity<SimulationResponse> simulateRule(
+      @Parameter(description = "Rule ID", required = true) @PathVariable String id,
+      @Valid @RequestBody SimulationRequest request) {
+    log.debug("POST /api/rules/{}/simulate", id);
+    return ResponseEntity.ok(simulationService.simulate(id, request));
+  }
+
+  @PostMapping("/rules:simulate")
+  @Operation(
+      summary = "Simulate unsaved rule",
+      description = "Evaluate a rule that has not been stored yet against a request timeline")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Simulation completed"),
+    @ApiResponse(responseCode = "400", description = "Invalid request")
+  })
+  public ResponseEntity<SimulationResponse> simulateInlineRule(
+      @Valid @RequestBody InlineSimulationRequest request) {
+    log.debug("POST /api/rules:simulate - id={}", request.rule().id());
+    return ResponseEntity.ok(simulationService.simulate(request));
+  }
+
+  @PostMapping("/rules/{id}/load-model")
+  @Operation(
+      summary = "Run load model",
+      description =
+          "Run a stored rule against many trials of random Poisson or bursty traffic and report"
+              + " rejection rates and wait times with confidence intervals")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Load model completed"),
+    @ApiResponse(responseCode = "400", description = "Invalid request"),
+    @ApiResponse(responseCode = "404", description = "Rule not found")
+  })
+  public ResponseEntity<LoadModelResponse> analyzeLoad(
+      @Parameter(description = "Rule ID", required = true) @PathVariable String id,
+      @Valid @RequestBody LoadModelRequest request) {
+    log.debug("POST /api/rules/{}/load-model", id);
+    return ResponseEntity.ok(simulationService.analyzeLoad(id, request));
+  }
+
+  @PostMapping("/rules:replay")
+  @Operation(
+      summary = "Replay access log",
+      description =
+          "Replay a recorded access log against a rule set and report rejections per rule, band"
+              + " and key")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Replay completed"),
+    @ApiResponse(responseCode = "400", description = "Invalid request or unknown log file"),
+    @ApiResponse(responseCode = "500", description = "Log file could not be read")
+  })
+  public ResponseEntity<ReplayResponse> replay(@Valid @RequestBody ReplayRequest request) {
+    log.debug(
+        "POST /api/rules:replay - ruleSetId={}, file={}", request.ruleSetId(), request.file());
+    return ResponseEntity.ok(replayService.replay(request));
+  }
+}
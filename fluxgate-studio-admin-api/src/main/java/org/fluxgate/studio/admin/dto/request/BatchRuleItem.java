@@ -0,0 +1,7 @@
+package org.fluxgate.studio.admin.dto.request;
+
+/**
+ * Request DTO for one entry of a bulk rule import. Exactly one of {@code create} or {@code update}
+ * must be set; {@code id} identifies the rule to update.
+ */
+public record BatchRuleItem(CreateRuleRequest create, String id, UpdateRuleRequest update) {}
@@ -0,0 +1,14 @@
+package org.fluxgate.studio.admin.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request DTO for a bulk rule import. Items are validated individually so that one invalid item
+ * does not reject the whole batch.
+ */
+public record BatchRuleRequest(
+    @NotEmpty(message = "items must not be empty")
+        @Size(max = 10000, message = "items must not contain more than 10000 entries")
+        List<BatchRuleItem> items) {}
@@ -0,0 +1,9 @@
+package org.fluxgate.studio.admin.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/** Request DTO for simulating a rule that has not been stored yet. */
+public record InlineSimulationRequest(
+    @NotNull(message = "rule is required") @Valid CreateRuleRequest rule,
+    @NotNull(message = "traffic is required") @Valid SimulationRequest traffic) {}
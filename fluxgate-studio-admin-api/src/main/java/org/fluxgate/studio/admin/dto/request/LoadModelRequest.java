@@ -0,0 +1,40 @@
+package org.fluxgate.studio.admin.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Request DTO for a Monte Carlo load model: {@code keys} clients each send {@code ratePerKey}
+ * requests per second on average, following {@code distribution}, for {@code durationMillis}. The
+ * model is run {@code trials} times with independent random arrivals.
+ */
+public record LoadModelRequest(
+    @Pattern(
+            regexp = "^(POISSON|BURSTY)$",
+            message = "distribution must be one of: POISSON, BURSTY")
+        String distribution,
+    @NotNull(message = "keys is required")
+        @Min(value = 1, message = "keys must be at least 1")
+        @Max(value = 1_000_000, message = "keys must be at most 1000000")
+        Integer keys,
+    @NotNull(message = "ratePerKey is required")
+        @DecimalMin(value = "0.0", inclusive = false, message = "ratePerKey must be positive")
+        Double ratePerKey,
+    @DecimalMin(value = "1.0", message = "meanBurstSize must be at least 1")
+        @DecimalMax(value = "1000000.0", message = "meanBurstSize must be at most 1000000")
+        Double meanBurstSize,
+    @NotNull(message = "durationMillis is required")
+        @Min(value = 1, message = "durationMillis must be at least 1")
+        @Max(value = 604_800_000, message = "durationMillis must be at most 7 days")
+        Long durationMillis,
+    @Min(value = 2, message = "trials must be at least 2")
+        @Max(value = 10_000, message = "trials must be at most 10000")
+        Integer trials,
+    @Min(value = 0, message = "maxWaitMillis must not be negative")
+        @Max(value = 3_600_000, message = "maxWaitMillis must be at most 1 hour")
+        Long maxWaitMillis,
+    Long seed) {}
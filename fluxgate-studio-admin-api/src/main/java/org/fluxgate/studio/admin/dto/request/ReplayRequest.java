@@ -0,0 +1,22 @@
+package org.fluxgate.studio.admin.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Request DTO for replaying an access log against a rule set. {@code file} is resolved against
+ * the configured replay directory; the format is derived from its extension unless given.
+ */
+public record ReplayRequest(
+    @NotBlank(message = "ruleSetId is required") String ruleSetId,
+    @NotBlank(message = "file is required") String file,
+    @Pattern(regexp = "^(NDJSON|CSV)$", message = "format must be one of: NDJSON, CSV")
+        String format,
+    @Min(value = 0, message = "maxWaitMillis must not be negative")
+        @Max(value = 3_600_000, message = "maxWaitMillis must be at most 1 hour")
+        Long maxWaitMillis,
+    @Min(value = 1, message = "topKeys must be at least 1")
+        @Max(value = 100, message = "topKeys must be at most 100")
+        Integer topKeys) {}
@@ -0,0 +1,16 @@
+package org.fluxgate.studio.admin.dto.request;
+
+import java.util.List;
+
+/**
+ * Request DTO for searching rules. Every given filter must match; {@code tags} must all be
+ * present.
+ */
+public record RuleSearchRequest(
+    String ruleSetId,
+    String scope,
+    Boolean enabled,
+    String onLimitExceedPolicy,
+    String keyStrategyId,
+    List<String> tags,
+    String namePrefix) {}
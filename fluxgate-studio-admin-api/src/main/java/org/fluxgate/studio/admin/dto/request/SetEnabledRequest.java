@@ -0,0 +1,21 @@
+package org.fluxgate.studio.admin.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request DTO for enabling or disabling every rule that matches a filter. Every given filter must
+ * match, {@code tags} must all be present, and at least one filter is required.
+ */
+public record SetEnabledRequest(
+    @NotNull(message = "enabled is required") Boolean enabled,
+    String ruleSetId,
+    List<String> tags,
+    @Pattern(
+            regexp = "^(GLOBAL|PER_API_KEY|PER_USER|PER_IP|CUSTOM)$",
+            message = "scope must be one of: GLOBAL, PER_API_KEY, PER_USER, PER_IP, CUSTOM")
+        String scope,
+    @Size(max = 10000, message = "ids must not contain more than 10000 entries")
+        List<String> ids) {}
@@ -0,0 +1,29 @@
+package org.fluxgate.studio.admin.dto.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request DTO describing the traffic of one key in a rule simulation: {@code burstSize} requests
+ * arrive together every {@code intervalMillis} for {@code durationMillis}.
+ */
+public record SimulationRequest(
+    @NotNull(message = "burstSize is required")
+        @Min(value = 1, message = "burstSize must be at least 1")
+        @Max(value = 1_000_000, message = "burstSize must be at most 1000000")
+        Integer burstSize,
+    @NotNull(message = "intervalMillis is required")
+        @DecimalMin(value = "0.0", message = "intervalMillis must not be negative")
+        Double intervalMillis,
+    @NotNull(message = "durationMillis is required")
+        @Min(value = 1, message = "durationMillis must be at least 1")
+        @Max(value = 604_800_000, message = "durationMillis must be at most 7 days")
+        Long durationMillis,
+    @Min(value = 0, message = "maxWaitMillis must not be negative")
+        @Max(value = 3_600_000, message = "maxWaitMillis must be at most 1 hour")
+        Long maxWaitMillis,
+    @Min(value = 1, message = "buckets must be at least 1")
+        @Max(value = 1000, message = "buckets must be at most 1000")
+        Integer buckets) {}
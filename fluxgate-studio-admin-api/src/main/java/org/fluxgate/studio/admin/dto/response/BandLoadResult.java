@@ -0,0 +1,5 @@
+package org.fluxgate.studio.admin.dto.response;
+
+/** Response DTO for the share of requests one band of a rule rejected in a load model. */
+public record BandLoadResult(
+    String label, long windowSeconds, long capacity, MetricSummary rejectionRate) {}
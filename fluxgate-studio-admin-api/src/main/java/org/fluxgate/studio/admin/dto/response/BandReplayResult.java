@@ -0,0 +1,4 @@
+package org.fluxgate.studio.admin.dto.response;
+
+/** Response DTO for the requests one band of a replayed rule would have rejected. */
+public record BandReplayResult(String label, long windowSeconds, long capacity, long rejected) {}
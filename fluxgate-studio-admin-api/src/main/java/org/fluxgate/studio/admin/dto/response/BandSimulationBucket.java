@@ -0,0 +1,8 @@
+package org.fluxgate.studio.admin.dto.response;
+
+/**
+ * Response DTO for one band within one time bucket. {@code remainingTokens} is sampled at the end
+ * of the bucket and is negative while waiting requests have reserved tokens ahead.
+ */
+public record BandSimulationBucket(
+    long startMillis, long allowed, long rejected, double remainingTokens) {}
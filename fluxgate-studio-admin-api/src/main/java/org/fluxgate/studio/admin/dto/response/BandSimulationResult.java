@@ -0,0 +1,15 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for one band of a simulated rule. A request counts as rejected by every band that
+ * could not admit it, and as allowed by the others.
+ */
+public record BandSimulationResult(
+    String label,
+    long windowSeconds,
+    long capacity,
+    long allowed,
+    long rejected,
+    List<BandSimulationBucket> timeline) {}
@@ -0,0 +1,11 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/** Response DTO for a bulk rule import. */
+public record BatchRuleResponse(
+    int total,
+    int succeeded,
+    int failed,
+    List<String> affectedRuleSets,
+    List<BatchRuleResult> results) {}
@@ -0,0 +1,7 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/** Response DTO for the outcome of one bulk import item. */
+public record BatchRuleResult(
+    int index, String id, String operation, String status, List<String> errors) {}
@@ -0,0 +1,4 @@
+package org.fluxgate.studio.admin.dto.response;
+
+/** Response DTO for a rate limit key and the number of its requests a rule would reject. */
+public record KeyRejections(String key, long rejected) {}
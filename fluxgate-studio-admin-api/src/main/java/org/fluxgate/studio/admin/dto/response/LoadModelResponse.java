@@ -0,0 +1,23 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for a Monte Carlo load model. Rates are fractions of all requests of a trial and are
+ * summarized over the trials; {@code waitTime} pools the waits of the admitted requests of all
+ * trials. {@code seed} reproduces the run.
+ */
+public record LoadModelResponse(
+    String ruleId,
+    String onLimitExceedPolicy,
+    String scope,
+    String distribution,
+    int trials,
+    long seed,
+    double confidenceLevel,
+    double meanRequestsPerTrial,
+    MetricSummary rejectionRate,
+    MetricSummary delayedRate,
+    MetricSummary p99WaitMillis,
+    WaitDistribution waitTime,
+    List<BandLoadResult> bands) {}
@@ -0,0 +1,8 @@
+package org.fluxgate.studio.admin.dto.response;
+
+/**
+ * Distribution of a metric over Monte Carlo trials: mean and standard deviation, the confidence
+ * interval of the mean ({@code lower}, {@code upper}) and percentiles of the per-trial values.
+ */
+public record MetricSummary(
+    double mean, double stdDev, double lower, double upper, double p5, double p50, double p95) {}
@@ -0,0 +1,24 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response DTO for the fields of a rate limit rule selected with a {@code fields} projection.
+ *
+ * <p>The ID is always selected. Unselected fields are {@code null} and omitted from the JSON, and
+ * so are selected fields without a value, such as the rule set of a rule that has none.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PartialRuleResponse(
+    String id,
+    String name,
+    Boolean enabled,
+    String scope,
+    String keyStrategyId,
+    String onLimitExceedPolicy,
+    List<RateBandResponse> bands,
+    String ruleSetId,
+    List<String> tags,
+    Map<String, Object> attributes) {}
@@ -0,0 +1,19 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for an access log replay. {@code from} and {@code to} are the earliest and latest
+ * request timestamps found in the log, or null if it contained no requests.
+ */
+public record ReplayResponse(
+    String file,
+    String ruleSetId,
+    String format,
+    long lines,
+    long requests,
+    long malformedLines,
+    String from,
+    String to,
+    long elapsedMillis,
+    List<RuleReplayResult> rules) {}
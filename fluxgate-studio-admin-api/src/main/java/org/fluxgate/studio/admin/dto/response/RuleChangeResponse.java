@@ -0,0 +1,24 @@
+package org.fluxgate.studio.admin.dto.response;
+
+/**
+ * One delta of the rule change log.
+ *
+ * <p>{@code UPSERT} carries the current state of a rule, {@code DELETE} removes a rule and {@code
+ * RULE_SET_DELETED} removes every rule of a rule set that is not upserted again later in the same
+ * or a following response.
+ */
+public record RuleChangeResponse(
+    long seq, String type, String ruleId, String ruleSetId, RuleResponse rule) {
+
+  public static RuleChangeResponse upsert(long seq, RuleResponse rule) {
+    return new RuleChangeResponse(seq, "UPSERT", rule.id(), rule.ruleSetId(), rule);
+  }
+
+  public static RuleChangeResponse delete(long seq, String ruleId, String ruleSetId) {
+    return new RuleChangeResponse(seq, "DELETE", ruleId, ruleSetId, null);
+  }
+
+  public static RuleChangeResponse ruleSetDeleted(long seq, String ruleSetId) {
+    return new RuleChangeResponse(seq, "RULE_SET_DELETED", null, ruleSetId, null);
+  }
+}
@@ -0,0 +1,18 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for the rule changes after a sequence number.
+ *
+ * <p>Clients apply {@code changes} in order and pass {@code nextSince} as {@code since} of their
+ * next request, right away while {@code hasMore} is true. When {@code resyncRequired} is true the
+ * requested position is no longer covered by the log: the client reloads its rules in full and
+ * continues from {@code nextSince}.
+ */
+public record RuleChangesResponse(
+    Long since,
+    long nextSince,
+    boolean resyncRequired,
+    boolean hasMore,
+    List<RuleChangeResponse> changes) {}
@@ -0,0 +1,13 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.Map;
+
+/** Response DTO for the counts of the rules matching a search, per field value. */
+public record RuleFacetsResponse(
+    long total,
+    long enabled,
+    long disabled,
+    Map<String, Long> scopes,
+    Map<String, Long> onLimitExceedPolicies,
+    Map<String, Long> keyStrategies,
+    Map<String, Long> tags) {}
@@ -0,0 +1,9 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for a cursor-paginated page of rules, either {@link RuleResponse full rules} or
+ * {@link PartialRuleResponse the selected fields} of each rule.
+ */
+public record RulePageResponse<T>(List<T> items, String nextCursor, boolean hasMore) {}
@@ -0,0 +1,23 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for one rule of a replayed rule set. Rules that cannot be evaluated against an
+ * access log have status {@code SKIPPED} and a {@code message}. {@code unkeyed} counts requests
+ * that lack the field the rule's scope is keyed on.
+ */
+public record RuleReplayResult(
+    String ruleId,
+    String name,
+    String scope,
+    String status,
+    String message,
+    long evaluated,
+    long allowed,
+    long rejected,
+    long delayed,
+    long unkeyed,
+    long distinctKeys,
+    List<BandReplayResult> bands,
+    List<KeyRejections> topRejectedKeys) {}
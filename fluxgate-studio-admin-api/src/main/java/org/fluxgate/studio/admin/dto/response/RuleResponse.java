@@ -3,7 +3,12 @@ package org.fluxgate.studio.admin.dto.response;
 import java.util.List;
 import java.util.Map;
 
-/** Response DTO for rate limit rule. */
+/**
+ * Response DTO for rate limit rule.
+ *
+ * <p>{@code version} is the version of the stored rule, also sent as the ETag of single-rule
+ * responses; it is {@code null} in lists, which may be served from the cache.
+ */
 public record RuleResponse(
     String id,
     String name,
@@ -14,4 +19,5 @@ public record RuleResponse(
     List<RateBandResponse> bands,
     String ruleSetId,
     List<String> tags,
-    Map<String, Object> attributes) {}
+    Map<String, Object> attributes,
+    Long version) {}
@@ -0,0 +1,10 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for a page of rule search results, either {@link RuleResponse full rules} or {@link
+ * PartialRuleResponse the selected fields} of each rule. {@code facets} is only set when requested.
+ */
+public record RuleSearchResponse<T>(
+    List<T> items, String nextCursor, boolean hasMore, RuleFacetsResponse facets) {}
@@ -0,0 +1,9 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for type-ahead rule suggestions. {@code ready} is false while the index is still
+ * being built after startup, in which case there are no suggestions yet.
+ */
+public record RuleSuggestResponse(String query, boolean ready, List<RuleSuggestion> suggestions) {}
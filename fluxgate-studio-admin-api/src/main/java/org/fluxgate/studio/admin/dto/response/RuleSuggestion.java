@@ -0,0 +1,7 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/** Response DTO for one type-ahead match; a higher score is a better match. */
+public record RuleSuggestion(
+    String id, String name, String ruleSetId, List<String> tags, double score) {}
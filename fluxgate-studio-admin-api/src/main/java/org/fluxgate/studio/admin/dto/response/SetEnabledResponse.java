@@ -0,0 +1,7 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/** Response DTO for enabling or disabling rules by filter. */
+public record SetEnabledResponse(
+    boolean enabled, long matched, long modified, List<String> affectedRuleSets) {}
@@ -0,0 +1,4 @@
+package org.fluxgate.studio.admin.dto.response;
+
+/** Response DTO for the requests of a simulation that arrived within one time bucket. */
+public record SimulationBucket(long startMillis, long allowed, long rejected, long delayed) {}
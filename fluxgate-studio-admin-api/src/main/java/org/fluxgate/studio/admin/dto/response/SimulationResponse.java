@@ -0,0 +1,16 @@
+package org.fluxgate.studio.admin.dto.response;
+
+import java.util.List;
+
+/** Response DTO for a rule simulation. Wait times only apply to {@code WAIT_FOR_REFILL} rules. */
+public record SimulationResponse(
+    String ruleId,
+    String onLimitExceedPolicy,
+    long totalRequests,
+    long allowed,
+    long rejected,
+    long delayed,
+    double averageWaitMillis,
+    double maxWaitMillis,
+    List<SimulationBucket> timeline,
+    List<BandSimulationResult> bands) {}
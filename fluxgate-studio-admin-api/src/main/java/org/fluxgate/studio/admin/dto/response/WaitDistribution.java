@@ -0,0 +1,5 @@
+package org.fluxgate.studio.admin.dto.response;
+
+/** Response DTO for the wait times of admitted requests, in milliseconds. */
+public record WaitDistribution(
+    double meanMillis, double p50Millis, double p90Millis, double p99Millis, double maxMillis) {}
@@ -0,0 +1,49 @@
+package org.fluxgate.studio.admin.event;
+
+import org.fluxgate.studio.admin.dto.response.RuleResponse;
+
+/**
+ * Application event published after a rule write has been stored.
+ *
+ * @param type what changed
+ * @param ruleId the changed rule, or null for rule set and bulk changes
+ * @param ruleSetId the affected rule set, if known
+ * @param rule the rule after the change, or null if it was deleted or the change spans many rules
+ */
+public record RuleChangedEvent(Type type, String ruleId, String ruleSetId, RuleResponse rule) {
+
+  /** Kind of rule change. */
+  public enum Type {
+    CREATED,
+    UPDATED,
+    TOGGLED,
+    DELETED,
+    RULE_SET_DELETED,
+    /** Many rules changed at once; clients should reload the rule list. */
+    BULK_CHANGED
+  }
+
+  public static RuleChangedEvent created(RuleResponse rule) {
+    return new RuleChangedEvent(Type.CREATED, rule.id(), rule.ruleSetId(), rule);
+  }
+
+  public static RuleChangedEvent updated(RuleResponse rule) {
+    return new RuleChangedEvent(Type.UPDATED, rule.id(), rule.ruleSetId(), rule);
+  }
+
+  public static RuleChangedEvent toggled(RuleResponse rule) {
+    return new RuleChangedEvent(Type.TOGGLED, rule.id(), rule.ruleSetId(), rule);
+  }
+
+  public static RuleChangedEvent deleted(String ruleId, String ruleSetId) {
+    return new RuleChangedEvent(Type.DELETED, ruleId, ruleSetId, null);
+  }
+
+  public static RuleChangedEvent ruleSetDeleted(String ruleSetId) {
+    return new RuleChangedEvent(Type.RULE_SET_DELETED, null, ruleSetId, null);
+  }
+
+  public static RuleChangedEvent bulkChanged() {
+    return new RuleChangedEvent(Type.BULK_CHANGED, null, null, null);
+  }
+}
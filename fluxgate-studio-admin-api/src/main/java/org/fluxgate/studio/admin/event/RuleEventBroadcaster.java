@@ -0,0 +1,239 @@
+package org.fluxgate.studio.admin.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fluxgate.studio.admin.exception.TooManySubscribersException;
+import org.fluxgate.studio.admin.service.DashboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes {@link RuleChangedEvent}s and refreshed dashboard stats to connected Server-Sent Events
+ * clients.
+ *
+ * <p>Idle connections hold no request thread: the servlet request is asynchronous, and each
+ * client gets a virtual thread that sleeps on its own bounded queue until there is something to
+ * send. Payloads are serialized once per event and shared by all clients. A client that falls
+ * behind by more than {@link RuleEventProperties#queueCapacity()} events is disconnected and
+ * reloads on reconnect, so one slow client never delays the others or the rule writes. A burst of
+ * changes produces one stats event.
+ */
+@Component
+public class RuleEventBroadcaster {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleEventBroadcaster.class);
+
+  static final String RULE_EVENT = "rule";
+  static final String STATS_EVENT = "stats";
+
+  private final DashboardService dashboardService;
+  private final ObjectMapper objectMapper;
+  private final RuleEventProperties properties;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger slots = new AtomicInteger();
+  private final ScheduledExecutorService scheduler;
+  private final AtomicBoolean statsScheduled = new AtomicBoolean();
+  private final AtomicLong sequence = new AtomicLong();
+
+  public RuleEventBroadcaster(
+      DashboardService dashboardService,
+      ObjectMapper objectMapper,
+      RuleEventProperties properties,
+      MeterRegistry registry) {
+    this.dashboardService = dashboardService;
+    this.objectMapper = objectMapper;
+    this.properties = properties;
+    this.scheduler =
+        new ScheduledThreadPoolExecutor(
+            1, Thread.ofPlatform().name("rule-events").daemon(true).factory());
+    long heartbeatMillis = properties.heartbeatInterval().toMillis();
+    scheduler.scheduleAtFixedRate(
+        this::sendHeartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    Gauge.builder("studio.rule.events.subscribers", subscribers, Set::size).register(registry);
+  }
+
+  /**
+   * Open a new event stream. The current dashboard stats are sent first.
+   *
+   * @return the emitter bound to the client connection
+   * @throws TooManySubscribersException if the connection limit is reached
+   */
+  public SseEmitter subscribe() {
+    // Reserve the slot first, so concurrent connects cannot all pass the limit check
+    if (slots.incrementAndGet() > properties.maxSubscribers()) {
+      slots.decrementAndGet();
+      throw new TooManySubscribersException(properties.maxSubscribers());
+    }
+    SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+    Subscriber subscriber = new Subscriber(emitter, properties.queueCapacity());
+    emitter.onCompletion(() -> remove(subscriber));
+    emitter.onTimeout(() -> remove(subscriber));
+    emitter.onError(error -> remove(subscriber));
+    subscribers.add(subscriber);
+    subscriber.start();
+    try {
+      subscriber.offer(message(STATS_EVENT, dashboardService.getStats()));
+    } catch (RuntimeException e) {
+      log.warn("Could not send initial stats to event stream: {}", e.getMessage());
+    }
+    log.debug("Event stream opened, {} subscribers", subscribers.size());
+    return emitter;
+  }
+
+  /**
+   * Forward a stored rule change to all clients and schedule a stats refresh. Failures are logged
+   * and not thrown to the writer, whose rule is already stored.
+   */
+  @EventListener
+  public void onRuleChanged(RuleChangedEvent event) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    try {
+      broadcast(message(RULE_EVENT, event));
+      if (statsScheduled.compareAndSet(false, true)) {
+        scheduler.schedule(
+            this::broadcastStats, properties.statsDelay().toMillis(), TimeUnit.MILLISECONDS);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Could not send {} rule change to event streams: {}", event.type(), e.getMessage());
+    }
+  }
+
+  /** Close all connections; clients reconnect to another instance. */
+  @PreDestroy
+  public void close() {
+    scheduler.shutdownNow();
+    for (Subscriber subscriber : subscribers) {
+      subscriber.disconnect();
+    }
+  }
+
+  int subscriberCount() {
+    return subscribers.size();
+  }
+
+  private void broadcastStats() {
+    statsScheduled.set(false);
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    try {
+      broadcast(message(STATS_EVENT, dashboardService.getStats()));
+    } catch (RuntimeException e) {
+      log.warn("Could not compute stats for event stream: {}", e.getMessage());
+    }
+  }
+
+  private void sendHeartbeat() {
+    broadcast(Message.HEARTBEAT);
+  }
+
+  private void broadcast(Message message) {
+    for (Subscriber subscriber : subscribers) {
+      subscriber.offer(message);
+    }
+  }
+
+  private Message message(String name, Object payload) {
+    try {
+      String data = objectMapper.writeValueAsString(payload);
+      return new Message(Long.toString(sequence.incrementAndGet()), name, data);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize " + name + " event", e);
+    }
+  }
+
+  private void remove(Subscriber subscriber) {
+    if (subscribers.remove(subscriber)) {
+      slots.decrementAndGet();
+      subscriber.close();
+      log.debug("Event stream closed, {} subscribers", subscribers.size());
+    }
+  }
+
+  /** A serialized event, shared by all clients. A null name marks a keep-alive comment. */
+  private record Message(String id, String name, String data) {
+
+    static final Message HEARTBEAT = new Message(null, null, null);
+
+    SseEmitter.SseEventBuilder toEvent() {
+      if (name == null) {
+        return SseEmitter.event().comment("keep-alive");
+      }
+      return SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+  }
+
+  /** One client connection with its own send queue and sender thread. */
+  private final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<Message> queue;
+    private volatile boolean closed;
+    private Thread sender;
+
+    Subscriber(SseEmitter emitter, int capacity) {
+      this.emitter = emitter;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    void start() {
+      sender = Thread.ofVirtual().name("rule-events-subscriber").start(this::run);
+    }
+
+    void offer(Message message) {
+      if (!closed && !queue.offer(message)) {
+        log.debug("Event stream client is too slow, disconnecting");
+        disconnect();
+      }
+    }
+
+    void disconnect() {
+      remove(this);
+      try {
+        emitter.complete();
+      } catch (IllegalStateException e) {
+        log.debug("Event stream already completed: {}", e.getMessage());
+      }
+    }
+
+    void close() {
+      closed = true;
+      if (sender != null) {
+        sender.interrupt();
+      }
+    }
+
+    private void run() {
+      try {
+        while (!closed) {
+          emitter.send(queue.take().toEvent());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Event stream client disconnected: {}", e.getMessage());
+        remove(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package org.fluxgate.studio.admin.event;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the rule change event stream.
+ *
+ * @param maxSubscribers largest number of concurrently connected clients
+ * @param queueCapacity events buffered per client before a slow client is disconnected
+ * @param timeout how long a connection stays open before the client has to reconnect
+ * @param heartbeatInterval interval of keep-alive comments sent to idle connections
+ * @param statsDelay delay used to compute dashboard stats once for a burst of changes
+ */
+@ConfigurationProperties(prefix = "app.rules.events")
+public record RuleEventProperties(
+    int maxSubscribers,
+    int queueCapacity,
+    Duration timeout,
+    Duration heartbeatInterval,
+    Duration statsDelay) {
+
+  public RuleEventProperties {
+    if (maxSubscribers <= 0) {
+      maxSubscribers = 10_000;
+    }
+    if (queueCapacity <= 0) {
+      queueCapacity = 256;
+    }
+    if (timeout == null) {
+      timeout = Duration.ofMinutes(30);
+    }
+    if (heartbeatInterval == null) {
+      heartbeatInterval = Duration.ofSeconds(25);
+    }
+    if (statsDelay == null) {
+      statsDelay = Duration.ofMillis(250);
+    }
+  }
+}
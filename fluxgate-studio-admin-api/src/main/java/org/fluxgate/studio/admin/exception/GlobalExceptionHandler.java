@@ -2,15 +2,19 @@ package org.fluxgate.studio.admin.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
+import org.fluxgate.studio.admin.controller.RuleETags;
 import org.fluxgate.studio.admin.dto.response.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 /** Global exception handler for the Admin API. */
 @RestControllerAdvice
@@ -41,6 +45,20 @@ public class GlobalExceptionHandler {
                 HttpStatus.CONFLICT.value(), "Conflict", ex.getMessage(), request.getRequestURI()));
   }
 
+  @ExceptionHandler(RuleVersionConflictException.class)
+  public ResponseEntity<ErrorResponse> handleVersionConflict(
+      RuleVersionConflictException ex, HttpServletRequest request) {
+    log.warn("Rule version conflict: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+        .eTag(RuleETags.of(ex.getCurrentVersion()))
+        .body(
+            new ErrorResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                "Precondition Failed",
+                ex.getMessage(),
+                request.getRequestURI()));
+  }
+
   @ExceptionHandler(InvalidRuleException.class)
   public ResponseEntity<ErrorResponse> handleInvalidRule(
       InvalidRuleException ex, HttpServletRequest request) {
@@ -54,6 +72,19 @@ public class GlobalExceptionHandler {
                 request.getRequestURI()));
   }
 
+  @ExceptionHandler(InvalidRequestException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidRequest(
+      InvalidRequestException ex, HttpServletRequest request) {
+    log.warn("Invalid request: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        .body(
+            new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                request.getRequestURI()));
+  }
+
   @ExceptionHandler(StorageConnectionException.class)
   public ResponseEntity<ErrorResponse> handleStorageConnection(
       StorageConnectionException ex, HttpServletRequest request) {
@@ -80,6 +111,32 @@ public class GlobalExceptionHandler {
                 request.getRequestURI()));
   }
 
+  @ExceptionHandler(TooManySubscribersException.class)
+  public ResponseEntity<ErrorResponse> handleTooManySubscribers(
+      TooManySubscribersException ex, HttpServletRequest request) {
+    log.warn("Event stream rejected: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body(
+            new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI()));
+  }
+
+  @ExceptionHandler(TooManyWatchersException.class)
+  public ResponseEntity<ErrorResponse> handleTooManyWatchers(
+      TooManyWatchersException ex, HttpServletRequest request) {
+    log.warn("Rule watch rejected: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body(
+            new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI()));
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ErrorResponse> handleValidation(
       MethodArgumentNotValidException ex, HttpServletRequest request) {
@@ -96,6 +153,39 @@ public class GlobalExceptionHandler {
                 details));
   }
 
+  @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+  public ResponseEntity<ErrorResponse> handleTypeMismatch(
+      MethodArgumentTypeMismatchException ex, HttpServletRequest request) {
+    String message = String.format("Invalid value for parameter '%s'", ex.getName());
+    log.warn("{}: {}", message, ex.getValue());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        .body(
+            new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(), "Bad Request", message, request.getRequestURI()));
+  }
+
+  @ExceptionHandler(MissingServletRequestParameterException.class)
+  public ResponseEntity<ErrorResponse> handleMissingParameter(
+      MissingServletRequestParameterException ex, HttpServletRequest request) {
+    String message = String.format("Missing required parameter '%s'", ex.getParameterName());
+    log.warn(message);
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        .body(
+            new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(), "Bad Request", message, request.getRequestURI()));
+  }
+
+  @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+  public ResponseEntity<Void> handleNotAcceptable(
+      HttpMediaTypeNotAcceptableException ex, HttpServletRequest request) {
+    log.warn(
+        "Not acceptable: {} can only be written as {}",
+        request.getRequestURI(),
+        ex.getSupportedMediaTypes());
+    // No error body: the client accepts none of the types it could be written in
+    return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGeneral(Exception ex, HttpServletRequest request) {
     log.error("Unexpected error occurred", ex);
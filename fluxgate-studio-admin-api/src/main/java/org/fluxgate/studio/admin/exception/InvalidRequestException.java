@@ -0,0 +1,9 @@
+package org.fluxgate.studio.admin.exception;
+
+/** Exception thrown when request parameters such as paging cursors are malformed. */
+public class InvalidRequestException extends StudioException {
+
+  public InvalidRequestException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,24 @@
+package org.fluxgate.studio.admin.exception;
+
+/** Exception thrown when a conditional write finds a rule at another version than expected. */
+public class RuleVersionConflictException extends StudioException {
+
+  private final String ruleId;
+  private final long currentVersion;
+
+  public RuleVersionConflictException(String ruleId, long expectedVersion, long currentVersion) {
+    super(
+        String.format(
+            "Rule %s is at version %d, not %d", ruleId, currentVersion, expectedVersion));
+    this.ruleId = ruleId;
+    this.currentVersion = currentVersion;
+  }
+
+  public String getRuleId() {
+    return ruleId;
+  }
+
+  public long getCurrentVersion() {
+    return currentVersion;
+  }
+}
@@ -0,0 +1,9 @@
+package org.fluxgate.studio.admin.exception;
+
+/** Exception thrown when the event stream has reached its connection limit. */
+public class TooManySubscribersException extends StudioException {
+
+  public TooManySubscribersException(int limit) {
+    super(String.format("Event stream connection limit of %d reached", limit), true);
+  }
+}
@@ -0,0 +1,9 @@
+package org.fluxgate.studio.admin.exception;
+
+/** Exception thrown when the rule watch endpoint has reached its watcher limit. */
+public class TooManyWatchersException extends StudioException {
+
+  public TooManyWatchersException(int limit) {
+    super(String.format("Rule watch limit of %d reached", limit), true);
+  }
+}
@@ -0,0 +1,131 @@
+package org.fluxgate.studio.admin.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.InvalidRuleException;
+import org.fluxgate.studio.admin.exception.RuleAlreadyExistsException;
+import org.fluxgate.studio.admin.exception.RuleNotFoundException;
+import org.fluxgate.studio.admin.exception.RuleVersionConflictException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times service, repository and notification calls.
+ *
+ * <p>Every call records a timer with a percentile histogram, tagged with the component, the method
+ * as {@code operation}, an {@code outcome} and the simple name of the thrown {@code exception}:
+ *
+ * <ul>
+ *   <li>{@value #SERVICE_TIMER}: public methods of {@code RuleService} and {@code
+ *       DashboardService}
+ *   <li>{@value #REPOSITORY_TIMER}: methods of {@code RateLimitRuleRepository}, {@code RuleStore},
+ *       {@code RuleOutboxStore} and {@code RuleChangeLogStore}
+ *   <li>{@value #PUBLISH_TIMER}: reload notifications sent through {@code RuleChangePublisher}
+ * </ul>
+ *
+ * <p>Only calls through the Spring proxy are timed, so a service method calling another method of
+ * the same service is recorded once. The aspect runs before all other advice, so the notification
+ * timer includes the Redis publish done by the FluxGate control-support advice.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OperationMetricsAspect {
+
+  static final String SERVICE_TIMER = "studio.service.operations";
+  static final String REPOSITORY_TIMER = "studio.repository.operations";
+  static final String PUBLISH_TIMER = "studio.rule.notify.publish";
+
+  static final String SUCCESS = "success";
+  static final String NOT_FOUND = "not_found";
+  static final String CONFLICT = "conflict";
+  static final String INVALID = "invalid";
+  static final String ERROR = "error";
+
+  private static final String NO_EXCEPTION = "none";
+
+  private final MeterRegistry registry;
+
+  public OperationMetricsAspect(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Around(
+      "execution(public * org.fluxgate.studio.admin.service.RuleService.*(..))"
+          + " || execution(public * org.fluxgate.studio.admin.service.DashboardService.*(..))")
+  public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, SERVICE_TIMER, "service", serviceName(joinPoint));
+  }
+
+  @Around("execution(* org.fluxgate.core.spi.RateLimitRuleRepository.*(..))")
+  public Object timeRuleRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, REPOSITORY_TIMER, "repository", "RateLimitRuleRepository");
+  }
+
+  @Around("execution(* org.fluxgate.studio.admin.repository.RuleStore.*(..))")
+  public Object timeRuleStore(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, REPOSITORY_TIMER, "repository", "RuleStore");
+  }
+
+  @Around("execution(* org.fluxgate.studio.admin.repository.RuleOutboxStore.*(..))")
+  public Object timeOutboxStore(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, REPOSITORY_TIMER, "repository", "RuleOutboxStore");
+  }
+
+  @Around("execution(* org.fluxgate.studio.admin.repository.RuleChangeLogStore.*(..))")
+  public Object timeChangeLogStore(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, REPOSITORY_TIMER, "repository", "RuleChangeLogStore");
+  }
+
+  @Around("execution(public * org.fluxgate.studio.admin.notify.RuleChangePublisher.publish*(..))")
+  public Object timePublish(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, PUBLISH_TIMER, "publisher", "RuleChangePublisher");
+  }
+
+  private Object time(
+      ProceedingJoinPoint joinPoint, String timerName, String componentTag, String component)
+      throws Throwable {
+    Timer.Sample sample = Timer.start(registry);
+    String outcome = SUCCESS;
+    String exception = NO_EXCEPTION;
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      outcome = outcome(e);
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      sample.stop(
+          Timer.builder(timerName)
+              .tag(componentTag, component)
+              .tag("operation", joinPoint.getSignature().getName())
+              .tag("outcome", outcome)
+              .tag("exception", exception)
+              .publishPercentileHistogram()
+              .register(registry));
+    }
+  }
+
+  /** Client errors are told apart from failures, so that error rates only count failures. */
+  static String outcome(Throwable e) {
+    if (e instanceof RuleNotFoundException) {
+      return NOT_FOUND;
+    }
+    if (e instanceof RuleAlreadyExistsException || e instanceof RuleVersionConflictException) {
+      return CONFLICT;
+    }
+    if (e instanceof InvalidRequestException || e instanceof InvalidRuleException) {
+      return INVALID;
+    }
+    return ERROR;
+  }
+
+  private static String serviceName(ProceedingJoinPoint joinPoint) {
+    return joinPoint.getSignature().getDeclaringType().getSimpleName();
+  }
+}
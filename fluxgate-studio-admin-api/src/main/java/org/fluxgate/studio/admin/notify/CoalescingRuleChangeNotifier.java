@@ -0,0 +1,108 @@
+package org.fluxgate.studio.admin.notify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link RuleChangeNotifier} that collects changes over a short window and publishes them as few
+ * messages as possible.
+ *
+ * <p>The first change after a flush opens a window of {@link RuleNotifyProperties#window()}. All
+ * changes reported until it closes are merged per rule set, and a single background thread then
+ * publishes one message per rule set, or one full reload when a full reload was requested or more
+ * than {@link RuleNotifyProperties#fullReloadThreshold()} rule sets changed. Request threads never
+ * wait for the publish.
+ *
+ * <p>The publish blocks on Redis, so it runs on a virtual thread. Request threads only hold the
+ * lock to add to the pending batch; it is a {@link ReentrantLock} so that contended virtual request
+ * threads unmount instead of pinning their carrier.
+ *
+ * <p>Pending changes live in memory only. It is used when the outbox is disabled; see {@link
+ * OutboxRuleChangeNotifier}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rules.notify.outbox", name = "enabled", havingValue = "false")
+public class CoalescingRuleChangeNotifier implements RuleChangeNotifier {
+
+  private static final Logger log = LoggerFactory.getLogger(CoalescingRuleChangeNotifier.class);
+
+  private final RuleChangePublisher publisher;
+  private final RuleNotifyProperties properties;
+  private final ScheduledThreadPoolExecutor executor;
+  private final NotifyMetrics metrics;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private RuleChangeBatch pending = new RuleChangeBatch();
+  private boolean flushScheduled;
+
+  public CoalescingRuleChangeNotifier(
+      RuleChangePublisher publisher, RuleNotifyProperties properties, MeterRegistry registry) {
+    this.publisher = publisher;
+    this.properties = properties;
+    this.executor =
+        new ScheduledThreadPoolExecutor(
+            1, Thread.ofVirtual().name("rule-change-notifier").factory());
+    this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    this.metrics = new NotifyMetrics(registry);
+  }
+
+  @Override
+  public void ruleSetChanged(String ruleSetId) {
+    record(ruleSetId);
+  }
+
+  @Override
+  public void fullReload() {
+    record(null);
+  }
+
+  /** Publish everything collected so far. Runs on the notifier thread once a window closes. */
+  void flush() {
+    RuleChangeBatch batch;
+    lock.lock();
+    try {
+      batch = pending;
+      pending = new RuleChangeBatch();
+      flushScheduled = false;
+    } finally {
+      lock.unlock();
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      batch.publish(publisher, properties.fullReloadThreshold(), metrics);
+    } catch (RuntimeException e) {
+      // Keep the notifier thread alive; the next change publishes its rule set again
+      log.error("Failed to publish rule change notification: {}", e.getMessage(), e);
+    }
+  }
+
+  /** Stop the window timer and publish pending changes before the application exits. */
+  @PreDestroy
+  public void close() {
+    executor.shutdown();
+    flush();
+  }
+
+  private void record(String ruleSetId) {
+    metrics.eventReceived();
+    lock.lock();
+    try {
+      pending.add(ruleSetId);
+      if (!flushScheduled && !executor.isShutdown()) {
+        flushScheduled = true;
+        executor.schedule(this::flush, properties.window().toMillis(), TimeUnit.MILLISECONDS);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package org.fluxgate.studio.admin.notify;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Counters comparing reported rule changes with the notification messages actually published. */
+final class NotifyMetrics {
+
+  private final Counter eventsIn;
+  private final Counter ruleSetMessages;
+  private final Counter fullReloadMessages;
+
+  NotifyMetrics(MeterRegistry registry) {
+    this.eventsIn = registry.counter("studio.rule.notify.events");
+    this.ruleSetMessages = registry.counter("studio.rule.notify.messages", "type", "rule_set");
+    this.fullReloadMessages =
+        registry.counter("studio.rule.notify.messages", "type", "full_reload");
+  }
+
+  void eventReceived() {
+    eventsIn.increment();
+  }
+
+  void ruleSetPublished() {
+    ruleSetMessages.increment();
+  }
+
+  void fullReloadPublished() {
+    fullReloadMessages.increment();
+  }
+}
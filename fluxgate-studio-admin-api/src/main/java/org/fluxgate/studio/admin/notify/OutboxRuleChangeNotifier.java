@@ -0,0 +1,69 @@
+package org.fluxgate.studio.admin.notify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fluxgate.studio.admin.repository.RuleOutboxStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link RuleChangeNotifier} that records each change in the MongoDB outbox right after the rule
+ * write and leaves publishing to the {@link RuleOutboxDispatcher}.
+ *
+ * <p>Request threads only pay for one outbox insert, and changes survive a Redis outage or a
+ * restart. If the outbox itself cannot be written, the change is published directly so it is not
+ * lost.
+ */
+public class OutboxRuleChangeNotifier implements RuleChangeNotifier {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxRuleChangeNotifier.class);
+
+  private final RuleOutboxStore outboxStore;
+  private final RuleOutboxDispatcher dispatcher;
+  private final RuleChangePublisher publisher;
+  private final RuleNotifyProperties notifyProperties;
+  private final NotifyMetrics metrics;
+
+  public OutboxRuleChangeNotifier(
+      RuleOutboxStore outboxStore,
+      RuleOutboxDispatcher dispatcher,
+      RuleChangePublisher publisher,
+      RuleNotifyProperties notifyProperties,
+      MeterRegistry registry) {
+    this.outboxStore = outboxStore;
+    this.dispatcher = dispatcher;
+    this.publisher = publisher;
+    this.notifyProperties = notifyProperties;
+    this.metrics = new NotifyMetrics(registry);
+  }
+
+  @Override
+  public void ruleSetChanged(String ruleSetId) {
+    record(ruleSetId == null || ruleSetId.isEmpty() ? null : ruleSetId);
+  }
+
+  @Override
+  public void fullReload() {
+    record(null);
+  }
+
+  private void record(String ruleSetId) {
+    metrics.eventReceived();
+    try {
+      outboxStore.append(ruleSetId);
+      dispatcher.signal();
+    } catch (RuntimeException e) {
+      log.error("Failed to record rule change in outbox, publishing directly", e);
+      publishDirectly(ruleSetId);
+    }
+  }
+
+  private void publishDirectly(String ruleSetId) {
+    RuleChangeBatch batch = new RuleChangeBatch();
+    batch.add(ruleSetId);
+    try {
+      batch.publish(publisher, notifyProperties.fullReloadThreshold(), metrics);
+    } catch (RuntimeException e) {
+      log.error("Failed to publish rule change for ruleSetId {}: {}", ruleSetId, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package org.fluxgate.studio.admin.notify;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rule changes merged per rule set, published as one message per rule set or as a single full
+ * reload.
+ */
+final class RuleChangeBatch {
+
+  private final Set<String> ruleSets = new TreeSet<>();
+  private boolean fullReload;
+  private int events;
+
+  /**
+   * Add a change.
+   *
+   * @param ruleSetId the changed rule set, or null when all rules must be reloaded
+   */
+  void add(String ruleSetId) {
+    events++;
+    if (ruleSetId == null || ruleSetId.isEmpty()) {
+      fullReload = true;
+    } else {
+      ruleSets.add(ruleSetId);
+    }
+  }
+
+  boolean isEmpty() {
+    return events == 0;
+  }
+
+  /**
+   * Publish the merged changes.
+   *
+   * @param publisher the publisher to send messages through
+   * @param fullReloadThreshold rule set count above which one full reload is sent instead
+   * @param metrics counters for the published messages
+   */
+  void publish(RuleChangePublisher publisher, int fullReloadThreshold, NotifyMetrics metrics) {
+    if (fullReload || ruleSets.size() > fullReloadThreshold) {
+      publisher.publishFullReload();
+      metrics.fullReloadPublished();
+      return;
+    }
+    for (String ruleSetId : ruleSets) {
+      publisher.publishRuleSetChange(ruleSetId);
+      metrics.ruleSetPublished();
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package org.fluxgate.studio.admin.notify;
+
+/**
+ * Receives rule changes that gateways must be told about.
+ *
+ * <p>Implementations decide when and how the reload notification is published; callers only
+ * report what changed, after the change has been written.
+ */
+public interface RuleChangeNotifier {
+
+  /**
+   * Report that rules of a rule set changed.
+   *
+   * @param ruleSetId the changed rule set, or null for rules without a rule set, which can only be
+   *     covered by a full reload
+   */
+  void ruleSetChanged(String ruleSetId);
+
+  /** Report a change that requires gateways to reload all rules. */
+  void fullReload();
+}
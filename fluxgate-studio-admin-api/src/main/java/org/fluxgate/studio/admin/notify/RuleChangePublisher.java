@@ -0,0 +1,36 @@
+package org.fluxgate.studio.admin.notify;
+
+import org.fluxgate.control.aop.NotifyFullReload;
+import org.fluxgate.control.aop.NotifyRuleChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes rule reload notifications to gateways. Callers report changes through {@link
+ * RuleChangeNotifier}, which decides when this publisher is invoked.
+ *
+ * <p>The methods carry the FluxGate control-support annotations, so the publish itself is done by
+ * the FluxGate AOP advice. They must be called through the Spring proxy.
+ */
+@Component
+public class RuleChangePublisher {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleChangePublisher.class);
+
+  /**
+   * Notify gateways that the rules of one rule set changed.
+   *
+   * @param ruleSetId the changed rule set
+   */
+  @NotifyRuleChange(ruleSetId = "#ruleSetId")
+  public void publishRuleSetChange(String ruleSetId) {
+    log.debug("Publishing rule change for ruleSetId: {}", ruleSetId);
+  }
+
+  /** Notify gateways to reload all rules. */
+  @NotifyFullReload
+  public void publishFullReload() {
+    log.debug("Publishing full rule reload");
+  }
+}
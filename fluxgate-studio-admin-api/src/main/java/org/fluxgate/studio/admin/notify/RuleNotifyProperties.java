@@ -0,0 +1,24 @@
+package org.fluxgate.studio.admin.notify;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for coalescing rule change notifications.
+ *
+ * @param window how long changes are collected after the first one before they are published
+ * @param fullReloadThreshold number of distinct rule sets in one window above which a single full
+ *     reload is published instead of one message per rule set
+ */
+@ConfigurationProperties(prefix = "app.rules.notify")
+public record RuleNotifyProperties(Duration window, int fullReloadThreshold) {
+
+  public RuleNotifyProperties {
+    if (window == null || window.isNegative()) {
+      window = Duration.ofMillis(200);
+    }
+    if (fullReloadThreshold <= 0) {
+      fullReloadThreshold = 20;
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package org.fluxgate.studio.admin.notify;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.fluxgate.studio.admin.repository.RuleOutboxEntry;
+import org.fluxgate.studio.admin.repository.RuleOutboxStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes outbox entries to gateways from a background virtual thread.
+ *
+ * <p>A local change wakes the dispatcher, which waits one {@link RuleNotifyProperties#window()} so
+ * that a burst is published together, then reads pending entries in batches, merges each batch per
+ * rule set and deletes the entries only after the publish succeeded. Entries written by other
+ * Admin API instances are picked up every {@link RuleOutboxProperties#idlePollInterval()}. Failed
+ * publishes are retried with exponential backoff, so entries are published at least once.
+ *
+ * <p>Each batch is claimed for {@link RuleOutboxProperties#lease()} before it is published, so
+ * instances polling the same outbox publish different entries. Entries claimed by an instance that
+ * stopped are published by another one once the lease expired.
+ *
+ * <p>The backlog and lag gauges read the outbox when they are scraped, so they also cover entries
+ * written by other instances and stay accurate while nothing is being dispatched.
+ */
+public class RuleOutboxDispatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleOutboxDispatcher.class);
+
+  private final RuleOutboxStore outboxStore;
+  private final RuleChangePublisher publisher;
+  private final RuleNotifyProperties notifyProperties;
+  private final RuleOutboxProperties properties;
+  private final NotifyMetrics metrics;
+  private final Counter failures;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition wakeUp = lock.newCondition();
+  private final String owner = UUID.randomUUID().toString();
+
+  private volatile boolean running;
+  private volatile long drainDeadline;
+  private boolean signaled;
+  private Thread thread;
+
+  public RuleOutboxDispatcher(
+      RuleOutboxStore outboxStore,
+      RuleChangePublisher publisher,
+      RuleNotifyProperties notifyProperties,
+      RuleOutboxProperties properties,
+      MeterRegistry registry) {
+    this.outboxStore = outboxStore;
+    this.publisher = publisher;
+    this.notifyProperties = notifyProperties;
+    this.properties = properties;
+    this.metrics = new NotifyMetrics(registry);
+    this.failures = registry.counter("studio.rule.outbox.publish.failures");
+    Gauge.builder("studio.rule.outbox.backlog", this, RuleOutboxDispatcher::backlog)
+        .register(registry);
+    Gauge.builder("studio.rule.outbox.lag", this, RuleOutboxDispatcher::lagSeconds)
+        .baseUnit("seconds")
+        .register(registry);
+  }
+
+  /** Start the dispatcher thread. Entries left over from a previous run are published first. */
+  public void start() {
+    running = true;
+    signaled = true;
+    thread = Thread.ofVirtual().name("rule-outbox-dispatcher").start(this::run);
+  }
+
+  /**
+   * Stop the dispatcher thread, which publishes the remaining entries before it exits, and wait for
+   * it until {@link RuleOutboxProperties#drainTimeout()} has passed. Undelivered entries stay in
+   * the outbox for the next start.
+   */
+  public void stop() throws InterruptedException {
+    drainDeadline = System.nanoTime() + properties.drainTimeout().toNanos();
+    running = false;
+    signal();
+    if (thread == null) {
+      drain();
+      return;
+    }
+    long remaining = drainDeadline - System.nanoTime();
+    if (remaining > 0) {
+      thread.join(Duration.ofNanos(remaining));
+    }
+    if (thread.isAlive()) {
+      log.warn("Rule outbox dispatcher did not finish within {}", properties.drainTimeout());
+      thread.interrupt();
+    }
+  }
+
+  /** Wake the dispatcher after a change was appended to the outbox. */
+  public void signal() {
+    lock.lock();
+    try {
+      signaled = true;
+      wakeUp.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Publish and remove all pending entries, batch by batch.
+   *
+   * @return true if the outbox was emptied, false if a publish or outbox operation failed
+   */
+  boolean dispatchPending() {
+    try {
+      List<RuleOutboxEntry> entries = claim();
+      while (!entries.isEmpty()) {
+        RuleChangeBatch batch = new RuleChangeBatch();
+        entries.forEach(entry -> batch.add(entry.ruleSetId()));
+        batch.publish(publisher, notifyProperties.fullReloadThreshold(), metrics);
+        outboxStore.delete(entries.stream().map(RuleOutboxEntry::id).toList());
+        log.debug("Published {} outbox entries", entries.size());
+        entries = entries.size() < properties.batchSize() ? List.of() : claim();
+      }
+      return true;
+    } catch (RuntimeException e) {
+      failures.increment();
+      log.warn("Failed to dispatch rule change outbox: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  private List<RuleOutboxEntry> claim() {
+    return outboxStore.claim(owner, properties.batchSize(), properties.lease());
+  }
+
+  private void run() {
+    Duration backoff = null;
+    while (running) {
+      try {
+        boolean woken = awaitWork(backoff != null ? backoff : properties.idlePollInterval());
+        if (!running) {
+          break;
+        }
+        if (woken && backoff == null) {
+          // Let the rest of a burst reach the outbox so it is published as one batch
+          Thread.sleep(notifyProperties.window());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      backoff = dispatchPending() ? null : nextBackoff(backoff);
+    }
+    drain();
+  }
+
+  /** Publish the remaining entries after a stop, retrying until the drain deadline. */
+  private void drain() {
+    Duration backoff = properties.initialBackoff();
+    while (!dispatchPending()) {
+      if (System.nanoTime() + backoff.toNanos() > drainDeadline) {
+        log.warn("Stopped with undelivered rule change notifications left in the outbox");
+        return;
+      }
+      try {
+        Thread.sleep(backoff);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      backoff = nextBackoff(backoff);
+    }
+  }
+
+  private boolean awaitWork(Duration timeout) throws InterruptedException {
+    lock.lock();
+    try {
+      long remaining = timeout.toNanos();
+      while (!signaled && running && remaining > 0) {
+        remaining = wakeUp.awaitNanos(remaining);
+      }
+      boolean woken = signaled;
+      signaled = false;
+      return woken;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Duration nextBackoff(Duration current) {
+    if (current == null) {
+      return properties.initialBackoff();
+    }
+    Duration doubled = current.multipliedBy(2);
+    return doubled.compareTo(properties.maxBackoff()) > 0 ? properties.maxBackoff() : doubled;
+  }
+
+  private double backlog() {
+    try {
+      return outboxStore.count();
+    } catch (RuntimeException e) {
+      log.debug("Could not count outbox entries: {}", e.getMessage());
+      return Double.NaN;
+    }
+  }
+
+  private double lagSeconds() {
+    try {
+      return outboxStore
+          .oldestCreatedAt()
+          .map(oldest -> Math.max(0, Duration.between(oldest, Instant.now()).toMillis()) / 1000.0)
+          .orElse(0.0);
+    } catch (RuntimeException e) {
+      log.debug("Could not read the oldest outbox entry: {}", e.getMessage());
+      return Double.NaN;
+    }
+  }
+}
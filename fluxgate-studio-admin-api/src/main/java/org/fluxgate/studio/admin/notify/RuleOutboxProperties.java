@@ -0,0 +1,54 @@
+package org.fluxgate.studio.admin.notify;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the rule change outbox.
+ *
+ * @param enabled whether changes go through the MongoDB outbox instead of an in-memory window
+ * @param collection outbox collection name
+ * @param batchSize maximum number of entries read and published per pass
+ * @param idlePollInterval how often the outbox is checked for entries written by other Admin API
+ *     instances when no local change arrives
+ * @param initialBackoff delay before retrying after the first failed publish, doubled per failure
+ * @param maxBackoff upper bound for the retry delay
+ * @param drainTimeout how long shutdown waits for pending entries to be published
+ * @param lease how long entries claimed by one Admin API instance are reserved for it before
+ *     another instance may publish them; must cover publishing one batch
+ */
+@ConfigurationProperties(prefix = "app.rules.notify.outbox")
+public record RuleOutboxProperties(
+    boolean enabled,
+    String collection,
+    int batchSize,
+    Duration idlePollInterval,
+    Duration initialBackoff,
+    Duration maxBackoff,
+    Duration drainTimeout,
+    Duration lease) {
+
+  public RuleOutboxProperties {
+    if (collection == null || collection.isBlank()) {
+      collection = "rule_change_outbox";
+    }
+    if (batchSize <= 0) {
+      batchSize = 500;
+    }
+    if (idlePollInterval == null) {
+      idlePollInterval = Duration.ofSeconds(5);
+    }
+    if (initialBackoff == null) {
+      initialBackoff = Duration.ofMillis(200);
+    }
+    if (maxBackoff == null) {
+      maxBackoff = Duration.ofSeconds(30);
+    }
+    if (drainTimeout == null) {
+      drainTimeout = Duration.ofSeconds(10);
+    }
+    if (lease == null) {
+      lease = Duration.ofMinutes(1);
+    }
+  }
+}
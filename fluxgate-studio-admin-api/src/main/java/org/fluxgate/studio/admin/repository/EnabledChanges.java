@@ -0,0 +1,11 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link RuleStore#findEnabledChanges}.
+ *
+ * @param matchedCount rules that match the filter
+ * @param changes the rules that are not yet in the requested state
+ */
+public record EnabledChanges(long matchedCount, List<RuleChangeRecord> changes) {}
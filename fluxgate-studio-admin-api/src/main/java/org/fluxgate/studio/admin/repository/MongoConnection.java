@@ -0,0 +1,61 @@
+package org.fluxgate.studio.admin.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+
+/**
+ * MongoDB client owned by the Studio repositories.
+ *
+ * <p>Kept as a dedicated holder instead of exposing a {@link MongoClient} bean, so it cannot clash
+ * with the client created by the FluxGate auto-configuration. That makes it a second connection
+ * pool to the same deployment: its size and timeouts come from {@link MongoConnectionProperties},
+ * so both pools together can be kept within the server's connection limit.
+ */
+public class MongoConnection implements AutoCloseable {
+
+  private final MongoClient client;
+  private final MongoDatabase database;
+
+  public MongoConnection(String uri, String database, MongoConnectionProperties properties) {
+    this.client = MongoClients.create(settings(uri, properties));
+    this.database = client.getDatabase(database);
+  }
+
+  public MongoCollection<Document> getCollection(String name) {
+    return database.getCollection(name);
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+
+  static MongoClientSettings settings(String uri, MongoConnectionProperties properties) {
+    // The connection string is applied last, so options in the URI override the properties
+    return MongoClientSettings.builder()
+        .applyToConnectionPoolSettings(
+            pool ->
+                pool.maxSize(properties.maxPoolSize())
+                    .minSize(properties.minPoolSize())
+                    .maxWaitTime(properties.maxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                    .maxConnectionIdleTime(
+                        properties.maxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS))
+        .applyToSocketSettings(
+            socket ->
+                socket
+                    .connectTimeout(properties.connectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .readTimeout(properties.readTimeout().toMillis(), TimeUnit.MILLISECONDS))
+        .applyToClusterSettings(
+            cluster ->
+                cluster.serverSelectionTimeout(
+                    properties.serverSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS))
+        .applyConnectionString(new ConnectionString(uri))
+        .build();
+  }
+}
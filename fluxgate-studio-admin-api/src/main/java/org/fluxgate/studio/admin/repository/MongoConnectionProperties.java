@@ -0,0 +1,52 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection pool and timeout settings of the {@link MongoConnection} client. Options given in the
+ * {@code fluxgate.mongo.uri} connection string take precedence.
+ *
+ * @param maxPoolSize largest number of connections the client opens per server
+ * @param minPoolSize number of connections kept open per server while idle
+ * @param maxWaitTime how long an operation waits for a free connection before it fails
+ * @param maxConnectionIdleTime how long an unused connection is kept before it is closed
+ * @param connectTimeout how long opening a connection may take
+ * @param readTimeout how long a single read from a connection may take
+ * @param serverSelectionTimeout how long an operation waits for a suitable server, e.g. a primary
+ *     during an election
+ */
+@ConfigurationProperties(prefix = "app.mongo")
+public record MongoConnectionProperties(
+    int maxPoolSize,
+    int minPoolSize,
+    Duration maxWaitTime,
+    Duration maxConnectionIdleTime,
+    Duration connectTimeout,
+    Duration readTimeout,
+    Duration serverSelectionTimeout) {
+
+  public MongoConnectionProperties {
+    if (maxPoolSize <= 0) {
+      maxPoolSize = 100;
+    }
+    if (minPoolSize < 0 || minPoolSize > maxPoolSize) {
+      minPoolSize = 0;
+    }
+    if (maxWaitTime == null) {
+      maxWaitTime = Duration.ofSeconds(2);
+    }
+    if (maxConnectionIdleTime == null) {
+      maxConnectionIdleTime = Duration.ofMinutes(5);
+    }
+    if (connectTimeout == null) {
+      connectTimeout = Duration.ofSeconds(5);
+    }
+    if (readTimeout == null) {
+      readTimeout = Duration.ofSeconds(30);
+    }
+    if (serverSelectionTimeout == null) {
+      serverSelectionTimeout = Duration.ofSeconds(5);
+    }
+  }
+}
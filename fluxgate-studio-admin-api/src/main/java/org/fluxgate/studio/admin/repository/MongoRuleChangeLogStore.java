@@ -0,0 +1,456 @@
+package org.fluxgate.studio.admin.repository;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MongoDB {@link RuleChangeLogStore}.
+ *
+ * <p>Every rule and every deleted rule set has one document, keyed by {@code rule:<id>} or {@code
+ * ruleSet:<id>}, that an upsert moves to the sequence number of its latest change. Sequence
+ * numbers are reserved from a counter document with one atomic update per recorded batch, so they
+ * increase across Admin API instances. The counter document also holds the purge watermark.
+ *
+ * <p>Concurrent writers can finish writing their entries in a different order than they reserved
+ * their sequence numbers. Each reservation is therefore listed on the counter document until its
+ * entries are written, and {@link RuleChangeLogPosition#visibleThrough()} stops below the oldest
+ * one. A reservation that is not released within the reservation timeout, because its writer
+ * died, no longer holds readers back.
+ *
+ * <p>A write is prepared by inserting one document listing the rules it is about to change, which
+ * does not touch the counter. Once the rules are written, their entries are written and the
+ * reservation released in one bulk write, which also drops the prepared document; a rejected write
+ * only drops it, so the log and the sequence numbers stay as they were. A prepared document left
+ * behind by a writer that stopped is recorded on its behalf, with rule sets unknown: such entries
+ * match every rule set filter until their rules are recorded again.
+ *
+ * <p>A stored write therefore costs three round trips besides the rule write: the prepare, the
+ * reservation and the bulk write. A rejected write costs two and never touches the counter.
+ */
+public class MongoRuleChangeLogStore implements RuleChangeLogStore {
+
+  private static final Logger log = LoggerFactory.getLogger(MongoRuleChangeLogStore.class);
+
+  private static final String ID = "_id";
+  private static final String KIND = "kind";
+  private static final String KEY = "key";
+  private static final String SEQ = "seq";
+  private static final String RULE_SET_IDS = "ruleSetIds";
+  private static final String RULE_SET_ID = "ruleSetId";
+  private static final String DELETED = "deleted";
+  private static final String RECORDED_AT = "recordedAt";
+  private static final String ANY_RULE_SET = "*";
+
+  private static final String COUNTER_ID = "sequence";
+  private static final String NEXT = "next";
+  private static final String PURGED_THROUGH = "purgedThrough";
+  private static final String PENDING = "pending";
+  private static final String TOKEN = "token";
+  private static final String FROM = "from";
+  private static final String RESERVED_AT = "reservedAt";
+
+  private static final String WRITE_PREFIX = "write:";
+  private static final String RULE_IDS = "ruleIds";
+  private static final String DELETING = "deleting";
+  private static final String DELETED_RULE_SET = "deletedRuleSet";
+  private static final String PREPARED_AT = "preparedAt";
+
+  private final MongoCollection<Document> collection;
+  private final Duration reservationTimeout;
+
+  public MongoRuleChangeLogStore(
+      MongoCollection<Document> collection, Duration reservationTimeout) {
+    this.collection = collection;
+    this.reservationTimeout = reservationTimeout;
+  }
+
+  /**
+   * Create the indexes that back reading in sequence order, with and without a rule set filter,
+   * and finding tombstones and abandoned writes by age.
+   */
+  public void ensureIndexes() {
+    createIndex(Indexes.ascending(SEQ));
+    createIndex(Indexes.ascending(RULE_SET_IDS, SEQ));
+    createIndex(Indexes.ascending(RULE_SET_ID));
+    createIndex(Indexes.ascending(DELETED, RECORDED_AT));
+    createIndex(Indexes.ascending(PREPARED_AT));
+  }
+
+  @Override
+  public void recordRules(List<RuleChangeRecord> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    writeReserved(changes.size(), from -> ruleEntries(changes, from));
+  }
+
+  @Override
+  public RuleChangeReservation prepareRules(Collection<String> ruleIds, boolean deleting) {
+    String token = new ObjectId().toHexString();
+    collection.insertOne(
+        new Document(ID, WRITE_PREFIX + token)
+            .append(RULE_IDS, List.copyOf(ruleIds))
+            .append(DELETING, deleting)
+            .append(PREPARED_AT, new Date()));
+    return new RuleChangeReservation(token, List.copyOf(ruleIds), deleting);
+  }
+
+  @Override
+  public void completeRules(RuleChangeReservation reservation, List<RuleChangeRecord> changes) {
+    Bson prepared = Filters.eq(ID, WRITE_PREFIX + reservation.token());
+    if (changes != null && changes.isEmpty()) {
+      // A rejected write leaves the log as it was
+      collection.deleteOne(prepared);
+      return;
+    }
+    List<String> ruleIds = reservation.ruleIds();
+    boolean deleting = reservation.deleting();
+    boolean released =
+        writeReserved(
+            changes != null ? changes.size() : ruleIds.size(),
+            from -> {
+              List<WriteModel<Document>> writes =
+                  changes != null
+                      ? ruleEntries(changes, from)
+                      : unknownRuleEntries(ruleIds, deleting, from);
+              writes.add(new DeleteOneModel<>(prepared));
+              return writes;
+            });
+    if (!released) {
+      // Readers may have passed the entries before they were written
+      if (changes != null) {
+        recordRules(changes);
+      } else {
+        writeReserved(ruleIds.size(), from -> unknownRuleEntries(ruleIds, deleting, from));
+      }
+    }
+  }
+
+  @Override
+  public void recordRuleSetDeleted(String ruleSetId) {
+    writeReserved(1, from -> ruleSetDeletion(ruleSetId, from));
+  }
+
+  @Override
+  public RuleChangeReservation prepareRuleSetDeleted(String ruleSetId) {
+    String token = new ObjectId().toHexString();
+    collection.insertOne(
+        new Document(ID, WRITE_PREFIX + token)
+            .append(DELETED_RULE_SET, ruleSetId)
+            .append(PREPARED_AT, new Date()));
+    return new RuleChangeReservation(token, List.of(), true);
+  }
+
+  @Override
+  public void completeRuleSetDeleted(RuleChangeReservation reservation, String ruleSetId) {
+    Bson prepared = Filters.eq(ID, WRITE_PREFIX + reservation.token());
+    boolean released =
+        writeReserved(
+            1,
+            from -> {
+              List<WriteModel<Document>> writes = ruleSetDeletion(ruleSetId, from);
+              writes.add(new DeleteOneModel<>(prepared));
+              return writes;
+            });
+    if (!released) {
+      recordRuleSetDeleted(ruleSetId);
+    }
+  }
+
+  @Override
+  public int recordAbandonedWrites() {
+    List<Document> abandoned =
+        collection.find(Filters.lt(PREPARED_AT, abandonedBefore())).into(new ArrayList<>());
+    for (Document write : abandoned) {
+      String ruleSetId = write.getString(DELETED_RULE_SET);
+      if (ruleSetId != null) {
+        recordRuleSetDeleted(ruleSetId);
+      } else {
+        List<String> ruleIds = write.getList(RULE_IDS, String.class, List.of());
+        boolean deleting = write.getBoolean(DELETING, false);
+        writeReserved(ruleIds.size(), from -> unknownRuleEntries(ruleIds, deleting, from));
+      }
+      collection.deleteOne(Filters.eq(ID, write.get(ID)));
+    }
+    return abandoned.size();
+  }
+
+  @Override
+  public List<RuleChangeEntry> findSince(long since, long through, String ruleSetId, int limit) {
+    Bson filter = Filters.and(Filters.gt(SEQ, since), Filters.lte(SEQ, through));
+    if (ruleSetId != null) {
+      filter = Filters.and(Filters.in(RULE_SET_IDS, ruleSetId, ANY_RULE_SET), filter);
+    }
+    return collection
+        .find(filter)
+        .sort(Sorts.ascending(SEQ))
+        .limit(limit)
+        .map(MongoRuleChangeLogStore::toEntry)
+        .into(new ArrayList<>(Math.min(limit, 1024)));
+  }
+
+  @Override
+  public RuleChangeLogPosition position() {
+    Document counter = collection.find(Filters.eq(ID, COUNTER_ID)).first();
+    if (counter == null) {
+      return new RuleChangeLogPosition(0, 0, 0);
+    }
+    long lastSeq = longValue(counter, NEXT);
+    long visibleThrough = lastSeq;
+    Date abandonedBefore = abandonedBefore();
+    for (Document pending : counter.getList(PENDING, Document.class, List.of())) {
+      if (!pending.getDate(RESERVED_AT).before(abandonedBefore)) {
+        visibleThrough = Math.min(visibleThrough, longValue(pending, FROM) - 1);
+      }
+    }
+    return new RuleChangeLogPosition(
+        lastSeq, visibleThrough, longValue(counter, PURGED_THROUGH));
+  }
+
+  @Override
+  public long purgeTombstones(Instant recordedBefore) {
+    Bson expired =
+        Filters.and(Filters.eq(DELETED, true), Filters.lt(RECORDED_AT, Date.from(recordedBefore)));
+    Document newest =
+        collection
+            .find(expired)
+            .sort(Sorts.descending(SEQ))
+            .projection(Projections.include(SEQ))
+            .first();
+    if (newest == null) {
+      return 0;
+    }
+    long through = longValue(newest, SEQ);
+    // Raise the watermark first, so a reader never misses a tombstone without being told to resync
+    collection.updateOne(
+        Filters.eq(ID, COUNTER_ID),
+        Updates.max(PURGED_THROUGH, through),
+        new UpdateOptions().upsert(true));
+    return collection.deleteMany(Filters.and(expired, Filters.lte(SEQ, through))).getDeletedCount();
+  }
+
+  /**
+   * Reserve sequence numbers, then write what was built for them and release the reservation in
+   * one ordered bulk write, so readers only pass the numbers once their entries exist.
+   *
+   * @param count how many sequence numbers to reserve
+   * @param writes builds the writes for the sequence numbers starting at the given one
+   * @return whether the reservation was released before it timed out; if not, readers may have
+   *     passed the entries
+   */
+  private boolean writeReserved(int count, LongFunction<List<WriteModel<Document>>> writes) {
+    Reservation reservation = reserve(count);
+    List<WriteModel<Document>> models = new ArrayList<>(writes.apply(reservation.from()));
+    models.add(
+        new UpdateOneModel<>(
+            Filters.eq(ID, COUNTER_ID),
+            Updates.pull(PENDING, new Document(TOKEN, reservation.token()))));
+    try {
+      collection.bulkWrite(models);
+    } catch (RuntimeException e) {
+      release(reservation);
+      throw e;
+    }
+    return System.currentTimeMillis() - reservation.reservedAt().getTime()
+        < reservationTimeout.toMillis();
+  }
+
+  /**
+   * Reserve {@code count} sequence numbers and list the reservation as pending, dropping abandoned
+   * ones, in one atomic update.
+   */
+  private Reservation reserve(int count) {
+    String token = new ObjectId().toHexString();
+    Date reservedAt = new Date();
+    Document current = new Document("$ifNull", List.of("$" + NEXT, 0L));
+    Document live =
+        new Document(
+            "$filter",
+            new Document("input", new Document("$ifNull", List.of("$" + PENDING, List.of())))
+                .append(
+                    "cond",
+                    new Document("$gte", List.of("$$this." + RESERVED_AT, abandonedBefore()))));
+    Document pending =
+        new Document(TOKEN, token)
+            .append(FROM, new Document("$add", List.of(current, 1L)))
+            .append(RESERVED_AT, reservedAt);
+    Document update =
+        new Document(
+            "$set",
+            new Document(NEXT, new Document("$add", List.of(current, (long) count)))
+                .append(PENDING, new Document("$concatArrays", List.of(live, List.of(pending)))));
+    Document counter =
+        collection.findOneAndUpdate(
+            Filters.eq(ID, COUNTER_ID),
+            List.of(update),
+            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+    return new Reservation(token, longValue(counter, NEXT) - count + 1, reservedAt);
+  }
+
+  /** Remove a reservation from the pending list after its writes failed. */
+  private void release(Reservation reservation) {
+    collection.updateOne(
+        Filters.eq(ID, COUNTER_ID),
+        Updates.pull(PENDING, new Document(TOKEN, reservation.token())));
+  }
+
+  /** Upsert the entries of changes whose rule sets are known, from sequence number {@code from}. */
+  private static List<WriteModel<Document>> ruleEntries(List<RuleChangeRecord> changes, long from) {
+    Date now = new Date();
+    long seq = from;
+    List<WriteModel<Document>> writes = new ArrayList<>(changes.size() + 2);
+    for (RuleChangeRecord change : changes) {
+      Document set =
+          ruleEntry(change.ruleId(), seq++, now)
+              .append(
+                  RULE_SET_IDS,
+                  new Document(
+                      "$setDifference",
+                      List.of(
+                          new Document(
+                              "$setUnion",
+                              List.of(
+                                  ifNullEmpty(RULE_SET_IDS),
+                                  new Document("$literal", ruleSetIds(change)))),
+                          List.of(ANY_RULE_SET))))
+              .append(RULE_SET_ID, new Document("$literal", change.ruleSetId()))
+              .append(DELETED, change.deleted());
+      writes.add(upsert("rule:" + change.ruleId(), set));
+    }
+    return writes;
+  }
+
+  /**
+   * Upsert the entries of rules a write may or may not have changed, from sequence number {@code
+   * from}. Their rule sets are unknown, so the entries match every rule set filter until the rules
+   * are recorded again.
+   */
+  private static List<WriteModel<Document>> unknownRuleEntries(
+      List<String> ruleIds, boolean deleting, long from) {
+    Date now = new Date();
+    long seq = from;
+    List<WriteModel<Document>> writes = new ArrayList<>(ruleIds.size() + 2);
+    for (String ruleId : ruleIds) {
+      Document set =
+          ruleEntry(ruleId, seq++, now)
+              .append(
+                  RULE_SET_IDS,
+                  new Document(
+                      "$setUnion", List.of(ifNullEmpty(RULE_SET_IDS), List.of(ANY_RULE_SET))))
+              .append(DELETED, new Document("$ifNull", List.of("$" + DELETED, deleting)));
+      writes.add(upsert("rule:" + ruleId, set));
+    }
+    return writes;
+  }
+
+  private static Document ruleEntry(String ruleId, long seq, Date now) {
+    return new Document(KIND, RuleChangeEntry.Kind.RULE.name())
+        .append(KEY, new Document("$literal", ruleId))
+        .append(SEQ, new Document("$max", List.of("$" + SEQ, seq)))
+        .append(RECORDED_AT, now);
+  }
+
+  private static UpdateOneModel<Document> upsert(String id, Document set) {
+    return new UpdateOneModel<>(
+        Filters.eq(ID, id), List.of(new Document("$set", set)), new UpdateOptions().upsert(true));
+  }
+
+  /**
+   * Upsert the entry of a deleted rule set and flag the entries of the rules it still held as
+   * deleted. A rule entry lists every rule set the rule was in for readers, so the rule set it is
+   * in now is kept in a field of its own; a rule that moved to another rule set stays alive. The
+   * rule set entry carries the deletion; flagging the rule entries only lets them be purged.
+   */
+  private static List<WriteModel<Document>> ruleSetDeletion(String ruleSetId, long seq) {
+    List<WriteModel<Document>> writes = new ArrayList<>(3);
+    writes.add(
+        new UpdateOneModel<>(
+            Filters.eq(ID, "ruleSet:" + ruleSetId),
+            Updates.combine(
+                Updates.set(KIND, RuleChangeEntry.Kind.RULE_SET.name()),
+                Updates.set(KEY, ruleSetId),
+                Updates.max(SEQ, seq),
+                Updates.set(RULE_SET_IDS, List.of(ruleSetId)),
+                Updates.set(DELETED, true),
+                Updates.set(RECORDED_AT, new Date())),
+            new UpdateOptions().upsert(true)));
+    writes.add(
+        new UpdateManyModel<>(
+            Filters.and(
+                Filters.eq(KIND, RuleChangeEntry.Kind.RULE.name()),
+                Filters.eq(RULE_SET_ID, ruleSetId),
+                Filters.eq(DELETED, false)),
+            Updates.set(DELETED, true)));
+    return writes;
+  }
+
+  private static Document ifNullEmpty(String field) {
+    return new Document("$ifNull", List.of("$" + field, List.of()));
+  }
+
+  private static List<String> ruleSetIds(RuleChangeRecord change) {
+    return Stream.of(change.ruleSetId(), change.previousRuleSetId())
+        .filter(Objects::nonNull)
+        .distinct()
+        .toList();
+  }
+
+  private Date abandonedBefore() {
+    return Date.from(Instant.now().minus(reservationTimeout));
+  }
+
+  private static RuleChangeEntry toEntry(Document doc) {
+    return new RuleChangeEntry(
+        longValue(doc, SEQ),
+        RuleChangeEntry.Kind.valueOf(doc.getString(KIND)),
+        doc.getString(KEY),
+        doc.getList(RULE_SET_IDS, String.class, List.of()).stream()
+            .filter(ruleSetId -> !ANY_RULE_SET.equals(ruleSetId))
+            .toList(),
+        doc.getBoolean(DELETED, false),
+        doc.getDate(RECORDED_AT).toInstant());
+  }
+
+  private static long longValue(Document doc, String field) {
+    Object value = doc.get(field);
+    return value instanceof Number number ? number.longValue() : 0;
+  }
+
+  private void createIndex(Bson keys) {
+    try {
+      collection.createIndex(keys, new IndexOptions());
+    } catch (MongoCommandException e) {
+      log.warn("Could not create index {}: {}", keys, e.getErrorMessage());
+    }
+  }
+
+  /** Pending sequence numbers starting at {@code from}. */
+  private record Reservation(String token, long from, Date reservedAt) {}
+}
@@ -0,0 +1,104 @@
+package org.fluxgate.studio.admin.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+/**
+ * MongoDB {@link RuleOutboxStore}. Entries are ordered by their {@code ObjectId}, which is
+ * increasing per Admin API instance and roughly time ordered across instances.
+ *
+ * <p>A claim reads the IDs of the oldest claimable entries, then sets its owner and lease on
+ * those that are still claimable in one update, and returns the ones it ended up owning. An entry
+ * claimed by two instances at once is therefore handed to only one of them.
+ */
+public class MongoRuleOutboxStore implements RuleOutboxStore {
+
+  private static final String ID = "_id";
+  private static final String RULE_SET_ID = "ruleSetId";
+  private static final String CREATED_AT = "createdAt";
+  private static final String OWNER = "owner";
+  private static final String LEASED_UNTIL = "leasedUntil";
+
+  private final MongoCollection<Document> collection;
+
+  public MongoRuleOutboxStore(MongoCollection<Document> collection) {
+    this.collection = collection;
+  }
+
+  @Override
+  public void append(String ruleSetId) {
+    collection.insertOne(
+        new Document(ID, new ObjectId())
+            .append(RULE_SET_ID, ruleSetId)
+            .append(CREATED_AT, new Date()));
+  }
+
+  @Override
+  public List<RuleOutboxEntry> claim(String owner, int limit, Duration lease) {
+    Date now = new Date();
+    Bson claimable =
+        Filters.or(Filters.not(Filters.gt(LEASED_UNTIL, now)), Filters.eq(OWNER, owner));
+    List<ObjectId> ids =
+        collection
+            .find(claimable)
+            .sort(Sorts.ascending(ID))
+            .limit(limit)
+            .projection(Projections.include(ID))
+            .map(doc -> doc.getObjectId(ID))
+            .into(new ArrayList<>(limit));
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    collection.updateMany(
+        Filters.and(Filters.in(ID, ids), claimable),
+        Updates.combine(
+            Updates.set(OWNER, owner),
+            Updates.set(LEASED_UNTIL, Date.from(now.toInstant().plus(lease)))));
+    return collection
+        .find(Filters.and(Filters.in(ID, ids), Filters.eq(OWNER, owner)))
+        .sort(Sorts.ascending(ID))
+        .map(
+            doc ->
+                new RuleOutboxEntry(
+                    doc.getObjectId(ID).toHexString(),
+                    doc.getString(RULE_SET_ID),
+                    doc.getDate(CREATED_AT).toInstant()))
+        .into(new ArrayList<>(ids.size()));
+  }
+
+  @Override
+  public void delete(List<String> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    collection.deleteMany(Filters.in(ID, ids.stream().map(ObjectId::new).toList()));
+  }
+
+  @Override
+  public long count() {
+    return collection.countDocuments();
+  }
+
+  @Override
+  public Optional<Instant> oldestCreatedAt() {
+    return Optional.ofNullable(
+            collection
+                .find()
+                .sort(Sorts.ascending(ID))
+                .projection(Projections.include(CREATED_AT))
+                .first())
+        .map(doc -> doc.getDate(CREATED_AT).toInstant());
+  }
+}
@@ -0,0 +1,691 @@
+package org.fluxgate.studio.admin.repository;
+
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.ATTRIBUTES;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.BANDS;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.BAND_CAPACITY;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.BAND_LABEL;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.BAND_WINDOW_SECONDS;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.ENABLED;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.ID;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.KEY_STRATEGY_ID;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.NAME;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.ON_LIMIT_EXCEED_POLICY;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.RULE_SET_ID;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.SCOPE;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.TAGS;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.VERSION;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Facet;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.repository.RulePatch.BandOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MongoDB {@link RuleStore} backed by the {@code rate_limit_rules} collection.
+ *
+ * <p>Writes set the mapped fields of a rule and increment its version in the same update, instead
+ * of replacing the document, so a compare-and-set on the version needs no extra round trip.
+ */
+public class MongoRuleStore implements RuleStore {
+
+  private static final Logger log = LoggerFactory.getLogger(MongoRuleStore.class);
+
+  private static final int STREAM_BATCH_SIZE = 500;
+  private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+  private static final Bson ENABLED_AS_NUMBER =
+      new Document("$cond", List.of(new Document("$eq", List.of("$" + ENABLED, true)), 1, 0));
+  private static final Bson RULE_SET_ONLY = Projections.include(RULE_SET_ID);
+  private static final Bson NEXT_VERSION =
+      new Document("$add", List.of(new Document("$ifNull", List.of("$" + VERSION, 0L)), 1L));
+
+  private final MongoCollection<Document> collection;
+
+  public MongoRuleStore(MongoCollection<Document> collection) {
+    this.collection = collection;
+  }
+
+  /**
+   * Create the indexes that back ID-ordered paging, with and without a rule set filter, and rule
+   * search.
+   *
+   * <p>The search indexes hold the common equality filters followed by the ID: scope and enabled;
+   * tag, scope and enabled; key strategy; and name. A search with equality filters on all fields
+   * before the ID is read in ID order without sorting; other searches use the index to narrow the
+   * rules and sort the matches.
+   *
+   * <p>Inserts rely on the unique index on the rule ID to reject duplicates, so it is the one index
+   * that must exist: if it can be neither created nor found, for example because the collection
+   * already holds duplicate IDs, startup fails.
+   *
+   * @throws IllegalStateException if the rule ID has no unique index
+   */
+  public void ensureIndexes() {
+    ensureUniqueId();
+    createIndex(Indexes.ascending(RULE_SET_ID, ID), new IndexOptions());
+    createIndex(Indexes.ascending(SCOPE, ENABLED, ID), new IndexOptions());
+    createIndex(Indexes.ascending(TAGS, SCOPE, ENABLED, ID), new IndexOptions());
+    createIndex(Indexes.ascending(KEY_STRATEGY_ID, ID), new IndexOptions());
+    createIndex(Indexes.ascending(NAME, ID), new IndexOptions());
+  }
+
+  @Override
+  public List<RateLimitRule> findPage(String ruleSetId, String afterId, int limit) {
+    Bson filter = ruleSetFilter(ruleSetId);
+    if (afterId != null) {
+      filter = Filters.and(filter, Filters.gt(ID, afterId));
+    }
+    return collection
+        .find(filter)
+        .sort(Sorts.ascending(ID))
+        .limit(limit)
+        .map(RuleDocumentMapper::toRule)
+        .into(new ArrayList<>(limit));
+  }
+
+  @Override
+  public List<RateLimitRule> search(RuleQuery query, String afterId, int limit) {
+    Bson filter = queryFilter(query);
+    if (afterId != null) {
+      filter = Filters.and(filter, Filters.gt(ID, afterId));
+    }
+    return collection
+        .find(filter)
+        .sort(Sorts.ascending(ID))
+        .limit(limit)
+        .map(RuleDocumentMapper::toRule)
+        .into(new ArrayList<>(limit));
+  }
+
+  @Override
+  public List<PartialRule> findPartial(
+      RuleQuery query, String afterId, int limit, Set<RuleField> fields) {
+    Bson filter = queryFilter(query);
+    if (afterId != null) {
+      filter = Filters.and(filter, Filters.gt(ID, afterId));
+    }
+    Set<RuleField> selected = EnumSet.of(RuleField.ID);
+    selected.addAll(fields);
+    // The tags are part of the attributes; projecting both paths is rejected by MongoDB
+    List<String> paths =
+        selected.stream()
+            .filter(field -> field != RuleField.TAGS || !selected.contains(RuleField.ATTRIBUTES))
+            .map(RuleField::documentPath)
+            .toList();
+    return collection
+        .find(filter)
+        .projection(Projections.fields(Projections.include(paths), Projections.excludeId()))
+        .sort(Sorts.ascending(ID))
+        .limit(limit)
+        .map(document -> RuleDocumentMapper.toPartialRule(document, selected))
+        .into(new ArrayList<>(limit > 0 ? limit : 16));
+  }
+
+  @Override
+  public RuleFacets countFacets(RuleQuery query, int maxTags) {
+    Facet counts =
+        new Facet(
+            "counts",
+            Aggregates.group(
+                null,
+                Accumulators.sum("total", 1),
+                Accumulators.sum("enabled", ENABLED_AS_NUMBER)));
+    Facet scopes = new Facet("scopes", Aggregates.sortByCount("$" + SCOPE));
+    Facet policies = new Facet("policies", Aggregates.sortByCount("$" + ON_LIMIT_EXCEED_POLICY));
+    Facet keyStrategies = new Facet("keyStrategies", Aggregates.sortByCount("$" + KEY_STRATEGY_ID));
+    Facet tags =
+        new Facet(
+            "tags",
+            Aggregates.unwind("$" + TAGS),
+            Aggregates.sortByCount("$" + TAGS),
+            Aggregates.limit(maxTags));
+
+    Document result =
+        collection
+            .aggregate(
+                List.of(
+                    Aggregates.match(queryFilter(query)),
+                    Aggregates.facet(counts, scopes, policies, keyStrategies, tags)))
+            .first();
+
+    Document countsResult = firstOrEmpty(result, "counts");
+    return new RuleFacets(
+        toLong(countsResult.get("total")),
+        toLong(countsResult.get("enabled")),
+        countsByValue(result, "scopes"),
+        countsByValue(result, "policies"),
+        countsByValue(result, "keyStrategies"),
+        countsByValue(result, "tags"));
+  }
+
+  @Override
+  public void forEach(String ruleSetId, Consumer<RateLimitRule> action) {
+    try (MongoCursor<Document> cursor =
+        collection
+            .find(ruleSetFilter(ruleSetId))
+            .sort(Sorts.ascending(ID))
+            .batchSize(STREAM_BATCH_SIZE)
+            .iterator()) {
+      while (cursor.hasNext()) {
+        action.accept(RuleDocumentMapper.toRule(cursor.next()));
+      }
+    }
+  }
+
+  @Override
+  public List<RateLimitRule> findByIds(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return collection
+        .find(Filters.in(ID, ids))
+        .map(RuleDocumentMapper::toRule)
+        .into(new ArrayList<>(ids.size()));
+  }
+
+  @Override
+  public void forEachStored(String ruleSetId, Consumer<StoredRule> action) {
+    try (MongoCursor<Document> cursor =
+        collection
+            .find(ruleSetFilter(ruleSetId))
+            .sort(Sorts.ascending(ID))
+            .batchSize(STREAM_BATCH_SIZE)
+            .iterator()) {
+      while (cursor.hasNext()) {
+        action.accept(toStoredRule(cursor.next()));
+      }
+    }
+  }
+
+  @Override
+  public List<StoredRule> findStoredByIds(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return collection
+        .find(Filters.in(ID, ids))
+        .map(MongoRuleStore::toStoredRule)
+        .into(new ArrayList<>(ids.size()));
+  }
+
+  @Override
+  public Optional<StoredRule> findById(String id) {
+    return Optional.ofNullable(collection.find(Filters.eq(ID, id)).first())
+        .map(MongoRuleStore::toStoredRule);
+  }
+
+  @Override
+  public RuleStats aggregateStats() {
+    Facet counts =
+        new Facet(
+            "counts",
+            Aggregates.group(
+                null,
+                Accumulators.sum("total", 1),
+                Accumulators.sum("enabled", ENABLED_AS_NUMBER)));
+    Facet ruleSets =
+        new Facet(
+            "ruleSets",
+            Aggregates.match(Filters.nin(RULE_SET_ID, null, "")),
+            Aggregates.group("$" + RULE_SET_ID),
+            Aggregates.count("count"));
+
+    Document result = collection.aggregate(List.of(Aggregates.facet(counts, ruleSets))).first();
+
+    Document countsResult = firstOrEmpty(result, "counts");
+    Document ruleSetsResult = firstOrEmpty(result, "ruleSets");
+    return new RuleStats(
+        toLong(countsResult.get("total")),
+        toLong(countsResult.get("enabled")),
+        toLong(ruleSetsResult.get("count")));
+  }
+
+  @Override
+  public Optional<StoredRule> toggleEnabled(String id, Long expectedVersion) {
+    Bson negateEnabled =
+        new Document(
+            "$set",
+            new Document(ENABLED, new Document("$not", List.of("$" + ENABLED)))
+                .append(VERSION, NEXT_VERSION));
+    Document updated =
+        collection.findOneAndUpdate(
+            versionFilter(id, expectedVersion),
+            List.of(negateEnabled),
+            new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    return Optional.ofNullable(updated).map(MongoRuleStore::toStoredRule);
+  }
+
+  @Override
+  public boolean insert(RateLimitRule rule) {
+    try {
+      collection.insertOne(
+          RuleDocumentMapper.toDocument(rule).append(VERSION, StoredRule.INITIAL_VERSION));
+      return true;
+    } catch (MongoWriteException e) {
+      if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public Optional<UpdatedRule> replace(RateLimitRule rule, Long expectedVersion) {
+    // The document before the update holds the previous rule set; the new version follows from it
+    Document previous =
+        collection.findOneAndUpdate(
+            versionFilter(rule.getId(), expectedVersion),
+            overwrite(rule),
+            new FindOneAndUpdateOptions()
+                .projection(Projections.include(VERSION, RULE_SET_ID))
+                .returnDocument(ReturnDocument.BEFORE));
+    return Optional.ofNullable(previous)
+        .map(
+            doc ->
+                new UpdatedRule(
+                    new StoredRule(rule, RuleDocumentMapper.version(doc) + 1),
+                    doc.getString(RULE_SET_ID)));
+  }
+
+  @Override
+  public Optional<UpdatedRule> patch(String id, RulePatch patch, Long expectedVersion) {
+    Document set = new Document();
+    List<String> unset = new ArrayList<>();
+    List<Object> changes = new ArrayList<>();
+    List<Object> conditions = new ArrayList<>();
+
+    patch
+        .fields()
+        .forEach(
+            (field, value) -> {
+              set.append(field, literal(value));
+              changes.add(ne("$" + field, literal(value)));
+            });
+    patch
+        .attributes()
+        .forEach(
+            (name, value) -> {
+              String path = ATTRIBUTES + "." + name;
+              if (value == null) {
+                unset.add(path);
+                changes.add(ne(new Document("$type", "$" + path), "missing"));
+              } else {
+                set.append(path, literal(value));
+                changes.add(ne("$" + path, literal(value)));
+              }
+            });
+    if (patch.changesBands()) {
+      Object bands = bandsExpression(patch, conditions);
+      set.append(BANDS, bands);
+      changes.add(ne("$" + BANDS, bands));
+      conditions.add(new Document("$gt", List.of(new Document("$size", bands), 0)));
+    }
+    set.append(VERSION, NEXT_VERSION);
+    conditions.add(new Document("$or", changes));
+
+    List<Bson> pipeline = new ArrayList<>(2);
+    pipeline.add(new Document("$set", set));
+    if (!unset.isEmpty()) {
+      pipeline.add(new Document("$unset", unset));
+    }
+    Bson filter =
+        Filters.and(
+            versionFilter(id, expectedVersion), Filters.expr(new Document("$and", conditions)));
+    FindOneAndUpdateOptions options =
+        new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
+    if (!patch.fields().containsKey(RULE_SET_ID)) {
+      return Optional.ofNullable(collection.findOneAndUpdate(filter, pipeline, options))
+          .map(doc -> new UpdatedRule(toStoredRule(doc), doc.getString(RULE_SET_ID)));
+    }
+    // Pin the rule set read before the update; retry only if a concurrent write moved the rule
+    Document current = collection.find(Filters.eq(ID, id)).projection(RULE_SET_ONLY).first();
+    while (current != null) {
+      String previousRuleSetId = current.getString(RULE_SET_ID);
+      Document updated =
+          collection.findOneAndUpdate(
+              Filters.and(filter, Filters.eq(RULE_SET_ID, previousRuleSetId)), pipeline, options);
+      if (updated != null) {
+        return Optional.of(new UpdatedRule(toStoredRule(updated), previousRuleSetId));
+      }
+      current = collection.find(Filters.eq(ID, id)).projection(RULE_SET_ONLY).first();
+      if (current != null && Objects.equals(current.getString(RULE_SET_ID), previousRuleSetId)) {
+        return Optional.empty();
+      }
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<StoredRule> findAndDelete(String id) {
+    return Optional.ofNullable(collection.findOneAndDelete(Filters.eq(ID, id)))
+        .map(MongoRuleStore::toStoredRule);
+  }
+
+  @Override
+  public List<RuleWriteResult> bulkWrite(List<RuleWrite> writes) {
+    RuleWriteResult[] results = new RuleWriteResult[writes.size()];
+
+    // Replace only matches existing rules; resolve them up front to report NOT_FOUND per item
+    // and to capture the rule set each replaced rule is moved away from.
+    List<String> replaceIds =
+        writes.stream()
+            .filter(write -> write.type() == RuleWrite.Type.REPLACE)
+            .map(write -> write.rule().getId())
+            .toList();
+    Map<String, String> existingRuleSets = new HashMap<>();
+    if (!replaceIds.isEmpty()) {
+      collection
+          .find(Filters.in(ID, replaceIds))
+          .projection(Projections.include(ID, RULE_SET_ID))
+          .forEach(doc -> existingRuleSets.put(doc.getString(ID), doc.getString(RULE_SET_ID)));
+    }
+
+    List<WriteModel<Document>> models = new ArrayList<>(writes.size());
+    List<Integer> modelIndexes = new ArrayList<>(writes.size());
+    for (int i = 0; i < writes.size(); i++) {
+      RuleWrite write = writes.get(i);
+      if (write.type() == RuleWrite.Type.INSERT) {
+        models.add(
+            new InsertOneModel<>(
+                RuleDocumentMapper.toDocument(write.rule())
+                    .append(VERSION, StoredRule.INITIAL_VERSION)));
+        results[i] = new RuleWriteResult(RuleWriteResult.Status.APPLIED, null, null);
+      } else if (existingRuleSets.containsKey(write.rule().getId())) {
+        models.add(
+            new UpdateOneModel<>(Filters.eq(ID, write.rule().getId()), overwrite(write.rule())));
+        results[i] =
+            new RuleWriteResult(
+                RuleWriteResult.Status.APPLIED, existingRuleSets.get(write.rule().getId()), null);
+      } else {
+        results[i] = new RuleWriteResult(RuleWriteResult.Status.NOT_FOUND, null, null);
+        continue;
+      }
+      modelIndexes.add(i);
+    }
+
+    if (!models.isEmpty()) {
+      try {
+        collection.bulkWrite(models, new BulkWriteOptions().ordered(false));
+      } catch (MongoBulkWriteException e) {
+        for (BulkWriteError error : e.getWriteErrors()) {
+          int index = modelIndexes.get(error.getIndex());
+          RuleWriteResult.Status status =
+              error.getCategory() == ErrorCategory.DUPLICATE_KEY
+                  ? RuleWriteResult.Status.DUPLICATE
+                  : RuleWriteResult.Status.FAILED;
+          results[index] = new RuleWriteResult(status, null, error.getMessage());
+        }
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  @Override
+  public EnabledChanges findEnabledChanges(
+      RuleQuery query, Collection<String> ids, boolean enabled) {
+    Bson filter = queryFilter(query);
+    if (!ids.isEmpty()) {
+      filter = Filters.and(filter, Filters.in(ID, ids));
+    }
+    long matched = 0;
+    List<RuleChangeRecord> changes = new ArrayList<>();
+    try (MongoCursor<Document> cursor =
+        collection
+            .find(filter)
+            .projection(Projections.include(ID, RULE_SET_ID, ENABLED))
+            .batchSize(STREAM_BATCH_SIZE)
+            .iterator()) {
+      while (cursor.hasNext()) {
+        Document doc = cursor.next();
+        matched++;
+        if (!Boolean.valueOf(enabled).equals(doc.get(ENABLED))) {
+          changes.add(
+              new RuleChangeRecord(doc.getString(ID), doc.getString(RULE_SET_ID), null, false));
+        }
+      }
+    }
+    return new EnabledChanges(matched, changes);
+  }
+
+  @Override
+  public long setEnabled(Collection<String> ids, boolean enabled) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    // Only the given rules are written, so their prepared change log entries cover every change
+    UpdateResult result =
+        collection.updateMany(
+            Filters.and(Filters.in(ID, ids), Filters.ne(ENABLED, enabled)),
+            Updates.combine(Updates.set(ENABLED, enabled), Updates.inc(VERSION, 1L)));
+    return result.getModifiedCount();
+  }
+
+  /** Set every mapped field of the rule and increment the version. */
+  private static Bson overwrite(RateLimitRule rule) {
+    List<Bson> updates = new ArrayList<>();
+    RuleDocumentMapper.toDocument(rule)
+        .forEach(
+            (field, value) -> {
+              if (!ID.equals(field)) {
+                updates.add(Updates.set(field, value));
+              }
+            });
+    updates.add(Updates.inc(VERSION, 1L));
+    return Updates.combine(updates);
+  }
+
+  /**
+   * Build the expression of the bands after a patch from the stored bands, adding to {@code
+   * conditions} that every updated label exists when its operation applies.
+   */
+  private static Object bandsExpression(RulePatch patch, List<Object> conditions) {
+    Object bands =
+        patch.bands() != null
+            ? literal(patch.bands().stream().map(RuleDocumentMapper::toDocument).toList())
+            : new Document("$ifNull", List.of("$" + BANDS, List.of()));
+    for (BandOperation operation : patch.bandOperations()) {
+      Document label = literal(operation.label());
+      Document matches = new Document("$eq", List.of("$$this." + BAND_LABEL, label));
+      bands =
+          switch (operation.type()) {
+            case ADD ->
+                new Document(
+                    "$concatArrays",
+                    List.of(
+                        bands,
+                        List.of(
+                            literal(
+                                RuleDocumentMapper.toDocument(
+                                    RateLimitBand.builder(
+                                            Duration.ofSeconds(operation.windowSeconds()),
+                                            operation.capacity())
+                                        .label(operation.label())
+                                        .build())))));
+            case REMOVE ->
+                new Document(
+                    "$filter",
+                    new Document("input", bands)
+                        .append("cond", new Document("$not", List.of(matches))));
+            case UPDATE -> {
+              conditions.add(new Document("$anyElementTrue", List.of(map(bands, matches))));
+              Document changed = new Document();
+              if (operation.windowSeconds() != null) {
+                changed.append(BAND_WINDOW_SECONDS, operation.windowSeconds());
+              }
+              if (operation.capacity() != null) {
+                changed.append(BAND_CAPACITY, operation.capacity());
+              }
+              Document merged = new Document("$mergeObjects", List.of("$$this", literal(changed)));
+              yield map(bands, new Document("$cond", List.of(matches, merged, "$$this")));
+            }
+          };
+    }
+    return bands;
+  }
+
+  private static Document map(Object input, Object in) {
+    return new Document("$map", new Document("input", input).append("in", in));
+  }
+
+  private static Document literal(Object value) {
+    return new Document("$literal", value);
+  }
+
+  private static Document ne(Object left, Object right) {
+    return new Document("$ne", List.of(left, right));
+  }
+
+  /** Match a rule by ID and, if given, version; a document without a version is at version 0. */
+  private static Bson versionFilter(String id, Long expectedVersion) {
+    if (expectedVersion == null) {
+      return Filters.eq(ID, id);
+    }
+    Bson version =
+        expectedVersion == 0 ? Filters.in(VERSION, 0L, null) : Filters.eq(VERSION, expectedVersion);
+    return Filters.and(Filters.eq(ID, id), version);
+  }
+
+  private static StoredRule toStoredRule(Document document) {
+    return new StoredRule(
+        RuleDocumentMapper.toRule(document), RuleDocumentMapper.version(document));
+  }
+
+  private Bson ruleSetFilter(String ruleSetId) {
+    return ruleSetId != null ? Filters.eq(RULE_SET_ID, ruleSetId) : Filters.empty();
+  }
+
+  /** Translate a query into a filter document; an empty query matches every rule. */
+  static Bson queryFilter(RuleQuery query) {
+    List<Bson> filters = new ArrayList<>();
+    if (query.ruleSetId() != null) {
+      filters.add(Filters.eq(RULE_SET_ID, query.ruleSetId()));
+    }
+    if (query.scope() != null) {
+      filters.add(Filters.eq(SCOPE, query.scope()));
+    }
+    if (query.enabled() != null) {
+      filters.add(Filters.eq(ENABLED, query.enabled()));
+    }
+    if (query.onLimitExceedPolicy() != null) {
+      filters.add(Filters.eq(ON_LIMIT_EXCEED_POLICY, query.onLimitExceedPolicy()));
+    }
+    if (query.keyStrategyId() != null) {
+      filters.add(Filters.eq(KEY_STRATEGY_ID, query.keyStrategyId()));
+    }
+    if (!query.tags().isEmpty()) {
+      filters.add(Filters.all(TAGS, query.tags()));
+    }
+    if (query.namePrefix() != null) {
+      // An anchored regex without metacharacters is answered from the name index as a range
+      filters.add(Filters.regex(NAME, "^" + escapeRegex(query.namePrefix())));
+    }
+    return filters.isEmpty() ? Filters.empty() : Filters.and(filters);
+  }
+
+  private static String escapeRegex(String literal) {
+    StringBuilder escaped = new StringBuilder(literal.length() + 8);
+    for (int i = 0; i < literal.length(); i++) {
+      char c = literal.charAt(i);
+      if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+        escaped.append('\\');
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+
+  /** Read a {@code $sortByCount} facet, skipping rules without a value. */
+  private static Map<String, Long> countsByValue(Document facets, String name) {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    if (facets == null) {
+      return counts;
+    }
+    for (Document bucket : facets.getList(name, Document.class, List.of())) {
+      Object value = bucket.get("_id");
+      if (value != null) {
+        counts.put(value.toString(), toLong(bucket.get("count")));
+      }
+    }
+    return counts;
+  }
+
+  private static Document firstOrEmpty(Document facets, String name) {
+    if (facets == null) {
+      return new Document();
+    }
+    List<Document> values = facets.getList(name, Document.class, List.of());
+    return values.isEmpty() ? new Document() : values.get(0);
+  }
+
+  private static long toLong(Object value) {
+    return value instanceof Number number ? number.longValue() : 0L;
+  }
+
+  private void ensureUniqueId() {
+    try {
+      collection.createIndex(Indexes.ascending(ID), new IndexOptions().unique(true));
+      return;
+    } catch (MongoCommandException e) {
+      // A unique index on the ID created by the FluxGate adapter under another name is enough
+      for (Document index : collection.listIndexes()) {
+        if (index.getBoolean("unique", false)
+            && index.get("key", Document.class).keySet().equals(Set.of(ID))) {
+          log.debug("Using existing unique index {} on {}", index.getString("name"), ID);
+          return;
+        }
+      }
+      throw new IllegalStateException(
+          String.format(
+              "No unique index on %s.%s and it cannot be created: %s",
+              collection.getNamespace().getCollectionName(), ID, e.getErrorMessage()),
+          e);
+    }
+  }
+
+  private void createIndex(Bson keys, IndexOptions options) {
+    try {
+      collection.createIndex(keys, options);
+    } catch (MongoCommandException e) {
+      // An equivalent index created by the FluxGate adapter with different options is kept as is
+      log.warn("Could not create index {}: {}", keys, e.getErrorMessage());
+    }
+  }
+}
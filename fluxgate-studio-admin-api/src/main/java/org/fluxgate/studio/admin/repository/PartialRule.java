@@ -0,0 +1,23 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.List;
+import java.util.Map;
+import org.fluxgate.core.config.RateLimitBand;
+
+/**
+ * The fields of a stored rule that a projected read selected; unselected fields are {@code null}.
+ *
+ * @param id the rule ID, always read
+ * @param attributes the attributes, or only the {@code tags} attribute when tags were selected
+ *     without attributes
+ */
+public record PartialRule(
+    String id,
+    String name,
+    Boolean enabled,
+    String scope,
+    String keyStrategyId,
+    String onLimitExceedPolicy,
+    List<RateLimitBand> bands,
+    String ruleSetId,
+    Map<String, Object> attributes) {}
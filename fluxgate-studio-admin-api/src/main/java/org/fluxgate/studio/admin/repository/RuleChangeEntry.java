@@ -0,0 +1,25 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Latest recorded change of one rule or one deleted rule set.
+ *
+ * @param seq sequence number of the change
+ * @param kind whether the entry is about a rule or a whole rule set
+ * @param id the rule ID or rule set ID
+ * @param ruleSetIds every rule set the rule has been recorded in, or the deleted rule set
+ * @param deleted whether the rule or rule set was deleted by the change, making the entry a
+ *     tombstone
+ * @param recordedAt when the change was recorded
+ */
+public record RuleChangeEntry(
+    long seq, Kind kind, String id, List<String> ruleSetIds, boolean deleted, Instant recordedAt) {
+
+  /** What an entry is about. */
+  public enum Kind {
+    RULE,
+    RULE_SET
+  }
+}
@@ -0,0 +1,11 @@
+package org.fluxgate.studio.admin.repository;
+
+/**
+ * Current bounds of the {@link RuleChangeLogStore}.
+ *
+ * @param lastSeq highest sequence number reserved so far, 0 if nothing was recorded
+ * @param visibleThrough highest sequence number up to which every change has been written; changes
+ *     above it may still become visible out of order
+ * @param purgedThrough highest sequence number of a purged tombstone, 0 if nothing was purged
+ */
+public record RuleChangeLogPosition(long lastSeq, long visibleThrough, long purgedThrough) {}
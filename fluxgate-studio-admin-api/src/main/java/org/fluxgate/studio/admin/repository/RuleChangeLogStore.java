@@ -0,0 +1,108 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compacted log of rule changes, ordered by a sequence number shared by all Admin API instances.
+ *
+ * <p>The log keeps only the latest change per rule and per deleted rule set, so its size is
+ * bounded by the number of rules plus the tombstones of deletions that have not been purged yet.
+ * A reader that has seen every change up to some sequence number catches up by reading the
+ * entries above it, up to {@link RuleChangeLogPosition#visibleThrough()}; once tombstones above
+ * that number have been purged it must reload instead.
+ */
+public interface RuleChangeLogStore {
+
+  /**
+   * Record rule changes under new, increasing sequence numbers in the given order.
+   *
+   * @param changes the changes, at most one per rule
+   */
+  void recordRules(List<RuleChangeRecord> changes);
+
+  /**
+   * Note that rules are about to be written, without recording any change yet. If the writer stops
+   * before {@link #completeRules}, {@link #recordAbandonedWrites()} records the rules as changed.
+   *
+   * @param ruleIds the rules about to be written, at most once each
+   * @param deleting whether the rules are about to be deleted
+   * @return the reservation to complete once the rules are written
+   */
+  RuleChangeReservation prepareRules(Collection<String> ruleIds, boolean deleting);
+
+  /**
+   * Record the changes of a prepared write under new sequence numbers. If readers passed the
+   * numbers because the reservation timed out, the changes are recorded again.
+   *
+   * <p>When nothing was written, for example because the write was rejected, nothing is recorded
+   * and no sequence number is used. When the outcome of the write is unknown, all prepared rules
+   * are recorded with unknown rule sets: their entries match every rule set filter, so readers of
+   * any rule set reload the rules.
+   *
+   * @param reservation the prepared write
+   * @param changes the changes that were written, empty if nothing was written, {@code null} if
+   *     the outcome of the write is unknown
+   */
+  void completeRules(RuleChangeReservation reservation, List<RuleChangeRecord> changes);
+
+  /**
+   * Record that all rules of a rule set were deleted. The entries of its rules become tombstones
+   * without a new sequence number; the rule set entry carries the deletion.
+   *
+   * @param ruleSetId the deleted rule set
+   */
+  void recordRuleSetDeleted(String ruleSetId);
+
+  /**
+   * Note that a rule set is about to be deleted, like {@link #prepareRules}.
+   *
+   * @param ruleSetId the rule set about to be deleted
+   * @return the reservation to complete once the rules are deleted
+   */
+  RuleChangeReservation prepareRuleSetDeleted(String ruleSetId);
+
+  /**
+   * Record the deletion of a prepared rule set, like {@link #recordRuleSetDeleted}.
+   *
+   * @param reservation the prepared deletion
+   * @param ruleSetId the deleted rule set
+   */
+  void completeRuleSetDeleted(RuleChangeReservation reservation, String ruleSetId);
+
+  /**
+   * Record the changes of prepared writes that were not completed within the reservation timeout,
+   * because their writer stopped, as writes with an unknown outcome.
+   *
+   * @return number of recorded writes
+   */
+  int recordAbandonedWrites();
+
+  /**
+   * Find the entries recorded after a sequence number.
+   *
+   * @param since exclusive lower bound on the sequence number
+   * @param through inclusive upper bound on the sequence number
+   * @param ruleSetId optional rule set filter, {@code null} for all entries
+   * @param limit maximum number of entries to return
+   * @return entries in sequence order
+   */
+  List<RuleChangeEntry> findSince(long since, long through, String ruleSetId, int limit);
+
+  /**
+   * Get the current bounds of the log in one round trip. The visible end stays below reservations
+   * whose rule writes have not completed yet.
+   *
+   * @return the bounds
+   */
+  RuleChangeLogPosition position();
+
+  /**
+   * Remove tombstones recorded before a cutoff and raise {@link #purgedThrough()} accordingly.
+   *
+   * @param recordedBefore exclusive upper bound on the recording time
+   * @return number of removed tombstones
+   */
+  long purgeTombstones(Instant recordedBefore);
+}
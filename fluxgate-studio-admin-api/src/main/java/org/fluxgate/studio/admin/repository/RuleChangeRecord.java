@@ -0,0 +1,33 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.Objects;
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * One rule change to record in the {@link RuleChangeLogStore}.
+ *
+ * @param ruleId the changed rule
+ * @param ruleSetId the rule set of the rule after the change, or before it was deleted
+ * @param previousRuleSetId the rule set the rule was moved away from, if known and different
+ * @param deleted whether the rule was deleted
+ */
+public record RuleChangeRecord(
+    String ruleId, String ruleSetId, String previousRuleSetId, boolean deleted) {
+
+  public static RuleChangeRecord changed(RateLimitRule rule) {
+    return changed(rule, null);
+  }
+
+  public static RuleChangeRecord changed(RateLimitRule rule, String previousRuleSetId) {
+    String ruleSetId = rule.getRuleSetIdOrNull();
+    return new RuleChangeRecord(
+        rule.getId(),
+        ruleSetId,
+        Objects.equals(previousRuleSetId, ruleSetId) ? null : previousRuleSetId,
+        false);
+  }
+
+  public static RuleChangeRecord deleted(String ruleId, String ruleSetId) {
+    return new RuleChangeRecord(ruleId, ruleSetId, null, true);
+  }
+}
@@ -0,0 +1,13 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.List;
+
+/**
+ * A rule write noted in the change log before it runs, whose changes are recorded once it is
+ * completed.
+ *
+ * @param token identifies the prepared write
+ * @param ruleIds the rules about to be written, empty for a rule set deletion
+ * @param deleting whether the rules were about to be deleted
+ */
+public record RuleChangeReservation(String token, List<String> ruleIds, boolean deleting) {}
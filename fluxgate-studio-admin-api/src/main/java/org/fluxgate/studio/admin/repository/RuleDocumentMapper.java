@@ -0,0 +1,173 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.Document;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * Maps {@link RateLimitRule} to and from the BSON layout of the {@code rate_limit_rules}
+ * collection.
+ *
+ * <p>The field names mirror the document layout written by the FluxGate Mongo adapter, so rules
+ * written here remain readable by gateways that load them through {@code
+ * MongoRateLimitRuleRepository}. The {@link #VERSION} field is only kept by Studio and is not
+ * part of the rule itself.
+ */
+public final class RuleDocumentMapper {
+
+  public static final String ID = "id";
+  public static final String NAME = "name";
+  public static final String ENABLED = "enabled";
+  public static final String SCOPE = "scope";
+  public static final String KEY_STRATEGY_ID = "keyStrategyId";
+  public static final String ON_LIMIT_EXCEED_POLICY = "onLimitExceedPolicy";
+  public static final String RULE_SET_ID = "ruleSetId";
+  public static final String BANDS = "bands";
+  public static final String ATTRIBUTES = "attributes";
+  public static final String VERSION = "version";
+
+  /** Path of the tag list inside {@link #ATTRIBUTES}. */
+  public static final String TAGS = ATTRIBUTES + ".tags";
+
+  public static final String BAND_WINDOW_SECONDS = "windowSeconds";
+  public static final String BAND_CAPACITY = "capacity";
+  public static final String BAND_LABEL = "label";
+
+  private RuleDocumentMapper() {}
+
+  /**
+   * Convert a rule to its document representation.
+   *
+   * @param rule the rule
+   * @return the BSON document
+   */
+  public static Document toDocument(RateLimitRule rule) {
+    List<Document> bands = new ArrayList<>(rule.getBands().size());
+    for (RateLimitBand band : rule.getBands()) {
+      bands.add(toDocument(band));
+    }
+
+    return new Document(ID, rule.getId())
+        .append(NAME, rule.getName())
+        .append(ENABLED, rule.isEnabled())
+        .append(SCOPE, rule.getScope().name())
+        .append(KEY_STRATEGY_ID, rule.getKeyStrategyId())
+        .append(ON_LIMIT_EXCEED_POLICY, rule.getOnLimitExceedPolicy().name())
+        .append(RULE_SET_ID, rule.getRuleSetIdOrNull())
+        .append(BANDS, bands)
+        .append(
+            ATTRIBUTES,
+            rule.getAttributes() != null ? new Document(rule.getAttributes()) : new Document());
+  }
+
+  /**
+   * Convert a band to its document representation inside {@link #BANDS}.
+   *
+   * @param band the band
+   * @return the BSON document
+   */
+  public static Document toDocument(RateLimitBand band) {
+    return new Document(BAND_WINDOW_SECONDS, band.getWindow().toSeconds())
+        .append(BAND_CAPACITY, band.getCapacity())
+        .append(BAND_LABEL, band.getLabel());
+  }
+
+  /**
+   * Convert a stored document back to a rule.
+   *
+   * @param document the BSON document
+   * @return the rule
+   */
+  public static RateLimitRule toRule(Document document) {
+    RateLimitRule.Builder builder =
+        RateLimitRule.builder(document.getString(ID))
+            .name(document.getString(NAME))
+            .enabled(document.getBoolean(ENABLED, true))
+            .scope(LimitScope.valueOf(document.getString(SCOPE)))
+            .keyStrategyId(document.getString(KEY_STRATEGY_ID))
+            .onLimitExceedPolicy(
+                OnLimitExceedPolicy.valueOf(document.getString(ON_LIMIT_EXCEED_POLICY)))
+            .ruleSetId(document.getString(RULE_SET_ID))
+            .attributes(toMap(document.get(ATTRIBUTES, Document.class)));
+
+    toBands(document).forEach(builder::addBand);
+    return builder.build();
+  }
+
+  /**
+   * Convert a document read with a projection of the selected fields.
+   *
+   * @param document the projected BSON document
+   * @param fields the selected fields
+   * @return the selected fields of the rule
+   */
+  public static PartialRule toPartialRule(Document document, Set<RuleField> fields) {
+    boolean attributes =
+        fields.contains(RuleField.ATTRIBUTES) || fields.contains(RuleField.TAGS);
+    return new PartialRule(
+        document.getString(ID),
+        document.getString(NAME),
+        fields.contains(RuleField.ENABLED) ? document.getBoolean(ENABLED, true) : null,
+        document.getString(SCOPE),
+        document.getString(KEY_STRATEGY_ID),
+        document.getString(ON_LIMIT_EXCEED_POLICY),
+        fields.contains(RuleField.BANDS) ? toBands(document) : null,
+        document.getString(RULE_SET_ID),
+        attributes ? toMap(document.get(ATTRIBUTES, Document.class)) : null);
+  }
+
+  /**
+   * Read the version of a stored document.
+   *
+   * @param document the BSON document
+   * @return the version, or 0 if the document has none
+   */
+  public static long version(Document document) {
+    return toLong(document.get(VERSION));
+  }
+
+  private static List<RateLimitBand> toBands(Document document) {
+    List<Document> bands = document.getList(BANDS, Document.class, List.of());
+    List<RateLimitBand> result = new ArrayList<>(bands.size());
+    for (Document band : bands) {
+      result.add(
+          RateLimitBand.builder(
+                  Duration.ofSeconds(toLong(band.get(BAND_WINDOW_SECONDS))),
+                  toLong(band.get(BAND_CAPACITY)))
+              .label(band.getString(BAND_LABEL))
+              .build());
+    }
+    return result;
+  }
+
+  private static Map<String, Object> toMap(Document attributes) {
+    if (attributes == null) {
+      return new LinkedHashMap<>();
+    }
+    Map<String, Object> map = new LinkedHashMap<>(attributes.size());
+    attributes.forEach((key, value) -> map.put(key, unwrap(value)));
+    return map;
+  }
+
+  private static Object unwrap(Object value) {
+    if (value instanceof Document nested) {
+      return toMap(nested);
+    }
+    if (value instanceof List<?> list) {
+      return list.stream().map(RuleDocumentMapper::unwrap).toList();
+    }
+    return value;
+  }
+
+  private static long toLong(Object value) {
+    return value instanceof Number number ? number.longValue() : 0L;
+  }
+}
@@ -0,0 +1,22 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.Map;
+
+/**
+ * Counts of the rules matching a {@link RuleQuery}, broken down by field value. Each map is ordered
+ * by descending count.
+ *
+ * @param total number of matching rules
+ * @param enabled number of matching rules that are enabled
+ * @param scopes matching rules per scope
+ * @param onLimitExceedPolicies matching rules per limit-exceeded policy
+ * @param keyStrategies matching rules per key strategy
+ * @param tags matching rules per tag, limited to the most frequent tags
+ */
+public record RuleFacets(
+    long total,
+    long enabled,
+    Map<String, Long> scopes,
+    Map<String, Long> onLimitExceedPolicies,
+    Map<String, Long> keyStrategies,
+    Map<String, Long> tags) {}
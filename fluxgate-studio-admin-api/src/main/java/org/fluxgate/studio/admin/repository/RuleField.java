@@ -0,0 +1,56 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** A rule field that a projected read can select, with its API name and stored paths. */
+public enum RuleField {
+  ID("id", RuleDocumentMapper.ID),
+  NAME("name", RuleDocumentMapper.NAME),
+  ENABLED("enabled", RuleDocumentMapper.ENABLED),
+  SCOPE("scope", RuleDocumentMapper.SCOPE),
+  KEY_STRATEGY_ID("keyStrategyId", RuleDocumentMapper.KEY_STRATEGY_ID),
+  ON_LIMIT_EXCEED_POLICY("onLimitExceedPolicy", RuleDocumentMapper.ON_LIMIT_EXCEED_POLICY),
+  BANDS("bands", RuleDocumentMapper.BANDS),
+  RULE_SET_ID("ruleSetId", RuleDocumentMapper.RULE_SET_ID),
+  TAGS("tags", RuleDocumentMapper.TAGS),
+  ATTRIBUTES("attributes", RuleDocumentMapper.ATTRIBUTES);
+
+  private final String apiName;
+  private final String documentPath;
+
+  RuleField(String apiName, String documentPath) {
+    this.apiName = apiName;
+    this.documentPath = documentPath;
+  }
+
+  /** Name of the field in rule responses. */
+  public String apiName() {
+    return apiName;
+  }
+
+  /** Path of the field in the stored document. */
+  public String documentPath() {
+    return documentPath;
+  }
+
+  /**
+   * Find a field by its API name.
+   *
+   * @param apiName the name in rule responses
+   * @return the field, or {@code null} if there is none
+   */
+  public static RuleField fromApiName(String apiName) {
+    for (RuleField field : values()) {
+      if (field.apiName.equals(apiName)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  /** API names of all fields, in response order. */
+  public static List<String> apiNames() {
+    return Arrays.stream(values()).map(RuleField::apiName).toList();
+  }
+}
@@ -0,0 +1,12 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.time.Instant;
+
+/**
+ * A rule change waiting in the outbox to be published to gateways.
+ *
+ * @param id outbox entry ID
+ * @param ruleSetId the changed rule set, or null when all rules must be reloaded
+ * @param createdAt when the change was recorded
+ */
+public record RuleOutboxEntry(String id, String ruleSetId, Instant createdAt) {}
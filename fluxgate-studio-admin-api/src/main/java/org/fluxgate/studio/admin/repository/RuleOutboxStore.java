@@ -0,0 +1,50 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/** Durable queue of rule changes that still have to be published to gateways. */
+public interface RuleOutboxStore {
+
+  /**
+   * Record a rule change.
+   *
+   * @param ruleSetId the changed rule set, or null when all rules must be reloaded
+   */
+  void append(String ruleSetId);
+
+  /**
+   * Claim the oldest pending entries that no other owner holds a lease on, in the order they were
+   * recorded. Entries the owner already holds are claimed again, so a failed publish can be
+   * retried without waiting for the lease to expire.
+   *
+   * @param owner identifies the claiming dispatcher
+   * @param limit maximum number of entries to claim
+   * @param lease how long the entries are reserved for the owner
+   * @return claimed entries, oldest first
+   */
+  List<RuleOutboxEntry> claim(String owner, int limit, Duration lease);
+
+  /**
+   * Remove entries once they have been published.
+   *
+   * @param ids outbox entry IDs
+   */
+  void delete(List<String> ids);
+
+  /**
+   * Count pending entries.
+   *
+   * @return number of entries not yet published
+   */
+  long count();
+
+  /**
+   * Find when the oldest pending entry was recorded.
+   *
+   * @return creation time of the oldest entry not yet published, or empty if the outbox is empty
+   */
+  Optional<Instant> oldestCreatedAt();
+}
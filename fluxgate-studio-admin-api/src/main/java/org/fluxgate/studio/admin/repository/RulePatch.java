@@ -0,0 +1,51 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.List;
+import java.util.Map;
+import org.fluxgate.core.config.RateLimitBand;
+
+/**
+ * Field-level changes to one rule, applied atomically by {@link RuleStore#patch}.
+ *
+ * @param fields rule fields to set, keyed by their {@link RuleDocumentMapper} name; only {@link
+ *     RuleDocumentMapper#RULE_SET_ID} may be set to {@code null}
+ * @param attributes attributes to set, keyed by name; a {@code null} value removes the attribute
+ * @param bands bands that replace all bands, or {@code null} to keep them
+ * @param bandOperations changes to single bands, applied in order
+ */
+public record RulePatch(
+    Map<String, Object> fields,
+    Map<String, Object> attributes,
+    List<RateLimitBand> bands,
+    List<BandOperation> bandOperations) {
+
+  /** Whether the patch changes nothing. */
+  public boolean isEmpty() {
+    return fields.isEmpty() && attributes.isEmpty() && bands == null && bandOperations.isEmpty();
+  }
+
+  /** Whether the patch changes the bands. */
+  public boolean changesBands() {
+    return bands != null || !bandOperations.isEmpty();
+  }
+
+  /**
+   * A change to a single band, matched by its label.
+   *
+   * @param type what to do
+   * @param label label of the band to remove or update, or of the added band
+   * @param windowSeconds window of an added band, or the new window of an updated band; {@code
+   *     null} keeps the window of an updated band
+   * @param capacity capacity of an added band, or the new capacity of an updated band; {@code
+   *     null} keeps the capacity of an updated band
+   */
+  public record BandOperation(Type type, String label, Long windowSeconds, Long capacity) {
+
+    /** Kind of band change. */
+    public enum Type {
+      ADD,
+      REMOVE,
+      UPDATE
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.List;
+
+/**
+ * Filters of a rule search. Every non-null filter must match; a {@code null} filter matches all
+ * rules.
+ *
+ * @param ruleSetId exact rule set ID
+ * @param scope exact {@code LimitScope} name
+ * @param enabled enabled flag
+ * @param onLimitExceedPolicy exact {@code OnLimitExceedPolicy} name
+ * @param keyStrategyId exact key strategy ID
+ * @param tags tags that must all be present in {@code attributes.tags}
+ * @param namePrefix case-sensitive prefix of the rule name
+ */
+public record RuleQuery(
+    String ruleSetId,
+    String scope,
+    Boolean enabled,
+    String onLimitExceedPolicy,
+    String keyStrategyId,
+    List<String> tags,
+    String namePrefix) {
+
+  public RuleQuery {
+    tags = tags != null ? List.copyOf(tags) : List.of();
+  }
+}
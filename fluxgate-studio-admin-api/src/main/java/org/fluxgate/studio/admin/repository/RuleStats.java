@@ -0,0 +1,10 @@
+package org.fluxgate.studio.admin.repository;
+
+/**
+ * Rule counts computed by the database.
+ *
+ * @param totalRules number of rules
+ * @param enabledRules number of enabled rules
+ * @param ruleSets number of distinct non-empty rule set IDs
+ */
+public record RuleStats(long totalRules, long enabledRules, long ruleSets) {}
@@ -0,0 +1,193 @@
+package org.fluxgate.studio.admin.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * Studio-side access to the rule collection for queries that the FluxGate {@code
+ * RateLimitRuleRepository} SPI cannot express, such as keyset pagination, cursor streaming and
+ * server-side aggregation.
+ */
+public interface RuleStore {
+
+  /**
+   * Find a page of rules ordered by ID, starting after the given ID.
+   *
+   * @param ruleSetId optional rule set filter, {@code null} for all rules
+   * @param afterId exclusive lower bound on the rule ID, {@code null} for the first page
+   * @param limit maximum number of rules to return
+   * @return rules ordered by ID
+   */
+  List<RateLimitRule> findPage(String ruleSetId, String afterId, int limit);
+
+  /**
+   * Find a page of rules matching a query, ordered by ID, starting after the given ID. The filters
+   * are evaluated by the database.
+   *
+   * @param query the filters to apply
+   * @param afterId exclusive lower bound on the rule ID, {@code null} for the first page
+   * @param limit maximum number of rules to return
+   * @return matching rules ordered by ID
+   */
+  List<RateLimitRule> search(RuleQuery query, String afterId, int limit);
+
+  /**
+   * Find a page of rules matching a query like {@link #search}, reading only the selected fields
+   * with a projection, so MongoDB neither reads nor sends the others.
+   *
+   * @param query the filters to apply
+   * @param afterId exclusive lower bound on the rule ID, {@code null} for the first page
+   * @param limit maximum number of rules to return, 0 for all
+   * @param fields the fields to read; the ID is always read
+   * @return the selected fields of the matching rules ordered by ID
+   */
+  List<PartialRule> findPartial(RuleQuery query, String afterId, int limit, Set<RuleField> fields);
+
+  /**
+   * Count the rules matching a query per scope, policy, key strategy and tag in a single database
+   * round trip.
+   *
+   * @param query the filters to apply
+   * @param maxTags largest number of tags to count, the most frequent first
+   * @return the counts
+   */
+  RuleFacets countFacets(RuleQuery query, int maxTags);
+
+  /**
+   * Stream rules ordered by ID to the given consumer as they are read from the database cursor.
+   *
+   * @param ruleSetId optional rule set filter, {@code null} for all rules
+   * @param action consumer invoked for every rule
+   */
+  void forEach(String ruleSetId, Consumer<RateLimitRule> action);
+
+  /**
+   * Find the rules with the given IDs in a single round trip. Missing IDs are skipped.
+   *
+   * @param ids the rule IDs
+   * @return the rules that exist, in no particular order
+   */
+  List<RateLimitRule> findByIds(Collection<String> ids);
+
+  /**
+   * Stream rules with their versions ordered by ID, as {@link #forEach(String, Consumer)}.
+   *
+   * @param ruleSetId optional rule set filter, {@code null} for all rules
+   * @param action consumer invoked for every rule
+   */
+  void forEachStored(String ruleSetId, Consumer<StoredRule> action);
+
+  /**
+   * Find the rules with the given IDs and their versions in a single round trip. Missing IDs are
+   * skipped.
+   *
+   * @param ids the rule IDs
+   * @return the rules that exist, in no particular order
+   */
+  List<StoredRule> findStoredByIds(Collection<String> ids);
+
+  /**
+   * Find a rule with its version, read from the database.
+   *
+   * @param id the rule ID
+   * @return the rule, or empty if it does not exist
+   */
+  Optional<StoredRule> findById(String id);
+
+  /**
+   * Count total rules, enabled rules and distinct rule sets in a single database round trip.
+   *
+   * @return the aggregated counts
+   */
+  RuleStats aggregateStats();
+
+  /**
+   * Atomically flip the {@code enabled} flag of a rule and increment its version in a single round
+   * trip, leaving every other field untouched.
+   *
+   * @param id the rule ID
+   * @param expectedVersion version the rule must be at, {@code null} for any
+   * @return the rule after the update, or empty if no rule with the ID and version exists
+   */
+  Optional<StoredRule> toggleEnabled(String id, Long expectedVersion);
+
+  /**
+   * Insert a new rule at {@link StoredRule#INITIAL_VERSION}, relying on the unique ID index to
+   * reject duplicates.
+   *
+   * @param rule the rule to insert
+   * @return true if inserted, false if a rule with the same ID already exists
+   */
+  boolean insert(RateLimitRule rule);
+
+  /**
+   * Overwrite an existing rule matched by ID and increment its version in a single round trip.
+   * With an expected version this is a compare-and-set.
+   *
+   * @param rule the new rule content
+   * @param expectedVersion version the rule must be at, {@code null} for any
+   * @return the rule with its new version and the rule set it was in, or empty if no rule with the
+   *     ID and version exists
+   */
+  Optional<UpdatedRule> replace(RateLimitRule rule, Long expectedVersion);
+
+  /**
+   * Apply field-level changes to a rule and increment its version in a single round trip, leaving
+   * the fields the patch does not name untouched.
+   *
+   * <p>The update only matches when it changes the stored rule, finds every band it updates and
+   * leaves the rule at least one band, and, with an expected version, when the rule is at that
+   * version. A patch that would change nothing is therefore not written.
+   *
+   * <p>A patch that moves the rule to another rule set also only matches while the rule is in the
+   * rule set read just before, so the previous rule set is exact even under concurrent moves.
+   *
+   * @param id the rule ID
+   * @param patch the changes, not empty
+   * @param expectedVersion version the rule must be at, {@code null} for any
+   * @return the rule after the update and the rule set it was in, or empty if nothing matched
+   */
+  Optional<UpdatedRule> patch(String id, RulePatch patch, Long expectedVersion);
+
+  /**
+   * Atomically delete a rule and return its last state in a single round trip.
+   *
+   * @param id the rule ID
+   * @return the deleted rule with the version it was deleted at, or empty if it does not exist
+   */
+  Optional<StoredRule> findAndDelete(String id);
+
+  /**
+   * Apply many inserts and replaces with one unordered bulk write. Replaces increment the version
+   * like {@link #replace} without an expected version.
+   *
+   * @param writes the writes to apply
+   * @return one result per write, in the same order
+   */
+  List<RuleWriteResult> bulkWrite(List<RuleWrite> writes);
+
+  /**
+   * Find the rules that match a filter and are not in the requested enabled state, to prepare
+   * their change log entries before {@link #setEnabled} changes them.
+   *
+   * @param query the filter
+   * @param ids rule IDs the rules must have, or empty for any
+   * @param enabled the requested state
+   * @return the matched count and the rules to change
+   */
+  EnabledChanges findEnabledChanges(RuleQuery query, Collection<String> ids, boolean enabled);
+
+  /**
+   * Enable or disable rules with one multi-document update, which increments the version of the
+   * rules it changes. Rules already in the requested state are left untouched.
+   *
+   * @param ids the rules to change
+   * @param enabled the requested state
+   * @return the number of modified rules
+   */
+  long setEnabled(Collection<String> ids, boolean enabled);
+}
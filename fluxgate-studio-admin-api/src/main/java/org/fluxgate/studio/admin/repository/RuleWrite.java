@@ -0,0 +1,26 @@
+package org.fluxgate.studio.admin.repository;
+
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * One write of a bulk operation.
+ *
+ * @param type whether the rule is inserted or replaces an existing rule
+ * @param rule the rule content
+ */
+public record RuleWrite(Type type, RateLimitRule rule) {
+
+  /** Kind of write. */
+  public enum Type {
+    INSERT,
+    REPLACE
+  }
+
+  public static RuleWrite insert(RateLimitRule rule) {
+    return new RuleWrite(Type.INSERT, rule);
+  }
+
+  public static RuleWrite replace(RateLimitRule rule) {
+    return new RuleWrite(Type.REPLACE, rule);
+  }
+}
@@ -0,0 +1,23 @@
+package org.fluxgate.studio.admin.repository;
+
+/**
+ * Outcome of one write of a bulk operation.
+ *
+ * @param status the outcome
+ * @param previousRuleSetId rule set ID before a successful replace, null otherwise
+ * @param message error detail for failed writes
+ */
+public record RuleWriteResult(Status status, String previousRuleSetId, String message) {
+
+  /** Write outcome. */
+  public enum Status {
+    APPLIED,
+    DUPLICATE,
+    NOT_FOUND,
+    FAILED
+  }
+
+  public boolean applied() {
+    return status == Status.APPLIED;
+  }
+}
@@ -0,0 +1,16 @@
+package org.fluxgate.studio.admin.repository;
+
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * A rule together with the version of its stored document.
+ *
+ * @param rule the rule
+ * @param version incremented by every write through the {@link RuleStore}, starting at {@link
+ *     #INITIAL_VERSION}; 0 for documents written by other tools
+ */
+public record StoredRule(RateLimitRule rule, long version) {
+
+  /** Version of a newly inserted rule. */
+  public static final long INITIAL_VERSION = 1;
+}
@@ -0,0 +1,9 @@
+package org.fluxgate.studio.admin.repository;
+
+/**
+ * Outcome of an update that can move a rule to another rule set.
+ *
+ * @param stored the rule with its new version
+ * @param previousRuleSetId rule set ID the rule had right before the update
+ */
+public record UpdatedRule(StoredRule stored, String previousRuleSetId) {}
@@ -0,0 +1,620 @@
+package org.fluxgate.studio.admin.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestion;
+
+/**
+ * In-memory type-ahead index over rule IDs, names and tags.
+ *
+ * <p>Every field is lower-cased and split into terms at characters that are not letters or
+ * digits; IDs and tags are also indexed as a whole, so {@code rule-00} finds {@code rule-0042}. A
+ * sorted term dictionary answers prefix queries and a trigram index over the terms finds fuzzy
+ * candidates, which are then checked with a bounded edit distance against the start of the term.
+ * Each term keeps a postings list of {@code (rule, field)} pairs.
+ *
+ * <p>A query matches a rule when every whitespace-separated query token matches one of its terms.
+ * Per token a rule scores its best match: the field weight (ID over name over tag) times the match
+ * quality (exact term over prefix over fuzzy match). Token scores are summed and ties are broken
+ * by ID. Very common prefixes and trigrams are cut off at fixed budgets, so a query costs about the
+ * same whatever the number of rules.
+ *
+ * <p>Not thread-safe; see {@link RuleSuggestService}.
+ */
+public final class RuleSuggestIndex {
+
+  private static final int FIELD_ID = 0;
+  private static final int FIELD_NAME = 1;
+  private static final int FIELD_TAG = 2;
+  private static final float[] FIELD_WEIGHTS = {3f, 2f, 1f};
+
+  private static final float EXACT_QUALITY = 1f;
+  private static final float FUZZY_QUALITY = 0.4f;
+
+  /** Most terms read for one prefix. */
+  private static final int MAX_PREFIX_TERMS = 512;
+
+  /** Most rules collected for one query token. */
+  private static final int MAX_CANDIDATES = 2048;
+
+  /** Trigrams shared by more terms are too common to narrow down fuzzy candidates. */
+  private static final int MAX_GRAM_TERMS = 2048;
+
+  /** Typos are only looked for while the prefix matches fewer rules. */
+  private static final int FUZZY_BELOW_CANDIDATES = 64;
+
+  private static final int MIN_FUZZY_LENGTH = 3;
+  private static final int TWO_EDITS_LENGTH = 6;
+  private static final char GRAM_START = '\u0002';
+
+  private final Map<String, Doc> docsById = new HashMap<>();
+  private final TreeMap<String, Term> terms = new TreeMap<>();
+  private final Map<String, Set<Term>> grams = new HashMap<>();
+  private Doc[] docs = new Doc[64];
+  private int[] freeOrdinals = new int[16];
+  private int freeCount;
+  private int nextOrdinal;
+
+  /** Number of indexed rules. */
+  public int size() {
+    return docsById.size();
+  }
+
+  /** Number of distinct terms. */
+  public int termCount() {
+    return terms.size();
+  }
+
+  /**
+   * Add a rule, replacing an earlier version with the same ID.
+   *
+   * @param id the rule ID
+   * @param name the rule name, may be null
+   * @param ruleSetId the rule set, may be null
+   * @param tags the rule tags, may be null
+   */
+  public void put(String id, String name, String ruleSetId, List<String> tags) {
+    remove(id);
+    List<String> tagList = tags != null ? List.copyOf(tags) : List.of();
+    Doc doc = new Doc(allocateOrdinal(), id, name, ruleSetId, tagList);
+    docs[doc.ordinal] = doc;
+    docsById.put(id, doc);
+
+    index(doc, id, FIELD_ID, true);
+    index(doc, name, FIELD_NAME, false);
+    for (String tag : tagList) {
+      index(doc, tag, FIELD_TAG, true);
+    }
+    doc.seal();
+  }
+
+  /**
+   * Remove a rule.
+   *
+   * @param id the rule ID
+   * @return true if the rule was indexed
+   */
+  public boolean remove(String id) {
+    Doc doc = docsById.get(id);
+    if (doc == null) {
+      return false;
+    }
+    removeAll(List.of(doc));
+    return true;
+  }
+
+  /**
+   * Remove all rules of a rule set.
+   *
+   * @param ruleSetId the rule set
+   * @return number of removed rules
+   */
+  public int removeRuleSet(String ruleSetId) {
+    List<Doc> removed =
+        docsById.values().stream()
+            .filter(doc -> Objects.equals(doc.ruleSetId, ruleSetId))
+            .toList();
+    removeAll(removed);
+    return removed.size();
+  }
+
+  /**
+   * Find the best matching rules.
+   *
+   * @param query free text typed by the user
+   * @param limit largest number of suggestions
+   * @return suggestions, best first
+   */
+  public List<RuleSuggestion> suggest(String query, int limit) {
+    List<String> tokens = tokenizeQuery(query);
+    if (tokens.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    // The rarest token picks the candidates; the others only have to be checked against them
+    tokens.sort(Comparator.comparingInt(this::estimateMatches));
+    ScoreMap scores = match(tokens.get(0));
+    for (int i = 1; i < tokens.size() && scores.size() > 0; i++) {
+      String token = tokens.get(i);
+      ScoreMap matched = matchWithin(token, scores, -1);
+      if (matched.size() < FUZZY_BELOW_CANDIDATES && token.length() >= MIN_FUZZY_LENGTH) {
+        matched = matchWithin(token, scores, maxEdits(token));
+      }
+      scores = matched;
+    }
+    if (scores.size() == 0) {
+      return List.of();
+    }
+
+    int[] top = top(scores, limit);
+    List<RuleSuggestion> suggestions = new ArrayList<>(top.length);
+    for (int ordinal : top) {
+      Doc doc = docs[ordinal];
+      suggestions.add(
+          new RuleSuggestion(doc.id, doc.name, doc.ruleSetId, doc.tags, scores.get(ordinal)));
+    }
+    return suggestions;
+  }
+
+  private ScoreMap match(String token) {
+    ScoreMap scores = new ScoreMap(MAX_CANDIDATES);
+    int prefixTerms = 0;
+    for (Term term : terms.tailMap(token, true).values()) {
+      if (!term.text.startsWith(token) || prefixTerms++ == MAX_PREFIX_TERMS) {
+        break;
+      }
+      if (!collect(term, prefixQuality(token, term.text), scores)) {
+        return scores;
+      }
+    }
+    // Typos are only looked for when the prefix alone finds few rules
+    if (token.length() >= MIN_FUZZY_LENGTH && scores.size() < FUZZY_BELOW_CANDIDATES) {
+      matchFuzzy(token, scores);
+    }
+    return scores;
+  }
+
+  /**
+   * Rules among the candidates with a term matching the token, with their summed scores.
+   *
+   * @param maxEdits edits allowed for a fuzzy match, or {@code -1} for prefix matches only
+   */
+  private ScoreMap matchWithin(String token, ScoreMap candidates, int maxEdits) {
+    ScoreMap result = new ScoreMap(candidates.size());
+    for (int slot = 0; slot < candidates.keys.length; slot++) {
+      int ordinal = candidates.keys[slot];
+      if (ordinal == ScoreMap.EMPTY) {
+        continue;
+      }
+      Doc doc = docs[ordinal];
+      float best = 0f;
+      for (int t = 0; t < doc.termTexts.length; t++) {
+        String text = doc.termTexts[t];
+        float quality;
+        if (text.startsWith(token)) {
+          quality = prefixQuality(token, text);
+        } else if (maxEdits > 0) {
+          int distance = prefixDistance(token, text, maxEdits);
+          quality = distance <= maxEdits ? fuzzyQuality(token, distance) : 0f;
+        } else {
+          quality = 0f;
+        }
+        best = Math.max(best, FIELD_WEIGHTS[doc.termFields[t]] * quality);
+      }
+      if (best > 0f) {
+        result.putMax(ordinal, candidates.values[slot] + best);
+      }
+    }
+    return result;
+  }
+
+  /** Number of postings under the token's prefix, counted up to the candidate budget. */
+  private int estimateMatches(String token) {
+    int postings = 0;
+    int prefixTerms = 0;
+    for (Term term : terms.tailMap(token, true).values()) {
+      if (!term.text.startsWith(token)
+          || prefixTerms++ == MAX_PREFIX_TERMS
+          || postings >= MAX_CANDIDATES) {
+        break;
+      }
+      postings += term.size;
+    }
+    return postings;
+  }
+
+  private static int maxEdits(String token) {
+    return token.length() >= TWO_EDITS_LENGTH ? 2 : 1;
+  }
+
+  private static float prefixQuality(String token, String text) {
+    return text.length() == token.length()
+        ? EXACT_QUALITY
+        : 0.5f + 0.5f * token.length() / text.length();
+  }
+
+  private static float fuzzyQuality(String token, int distance) {
+    return FUZZY_QUALITY * (1f - (float) distance / (token.length() + 1));
+  }
+
+  /** Add terms that start within a small edit distance of the token. */
+  private void matchFuzzy(String token, ScoreMap scores) {
+    int maxEdits = maxEdits(token);
+    Map<Term, int[]> shared = new HashMap<>();
+    int usedGrams = 0;
+    for (String gram : grams(token)) {
+      Set<Term> gramTerms = grams.get(gram);
+      if (gramTerms == null || gramTerms.size() > MAX_GRAM_TERMS) {
+        continue;
+      }
+      usedGrams++;
+      for (Term term : gramTerms) {
+        shared.computeIfAbsent(term, t -> new int[1])[0]++;
+      }
+    }
+    // One edit changes at most three trigrams
+    int threshold = Math.max(1, usedGrams - 3 * maxEdits);
+    for (Map.Entry<Term, int[]> candidate : shared.entrySet()) {
+      Term term = candidate.getKey();
+      if (candidate.getValue()[0] < threshold || term.text.startsWith(token)) {
+        continue;
+      }
+      int distance = prefixDistance(token, term.text, maxEdits);
+      if (distance <= maxEdits) {
+        if (!collect(term, fuzzyQuality(token, distance), scores)) {
+          return;
+        }
+      }
+    }
+  }
+
+  /** Record the term's rules with their best score; false once the candidate budget is used. */
+  private static boolean collect(Term term, float quality, ScoreMap scores) {
+    for (int i = 0; i < term.size; i++) {
+      int posting = term.postings[i];
+      scores.putMax(posting >>> 2, FIELD_WEIGHTS[posting & 3] * quality);
+      if (scores.size() >= MAX_CANDIDATES) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Ordinals of the {@code limit} best scores, best first, ties ordered by rule ID. */
+  private int[] top(ScoreMap scores, int limit) {
+    int[] top = new int[Math.min(limit, scores.size())];
+    int filled = 0;
+    for (int slot = 0; slot < scores.keys.length; slot++) {
+      int ordinal = scores.keys[slot];
+      if (ordinal == ScoreMap.EMPTY) {
+        continue;
+      }
+      if (filled == top.length && !ranksBefore(ordinal, top[filled - 1], scores)) {
+        continue;
+      }
+      int position = filled == top.length ? filled - 1 : filled++;
+      while (position > 0 && ranksBefore(ordinal, top[position - 1], scores)) {
+        top[position] = top[position - 1];
+        position--;
+      }
+      top[position] = ordinal;
+    }
+    return top;
+  }
+
+  private boolean ranksBefore(int ordinal, int other, ScoreMap scores) {
+    int byScore = Float.compare(scores.get(ordinal), scores.get(other));
+    return byScore != 0 ? byScore > 0 : docs[ordinal].id.compareTo(docs[other].id) < 0;
+  }
+
+  /**
+   * Smallest edit distance between {@code token} and any prefix of {@code text}, or {@code
+   * maxEdits + 1} once it is certain to exceed {@code maxEdits}.
+   */
+  static int prefixDistance(String token, String text, int maxEdits) {
+    int n = token.length();
+    int m = Math.min(text.length(), n + maxEdits);
+    int[] previous = new int[m + 1];
+    int[] current = new int[m + 1];
+    for (int j = 0; j <= m; j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= n; i++) {
+      current[0] = i;
+      int rowMin = i;
+      for (int j = 1; j <= m; j++) {
+        int substitution = previous[j - 1] + (token.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1);
+        current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+        rowMin = Math.min(rowMin, current[j]);
+      }
+      if (rowMin > maxEdits) {
+        return maxEdits + 1;
+      }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    int best = Integer.MAX_VALUE;
+    for (int j = 0; j <= m; j++) {
+      best = Math.min(best, previous[j]);
+    }
+    return Math.min(best, maxEdits + 1);
+  }
+
+  /** Remove rules with one pass over the postings of every term they use. */
+  private void removeAll(List<Doc> removed) {
+    if (removed.isEmpty()) {
+      return;
+    }
+    BitSet ordinals = new BitSet();
+    Set<String> affected = new HashSet<>();
+    for (Doc doc : removed) {
+      docsById.remove(doc.id);
+      ordinals.set(doc.ordinal);
+      affected.addAll(Arrays.asList(doc.termTexts));
+    }
+    for (String text : affected) {
+      Term term = terms.get(text);
+      term.removeOrdinals(ordinals);
+      if (term.size == 0) {
+        terms.remove(text);
+        for (String gram : grams(text)) {
+          Set<Term> gramTerms = grams.get(gram);
+          gramTerms.remove(term);
+          if (gramTerms.isEmpty()) {
+            grams.remove(gram);
+          }
+        }
+      }
+    }
+    for (Doc doc : removed) {
+      docs[doc.ordinal] = null;
+      releaseOrdinal(doc.ordinal);
+    }
+  }
+
+  private void index(Doc doc, String value, int field, boolean whole) {
+    if (value == null || value.isEmpty()) {
+      return;
+    }
+    String lower = value.toLowerCase(Locale.ROOT);
+    if (whole) {
+      addPosting(doc, lower, field);
+    }
+    for (String part : split(lower)) {
+      addPosting(doc, part, field);
+    }
+  }
+
+  private void addPosting(Doc doc, String text, int field) {
+    Term term = terms.get(text);
+    if (term == null) {
+      term = new Term(text);
+      terms.put(text, term);
+      for (String gram : grams(text)) {
+        grams.computeIfAbsent(gram, g -> new HashSet<>(4)).add(term);
+      }
+    } else if (term.contains(doc.ordinal, field)) {
+      return;
+    }
+    term.add(doc.ordinal << 2 | field);
+    doc.addTerm(text, field);
+  }
+
+  private static List<String> split(String lower) {
+    List<String> parts = new ArrayList<>(4);
+    int start = -1;
+    for (int i = 0; i <= lower.length(); i++) {
+      boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+      if (word && start < 0) {
+        start = i;
+      } else if (!word && start >= 0) {
+        parts.add(lower.substring(start, i));
+        start = -1;
+      }
+    }
+    return parts;
+  }
+
+  /** Trigrams of a term, the first one anchored at its start. */
+  private static List<String> grams(String text) {
+    String padded = GRAM_START + text;
+    if (padded.length() < 3) {
+      return List.of();
+    }
+    List<String> result = new ArrayList<>(padded.length() - 2);
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      result.add(padded.substring(i, i + 3));
+    }
+    return result;
+  }
+
+  /** Lower-cased whitespace-separated tokens without leading and trailing punctuation. */
+  static List<String> tokenizeQuery(String query) {
+    if (query == null) {
+      return List.of();
+    }
+    List<String> tokens = new ArrayList<>();
+    for (String raw : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+      int start = 0;
+      int end = raw.length();
+      while (start < end && !Character.isLetterOrDigit(raw.charAt(start))) {
+        start++;
+      }
+      while (end > start && !Character.isLetterOrDigit(raw.charAt(end - 1))) {
+        end--;
+      }
+      if (start < end) {
+        tokens.add(raw.substring(start, end));
+      }
+    }
+    return tokens;
+  }
+
+  private int allocateOrdinal() {
+    if (freeCount > 0) {
+      return freeOrdinals[--freeCount];
+    }
+    if (nextOrdinal == docs.length) {
+      docs = Arrays.copyOf(docs, docs.length * 2);
+    }
+    return nextOrdinal++;
+  }
+
+  private void releaseOrdinal(int ordinal) {
+    if (freeCount == freeOrdinals.length) {
+      freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+    }
+    freeOrdinals[freeCount++] = ordinal;
+  }
+
+  private static final class Doc {
+
+    final int ordinal;
+    final String id;
+    final String name;
+    final String ruleSetId;
+    final List<String> tags;
+    String[] termTexts = new String[8];
+    byte[] termFields = new byte[8];
+    int termCount;
+
+    Doc(int ordinal, String id, String name, String ruleSetId, List<String> tags) {
+      this.ordinal = ordinal;
+      this.id = id;
+      this.name = name;
+      this.ruleSetId = ruleSetId;
+      this.tags = tags;
+    }
+
+    void addTerm(String text, int field) {
+      if (termCount == termTexts.length) {
+        termTexts = Arrays.copyOf(termTexts, termCount * 2);
+        termFields = Arrays.copyOf(termFields, termCount * 2);
+      }
+      termTexts[termCount] = text;
+      termFields[termCount++] = (byte) field;
+    }
+
+    /** Trim the term arrays once all terms are added. */
+    void seal() {
+      termTexts = Arrays.copyOf(termTexts, termCount);
+      termFields = Arrays.copyOf(termFields, termCount);
+    }
+  }
+
+  /** A distinct term with its postings, each {@code ordinal << 2 | field}. */
+  private static final class Term {
+
+    final String text;
+    int[] postings = new int[2];
+    int size;
+
+    Term(String text) {
+      this.text = text;
+    }
+
+    void add(int posting) {
+      if (size == postings.length) {
+        postings = Arrays.copyOf(postings, size * 2);
+      }
+      postings[size++] = posting;
+    }
+
+    /** A rule adds all its postings at once, so only the tail has to be checked. */
+    boolean contains(int ordinal, int field) {
+      int posting = ordinal << 2 | field;
+      for (int i = size - 1; i >= 0 && postings[i] >>> 2 == ordinal; i--) {
+        if (postings[i] == posting) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    void removeOrdinals(BitSet ordinals) {
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        if (!ordinals.get(postings[i] >>> 2)) {
+          postings[kept++] = postings[i];
+        }
+      }
+      size = kept;
+    }
+  }
+
+  /** Open-addressing map from rule ordinal to score, sized for a fixed number of entries. */
+  private static final class ScoreMap {
+
+    static final int EMPTY = -1;
+
+    final int[] keys;
+    final float[] values;
+    private final int mask;
+    private int size;
+
+    ScoreMap(int maxEntries) {
+      int capacity = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) << 1;
+      keys = new int[capacity];
+      values = new float[capacity];
+      mask = capacity - 1;
+      Arrays.fill(keys, EMPTY);
+    }
+
+    int size() {
+      return size;
+    }
+
+    /** Keep the higher of the current and the given score. */
+    void putMax(int key, float value) {
+      int slot = slot(key);
+      if (keys[slot] == EMPTY) {
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+      } else if (value > values[slot]) {
+        values[slot] = value;
+      }
+    }
+
+    float get(int key) {
+      int slot = slot(key);
+      return keys[slot] == EMPTY ? 0f : values[slot];
+    }
+
+    boolean contains(int key) {
+      return keys[slot(key)] != EMPTY;
+    }
+
+    /** Keys present in both maps, with the sum of their scores. */
+    ScoreMap intersect(ScoreMap other) {
+      ScoreMap smaller = size <= other.size ? this : other;
+      ScoreMap larger = smaller == this ? other : this;
+      ScoreMap result = new ScoreMap(smaller.size);
+      for (int slot = 0; slot < smaller.keys.length; slot++) {
+        int key = smaller.keys[slot];
+        if (key != EMPTY && larger.contains(key)) {
+          result.putMax(key, smaller.values[slot] + larger.get(key));
+        }
+      }
+      return result;
+    }
+
+    private int slot(int key) {
+      int slot = (key * 0x9E3779B9) >>> 7 & mask;
+      while (keys[slot] != EMPTY && keys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+  }
+}
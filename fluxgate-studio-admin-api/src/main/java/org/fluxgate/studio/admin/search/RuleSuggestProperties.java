@@ -0,0 +1,25 @@
+package org.fluxgate.studio.admin.search;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for rule suggestions.
+ *
+ * @param enabled whether the suggestion index is built and queried
+ * @param refreshInterval how often the index is rebuilt from MongoDB, which bounds staleness
+ *     caused by writes from other Admin API instances
+ * @param maxResults largest number of suggestions one request may ask for
+ */
+@ConfigurationProperties(prefix = "app.rules.suggest")
+public record RuleSuggestProperties(boolean enabled, Duration refreshInterval, int maxResults) {
+
+  public RuleSuggestProperties {
+    if (refreshInterval == null) {
+      refreshInterval = Duration.ofMinutes(5);
+    }
+    if (maxResults <= 0) {
+      maxResults = 50;
+    }
+  }
+}
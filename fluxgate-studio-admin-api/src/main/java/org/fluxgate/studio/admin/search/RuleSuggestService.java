@@ -0,0 +1,218 @@
+package org.fluxgate.studio.admin.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestResponse;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.service.RuleMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a {@link RuleSuggestIndex} of all rules and answers type-ahead queries from it.
+ *
+ * <p>The index is built from MongoDB in the background once the application is ready and again
+ * every {@link RuleSuggestProperties#refreshInterval()}, which picks up writes from other Admin API
+ * instances. In between, every stored {@link RuleChangedEvent} of this instance updates it in
+ * place. Changes that arrive while a rebuild reads MongoDB are applied to the new index as well
+ * before it replaces the old one, so a rebuild never loses them. A bulk change schedules a
+ * rebuild.
+ */
+@Component
+public class RuleSuggestService {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleSuggestService.class);
+
+  private final RuleStore ruleStore;
+  private final RuleSuggestProperties properties;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+  private final ScheduledThreadPoolExecutor executor;
+
+  /** Null until the first build completes. Guarded by {@link #lock}. */
+  private RuleSuggestIndex index;
+
+  /** Changes seen while a rebuild runs, or null. Guarded by {@link #lock}. */
+  private List<RuleChangedEvent> pending;
+
+  public RuleSuggestService(
+      RuleStore ruleStore, RuleSuggestProperties properties, MeterRegistry registry) {
+    this.ruleStore = ruleStore;
+    this.properties = properties;
+    this.executor =
+        new ScheduledThreadPoolExecutor(1, Thread.ofVirtual().name("rule-suggest").factory());
+    Gauge.builder("studio.rule.suggest.size", this, RuleSuggestService::size).register(registry);
+  }
+
+  /**
+   * Suggest rules whose ID, name or tags match the query as prefixes or with a typo.
+   *
+   * @param query the text typed so far
+   * @param limit maximum number of suggestions
+   * @return the best matches first; not ready and empty while the index is being built
+   * @throws InvalidRequestException if suggestions are disabled, the query is blank or the limit
+   *     is out of range
+   */
+  public RuleSuggestResponse suggest(String query, int limit) {
+    if (!properties.enabled()) {
+      throw new InvalidRequestException("Rule suggestions are disabled");
+    }
+    if (query == null || query.isBlank()) {
+      throw new InvalidRequestException("q must not be blank");
+    }
+    if (limit < 1 || limit > properties.maxResults()) {
+      throw new InvalidRequestException(
+          "limit must be between 1 and " + properties.maxResults());
+    }
+    lock.readLock().lock();
+    try {
+      if (index == null) {
+        return new RuleSuggestResponse(query, false, List.of());
+      }
+      return new RuleSuggestResponse(query, true, index.suggest(query, limit));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Apply a stored rule change to the index. Failures are logged and not thrown to the writer,
+   * whose rule is already stored; the next rebuild picks the change up.
+   */
+  @EventListener
+  public void onRuleChanged(RuleChangedEvent event) {
+    if (!properties.enabled()) {
+      return;
+    }
+    try {
+      if (event.type() == RuleChangedEvent.Type.BULK_CHANGED) {
+        scheduleRebuild();
+        return;
+      }
+      lock.writeLock().lock();
+      try {
+        if (index != null) {
+          apply(index, event);
+        }
+        if (pending != null) {
+          pending.add(event);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } catch (RuntimeException e) {
+      log.warn(
+          "Could not apply {} rule change to the suggestion index: {}",
+          event.type(),
+          e.getMessage());
+    }
+  }
+
+  /** Build the index in the background, then rebuild it every refresh interval. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (properties.enabled()) {
+      long intervalMillis = properties.refreshInterval().toMillis();
+      executor.scheduleWithFixedDelay(this::rebuild, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Stop rebuilding the index. */
+  @PreDestroy
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /** Rebuild the index from MongoDB, then swap it in. Runs on the executor only. */
+  void rebuild() {
+    rebuildScheduled.set(false);
+    lock.writeLock().lock();
+    try {
+      pending = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    long startNanos = System.nanoTime();
+    RuleSuggestIndex rebuilt = new RuleSuggestIndex();
+    try {
+      ruleStore.forEach(null, rule -> put(rebuilt, rule));
+    } catch (RuntimeException e) {
+      log.warn("Could not rebuild the rule suggestion index: {}", e.getMessage());
+      lock.writeLock().lock();
+      try {
+        pending = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      for (RuleChangedEvent event : pending) {
+        apply(rebuilt, event);
+      }
+      pending = null;
+      index = rebuilt;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.debug(
+        "Rule suggestion index rebuilt with {} rules and {} terms in {} ms",
+        rebuilt.size(),
+        rebuilt.termCount(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+  }
+
+  private void scheduleRebuild() {
+    if (rebuildScheduled.compareAndSet(false, true)) {
+      executor.execute(this::rebuild);
+    }
+  }
+
+  private static void apply(RuleSuggestIndex target, RuleChangedEvent event) {
+    switch (event.type()) {
+      case CREATED, UPDATED, TOGGLED -> {
+        RuleResponse rule = event.rule();
+        target.put(rule.id(), rule.name(), rule.ruleSetId(), rule.tags());
+      }
+      case DELETED -> target.remove(event.ruleId());
+      case RULE_SET_DELETED -> target.removeRuleSet(event.ruleSetId());
+      case BULK_CHANGED -> {
+        // Handled by a rebuild
+      }
+    }
+  }
+
+  private static void put(RuleSuggestIndex target, RateLimitRule rule) {
+    target.put(
+        rule.getId(),
+        rule.getName(),
+        rule.getRuleSetIdOrNull(),
+        RuleMapper.extractTags(rule.getAttributes()));
+  }
+
+  private double size() {
+    lock.readLock().lock();
+    try {
+      return index != null ? index.size() : 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
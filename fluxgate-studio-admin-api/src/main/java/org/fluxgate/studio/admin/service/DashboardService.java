@@ -1,13 +1,10 @@
 package org.fluxgate.studio.admin.service;
 
 import java.time.Instant;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-import org.fluxgate.core.config.RateLimitRule;
-import org.fluxgate.core.spi.RateLimitRuleRepository;
 import org.fluxgate.studio.admin.dto.response.DashboardStatsResponse;
 import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.repository.RuleStats;
+import org.fluxgate.studio.admin.repository.RuleStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -18,34 +15,31 @@ public class DashboardService {
 
   private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
 
-  private final RateLimitRuleRepository ruleRepository;
+  private final RuleStore ruleStore;
 
-  public DashboardService(RateLimitRuleRepository ruleRepository) {
-    this.ruleRepository = ruleRepository;
+  public DashboardService(RuleStore ruleStore) {
+    this.ruleStore = ruleStore;
   }
 
   /**
    * Get dashboard statistics.
    *
+   * <p>The counts are computed by a single aggregation inside MongoDB, so the cost does not grow
+   * with the amount of rule data transferred.
+   *
    * @return dashboard statistics
    */
   public DashboardStatsResponse getStats() {
     log.debug("Fetching dashboard statistics");
     try {
-      List<RateLimitRule> allRules = ruleRepository.findAll();
+      RuleStats stats = ruleStore.aggregateStats();
 
-      long totalRules = allRules.size();
-      long activeRules = allRules.stream().filter(RateLimitRule::isEnabled).count();
+      long totalRules = stats.totalRules();
+      long activeRules = stats.enabledRules();
       long disabledRules = totalRules - activeRules;
 
-      Set<String> ruleSets =
-          allRules.stream()
-              .map(RateLimitRule::getRuleSetIdOrNull)
-              .filter(id -> id != null && !id.isEmpty())
-              .collect(Collectors.toSet());
-
       return new DashboardStatsResponse(
-          totalRules, activeRules, disabledRules, ruleSets.size(), Instant.now().toString());
+          totalRules, activeRules, disabledRules, stats.ruleSets(), Instant.now().toString());
     } catch (Exception e) {
       throw new StorageOperationException("getStats", e.getMessage(), e);
     }
@@ -0,0 +1,113 @@
+package org.fluxgate.studio.admin.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.request.ReplayRequest;
+import org.fluxgate.studio.admin.dto.response.ReplayResponse;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.simulation.AccessLogFormat;
+import org.fluxgate.studio.admin.simulation.AccessLogReplayer;
+import org.fluxgate.studio.admin.simulation.ReplayProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for replaying recorded access logs against a rule set.
+ *
+ * <p>Log files are read from the configured replay directory only. Replays run on a dedicated pool
+ * of {@link ReplayProperties#parallelism()} threads, so a large replay does not compete with
+ * request threads for more than that many cores.
+ */
+@Service
+public class ReplayService {
+
+  private static final Logger log = LoggerFactory.getLogger(ReplayService.class);
+
+  static final long DEFAULT_MAX_WAIT_MILLIS = SimulationService.DEFAULT_MAX_WAIT_MILLIS;
+
+  private final RuleService ruleService;
+  private final ReplayProperties properties;
+  private final ExecutorService executor;
+  private final AccessLogReplayer replayer;
+
+  public ReplayService(RuleService ruleService, ReplayProperties properties) {
+    this.ruleService = ruleService;
+    this.properties = properties;
+    this.executor =
+        Executors.newFixedThreadPool(
+            properties.parallelism(),
+            Thread.ofPlatform().name("rule-replay-", 0).daemon(true).factory());
+    this.replayer =
+        new AccessLogReplayer(
+            executor,
+            properties.parallelism(),
+            (int) Math.min(Integer.MAX_VALUE, properties.chunkSize().toBytes()));
+  }
+
+  /**
+   * Replay an access log against the rules of a rule set.
+   *
+   * @param request the rule set, log file and replay options
+   * @return rejections per rule, band and key
+   * @throws InvalidRequestException if replay is disabled, the file is not in the replay
+   *     directory, or the rule set has no rules
+   * @throws StorageOperationException if the rules or the log cannot be read
+   */
+  public ReplayResponse replay(ReplayRequest request) {
+    Path file = resolve(request.file());
+    AccessLogFormat format =
+        request.format() != null
+            ? AccessLogFormat.valueOf(request.format())
+            : AccessLogFormat.fromFileName(file.getFileName().toString());
+    List<RateLimitRule> rules = ruleService.getRules(request.ruleSetId());
+    if (rules.isEmpty()) {
+      throw new InvalidRequestException("Rule set has no rules: " + request.ruleSetId());
+    }
+    long maxWaitMillis =
+        request.maxWaitMillis() != null ? request.maxWaitMillis() : DEFAULT_MAX_WAIT_MILLIS;
+    int topKeys = request.topKeys() != null ? request.topKeys() : properties.topKeys();
+
+    try {
+      ReplayResponse response =
+          replayer.replay(
+              file, format, request.ruleSetId(), rules, maxWaitMillis * 1_000_000L, topKeys);
+      log.info(
+          "Replayed {} requests from {} against rule set {} in {} ms",
+          response.requests(),
+          file.getFileName(),
+          request.ruleSetId(),
+          response.elapsedMillis());
+      return response;
+    } catch (IOException e) {
+      throw new StorageOperationException("replay", "Failed to read " + request.file(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new StorageOperationException("replay", "Replay was interrupted", e);
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private Path resolve(String fileName) {
+    if (properties.directory() == null) {
+      throw new InvalidRequestException("Access log replay is disabled; set app.replay.directory");
+    }
+    Path directory = Path.of(properties.directory()).toAbsolutePath().normalize();
+    Path file = directory.resolve(fileName).normalize();
+    if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+      throw new InvalidRequestException("Access log not found in replay directory: " + fileName);
+    }
+    return file;
+  }
+}
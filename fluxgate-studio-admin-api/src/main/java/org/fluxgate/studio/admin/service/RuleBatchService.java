@@ -0,0 +1,314 @@
+package org.fluxgate.studio.admin.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.cache.RuleCache;
+import org.fluxgate.studio.admin.changelog.PendingRuleChanges;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
+import org.fluxgate.studio.admin.dto.request.BatchRuleItem;
+import org.fluxgate.studio.admin.dto.request.BatchRuleRequest;
+import org.fluxgate.studio.admin.dto.request.SetEnabledRequest;
+import org.fluxgate.studio.admin.dto.response.BatchRuleResponse;
+import org.fluxgate.studio.admin.dto.response.BatchRuleResult;
+import org.fluxgate.studio.admin.dto.response.SetEnabledResponse;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.notify.RuleChangeNotifier;
+import org.fluxgate.studio.admin.repository.EnabledChanges;
+import org.fluxgate.studio.admin.repository.RuleChangeRecord;
+import org.fluxgate.studio.admin.repository.RuleQuery;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.repository.RuleWrite;
+import org.fluxgate.studio.admin.repository.RuleWriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/** Service for bulk rule imports and bulk enable or disable. */
+@Service
+public class RuleBatchService {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleBatchService.class);
+
+  private static final String CREATE = "CREATE";
+  private static final String UPDATE = "UPDATE";
+
+  private final RuleStore ruleStore;
+  private final RuleCache ruleCache;
+  private final RuleChangeLog changeLog;
+  private final RuleChangeNotifier changeNotifier;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Validator validator;
+
+  public RuleBatchService(
+      RuleStore ruleStore,
+      RuleCache ruleCache,
+      RuleChangeLog changeLog,
+      RuleChangeNotifier changeNotifier,
+      ApplicationEventPublisher eventPublisher,
+      Validator validator) {
+    this.ruleStore = ruleStore;
+    this.ruleCache = ruleCache;
+    this.changeLog = changeLog;
+    this.changeNotifier = changeNotifier;
+    this.eventPublisher = eventPublisher;
+    this.validator = validator;
+  }
+
+  /**
+   * Create and update many rules at once.
+   *
+   * <p>Items are validated in parallel. Valid items are written with a single unordered bulk write,
+   * and gateways receive exactly one notification per affected rule set instead of one per rule.
+   *
+   * @param request the batch
+   * @return per-item results in request order
+   */
+  public BatchRuleResponse applyBatch(BatchRuleRequest request) {
+    List<BatchRuleItem> items = request.items();
+    log.debug("Applying rule batch of {} items", items.size());
+
+    BatchRuleResult[] results = new BatchRuleResult[items.size()];
+    RateLimitRule[] rules = new RateLimitRule[items.size()];
+    IntStream.range(0, items.size())
+        .parallel()
+        .forEach(
+            i -> {
+              BatchRuleItem item = items.get(i);
+              List<String> errors = validate(item);
+              if (errors.isEmpty()) {
+                rules[i] =
+                    item.create() != null
+                        ? RuleMapper.toEntity(item.create())
+                        : RuleMapper.toEntity(item.id(), item.update());
+              } else {
+                results[i] = result(i, item, "INVALID", errors);
+              }
+            });
+
+    // An ID may only be written once per batch; unordered writes would make repeats racy
+    Set<String> seenIds = new HashSet<>();
+    List<RuleWrite> writes = new ArrayList<>();
+    List<Integer> writeIndexes = new ArrayList<>();
+    for (int i = 0; i < rules.length; i++) {
+      if (rules[i] == null) {
+        continue;
+      }
+      if (!seenIds.add(rules[i].getId())) {
+        results[i] = result(i, items.get(i), "INVALID", List.of("id: duplicate id in batch"));
+        rules[i] = null;
+        continue;
+      }
+      writes.add(
+          items.get(i).create() != null
+              ? RuleWrite.insert(rules[i])
+              : RuleWrite.replace(rules[i]));
+      writeIndexes.add(i);
+    }
+
+    PendingRuleChanges pending =
+        changeLog.prepare(writes.stream().map(write -> write.rule().getId()).toList(), false);
+    List<RuleWriteResult> writeResults;
+    try {
+      writeResults = writes.isEmpty() ? List.of() : ruleStore.bulkWrite(writes);
+    } catch (Exception e) {
+      pending.complete(null);
+      throw new StorageOperationException("bulkWrite", e.getMessage(), e);
+    }
+
+    List<RateLimitRule> applied = new ArrayList<>();
+    List<RuleChangeRecord> changes = new ArrayList<>();
+    Set<String> affectedRuleSets = new TreeSet<>();
+    boolean fullReload = false;
+    for (int w = 0; w < writeResults.size(); w++) {
+      int i = writeIndexes.get(w);
+      RuleWriteResult writeResult = writeResults.get(w);
+      BatchRuleItem item = items.get(i);
+      switch (writeResult.status()) {
+        case APPLIED -> {
+          RateLimitRule rule = rules[i];
+          applied.add(rule);
+          changes.add(RuleChangeRecord.changed(rule, writeResult.previousRuleSetId()));
+          results[i] = result(i, item, item.create() != null ? "CREATED" : "UPDATED", List.of());
+          fullReload |= rule.getRuleSetIdOrNull() == null;
+          addIfPresent(affectedRuleSets, rule.getRuleSetIdOrNull());
+          addIfPresent(affectedRuleSets, writeResult.previousRuleSetId());
+        }
+        case DUPLICATE ->
+            results[i] = result(i, item, "CONFLICT", List.of("Rule already exists: " + idOf(item)));
+        case NOT_FOUND ->
+            results[i] = result(i, item, "NOT_FOUND", List.of("Rule not found: " + idOf(item)));
+        case FAILED -> results[i] = result(i, item, "FAILED", List.of(writeResult.message()));
+      }
+    }
+    pending.complete(changes);
+
+    boolean reload = fullReload;
+    SideEffects.run(
+        "rule batch",
+        () -> ruleCache.putLatest(applied.stream().map(RateLimitRule::getId).toList()),
+        () -> publish(affectedRuleSets, reload),
+        () -> {
+          if (!applied.isEmpty()) {
+            // Connected UIs reload once instead of receiving one event per item
+            eventPublisher.publishEvent(RuleChangedEvent.bulkChanged());
+          }
+        });
+
+    int succeeded = applied.size();
+    log.info(
+        "Rule batch applied: {} succeeded, {} failed, ruleSets={}",
+        succeeded,
+        items.size() - succeeded,
+        affectedRuleSets);
+    return new BatchRuleResponse(
+        items.size(),
+        succeeded,
+        items.size() - succeeded,
+        List.copyOf(affectedRuleSets),
+        List.of(results));
+  }
+
+  /**
+   * Enable or disable every rule that matches a filter.
+   *
+   * <p>The rules are changed by one multi-document update instead of one toggle per rule. Rules
+   * already in the requested state are not written, and gateways receive one notification per
+   * affected rule set.
+   *
+   * @param request the filter and the requested state
+   * @return the matched and modified counts
+   * @throws InvalidRequestException if no filter is given
+   */
+  public SetEnabledResponse setEnabled(SetEnabledRequest request) {
+    String ruleSetId = blankToNull(request.ruleSetId());
+    String scope = blankToNull(request.scope());
+    List<String> tags = nonBlank(request.tags());
+    List<String> ids = nonBlank(request.ids());
+    if (ruleSetId == null && scope == null && tags.isEmpty() && ids.isEmpty()) {
+      throw new InvalidRequestException(
+          "At least one of ruleSetId, tags, scope or ids is required");
+    }
+    boolean enabled = request.enabled();
+    log.debug(
+        "Setting enabled={} for ruleSetId={}, tags={}, scope={}, ids={}",
+        enabled,
+        ruleSetId,
+        tags,
+        scope,
+        ids.size());
+
+    EnabledChanges found;
+    try {
+      found =
+          ruleStore.findEnabledChanges(
+              new RuleQuery(ruleSetId, scope, null, null, null, tags, null), ids, enabled);
+    } catch (Exception e) {
+      throw new StorageOperationException("setEnabled", e.getMessage(), e);
+    }
+    List<RuleChangeRecord> changes = found.changes();
+    List<String> changedIds = changes.stream().map(RuleChangeRecord::ruleId).toList();
+
+    long modified = 0;
+    if (!changedIds.isEmpty()) {
+      PendingRuleChanges pending = changeLog.prepare(changedIds, false);
+      try {
+        modified = ruleStore.setEnabled(changedIds, enabled);
+      } catch (Exception e) {
+        pending.complete(null);
+        throw new StorageOperationException("setEnabled", e.getMessage(), e);
+      }
+      pending.complete(changes);
+    }
+
+    Set<String> affectedRuleSets = new TreeSet<>();
+    boolean fullReload = false;
+    for (RuleChangeRecord change : changes) {
+      fullReload |= change.ruleSetId() == null;
+      addIfPresent(affectedRuleSets, change.ruleSetId());
+    }
+    if (!changes.isEmpty()) {
+      boolean reload = fullReload;
+      SideEffects.run(
+          "rules " + (enabled ? "enabled" : "disabled"),
+          () -> ruleCache.putLatest(changedIds),
+          () -> publish(affectedRuleSets, reload),
+          () -> eventPublisher.publishEvent(RuleChangedEvent.bulkChanged()));
+    }
+
+    log.info(
+        "Rules {}: {} matched, {} modified, ruleSets={}",
+        enabled ? "enabled" : "disabled",
+        found.matchedCount(),
+        modified,
+        affectedRuleSets);
+    return new SetEnabledResponse(
+        enabled, found.matchedCount(), modified, List.copyOf(affectedRuleSets));
+  }
+
+  private void publish(Set<String> affectedRuleSets, boolean fullReload) {
+    // Rules without a rule set can be loaded by any gateway, so only a full reload covers them
+    if (fullReload) {
+      changeNotifier.fullReload();
+      return;
+    }
+    affectedRuleSets.forEach(changeNotifier::ruleSetChanged);
+  }
+
+  private List<String> validate(BatchRuleItem item) {
+    if (item == null || (item.create() == null) == (item.update() == null)) {
+      return List.of("item: exactly one of 'create' or 'update' must be set");
+    }
+    Set<? extends ConstraintViolation<?>> violations;
+    if (item.create() != null) {
+      violations = validator.validate(item.create());
+    } else {
+      if (item.id() == null || item.id().isBlank()) {
+        return List.of("id: id is required for update");
+      }
+      violations = validator.validate(item.update());
+    }
+    return violations.stream()
+        .map(v -> String.format("%s: %s", v.getPropertyPath(), v.getMessage()))
+        .sorted()
+        .toList();
+  }
+
+  private static BatchRuleResult result(
+      int index, BatchRuleItem item, String status, List<String> errors) {
+    String operation = item != null && item.create() != null ? CREATE : UPDATE;
+    return new BatchRuleResult(index, idOf(item), operation, status, errors);
+  }
+
+  private static String idOf(BatchRuleItem item) {
+    if (item == null) {
+      return null;
+    }
+    return item.create() != null ? item.create().id() : item.id();
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value;
+  }
+
+  private static List<String> nonBlank(List<String> values) {
+    return values == null
+        ? List.of()
+        : values.stream().filter(value -> value != null && !value.isBlank()).toList();
+  }
+
+  private static void addIfPresent(Set<String> ruleSets, String ruleSetId) {
+    if (ruleSetId != null && !ruleSetId.isEmpty()) {
+      ruleSets.add(ruleSetId);
+    }
+  }
+}
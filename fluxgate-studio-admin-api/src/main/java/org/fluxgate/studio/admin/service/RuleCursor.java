@@ -0,0 +1,35 @@
+package org.fluxgate.studio.admin.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+
+/** Encodes and decodes the opaque keyset cursors handed out by paginated rule listings. */
+final class RuleCursor {
+
+  private static final String PREFIX = "id:";
+
+  private RuleCursor() {}
+
+  static String encode(String lastId) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  static String decode(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return null;
+    }
+    String decoded;
+    try {
+      decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+    if (!decoded.startsWith(PREFIX) || decoded.length() == PREFIX.length()) {
+      throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+    return decoded.substring(PREFIX.length());
+  }
+}
@@ -0,0 +1,220 @@
+package org.fluxgate.studio.admin.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.request.CreateRuleRequest;
+import org.fluxgate.studio.admin.dto.request.RateBandRequest;
+import org.fluxgate.studio.admin.dto.request.UpdateRuleRequest;
+import org.fluxgate.studio.admin.dto.response.PartialRuleResponse;
+import org.fluxgate.studio.admin.dto.response.RateBandResponse;
+import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.fluxgate.studio.admin.repository.PartialRule;
+import org.fluxgate.studio.admin.repository.RuleField;
+import org.fluxgate.studio.admin.repository.StoredRule;
+
+/** Converts between rule DTOs and {@link RateLimitRule} entities. */
+public final class RuleMapper {
+
+  private RuleMapper() {}
+
+  /**
+   * Convert a rule entity to its API representation, without a version.
+   *
+   * @param rule the rule
+   * @return the response DTO
+   */
+  public static RuleResponse toResponse(RateLimitRule rule) {
+    return toResponse(rule, null);
+  }
+
+  /**
+   * Convert a stored rule to its API representation, with its version.
+   *
+   * @param stored the rule and its version
+   * @return the response DTO
+   */
+  public static RuleResponse toResponse(StoredRule stored) {
+    return toResponse(stored.rule(), stored.version());
+  }
+
+  /**
+   * Convert the selected fields of a rule to their API representation.
+   *
+   * @param rule the rule
+   * @param fields the selected fields
+   * @return the response DTO with unselected fields {@code null}
+   */
+  public static PartialRuleResponse toPartialResponse(RateLimitRule rule, Set<RuleField> fields) {
+    boolean attributes = fields.contains(RuleField.ATTRIBUTES) || fields.contains(RuleField.TAGS);
+    return toPartialResponse(
+        new PartialRule(
+            rule.getId(),
+            fields.contains(RuleField.NAME) ? rule.getName() : null,
+            fields.contains(RuleField.ENABLED) ? rule.isEnabled() : null,
+            fields.contains(RuleField.SCOPE) ? rule.getScope().name() : null,
+            fields.contains(RuleField.KEY_STRATEGY_ID) ? rule.getKeyStrategyId() : null,
+            fields.contains(RuleField.ON_LIMIT_EXCEED_POLICY)
+                ? rule.getOnLimitExceedPolicy().name()
+                : null,
+            fields.contains(RuleField.BANDS) ? rule.getBands() : null,
+            fields.contains(RuleField.RULE_SET_ID) ? rule.getRuleSetIdOrNull() : null,
+            attributes ? rule.getAttributes() : null),
+        fields);
+  }
+
+  /**
+   * Convert a rule read with a projection to its API representation.
+   *
+   * @param rule the selected fields of the rule
+   * @param fields the selected fields
+   * @return the response DTO with unselected fields {@code null}
+   */
+  public static PartialRuleResponse toPartialResponse(PartialRule rule, Set<RuleField> fields) {
+    return new PartialRuleResponse(
+        rule.id(),
+        rule.name(),
+        rule.enabled(),
+        rule.scope(),
+        rule.keyStrategyId(),
+        rule.onLimitExceedPolicy(),
+        rule.bands() != null ? toBandResponses(rule.bands()) : null,
+        rule.ruleSetId(),
+        fields.contains(RuleField.TAGS) ? extractTags(rule.attributes()) : null,
+        fields.contains(RuleField.ATTRIBUTES) ? rule.attributes() : null);
+  }
+
+  private static RuleResponse toResponse(RateLimitRule rule, Long version) {
+    List<RateBandResponse> bands = toBandResponses(rule.getBands());
+
+    List<String> tags = extractTags(rule.getAttributes());
+
+    return new RuleResponse(
+        rule.getId(),
+        rule.getName(),
+        rule.isEnabled(),
+        rule.getScope().name(),
+        rule.getKeyStrategyId(),
+        rule.getOnLimitExceedPolicy().name(),
+        bands,
+        rule.getRuleSetIdOrNull(),
+        tags,
+        rule.getAttributes(),
+        version);
+  }
+
+  private static List<RateBandResponse> toBandResponses(List<RateLimitBand> bands) {
+    return bands.stream()
+        .map(
+            band ->
+                new RateBandResponse(
+                    band.getWindow().toSeconds(), band.getCapacity(), band.getLabel()))
+        .toList();
+  }
+
+  /**
+   * Build a rule entity from a create request.
+   *
+   * @param request the create request
+   * @return the rule
+   */
+  public static RateLimitRule toEntity(CreateRuleRequest request) {
+    return toEntity(
+        request.id(),
+        request.name(),
+        request.enabled(),
+        request.scope(),
+        request.keyStrategyId(),
+        request.onLimitExceedPolicy(),
+        request.bands(),
+        request.ruleSetId(),
+        request.tags(),
+        request.attributes());
+  }
+
+  /**
+   * Build a rule entity from an update request.
+   *
+   * @param id the rule ID
+   * @param request the update request
+   * @return the rule
+   */
+  public static RateLimitRule toEntity(String id, UpdateRuleRequest request) {
+    return toEntity(
+        id,
+        request.name(),
+        request.enabled(),
+        request.scope(),
+        request.keyStrategyId(),
+        request.onLimitExceedPolicy(),
+        request.bands(),
+        request.ruleSetId(),
+        request.tags(),
+        request.attributes());
+  }
+
+  private static RateLimitRule toEntity(
+      String id,
+      String name,
+      boolean enabled,
+      String scope,
+      String keyStrategyId,
+      String onLimitExceedPolicy,
+      List<RateBandRequest> bandRequests,
+      String ruleSetId,
+      List<String> tags,
+      Map<String, Object> attributes) {
+
+    Map<String, Object> attrs = attributes != null ? new HashMap<>(attributes) : new HashMap<>();
+    if (tags != null && !tags.isEmpty()) {
+      attrs.put("tags", tags);
+    }
+
+    RateLimitRule.Builder builder =
+        RateLimitRule.builder(id)
+            .name(name)
+            .enabled(enabled)
+            .scope(LimitScope.valueOf(scope))
+            .keyStrategyId(keyStrategyId)
+            .onLimitExceedPolicy(OnLimitExceedPolicy.valueOf(onLimitExceedPolicy))
+            .ruleSetId(ruleSetId)
+            .attributes(attrs);
+
+    bandRequests.forEach(
+        b ->
+            builder.addBand(
+                RateLimitBand.builder(Duration.ofSeconds(b.windowSeconds()), b.capacity())
+                    .label(b.label())
+                    .build()));
+
+    return builder.build();
+  }
+
+  /**
+   * Read the tag list stored under the {@code tags} attribute.
+   *
+   * @param attributes the rule attributes
+   * @return the tags, or an empty list
+   */
+  public static List<String> extractTags(Map<String, Object> attributes) {
+    if (attributes == null || !attributes.containsKey("tags")) {
+      return List.of();
+    }
+    Object tags = attributes.get("tags");
+    if (tags instanceof List) {
+      return ((List<?>) tags)
+          .stream()
+              .filter(t -> t instanceof String)
+              .map(t -> (String) t)
+              .collect(Collectors.toList());
+    }
+    return List.of();
+  }
+}
@@ -0,0 +1,228 @@
+package org.fluxgate.studio.admin.service;
+
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.ENABLED;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.KEY_STRATEGY_ID;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.NAME;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.ON_LIMIT_EXCEED_POLICY;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.RULE_SET_ID;
+import static org.fluxgate.studio.admin.repository.RuleDocumentMapper.SCOPE;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.repository.RulePatch;
+import org.fluxgate.studio.admin.repository.RulePatch.BandOperation;
+
+/**
+ * Reads a JSON Merge Patch (RFC 7396) of a rule into a {@link RulePatch}.
+ *
+ * <p>A member that is present replaces the field, and {@code null} removes it where the rule
+ * allows that: {@code ruleSetId}, {@code tags} and single attributes. Attributes are merged by
+ * name, and an object value replaces the stored attribute as a whole. {@code bands} replaces all
+ * bands, as merge patches do with arrays; the {@code bandOperations} extension member instead
+ * adds, removes or updates single bands by label.
+ */
+final class RuleMergePatch {
+
+  private static final String TAGS = "tags";
+
+  private RuleMergePatch() {}
+
+  /**
+   * Validate a merge patch and convert it.
+   *
+   * @param patch the parsed JSON body
+   * @return the changes
+   * @throws InvalidRequestException if a member is unknown, read-only or invalid
+   */
+  static RulePatch parse(Map<String, Object> patch) {
+    Map<String, Object> fields = new LinkedHashMap<>();
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    List<RateLimitBand> bands = null;
+    List<BandOperation> bandOperations = List.of();
+    for (Map.Entry<String, Object> member : patch.entrySet()) {
+      String name = member.getKey();
+      Object value = member.getValue();
+      switch (name) {
+        case "name" -> fields.put(NAME, text(name, value));
+        case "enabled" -> {
+          if (!(value instanceof Boolean)) {
+            throw new InvalidRequestException("enabled must be true or false");
+          }
+          fields.put(ENABLED, value);
+        }
+        case "scope" -> fields.put(SCOPE, enumName(name, value, LimitScope.values()));
+        case "keyStrategyId" -> fields.put(KEY_STRATEGY_ID, text(name, value));
+        case "onLimitExceedPolicy" ->
+            fields.put(ON_LIMIT_EXCEED_POLICY, enumName(name, value, OnLimitExceedPolicy.values()));
+        case "ruleSetId" -> fields.put(RULE_SET_ID, value == null ? null : text(name, value));
+        case "tags" -> attributes.put(TAGS, value == null ? null : tags(value));
+        case "attributes" -> mergeAttributes(value, attributes, patch.containsKey(TAGS));
+        case "bands" -> bands = bands(value);
+        case "bandOperations" -> bandOperations = bandOperations(value);
+        default -> throw new InvalidRequestException("Unknown or read-only field: " + name);
+      }
+    }
+    if (bands != null && !bandOperations.isEmpty()) {
+      throw new InvalidRequestException("bands and bandOperations cannot be combined");
+    }
+    return new RulePatch(fields, attributes, bands, bandOperations);
+  }
+
+  /**
+   * Check a patch that matched no stored update against the current rule.
+   *
+   * @param patch the changes
+   * @param current the rule at its current version
+   * @throws InvalidRequestException if an updated band does not exist or no band would remain;
+   *     returns normally if the patch changes nothing
+   */
+  static void check(RulePatch patch, RateLimitRule current) {
+    List<String> labels = new ArrayList<>();
+    if (patch.bands() != null) {
+      patch.bands().forEach(band -> labels.add(band.getLabel()));
+    } else {
+      current.getBands().forEach(band -> labels.add(band.getLabel()));
+    }
+    for (BandOperation operation : patch.bandOperations()) {
+      switch (operation.type()) {
+        case ADD -> labels.add(operation.label());
+        case REMOVE -> labels.removeIf(label -> Objects.equals(label, operation.label()));
+        case UPDATE -> {
+          if (!labels.contains(operation.label())) {
+            throw new InvalidRequestException("No band labeled " + operation.label());
+          }
+        }
+      }
+    }
+    if (labels.isEmpty()) {
+      throw new InvalidRequestException("A rule must keep at least one band");
+    }
+  }
+
+  private static void mergeAttributes(
+      Object value, Map<String, Object> attributes, boolean hasTags) {
+    if (!(value instanceof Map<?, ?> members)) {
+      throw new InvalidRequestException("attributes must be an object");
+    }
+    for (Map.Entry<?, ?> member : members.entrySet()) {
+      String name = String.valueOf(member.getKey());
+      if (name.isEmpty() || name.contains(".") || name.startsWith("$")) {
+        throw new InvalidRequestException(
+            "Attribute names must not be empty, contain '.' or start with '$': " + name);
+      }
+      if (TAGS.equals(name) && hasTags) {
+        throw new InvalidRequestException("tags and attributes.tags cannot be combined");
+      }
+      attributes.put(name, member.getValue());
+    }
+  }
+
+  private static List<String> tags(Object value) {
+    if (!(value instanceof List<?> items) || !items.stream().allMatch(String.class::isInstance)) {
+      throw new InvalidRequestException("tags must be an array of strings");
+    }
+    return items.stream().map(String.class::cast).toList();
+  }
+
+  private static List<RateLimitBand> bands(Object value) {
+    if (!(value instanceof List<?> items) || items.isEmpty()) {
+      throw new InvalidRequestException("bands must be a non-empty array");
+    }
+    List<RateLimitBand> bands = new ArrayList<>(items.size());
+    for (Object item : items) {
+      Map<?, ?> band = object("bands", item);
+      bands.add(
+          RateLimitBand.builder(
+                  Duration.ofSeconds(positive("windowSeconds", band.get("windowSeconds"))),
+                  positive("capacity", band.get("capacity")))
+              .label(optionalText("label", band.get("label")))
+              .build());
+    }
+    return bands;
+  }
+
+  private static List<BandOperation> bandOperations(Object value) {
+    if (!(value instanceof List<?> items)) {
+      throw new InvalidRequestException("bandOperations must be an array");
+    }
+    List<BandOperation> operations = new ArrayList<>(items.size());
+    for (Object item : items) {
+      Map<?, ?> operation = object("bandOperations", item);
+      BandOperation.Type type =
+          BandOperation.Type.valueOf(
+              enumName(
+                  "op",
+                  operation.get("op") instanceof String op ? op.toUpperCase(Locale.ROOT) : null,
+                  BandOperation.Type.values()));
+      Object windowSeconds = operation.get("windowSeconds");
+      Object capacity = operation.get("capacity");
+      operations.add(
+          switch (type) {
+            case ADD ->
+                new BandOperation(
+                    type,
+                    optionalText("label", operation.get("label")),
+                    positive("windowSeconds", windowSeconds),
+                    positive("capacity", capacity));
+            case REMOVE ->
+                new BandOperation(type, text("label", operation.get("label")), null, null);
+            case UPDATE -> {
+              if (windowSeconds == null && capacity == null) {
+                throw new InvalidRequestException("A band update needs windowSeconds or capacity");
+              }
+              yield new BandOperation(
+                  type,
+                  text("label", operation.get("label")),
+                  windowSeconds == null ? null : positive("windowSeconds", windowSeconds),
+                  capacity == null ? null : positive("capacity", capacity));
+            }
+          });
+    }
+    return operations;
+  }
+
+  private static Map<?, ?> object(String name, Object value) {
+    if (!(value instanceof Map<?, ?> map)) {
+      throw new InvalidRequestException(name + " must contain objects");
+    }
+    return map;
+  }
+
+  private static String text(String name, Object value) {
+    if (!(value instanceof String text) || text.isBlank()) {
+      throw new InvalidRequestException(name + " must be a non-blank string");
+    }
+    return text;
+  }
+
+  private static String optionalText(String name, Object value) {
+    return value == null ? null : text(name, value);
+  }
+
+  private static long positive(String name, Object value) {
+    if (!(value instanceof Integer || value instanceof Long) || ((Number) value).longValue() < 1) {
+      throw new InvalidRequestException(name + " must be a positive integer");
+    }
+    return ((Number) value).longValue();
+  }
+
+  private static String enumName(String name, Object value, Enum<?>[] constants) {
+    for (Enum<?> constant : constants) {
+      if (constant.name().equals(value)) {
+        return constant.name();
+      }
+    }
+    throw new InvalidRequestException(name + " must be one of " + Arrays.toString(constants));
+  }
+}
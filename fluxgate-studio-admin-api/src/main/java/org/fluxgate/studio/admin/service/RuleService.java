@@ -1,27 +1,52 @@
 package org.fluxgate.studio.admin.service;
 
-import java.time.Duration;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import org.fluxgate.control.aop.NotifyFullReload;
-import org.fluxgate.control.aop.NotifyRuleChange;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.fluxgate.core.config.LimitScope;
 import org.fluxgate.core.config.OnLimitExceedPolicy;
-import org.fluxgate.core.config.RateLimitBand;
 import org.fluxgate.core.config.RateLimitRule;
 import org.fluxgate.core.spi.RateLimitRuleRepository;
+import org.fluxgate.studio.admin.cache.RuleCache;
+import org.fluxgate.studio.admin.cache.RuleSnapshot;
+import org.fluxgate.studio.admin.changelog.PendingRuleChanges;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
 import org.fluxgate.studio.admin.dto.request.CreateRuleRequest;
-import org.fluxgate.studio.admin.dto.request.RateBandRequest;
+import org.fluxgate.studio.admin.dto.request.RuleSearchRequest;
 import org.fluxgate.studio.admin.dto.request.UpdateRuleRequest;
-import org.fluxgate.studio.admin.dto.response.RateBandResponse;
+import org.fluxgate.studio.admin.dto.response.PartialRuleResponse;
+import org.fluxgate.studio.admin.dto.response.RuleFacetsResponse;
+import org.fluxgate.studio.admin.dto.response.RulePageResponse;
 import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.fluxgate.studio.admin.dto.response.RuleSearchResponse;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
 import org.fluxgate.studio.admin.exception.RuleAlreadyExistsException;
 import org.fluxgate.studio.admin.exception.RuleNotFoundException;
+import org.fluxgate.studio.admin.exception.RuleVersionConflictException;
 import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.exception.StudioException;
+import org.fluxgate.studio.admin.notify.RuleChangeNotifier;
+import org.fluxgate.studio.admin.repository.RuleChangeRecord;
+import org.fluxgate.studio.admin.repository.RuleFacets;
+import org.fluxgate.studio.admin.repository.RuleField;
+import org.fluxgate.studio.admin.repository.RulePatch;
+import org.fluxgate.studio.admin.repository.RuleQuery;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.repository.StoredRule;
+import org.fluxgate.studio.admin.repository.UpdatedRule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /** Service for managing rate limit rules. */
@@ -30,10 +55,32 @@ public class RuleService {
 
   private static final Logger log = LoggerFactory.getLogger(RuleService.class);
 
+  /** Upper bound for the page size of {@link #getRulePage}. */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  /** Largest number of tags counted in search facets. */
+  public static final int MAX_TAG_FACETS = 50;
+
   private final RateLimitRuleRepository ruleRepository;
+  private final RuleStore ruleStore;
+  private final RuleCache ruleCache;
+  private final RuleChangeLog changeLog;
+  private final RuleChangeNotifier changeNotifier;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public RuleService(RateLimitRuleRepository ruleRepository) {
+  public RuleService(
+      RateLimitRuleRepository ruleRepository,
+      RuleStore ruleStore,
+      RuleCache ruleCache,
+      RuleChangeLog changeLog,
+      RuleChangeNotifier changeNotifier,
+      ApplicationEventPublisher eventPublisher) {
     this.ruleRepository = ruleRepository;
+    this.ruleStore = ruleStore;
+    this.ruleCache = ruleCache;
+    this.changeLog = changeLog;
+    this.changeNotifier = changeNotifier;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -43,42 +90,240 @@ public class RuleService {
    */
   public List<RuleResponse> getAllRules() {
     log.debug("Fetching all rules");
+    return listRules(null);
+  }
+
+  /**
+   * Get rules by rule set ID.
+   *
+   * @param ruleSetId the rule set ID
+   * @return list of rules in the rule set
+   */
+  public List<RuleResponse> getRulesByRuleSetId(String ruleSetId) {
+    log.debug("Fetching rules for ruleSetId: {}", ruleSetId);
+    return listRules(ruleSetId);
+  }
+
+  /**
+   * Get the selected fields of all rules or of one rule set.
+   *
+   * @param ruleSetId optional rule set filter, {@code null} for all rules
+   * @param fields comma-separated rule fields to return
+   * @return the selected fields of the rules
+   * @throws InvalidRequestException if a field is unknown
+   */
+  public List<PartialRuleResponse> getPartialRules(String ruleSetId, String fields) {
+    Set<RuleField> selected = parseFields(fields);
+    log.debug("Fetching rules for ruleSetId: {}, fields={}", ruleSetId, selected);
     try {
-      return ruleRepository.findAll().stream().map(this::toResponse).toList();
+      Optional<RuleSnapshot> cached = ruleCache.snapshot();
+      if (cached.isPresent()) {
+        List<RateLimitRule> rules =
+            ruleSetId != null ? cached.get().ruleSet(ruleSetId) : cached.get().all();
+        return rules.stream().map(rule -> RuleMapper.toPartialResponse(rule, selected)).toList();
+      }
+      return findPartial(ruleSetQuery(ruleSetId), null, 0, selected);
     } catch (Exception e) {
-      throw new StorageOperationException("findAll", e.getMessage(), e);
+      throw new StorageOperationException(
+          ruleSetId != null ? "findByRuleSetId" : "findAll", e.getMessage(), e);
     }
   }
 
   /**
-   * Get rules by rule set ID.
+   * Get the rule entities of a rule set, for services that evaluate rules.
    *
    * @param ruleSetId the rule set ID
    * @return list of rules in the rule set
    */
-  public List<RuleResponse> getRulesByRuleSetId(String ruleSetId) {
+  public List<RateLimitRule> getRules(String ruleSetId) {
     log.debug("Fetching rules for ruleSetId: {}", ruleSetId);
     try {
-      return ruleRepository.findByRuleSetId(ruleSetId).stream().map(this::toResponse).toList();
+      Optional<RuleSnapshot> cached = ruleCache.snapshot();
+      if (cached.isPresent()) {
+        return cached.get().ruleSet(ruleSetId);
+      }
+      return ruleRepository.findByRuleSetId(ruleSetId);
     } catch (Exception e) {
       throw new StorageOperationException("findByRuleSetId", e.getMessage(), e);
     }
   }
 
   /**
-   * Get a rule by ID.
+   * Get a page of rules ordered by ID using keyset pagination.
+   *
+   * @param ruleSetId optional rule set filter
+   * @param cursor opaque cursor returned by the previous page, or null for the first page
+   * @param limit page size, between 1 and {@link #MAX_PAGE_SIZE}
+   * @return the page with the cursor for the next page
+   * @throws InvalidRequestException if the cursor or limit is invalid
+   */
+  public RulePageResponse<RuleResponse> getRulePage(String ruleSetId, String cursor, int limit) {
+    checkLimit(limit);
+    String afterId = RuleCursor.decode(cursor);
+    log.debug("Fetching rule page: ruleSetId={}, after={}, limit={}", ruleSetId, afterId, limit);
+
+    List<RuleResponse> rules;
+    try {
+      // Fetch one extra rule to find out whether another page follows
+      rules =
+          ruleStore.findPage(ruleSetId, afterId, limit + 1).stream()
+              .map(RuleMapper::toResponse)
+              .toList();
+    } catch (Exception e) {
+      throw new StorageOperationException("findPage", e.getMessage(), e);
+    }
+    return toPage(rules, limit, RuleResponse::id);
+  }
+
+  /**
+   * Get the selected fields of a page of rules ordered by ID using keyset pagination. Only the
+   * selected fields are read from the database.
+   *
+   * @param ruleSetId optional rule set filter
+   * @param cursor opaque cursor returned by the previous page, or null for the first page
+   * @param limit page size, between 1 and {@link #MAX_PAGE_SIZE}
+   * @param fields comma-separated rule fields to return
+   * @return the page with the cursor for the next page
+   * @throws InvalidRequestException if the cursor, limit or a field is invalid
+   */
+  public RulePageResponse<PartialRuleResponse> getPartialRulePage(
+      String ruleSetId, String cursor, int limit, String fields) {
+    checkLimit(limit);
+    String afterId = RuleCursor.decode(cursor);
+    Set<RuleField> selected = parseFields(fields);
+    log.debug(
+        "Fetching rule page: ruleSetId={}, after={}, limit={}, fields={}",
+        ruleSetId,
+        afterId,
+        limit,
+        selected);
+
+    List<PartialRuleResponse> rules;
+    try {
+      rules = findPartial(ruleSetQuery(ruleSetId), afterId, limit + 1, selected);
+    } catch (Exception e) {
+      throw new StorageOperationException("findPage", e.getMessage(), e);
+    }
+    return toPage(rules, limit, PartialRuleResponse::id);
+  }
+
+  /**
+   * Search rules a page at a time, ordered by ID. The filters are evaluated by the database.
+   *
+   * @param request the filters; blank values are ignored
+   * @param cursor opaque cursor returned by the previous page, or null for the first page
+   * @param limit page size, between 1 and {@link #MAX_PAGE_SIZE}
+   * @param includeFacets whether to count all matching rules per field value
+   * @return the page with the cursor for the next page
+   * @throws InvalidRequestException if a filter, the cursor or the limit is invalid
+   */
+  public RuleSearchResponse<RuleResponse> searchRules(
+      RuleSearchRequest request, String cursor, int limit, boolean includeFacets) {
+    checkLimit(limit);
+    RuleQuery query = toQuery(request);
+    String afterId = RuleCursor.decode(cursor);
+    log.debug("Searching rules: query={}, after={}, limit={}", query, afterId, limit);
+
+    List<RuleResponse> rules;
+    try {
+      rules =
+          ruleStore.search(query, afterId, limit + 1).stream()
+              .map(RuleMapper::toResponse)
+              .toList();
+    } catch (Exception e) {
+      throw new StorageOperationException("search", e.getMessage(), e);
+    }
+    return toSearchPage(toPage(rules, limit, RuleResponse::id), query, includeFacets);
+  }
+
+  /**
+   * Search rules a page at a time, ordered by ID, and return the selected fields of each. The
+   * filters are evaluated and the fields selected by the database.
+   *
+   * @param request the filters; blank values are ignored
+   * @param cursor opaque cursor returned by the previous page, or null for the first page
+   * @param limit page size, between 1 and {@link #MAX_PAGE_SIZE}
+   * @param includeFacets whether to count all matching rules per field value
+   * @param fields comma-separated rule fields to return
+   * @return the page with the cursor for the next page
+   * @throws InvalidRequestException if a filter, the cursor, the limit or a field is invalid
+   */
+  public RuleSearchResponse<PartialRuleResponse> searchPartialRules(
+      RuleSearchRequest request, String cursor, int limit, boolean includeFacets, String fields) {
+    checkLimit(limit);
+    RuleQuery query = toQuery(request);
+    String afterId = RuleCursor.decode(cursor);
+    Set<RuleField> selected = parseFields(fields);
+    log.debug(
+        "Searching rules: query={}, after={}, limit={}, fields={}",
+        query,
+        afterId,
+        limit,
+        selected);
+
+    List<PartialRuleResponse> rules;
+    try {
+      rules = findPartial(query, afterId, limit + 1, selected);
+    } catch (Exception e) {
+      throw new StorageOperationException("search", e.getMessage(), e);
+    }
+    return toSearchPage(toPage(rules, limit, PartialRuleResponse::id), query, includeFacets);
+  }
+
+  /**
+   * Stream rules ordered by ID without materializing the full result.
+   *
+   * @param ruleSetId optional rule set filter
+   * @param action consumer invoked for every rule as it is read
+   */
+  public void forEachRule(String ruleSetId, Consumer<RuleResponse> action) {
+    log.debug("Streaming rules for ruleSetId: {}", ruleSetId);
+    try {
+      ruleStore.forEach(ruleSetId, rule -> action.accept(RuleMapper.toResponse(rule)));
+    } catch (UncheckedIOException e) {
+      // Failure writing to the client, not a storage failure
+      throw e;
+    } catch (Exception e) {
+      throw new StorageOperationException("stream", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Get a rule by ID with its version.
+   *
+   * <p>The rule is read from MongoDB rather than the cache, so the version is current enough to
+   * send back as {@code If-Match}.
    *
    * @param id the rule ID
    * @return the rule
    * @throws RuleNotFoundException if rule not found
    */
   public RuleResponse getRuleById(String id) {
+    log.debug("Fetching rule with version: {}", id);
+    try {
+      return RuleMapper.toResponse(
+          ruleStore.findById(id).orElseThrow(() -> new RuleNotFoundException(id)));
+    } catch (RuleNotFoundException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new StorageOperationException("findById", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Get a rule entity by ID, for services that evaluate rules.
+   *
+   * @param id the rule ID
+   * @return the rule
+   * @throws RuleNotFoundException if rule not found
+   */
+  public RateLimitRule getRule(String id) {
     log.debug("Fetching rule: {}", id);
     try {
-      return ruleRepository
-          .findById(id)
-          .map(this::toResponse)
-          .orElseThrow(() -> new RuleNotFoundException(id));
+      Optional<RuleSnapshot> cached = ruleCache.snapshot();
+      Optional<RateLimitRule> rule =
+          cached.isPresent() ? cached.get().get(id) : ruleRepository.findById(id);
+      return rule.orElseThrow(() -> new RuleNotFoundException(id));
     } catch (RuleNotFoundException e) {
       throw e;
     } catch (Exception e) {
@@ -89,114 +334,201 @@ public class RuleService {
   /**
    * Create a new rule.
    *
+   * <p>The rule is written with a single conditional insert; a duplicate ID is detected from the
+   * unique index violation instead of a separate existence check.
+   *
    * @param request the create request
    * @return the created rule
    * @throws RuleAlreadyExistsException if rule already exists
    */
-  @NotifyRuleChange(ruleSetId = "#request.ruleSetId")
   public RuleResponse createRule(CreateRuleRequest request) {
     log.debug("Creating rule: {}", request.id());
-    try {
-      if (ruleRepository.existsById(request.id())) {
-        throw new RuleAlreadyExistsException(request.id());
-      }
-
-      RateLimitRule rule = toEntity(request);
-      ruleRepository.save(rule);
-      log.info("Rule created: {}", request.id());
-      return toResponse(rule);
-    } catch (RuleAlreadyExistsException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new StorageOperationException("create", e.getMessage(), e);
-    }
+    RateLimitRule rule = RuleMapper.toEntity(request);
+    logged(
+        "create",
+        List.of(rule.getId()),
+        false,
+        () -> {
+          if (!ruleStore.insert(rule)) {
+            throw new RuleAlreadyExistsException(request.id());
+          }
+          return rule;
+        },
+        created -> List.of(RuleChangeRecord.changed(created)));
+    StoredRule stored = new StoredRule(rule, StoredRule.INITIAL_VERSION);
+    RuleResponse response = RuleMapper.toResponse(stored);
+    SideEffects.run(
+        rule.getId(),
+        () -> ruleCache.putCreated(stored),
+        () -> changeNotifier.ruleSetChanged(rule.getRuleSetIdOrNull()),
+        () -> eventPublisher.publishEvent(RuleChangedEvent.created(response)));
+    log.info("Rule created: {}", request.id());
+    return response;
   }
 
   /**
    * Update an existing rule.
    *
+   * <p>The rule is overwritten in a single round trip matched on its ID and, when given, its
+   * version, so concurrent editors cannot lose each other's updates without locking. A missing
+   * rule or a version conflict is told apart only when nothing matched.
+   *
    * @param id the rule ID
    * @param request the update request
-   * @return the updated rule
+   * @param expectedVersion version the rule must be at, {@code null} to overwrite any version
+   * @return the updated rule with its new version
    * @throws RuleNotFoundException if rule not found
+   * @throws RuleVersionConflictException if the rule is at another version
    */
-  @NotifyRuleChange(ruleSetId = "#request.ruleSetId")
-  public RuleResponse updateRule(String id, UpdateRuleRequest request) {
-    log.debug("Updating rule: {}", id);
-    try {
-      if (!ruleRepository.existsById(id)) {
-        throw new RuleNotFoundException(id);
-      }
+  public RuleResponse updateRule(String id, UpdateRuleRequest request, Long expectedVersion) {
+    log.debug("Updating rule: {} (expected version {})", id, expectedVersion);
+    RateLimitRule rule = RuleMapper.toEntity(id, request);
+    UpdatedRule updated =
+        logged(
+            "update",
+            List.of(id),
+            false,
+            () ->
+                ruleStore
+                    .replace(rule, expectedVersion)
+                    .orElseThrow(() -> writeRejected(id, expectedVersion)),
+            result -> List.of(RuleChangeRecord.changed(rule, result.previousRuleSetId())));
+    RuleResponse response = RuleMapper.toResponse(updated.stored());
+    SideEffects.run(
+        id,
+        () -> ruleCache.put(updated.stored()),
+        () -> notifyRuleSets(rule, updated.previousRuleSetId()),
+        () -> eventPublisher.publishEvent(RuleChangedEvent.updated(response)));
+    log.info("Rule updated: {} -> version {}", id, updated.stored().version());
+    return response;
+  }
 
-      RateLimitRule rule = toEntity(id, request);
-      ruleRepository.save(rule);
-      log.info("Rule updated: {}", id);
-      return toResponse(rule);
-    } catch (RuleNotFoundException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new StorageOperationException("update", e.getMessage(), e);
+  /**
+   * Change only the given fields of a rule.
+   *
+   * <p>The merge patch becomes one atomic field-level update matched on the rule ID and, when
+   * given, its version, so the bands and attributes it does not name are neither sent nor
+   * rewritten. The update only matches when it changes the rule: a patch that changes nothing
+   * returns the current rule without a new version, a change log entry or a notification.
+   *
+   * @param id the rule ID
+   * @param mergePatch the JSON Merge Patch, with the {@code bandOperations} extension
+   * @param expectedVersion version the rule must be at, {@code null} to patch any version
+   * @return the patched rule with its version
+   * @throws InvalidRequestException if the patch is invalid or cannot be applied to the rule
+   * @throws RuleNotFoundException if rule not found
+   * @throws RuleVersionConflictException if the rule is at another version
+   */
+  public RuleResponse patchRule(String id, Map<String, Object> mergePatch, Long expectedVersion) {
+    log.debug("Patching rule: {} (expected version {})", id, expectedVersion);
+    RulePatch patch = RuleMergePatch.parse(mergePatch);
+    Optional<UpdatedRule> patched = Optional.empty();
+    if (!patch.isEmpty()) {
+      patched =
+          logged(
+              "patch",
+              List.of(id),
+              false,
+              () -> ruleStore.patch(id, patch, expectedVersion),
+              result ->
+                  result
+                      .map(
+                          updated ->
+                              List.of(
+                                  RuleChangeRecord.changed(
+                                      updated.stored().rule(), updated.previousRuleSetId())))
+                      .orElse(List.of()));
     }
+    if (patched.isEmpty()) {
+      // Nothing matched: tell a missing rule, a conflict or an invalid band change from a no-op
+      StoredRule current;
+      try {
+        current = ruleStore.findById(id).orElseThrow(() -> new RuleNotFoundException(id));
+      } catch (RuleNotFoundException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        throw new StorageOperationException("patch", e.getMessage(), e);
+      }
+      if (expectedVersion != null && current.version() != expectedVersion) {
+        throw new RuleVersionConflictException(id, expectedVersion, current.version());
+      }
+      RuleMergePatch.check(patch, current.rule());
+      log.debug("Rule patch changed nothing: {}", id);
+      return RuleMapper.toResponse(current);
+    }
+    StoredRule stored = patched.get().stored();
+    String previousRuleSetId = patched.get().previousRuleSetId();
+    RateLimitRule rule = stored.rule();
+    RuleResponse response = RuleMapper.toResponse(stored);
+    SideEffects.run(
+        id,
+        () -> ruleCache.put(stored),
+        () -> notifyRuleSets(rule, previousRuleSetId),
+        () -> eventPublisher.publishEvent(RuleChangedEvent.updated(response)));
+    log.info("Rule patched: {} -> version {}", id, stored.version());
+    return response;
   }
 
   /**
    * Delete a rule by ID.
    *
+   * <p>The rule is removed with a single find-and-delete, so the rule set it belonged to is known
+   * atomically and only gateways serving that rule set are told to reload.
+   *
    * @param id the rule ID
    * @throws RuleNotFoundException if rule not found
    */
-  @NotifyFullReload
   public void deleteRule(String id) {
     log.debug("Deleting rule: {}", id);
-    try {
-      if (!ruleRepository.deleteById(id)) {
-        throw new RuleNotFoundException(id);
-      }
-      log.info("Rule deleted: {}", id);
-    } catch (RuleNotFoundException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new StorageOperationException("delete", e.getMessage(), e);
-    }
+    StoredRule deleted =
+        logged(
+            "delete",
+            List.of(id),
+            true,
+            () -> ruleStore.findAndDelete(id).orElseThrow(() -> new RuleNotFoundException(id)),
+            stored -> List.of(RuleChangeRecord.deleted(id, stored.rule().getRuleSetIdOrNull())));
+    String ruleSetId = deleted.rule().getRuleSetIdOrNull();
+    SideEffects.run(
+        id,
+        () -> ruleCache.evict(id, deleted.version()),
+        () -> changeNotifier.ruleSetChanged(ruleSetId),
+        () -> eventPublisher.publishEvent(RuleChangedEvent.deleted(id, ruleSetId)));
+    log.info("Rule deleted: {}", id);
   }
 
   /**
    * Toggle rule enabled status.
    *
+   * <p>The flag is flipped by a single atomic update, so concurrent toggles cannot lose updates
+   * and bands and attributes are never rewritten.
+   *
    * @param id the rule ID
-   * @return the updated rule
+   * @param expectedVersion version the rule must be at, {@code null} for any
+   * @return the updated rule with its new version
    * @throws RuleNotFoundException if rule not found
+   * @throws RuleVersionConflictException if the rule is at another version
    */
-  @NotifyRuleChange(ruleSetId = "#result.ruleSetId")
-  public RuleResponse toggleRule(String id) {
-    log.debug("Toggling rule: {}", id);
-    try {
-      Optional<RateLimitRule> existing = ruleRepository.findById(id);
-      if (existing.isEmpty()) {
-        throw new RuleNotFoundException(id);
-      }
-
-      RateLimitRule rule = existing.get();
-      RateLimitRule.Builder builder =
-          RateLimitRule.builder(rule.getId())
-              .name(rule.getName())
-              .enabled(!rule.isEnabled())
-              .scope(rule.getScope())
-              .keyStrategyId(rule.getKeyStrategyId())
-              .onLimitExceedPolicy(rule.getOnLimitExceedPolicy())
-              .ruleSetId(rule.getRuleSetIdOrNull())
-              .attributes(rule.getAttributes());
-      rule.getBands().forEach(builder::addBand);
-      RateLimitRule toggled = builder.build();
-
-      ruleRepository.save(toggled);
-      log.info("Rule toggled: {} -> enabled={}", id, toggled.isEnabled());
-      return toResponse(toggled);
-    } catch (RuleNotFoundException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new StorageOperationException("toggle", e.getMessage(), e);
-    }
+  public RuleResponse toggleRule(String id, Long expectedVersion) {
+    log.debug("Toggling rule: {} (expected version {})", id, expectedVersion);
+    StoredRule stored =
+        logged(
+            "toggle",
+            List.of(id),
+            false,
+            () ->
+                ruleStore
+                    .toggleEnabled(id, expectedVersion)
+                    .orElseThrow(() -> writeRejected(id, expectedVersion)),
+            result -> List.of(RuleChangeRecord.changed(result.rule())));
+    RateLimitRule toggled = stored.rule();
+    RuleResponse response = RuleMapper.toResponse(stored);
+    SideEffects.run(
+        id,
+        () -> ruleCache.put(stored),
+        () -> changeNotifier.ruleSetChanged(toggled.getRuleSetIdOrNull()),
+        () -> eventPublisher.publishEvent(RuleChangedEvent.toggled(response)));
+    log.info("Rule toggled: {} -> enabled={}", id, toggled.isEnabled());
+    return response;
   }
 
   /**
@@ -205,121 +537,211 @@ public class RuleService {
    * @param ruleSetId the rule set ID
    * @return number of deleted rules
    */
-  @NotifyRuleChange(ruleSetId = "#ruleSetId")
   public int deleteByRuleSetId(String ruleSetId) {
     log.debug("Deleting rules for ruleSetId: {}", ruleSetId);
+    PendingRuleChanges pending = changeLog.prepareRuleSetDeleted(ruleSetId);
+    int count;
     try {
-      int count = ruleRepository.deleteByRuleSetId(ruleSetId);
-      log.info("Deleted {} rules for ruleSetId: {}", count, ruleSetId);
-      return count;
-    } catch (Exception e) {
+      count = ruleRepository.deleteByRuleSetId(ruleSetId);
+    } catch (RuntimeException e) {
       throw new StorageOperationException("deleteByRuleSetId", e.getMessage(), e);
+    } finally {
+      // The rule set entry makes readers reload the set whether or not the deletion went through
+      pending.complete(List.of());
+    }
+    SideEffects.run(
+        ruleSetId,
+        () -> ruleCache.evictRuleSet(ruleSetId),
+        () -> changeNotifier.ruleSetChanged(ruleSetId),
+        () -> eventPublisher.publishEvent(RuleChangedEvent.ruleSetDeleted(ruleSetId)));
+    log.info("Deleted {} rules for ruleSetId: {}", count, ruleSetId);
+    return count;
+  }
+
+  /**
+   * Run a rule write between preparing and completing its change log entries, so the change is
+   * in the log before anything else can fail. A rejected write leaves the log unchanged.
+   *
+   * @param operation the operation reported if the write fails
+   * @param ruleIds the rules the write can change, empty to write no entries
+   * @param deleting whether the write deletes the rules
+   * @param write the write, throwing a {@link StudioException} if it is rejected
+   * @param changes the changes made by the write, given its result
+   * @throws StorageOperationException if the entries cannot be prepared or the write fails
+   */
+  private <T> T logged(
+      String operation,
+      List<String> ruleIds,
+      boolean deleting,
+      Supplier<T> write,
+      Function<T, List<RuleChangeRecord>> changes) {
+    PendingRuleChanges pending = changeLog.prepare(ruleIds, deleting);
+    T result;
+    try {
+      result = write.get();
+    } catch (RuleNotFoundException | RuleAlreadyExistsException | RuleVersionConflictException e) {
+      pending.complete(List.of());
+      throw e;
+    } catch (RuntimeException e) {
+      pending.complete(null);
+      throw new StorageOperationException(operation, e.getMessage(), e);
     }
+    pending.complete(changes.apply(result));
+    return result;
   }
 
-  private RuleResponse toResponse(RateLimitRule rule) {
-    List<RateBandResponse> bands =
-        rule.getBands().stream()
-            .map(
-                band ->
-                    new RateBandResponse(
-                        band.getWindow().toSeconds(), band.getCapacity(), band.getLabel()))
-            .toList();
+  /** Tell gateways of the rule's rule set and, if it moved, of the rule set it left. */
+  private void notifyRuleSets(RateLimitRule rule, String previousRuleSetId) {
+    changeNotifier.ruleSetChanged(rule.getRuleSetIdOrNull());
+    if (!Objects.equals(previousRuleSetId, rule.getRuleSetIdOrNull())) {
+      changeNotifier.ruleSetChanged(previousRuleSetId);
+    }
+  }
 
-    List<String> tags = extractTags(rule.getAttributes());
+  /** Tell why a conditional write matched no rule: it is missing or at another version. */
+  private StudioException writeRejected(String id, Long expectedVersion) {
+    if (expectedVersion == null) {
+      return new RuleNotFoundException(id);
+    }
+    return ruleStore
+        .findById(id)
+        .<StudioException>map(
+            current -> new RuleVersionConflictException(id, expectedVersion, current.version()))
+        .orElseGet(() -> new RuleNotFoundException(id));
+  }
 
-    return new RuleResponse(
-        rule.getId(),
-        rule.getName(),
-        rule.isEnabled(),
-        rule.getScope().name(),
-        rule.getKeyStrategyId(),
-        rule.getOnLimitExceedPolicy().name(),
-        bands,
-        rule.getRuleSetIdOrNull(),
-        tags,
-        rule.getAttributes());
+  /** List all rules or one rule set, from the cache when it holds them. */
+  private List<RuleResponse> listRules(String ruleSetId) {
+    try {
+      Optional<RuleSnapshot> cached = ruleCache.snapshot();
+      List<RateLimitRule> rules;
+      if (cached.isPresent()) {
+        rules = ruleSetId != null ? cached.get().ruleSet(ruleSetId) : cached.get().all();
+      } else {
+        rules =
+            ruleSetId != null
+                ? ruleRepository.findByRuleSetId(ruleSetId)
+                : ruleRepository.findAll();
+      }
+      return rules.stream().map(RuleMapper::toResponse).toList();
+    } catch (Exception e) {
+      throw new StorageOperationException(
+          ruleSetId != null ? "findByRuleSetId" : "findAll", e.getMessage(), e);
+    }
   }
 
-  private RateLimitRule toEntity(CreateRuleRequest request) {
-    return toEntity(
-        request.id(),
-        request.name(),
-        request.enabled(),
-        request.scope(),
-        request.keyStrategyId(),
-        request.onLimitExceedPolicy(),
-        request.bands(),
-        request.ruleSetId(),
-        request.tags(),
-        request.attributes());
+  private List<PartialRuleResponse> findPartial(
+      RuleQuery query, String afterId, int limit, Set<RuleField> fields) {
+    return ruleStore.findPartial(query, afterId, limit, fields).stream()
+        .map(rule -> RuleMapper.toPartialResponse(rule, fields))
+        .toList();
   }
 
-  private RateLimitRule toEntity(String id, UpdateRuleRequest request) {
-    return toEntity(
-        id,
-        request.name(),
-        request.enabled(),
-        request.scope(),
-        request.keyStrategyId(),
-        request.onLimitExceedPolicy(),
-        request.bands(),
-        request.ruleSetId(),
-        request.tags(),
-        request.attributes());
-  }
-
-  private RateLimitRule toEntity(
-      String id,
-      String name,
-      boolean enabled,
-      String scope,
-      String keyStrategyId,
-      String onLimitExceedPolicy,
-      List<RateBandRequest> bandRequests,
-      String ruleSetId,
-      List<String> tags,
-      Map<String, Object> attributes) {
-
-    Map<String, Object> attrs =
-        attributes != null ? new java.util.HashMap<>(attributes) : new java.util.HashMap<>();
-    if (tags != null && !tags.isEmpty()) {
-      attrs.put("tags", tags);
+  private static void checkLimit(int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new InvalidRequestException(
+          String.format("limit must be between 1 and %d", MAX_PAGE_SIZE));
     }
+  }
 
-    RateLimitRule.Builder builder =
-        RateLimitRule.builder(id)
-            .name(name)
-            .enabled(enabled)
-            .scope(LimitScope.valueOf(scope))
-            .keyStrategyId(keyStrategyId)
-            .onLimitExceedPolicy(OnLimitExceedPolicy.valueOf(onLimitExceedPolicy))
-            .ruleSetId(ruleSetId)
-            .attributes(attrs);
-
-    bandRequests.forEach(
-        b ->
-            builder.addBand(
-                RateLimitBand.builder(Duration.ofSeconds(b.windowSeconds()), b.capacity())
-                    .label(b.label())
-                    .build()));
-
-    return builder.build();
-  }
-
-  @SuppressWarnings("unchecked")
-  private List<String> extractTags(Map<String, Object> attributes) {
-    if (attributes == null || !attributes.containsKey("tags")) {
-      return List.of();
+  /** Cut the extra rule fetched to find out whether another page follows. */
+  private static <T> RulePageResponse<T> toPage(
+      List<T> rules, int limit, Function<T, String> idOf) {
+    boolean hasMore = rules.size() > limit;
+    List<T> page = hasMore ? rules.subList(0, limit) : rules;
+    String nextCursor = hasMore ? RuleCursor.encode(idOf.apply(page.get(page.size() - 1))) : null;
+    return new RulePageResponse<>(page, nextCursor, hasMore);
+  }
+
+  private <T> RuleSearchResponse<T> toSearchPage(
+      RulePageResponse<T> page, RuleQuery query, boolean includeFacets) {
+    RuleFacetsResponse facets = null;
+    if (includeFacets) {
+      try {
+        facets = toResponse(ruleStore.countFacets(query, MAX_TAG_FACETS));
+      } catch (Exception e) {
+        throw new StorageOperationException("countFacets", e.getMessage(), e);
+      }
     }
-    Object tags = attributes.get("tags");
-    if (tags instanceof List) {
-      return ((List<?>) tags)
-          .stream()
-              .filter(t -> t instanceof String)
-              .map(t -> (String) t)
-              .collect(Collectors.toList());
+    return new RuleSearchResponse<>(page.items(), page.nextCursor(), page.hasMore(), facets);
+  }
+
+  /**
+   * Parse a comma-separated list of rule fields. The ID is always selected, so cursors keep
+   * working.
+   *
+   * @return the selected fields
+   * @throws InvalidRequestException if a field is unknown
+   */
+  private static Set<RuleField> parseFields(String fields) {
+    Set<RuleField> selected = EnumSet.of(RuleField.ID);
+    if (fields == null) {
+      return selected;
+    }
+    for (String name : fields.split(",")) {
+      String trimmed = name.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      RuleField field = RuleField.fromApiName(trimmed);
+      if (field == null) {
+        throw new InvalidRequestException(
+            String.format("Unknown field '%s', expected any of %s", trimmed, RuleField.apiNames()));
+      }
+      selected.add(field);
     }
-    return List.of();
+    return selected;
+  }
+
+  private static RuleQuery ruleSetQuery(String ruleSetId) {
+    return new RuleQuery(ruleSetId, null, null, null, null, null, null);
+  }
+
+  private static RuleQuery toQuery(RuleSearchRequest request) {
+    List<String> tags =
+        request.tags() == null
+            ? List.of()
+            : request.tags().stream()
+                .map(RuleService::blankToNull)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    return new RuleQuery(
+        blankToNull(request.ruleSetId()),
+        enumName(request.scope(), LimitScope.class, "scope"),
+        request.enabled(),
+        enumName(request.onLimitExceedPolicy(), OnLimitExceedPolicy.class, "onLimitExceedPolicy"),
+        blankToNull(request.keyStrategyId()),
+        tags,
+        blankToNull(request.namePrefix()));
+  }
+
+  private static <E extends Enum<E>> String enumName(String value, Class<E> type, String field) {
+    String name = blankToNull(value);
+    if (name == null) {
+      return null;
+    }
+    try {
+      return Enum.valueOf(type, name.toUpperCase(Locale.ROOT)).name();
+    } catch (IllegalArgumentException e) {
+      throw new InvalidRequestException(
+          String.format(
+              "%s must be one of: %s", field, Arrays.toString(type.getEnumConstants())));
+    }
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value.strip();
+  }
+
+  private static RuleFacetsResponse toResponse(RuleFacets facets) {
+    return new RuleFacetsResponse(
+        facets.total(),
+        facets.enabled(),
+        facets.total() - facets.enabled(),
+        facets.scopes(),
+        facets.onLimitExceedPolicies(),
+        facets.keyStrategies(),
+        facets.tags());
   }
 }
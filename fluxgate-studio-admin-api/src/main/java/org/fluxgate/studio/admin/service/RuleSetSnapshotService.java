@@ -0,0 +1,127 @@
+package org.fluxgate.studio.admin.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.snapshot.RuleSetSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service compiling rule sets into binary snapshots for gateways.
+ *
+ * <p>With the rule change log enabled, compiled snapshots are kept per rule set together with the
+ * {@link org.fluxgate.studio.admin.repository.RuleChangeLogPosition#visibleThrough() visible end}
+ * of the log read before compiling. A pull only reads the position while it is unchanged, so a
+ * fleet of gateways polling an unchanged rule set costs one counter read per poll. Once any rule
+ * change becomes visible, on this instance or another, the next pull recompiles from MongoDB.
+ * Only rule sets with rules are kept, so pulls for unknown or emptied rule sets do not grow the
+ * map, and a rule set deleted on this instance is dropped right away.
+ *
+ * <p>With the change log disabled there is nothing telling other instances' writes apart, so
+ * snapshots are compiled from {@link RuleService#getRules(String)} on every pull.
+ */
+@Service
+public class RuleSetSnapshotService {
+
+  private static final Logger log = LoggerFactory.getLogger(RuleSetSnapshotService.class);
+
+  private final RuleService ruleService;
+  private final RuleStore ruleStore;
+  private final RuleChangeLog changeLog;
+  private final Map<String, CompiledSnapshot> snapshots = new ConcurrentHashMap<>();
+  private final DistributionSummary snapshotBytes;
+
+  public RuleSetSnapshotService(
+      RuleService ruleService,
+      RuleStore ruleStore,
+      RuleChangeLog changeLog,
+      MeterRegistry registry) {
+    this.ruleService = ruleService;
+    this.ruleStore = ruleStore;
+    this.changeLog = changeLog;
+    this.snapshotBytes =
+        DistributionSummary.builder("studio.rule.snapshot.size")
+            .baseUnit("bytes")
+            .register(registry);
+  }
+
+  /**
+   * Get the snapshot of the current rules of a rule set, compiling it only if a rule change became
+   * visible since it was last compiled.
+   *
+   * @param ruleSetId the rule set ID
+   * @return the snapshot; a rule set without rules compiles to an empty snapshot
+   * @throws StorageOperationException if MongoDB cannot be read
+   */
+  public RuleSetSnapshot getSnapshot(String ruleSetId) {
+    if (!changeLog.isEnabled()) {
+      return compile(ruleSetId, ruleService.getRules(ruleSetId));
+    }
+    // Read before the rules, so the snapshot holds at least every change up to the position
+    long position = changeLog.position().visibleThrough();
+    CompiledSnapshot cached = snapshots.get(ruleSetId);
+    if (cached != null && cached.position() == position) {
+      return cached.snapshot();
+    }
+
+    RuleSetSnapshot snapshot = compile(ruleSetId, readRules(ruleSetId));
+    // A slower concurrent pull must not replace or drop a snapshot compiled at a later position
+    if (snapshot.ruleCount() == 0) {
+      snapshots.computeIfPresent(
+          ruleSetId, (id, current) -> current.position() > position ? current : null);
+    } else {
+      snapshots.merge(
+          ruleSetId,
+          new CompiledSnapshot(snapshot, position),
+          (current, compiled) -> compiled.position() >= current.position() ? compiled : current);
+    }
+    return snapshot;
+  }
+
+  /** Drop the snapshot of a rule set deleted on this instance. */
+  @EventListener
+  public void onRuleChanged(RuleChangedEvent event) {
+    if (event.type() == RuleChangedEvent.Type.RULE_SET_DELETED) {
+      snapshots.remove(event.ruleSetId());
+    }
+  }
+
+  int snapshotCount() {
+    return snapshots.size();
+  }
+
+  /** Read the rules from MongoDB; the rule cache may not have seen other instances' writes yet. */
+  private List<RateLimitRule> readRules(String ruleSetId) {
+    try {
+      List<RateLimitRule> rules = new ArrayList<>();
+      ruleStore.forEach(ruleSetId, rules::add);
+      return rules;
+    } catch (Exception e) {
+      throw new StorageOperationException("getSnapshot", e.getMessage(), e);
+    }
+  }
+
+  private RuleSetSnapshot compile(String ruleSetId, List<RateLimitRule> rules) {
+    RuleSetSnapshot snapshot = RuleSetSnapshot.compile(ruleSetId, rules);
+    snapshotBytes.record(snapshot.data().length);
+    log.debug(
+        "Compiled snapshot of rule set {}: {} rules, {} bytes",
+        ruleSetId,
+        snapshot.ruleCount(),
+        snapshot.data().length);
+    return snapshot;
+  }
+
+  private record CompiledSnapshot(RuleSetSnapshot snapshot, long position) {}
+}
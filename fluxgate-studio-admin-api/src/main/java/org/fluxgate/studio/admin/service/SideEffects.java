@@ -0,0 +1,33 @@
+package org.fluxgate.studio.admin.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the side effects of a stored rule write: cache updates, gateway notifications and UI events.
+ *
+ * <p>The write itself succeeded and the change log already has it, so a failing side effect is
+ * only logged. It neither fails the request nor keeps the other side effects from running.
+ */
+final class SideEffects {
+
+  private static final Logger log = LoggerFactory.getLogger(SideEffects.class);
+
+  private SideEffects() {}
+
+  /**
+   * Run every side effect in order.
+   *
+   * @param target the rule or rule set that was written, for the log
+   * @param effects the side effects
+   */
+  static void run(String target, Runnable... effects) {
+    for (Runnable effect : effects) {
+      try {
+        effect.run();
+      } catch (RuntimeException e) {
+        log.warn("Side effect of the write to {} failed: {}", target, e.getMessage(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package org.fluxgate.studio.admin.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.request.InlineSimulationRequest;
+import org.fluxgate.studio.admin.dto.request.LoadModelRequest;
+import org.fluxgate.studio.admin.dto.request.SimulationRequest;
+import org.fluxgate.studio.admin.dto.response.LoadModelResponse;
+import org.fluxgate.studio.admin.dto.response.SimulationResponse;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.simulation.ArrivalDistribution;
+import org.fluxgate.studio.admin.simulation.BurstTraffic;
+import org.fluxgate.studio.admin.simulation.LoadModel;
+import org.fluxgate.studio.admin.simulation.MonteCarloSimulator;
+import org.fluxgate.studio.admin.simulation.TrafficSimulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/** Service for simulating how a rule treats a given request timeline or load model. */
+@Service
+public class SimulationService {
+
+  private static final Logger log = LoggerFactory.getLogger(SimulationService.class);
+
+  /** Upper bound for the number of simulated requests. */
+  public static final long MAX_REQUESTS = 100_000_000L;
+
+  static final long DEFAULT_MAX_WAIT_MILLIS = 5_000;
+  static final int DEFAULT_BUCKETS = 60;
+  static final int DEFAULT_TRIALS = 100;
+
+  private final RuleService ruleService;
+
+  public SimulationService(RuleService ruleService) {
+    this.ruleService = ruleService;
+  }
+
+  /**
+   * Simulate a stored rule.
+   *
+   * @param id the rule ID
+   * @param request the simulated traffic
+   * @return the simulation outcome
+   * @throws org.fluxgate.studio.admin.exception.RuleNotFoundException if rule not found
+   */
+  public SimulationResponse simulate(String id, SimulationRequest request) {
+    return simulate(ruleService.getRule(id), request);
+  }
+
+  /**
+   * Simulate a rule that has not been stored, e.g. while it is being edited.
+   *
+   * @param request the rule and the simulated traffic
+   * @return the simulation outcome
+   */
+  public SimulationResponse simulate(InlineSimulationRequest request) {
+    return simulate(RuleMapper.toEntity(request.rule()), request.traffic());
+  }
+
+  /**
+   * Run a Monte Carlo load model against a stored rule.
+   *
+   * @param id the rule ID
+   * @param request the load model and number of trials
+   * @return rejection and wait distributions over all trials
+   * @throws org.fluxgate.studio.admin.exception.RuleNotFoundException if rule not found
+   */
+  public LoadModelResponse analyzeLoad(String id, LoadModelRequest request) {
+    RateLimitRule rule = ruleService.getRule(id);
+    ArrivalDistribution distribution =
+        request.distribution() != null
+            ? ArrivalDistribution.valueOf(request.distribution())
+            : ArrivalDistribution.POISSON;
+    if (distribution == ArrivalDistribution.BURSTY && request.meanBurstSize() == null) {
+      throw new InvalidRequestException("meanBurstSize is required for BURSTY arrivals");
+    }
+    LoadModel model =
+        new LoadModel(
+            distribution,
+            request.keys(),
+            request.ratePerKey(),
+            request.meanBurstSize() != null ? request.meanBurstSize() : 1,
+            request.durationMillis() * 1_000_000L);
+    int trials = request.trials() != null ? request.trials() : DEFAULT_TRIALS;
+    if (Math.max(model.expectedRequests(), model.keys()) * trials > MAX_REQUESTS) {
+      throw new InvalidRequestException(
+          String.format(
+              "Load model would simulate more than %d requests; use fewer trials, keys or a"
+                  + " shorter duration",
+              MAX_REQUESTS));
+    }
+    long maxWaitMillis =
+        request.maxWaitMillis() != null ? request.maxWaitMillis() : DEFAULT_MAX_WAIT_MILLIS;
+    long seed = request.seed() != null ? request.seed() : ThreadLocalRandom.current().nextLong();
+
+    long started = System.nanoTime();
+    LoadModelResponse response =
+        MonteCarloSimulator.run(
+            rule, model, trials, maxWaitMillis * 1_000_000L, seed, ForkJoinPool.commonPool());
+    log.debug(
+        "Ran {} load model trials for rule {} in {} ms",
+        trials,
+        rule.getId(),
+        (System.nanoTime() - started) / 1_000_000);
+    return response;
+  }
+
+  private SimulationResponse simulate(RateLimitRule rule, SimulationRequest request) {
+    long durationNanos = request.durationMillis() * 1_000_000L;
+    double intervalNanos = request.intervalMillis() * 1_000_000.0;
+    BurstTraffic traffic = new BurstTraffic(request.burstSize(), intervalNanos, durationNanos);
+    if (traffic.bursts() > MAX_REQUESTS / traffic.burstSize()) {
+      throw new InvalidRequestException(
+          String.format(
+              "Simulation would send more than %d requests; use fewer or smaller bursts",
+              MAX_REQUESTS));
+    }
+    long maxWaitMillis =
+        request.maxWaitMillis() != null ? request.maxWaitMillis() : DEFAULT_MAX_WAIT_MILLIS;
+    int buckets = request.buckets() != null ? request.buckets() : DEFAULT_BUCKETS;
+
+    long started = System.nanoTime();
+    SimulationResponse response =
+        TrafficSimulator.run(
+            rule, traffic, maxWaitMillis * 1_000_000L, (int) Math.min(buckets, durationNanos));
+    log.debug(
+        "Simulated {} requests for rule {} in {} ms",
+        traffic.requests(),
+        rule.getId(),
+        (System.nanoTime() - started) / 1_000_000);
+    return response;
+  }
+}
@@ -0,0 +1,16 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.util.Locale;
+
+/** Supported access log layouts for traffic replay. */
+public enum AccessLogFormat {
+  /** One JSON object per line with {@code timestamp}, {@code ip}, {@code userId}, ... fields. */
+  NDJSON,
+  /** Comma-separated {@code timestamp,ip,userId,apiKey,path}, with an optional header line. */
+  CSV;
+
+  /** Guess the format from a file name: {@code .csv} files are CSV, everything else NDJSON. */
+  public static AccessLogFormat fromFileName(String fileName) {
+    return fileName.toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+  }
+}
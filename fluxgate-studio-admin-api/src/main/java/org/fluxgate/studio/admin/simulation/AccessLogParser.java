@@ -0,0 +1,315 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Locates the fields of one access log line directly in a (memory-mapped) buffer.
+ *
+ * <p>Nothing is allocated for a line except when an ISO-8601 timestamp has to be parsed. Keys are
+ * reduced to 64-bit hashes of their raw bytes; the text of a field is only decoded on request.
+ * NDJSON lines must be flat objects; nested values are skipped. CSV fields are not unescaped. Not
+ * thread-safe: use one parser per thread.
+ */
+final class AccessLogParser {
+
+  static final int TIMESTAMP = 0;
+  static final int IP = 1;
+  static final int USER_ID = 2;
+  static final int API_KEY = 3;
+  static final int PATH = 4;
+  private static final int FIELD_COUNT = 5;
+
+  private static final byte[][] JSON_NAMES = {
+    bytes("timestamp"), bytes("ip"), bytes("userId"), bytes("apiKey"), bytes("path")
+  };
+
+  private final AccessLogFormat format;
+  private final int[] start = new int[FIELD_COUNT];
+  private final int[] end = new int[FIELD_COUNT];
+
+  AccessLogParser(AccessLogFormat format) {
+    this.format = format;
+  }
+
+  /**
+   * Locate the fields of the line {@code [from, to)}, without its line terminator.
+   *
+   * @return false if the line is not a well-formed record
+   */
+  boolean parse(ByteBuffer buf, int from, int to) {
+    for (int i = 0; i < FIELD_COUNT; i++) {
+      start[i] = 0;
+      end[i] = 0;
+    }
+    if (to > from && buf.get(to - 1) == '\r') {
+      to--;
+    }
+    boolean parsed =
+        format == AccessLogFormat.CSV ? parseCsv(buf, from, to) : parseJson(buf, from, to);
+    return parsed && present(TIMESTAMP);
+  }
+
+  boolean present(int field) {
+    return end[field] > start[field];
+  }
+
+  /** 64-bit hash of the raw bytes of {@code field}, which must be present. */
+  long hash(ByteBuffer buf, int field) {
+    long h = 0xCBF29CE484222325L;
+    for (int i = start[field]; i < end[field]; i++) {
+      h ^= buf.get(i) & 0xFF;
+      h *= 0x100000001B3L;
+    }
+    // FNV-1a spreads poorly in the high bits; finish with the MurmurHash3 mixer
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+
+  String text(ByteBuffer buf, int field) {
+    byte[] bytes = new byte[end[field] - start[field]];
+    buf.get(start[field], bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Timestamp of the line in nanoseconds since the epoch. Numbers are read as epoch seconds,
+   * milliseconds, microseconds or nanoseconds depending on their number of digits; anything else
+   * as an ISO-8601 instant or a UTC local date-time.
+   *
+   * @throws IllegalArgumentException if the timestamp cannot be parsed
+   */
+  long timestampNanos(ByteBuffer buf) {
+    int from = start[TIMESTAMP];
+    int to = end[TIMESTAMP];
+    int dot = -1;
+    boolean numeric = true;
+    for (int i = from; i < to && numeric; i++) {
+      byte c = buf.get(i);
+      if (c == '.' && dot < 0) {
+        dot = i;
+      } else if (c < '0' || c > '9') {
+        numeric = false;
+      }
+    }
+    if (numeric && dot != from) {
+      return dot < 0 ? epochNanos(buf, from, to) : fractionalSecondsNanos(buf, from, dot, to);
+    }
+    String text = text(buf, TIMESTAMP);
+    try {
+      Instant instant;
+      try {
+        instant = Instant.parse(text);
+      } catch (DateTimeParseException e) {
+        instant = LocalDateTime.parse(text).toInstant(ZoneOffset.UTC);
+      }
+      return Math.addExact(
+          Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    } catch (DateTimeParseException | ArithmeticException e) {
+      throw new IllegalArgumentException("Unparseable timestamp: " + text, e);
+    }
+  }
+
+  private static long epochNanos(ByteBuffer buf, int from, int to) {
+    int digits = to - from;
+    if (digits > 19) {
+      throw new IllegalArgumentException("Timestamp out of range");
+    }
+    long value = digits(buf, from, to);
+    if (digits <= 10) {
+      return Math.multiplyExact(value, 1_000_000_000L);
+    } else if (digits <= 13) {
+      return Math.multiplyExact(value, 1_000_000L);
+    } else if (digits <= 16) {
+      return Math.multiplyExact(value, 1_000L);
+    }
+    return value;
+  }
+
+  private static long fractionalSecondsNanos(ByteBuffer buf, int from, int dot, int to) {
+    if (dot - from > 10) {
+      throw new IllegalArgumentException("Timestamp out of range");
+    }
+    long nanos = 0;
+    int scale = 100_000_000;
+    for (int i = dot + 1; i < to && scale > 0; i++, scale /= 10) {
+      nanos += (buf.get(i) - '0') * (long) scale;
+    }
+    return digits(buf, from, dot) * 1_000_000_000L + nanos;
+  }
+
+  private static long digits(ByteBuffer buf, int from, int to) {
+    long value = 0;
+    for (int i = from; i < to; i++) {
+      value = value * 10 + (buf.get(i) - '0');
+    }
+    return value;
+  }
+
+  private boolean parseCsv(ByteBuffer buf, int from, int to) {
+    int field = 0;
+    int fieldStart = from;
+    for (int i = from; i <= to && field < FIELD_COUNT; i++) {
+      if (i == to || buf.get(i) == ',') {
+        set(field++, buf, fieldStart, i);
+        fieldStart = i + 1;
+      }
+    }
+    return field > TIMESTAMP;
+  }
+
+  /** Record a CSV field, trimming blanks and surrounding quotes. */
+  private void set(int field, ByteBuffer buf, int from, int to) {
+    while (from < to && buf.get(from) == ' ') {
+      from++;
+    }
+    while (to > from && buf.get(to - 1) == ' ') {
+      to--;
+    }
+    if (to - from >= 2 && buf.get(from) == '"' && buf.get(to - 1) == '"') {
+      from++;
+      to--;
+    }
+    start[field] = from;
+    end[field] = to;
+  }
+
+  private boolean parseJson(ByteBuffer buf, int i, int to) {
+    i = skipWhitespace(buf, i, to);
+    if (i >= to || buf.get(i) != '{') {
+      return false;
+    }
+    i++;
+    while (true) {
+      i = skipWhitespace(buf, i, to);
+      if (i >= to) {
+        return false;
+      }
+      byte c = buf.get(i);
+      if (c == '}') {
+        return true;
+      }
+      if (c == ',') {
+        i++;
+        continue;
+      }
+      if (c != '"') {
+        return false;
+      }
+      int nameStart = i + 1;
+      int nameEnd = endOfString(buf, nameStart, to);
+      if (nameEnd < 0) {
+        return false;
+      }
+      i = skipWhitespace(buf, nameEnd + 1, to);
+      if (i >= to || buf.get(i) != ':') {
+        return false;
+      }
+      i = skipWhitespace(buf, i + 1, to);
+      if (i >= to) {
+        return false;
+      }
+      int field = fieldOf(buf, nameStart, nameEnd);
+      c = buf.get(i);
+      if (c == '"') {
+        int valueEnd = endOfString(buf, i + 1, to);
+        if (valueEnd < 0) {
+          return false;
+        }
+        if (field >= 0) {
+          start[field] = i + 1;
+          end[field] = valueEnd;
+        }
+        i = valueEnd + 1;
+      } else if (c == '{' || c == '[') {
+        i = skipNested(buf, i, to);
+        if (i < 0) {
+          return false;
+        }
+      } else {
+        int valueStart = i;
+        while (i < to && (c = buf.get(i)) != ',' && c != '}' && c != ' ' && c != '\t') {
+          i++;
+        }
+        boolean isNull = i - valueStart == 4 && buf.get(valueStart) == 'n';
+        if (field >= 0 && !isNull) {
+          start[field] = valueStart;
+          end[field] = i;
+        }
+      }
+    }
+  }
+
+  private static int fieldOf(ByteBuffer buf, int from, int to) {
+    for (int field = 0; field < JSON_NAMES.length; field++) {
+      byte[] name = JSON_NAMES[field];
+      if (name.length == to - from && matches(buf, from, name)) {
+        return field;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean matches(ByteBuffer buf, int from, byte[] name) {
+    for (int i = 0; i < name.length; i++) {
+      if (buf.get(from + i) != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Index of the closing quote of a string starting at {@code from}, or -1. */
+  private static int endOfString(ByteBuffer buf, int from, int to) {
+    for (int i = from; i < to; i++) {
+      byte c = buf.get(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '"') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Index just after the object or array starting at {@code from}, or -1. */
+  private static int skipNested(ByteBuffer buf, int from, int to) {
+    int depth = 0;
+    for (int i = from; i < to; i++) {
+      byte c = buf.get(i);
+      if (c == '"') {
+        i = endOfString(buf, i + 1, to);
+        if (i < 0) {
+          return -1;
+        }
+      } else if (c == '{' || c == '[') {
+        depth++;
+      } else if ((c == '}' || c == ']') && --depth == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static int skipWhitespace(ByteBuffer buf, int i, int to) {
+    while (i < to) {
+      byte c = buf.get(i);
+      if (c != ' ' && c != '\t') {
+        break;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,497 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.BandReplayResult;
+import org.fluxgate.studio.admin.dto.response.KeyRejections;
+import org.fluxgate.studio.admin.dto.response.ReplayResponse;
+import org.fluxgate.studio.admin.dto.response.RuleReplayResult;
+
+/**
+ * Replays an access log against a set of rules.
+ *
+ * <p>The file is memory-mapped chunk by chunk and each chunk is processed in two parallel phases.
+ * First, line-aligned slices of the chunk are parsed concurrently; every request is reduced to its
+ * timestamp, a 64-bit hash of each key field the rules need, and its file offset, and routed to a
+ * partition by key hash. Then one task per key field and partition feeds its requests, in file
+ * order, to the {@link KeyedBuckets} of every rule keyed on that field. A key therefore always
+ * lives on one partition and no state is shared between tasks. Key text is only decoded for the
+ * most rejected keys, by re-reading their first rejected line.
+ *
+ * <p>Rules are evaluated independently of each other, in file order; a bucket ignores timestamps
+ * that go backwards. Distinct keys whose hashes collide share a bucket, which is negligible for
+ * 64-bit hashes.
+ */
+public final class AccessLogReplayer {
+
+  /** Key groups, numbered like the key fields of {@link AccessLogParser}. */
+  private static final int GLOBAL = AccessLogParser.TIMESTAMP;
+
+  private static final int KEY_GROUPS = 4;
+  private static final long GLOBAL_KEY = 1L;
+  private static final int MAX_LINE_LENGTH = 64 * 1024;
+  private static final int ESTIMATED_LINE_LENGTH = 128;
+
+  private final ExecutorService executor;
+  private final int partitions;
+  private final int chunkSize;
+
+  /**
+   * @param executor pool that runs the parse and evaluation tasks
+   * @param partitions number of key partitions and parse slices per chunk
+   * @param chunkSize bytes mapped at a time; bounds the memory held by parsed requests
+   */
+  public AccessLogReplayer(ExecutorService executor, int partitions, int chunkSize) {
+    if (partitions < 1) {
+      throw new IllegalArgumentException("partitions must be at least 1");
+    }
+    if (chunkSize < MAX_LINE_LENGTH) {
+      throw new IllegalArgumentException("chunkSize must be at least " + MAX_LINE_LENGTH);
+    }
+    this.executor = executor;
+    this.partitions = partitions;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Replay {@code file} against {@code rules}.
+   *
+   * @param maxWaitNanos longest wait a WAIT_FOR_REFILL rule grants before rejecting
+   * @param topKeys number of most rejected keys reported per rule
+   * @throws IOException if the file cannot be read or contains a line longer than a chunk
+   */
+  public ReplayResponse replay(
+      Path file,
+      AccessLogFormat format,
+      String ruleSetId,
+      List<RateLimitRule> rules,
+      long maxWaitNanos,
+      int topKeys)
+      throws IOException, InterruptedException {
+    long started = System.nanoTime();
+    Plan plan = new Plan(rules, maxWaitNanos, partitions);
+    Totals totals = new Totals();
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long position = 0;
+      while (position < size) {
+        long length = Math.min(chunkSize, size - position);
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        int end = (int) length;
+        if (position + length < size) {
+          end = lastLineEnd(chunk, (int) length);
+          if (end < 0) {
+            throw new IOException(
+                "Line at offset " + position + " is longer than " + chunkSize + " bytes");
+          }
+        }
+        List<ParsedBatch> batches = parse(chunk, end, position, format, plan);
+        batches.forEach(totals::add);
+        evaluate(batches, plan);
+        position += end;
+      }
+
+      List<RuleReplayResult> results = new ArrayList<>(rules.size());
+      for (int i = 0; i < rules.size(); i++) {
+        results.add(result(plan, i, totals, channel, format, topKeys));
+      }
+      return new ReplayResponse(
+          file.getFileName().toString(),
+          ruleSetId,
+          format.name(),
+          totals.lines,
+          totals.requests,
+          totals.malformed,
+          totals.requests > 0 ? Instant.ofEpochSecond(0, totals.minNanos).toString() : null,
+          totals.requests > 0 ? Instant.ofEpochSecond(0, totals.maxNanos).toString() : null,
+          (System.nanoTime() - started) / 1_000_000,
+          results);
+    }
+  }
+
+  /** Parse one chunk in line-aligned slices, one task per slice. */
+  private List<ParsedBatch> parse(
+      ByteBuffer chunk, int end, long chunkOffset, AccessLogFormat format, Plan plan)
+      throws IOException, InterruptedException {
+    List<Callable<ParsedBatch>> tasks = new ArrayList<>(partitions);
+    int sliceStart = 0;
+    for (int s = 1; s <= partitions && sliceStart < end; s++) {
+      int sliceEnd =
+          s == partitions ? end : nextLineStart(chunk, (int) ((long) end * s / partitions), end);
+      if (sliceEnd <= sliceStart) {
+        continue;
+      }
+      int from = sliceStart;
+      tasks.add(() -> parseSlice(chunk.duplicate(), from, sliceEnd, chunkOffset, format, plan));
+      sliceStart = sliceEnd;
+    }
+    return invokeAll(tasks);
+  }
+
+  private ParsedBatch parseSlice(
+      ByteBuffer buf, int from, int to, long chunkOffset, AccessLogFormat format, Plan plan) {
+    AccessLogParser parser = new AccessLogParser(format);
+    ParsedBatch batch = new ParsedBatch(plan, partitions, (to - from) / ESTIMATED_LINE_LENGTH);
+    int lineStart = from;
+    while (lineStart < to) {
+      int lineEnd = indexOfNewline(buf, lineStart, to);
+      if (lineEnd < 0) {
+        lineEnd = to;
+      }
+      long lineOffset = chunkOffset + lineStart;
+      if (lineEnd > lineStart && !isBlank(buf, lineStart, lineEnd)) {
+        batch.lines++;
+        if (!parser.parse(buf, lineStart, lineEnd)) {
+          batch.malformed++;
+        } else {
+          try {
+            batch.add(parser, buf, parser.timestampNanos(buf), lineOffset);
+          } catch (IllegalArgumentException e) {
+            if (lineOffset == 0 && format == AccessLogFormat.CSV) {
+              // Header row
+              batch.lines--;
+            } else {
+              batch.malformed++;
+            }
+          }
+        }
+      }
+      lineStart = lineEnd + 1;
+    }
+    return batch;
+  }
+
+  /** Feed the requests of one chunk to the rule buckets, one task per group and partition. */
+  private void evaluate(List<ParsedBatch> batches, Plan plan)
+      throws IOException, InterruptedException {
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int group = 0; group < KEY_GROUPS; group++) {
+      if (!plan.active(group)) {
+        continue;
+      }
+      for (int p = 0; p < partitions; p++) {
+        KeyedBuckets[] buckets = plan.buckets[group][p];
+        int g = group;
+        int partition = p;
+        tasks.add(
+            () -> {
+              for (ParsedBatch batch : batches) {
+                LongList requests = batch.requests[g][partition];
+                for (int i = 0; i < requests.size(); i += 3) {
+                  long timestamp = requests.get(i);
+                  long keyHash = requests.get(i + 1);
+                  long lineOffset = requests.get(i + 2);
+                  for (KeyedBuckets bucket : buckets) {
+                    bucket.acquire(keyHash, timestamp, lineOffset);
+                  }
+                }
+              }
+              return null;
+            });
+      }
+    }
+    invokeAll(tasks);
+  }
+
+  private RuleReplayResult result(
+      Plan plan,
+      int ruleIndex,
+      Totals totals,
+      FileChannel channel,
+      AccessLogFormat format,
+      int topKeys)
+      throws IOException {
+    RateLimitRule rule = plan.rules.get(ruleIndex);
+    String scope = rule.getScope() != null ? rule.getScope().name() : null;
+    int group = plan.groupOf[ruleIndex];
+    if (group < 0) {
+      return new RuleReplayResult(
+          rule.getId(),
+          rule.getName(),
+          scope,
+          "SKIPPED",
+          plan.skipReason[ruleIndex],
+          0,
+          0,
+          0,
+          0,
+          0,
+          0,
+          List.of(),
+          List.of());
+    }
+
+    int column = plan.columnOf[ruleIndex];
+    long allowed = 0;
+    long rejected = 0;
+    long delayed = 0;
+    long distinctKeys = 0;
+    long[] bandRejected = new long[rule.getBands().size()];
+    PriorityQueue<long[]> top = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+    for (int p = 0; p < partitions; p++) {
+      KeyedBuckets buckets = plan.buckets[group][p][column];
+      allowed += buckets.allowed();
+      rejected += buckets.rejected();
+      delayed += buckets.delayed();
+      distinctKeys += buckets.distinctKeys();
+      for (int b = 0; b < bandRejected.length; b++) {
+        bandRejected[b] += buckets.bandRejected(b);
+      }
+      buckets.collectTopRejected(top, topKeys);
+    }
+
+    List<BandReplayResult> bands = new ArrayList<>(bandRejected.length);
+    for (int b = 0; b < bandRejected.length; b++) {
+      RateLimitBand band = rule.getBands().get(b);
+      bands.add(
+          new BandReplayResult(
+              band.getLabel(),
+              band.getWindow().toSeconds(),
+              band.getCapacity(),
+              bandRejected[b]));
+    }
+    List<KeyRejections> keys = new ArrayList<>(top.size());
+    while (!top.isEmpty()) {
+      long[] entry = top.poll();
+      String key = group == GLOBAL ? "*" : keyAt(channel, format, group, entry[1]);
+      keys.add(0, new KeyRejections(key, entry[0]));
+    }
+    return new RuleReplayResult(
+        rule.getId(),
+        rule.getName(),
+        scope,
+        "EVALUATED",
+        null,
+        allowed + rejected,
+        allowed,
+        rejected,
+        delayed,
+        totals.unkeyed[group],
+        distinctKeys,
+        bands,
+        keys);
+  }
+
+  /** Decode the key field of the line starting at {@code offset}. */
+  private static String keyAt(FileChannel channel, AccessLogFormat format, int field, long offset)
+      throws IOException {
+    ByteBuffer buf = ByteBuffer.allocate((int) Math.min(MAX_LINE_LENGTH, channel.size() - offset));
+    while (buf.hasRemaining() && channel.read(buf, offset + buf.position()) > 0) {
+      // Keep reading until the buffer is full or the file ends
+    }
+    buf.flip();
+    int end = indexOfNewline(buf, 0, buf.limit());
+    AccessLogParser parser = new AccessLogParser(format);
+    if (parser.parse(buf, 0, end < 0 ? buf.limit() : end) && parser.present(field)) {
+      return parser.text(buf, field);
+    }
+    return null;
+  }
+
+  private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException, InterruptedException {
+    List<T> results = new ArrayList<>(tasks.size());
+    for (Future<T> future : executor.invokeAll(tasks)) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtime) {
+          throw runtime;
+        }
+        if (e.getCause() instanceof Error error) {
+          throw error;
+        }
+        throw new IOException(e.getCause());
+      }
+    }
+    return results;
+  }
+
+  /** Offset just past the last newline before {@code limit}, or -1 if there is none. */
+  private static int lastLineEnd(ByteBuffer buf, int limit) {
+    for (int i = limit - 1; i >= 0; i--) {
+      if (buf.get(i) == '\n') {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  /** Start of the first line at or after {@code from}. */
+  private static int nextLineStart(ByteBuffer buf, int from, int limit) {
+    if (from == 0 || buf.get(from - 1) == '\n') {
+      return from;
+    }
+    int newline = indexOfNewline(buf, from, limit);
+    return newline < 0 ? limit : newline + 1;
+  }
+
+  private static int indexOfNewline(ByteBuffer buf, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (buf.get(i) == '\n') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isBlank(ByteBuffer buf, int from, int to) {
+    for (int i = from; i < to; i++) {
+      byte c = buf.get(i);
+      if (c != ' ' && c != '\t' && c != '\r') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Maps each rule to its key group and holds the buckets per group, partition and rule. */
+  private static final class Plan {
+
+    final List<RateLimitRule> rules;
+    final int[] groupOf;
+    final int[] columnOf;
+    final String[] skipReason;
+    final KeyedBuckets[][][] buckets;
+
+    Plan(List<RateLimitRule> rules, long maxWaitNanos, int partitions) {
+      this.rules = rules;
+      this.groupOf = new int[rules.size()];
+      this.columnOf = new int[rules.size()];
+      this.skipReason = new String[rules.size()];
+      int[] columns = new int[KEY_GROUPS];
+      for (int i = 0; i < rules.size(); i++) {
+        RateLimitRule rule = rules.get(i);
+        groupOf[i] = -1;
+        if (!rule.isEnabled()) {
+          skipReason[i] = "Rule is disabled";
+        } else if (rule.getBands().isEmpty()) {
+          skipReason[i] = "Rule has no bands";
+        } else {
+          int group = groupOf(rule.getScope());
+          if (group < 0) {
+            skipReason[i] = "Scope " + rule.getScope() + " cannot be keyed from an access log";
+          } else {
+            groupOf[i] = group;
+            columnOf[i] = columns[group]++;
+          }
+        }
+      }
+      this.buckets = new KeyedBuckets[KEY_GROUPS][partitions][];
+      for (int group = 0; group < KEY_GROUPS; group++) {
+        for (int p = 0; p < partitions; p++) {
+          buckets[group][p] = new KeyedBuckets[columns[group]];
+        }
+      }
+      for (int i = 0; i < rules.size(); i++) {
+        if (groupOf[i] >= 0) {
+          for (int p = 0; p < partitions; p++) {
+            buckets[groupOf[i]][p][columnOf[i]] = new KeyedBuckets(rules.get(i), maxWaitNanos);
+          }
+        }
+      }
+    }
+
+    boolean active(int group) {
+      return buckets[group][0].length > 0;
+    }
+
+    private static int groupOf(LimitScope scope) {
+      if (scope == null) {
+        return -1;
+      }
+      return switch (scope) {
+        case GLOBAL -> GLOBAL;
+        case PER_IP -> AccessLogParser.IP;
+        case PER_USER -> AccessLogParser.USER_ID;
+        case PER_API_KEY -> AccessLogParser.API_KEY;
+        default -> -1;
+      };
+    }
+  }
+
+  /** Requests of one parse slice as {@code (timestamp, keyHash, lineOffset)} per group. */
+  private static final class ParsedBatch {
+
+    final int partitions;
+    final LongList[][] requests = new LongList[KEY_GROUPS][];
+    final long[] unkeyed = new long[KEY_GROUPS];
+    long lines;
+    long malformed;
+    long parsed;
+    long minNanos = Long.MAX_VALUE;
+    long maxNanos = Long.MIN_VALUE;
+
+    ParsedBatch(Plan plan, int partitions, int expectedLines) {
+      this.partitions = partitions;
+      for (int group = 0; group < KEY_GROUPS; group++) {
+        if (plan.active(group)) {
+          requests[group] = new LongList[partitions];
+          for (int p = 0; p < partitions; p++) {
+            requests[group][p] = new LongList(3 * expectedLines / partitions);
+          }
+        }
+      }
+    }
+
+    void add(AccessLogParser parser, ByteBuffer buf, long timestamp, long lineOffset) {
+      parsed++;
+      minNanos = Math.min(minNanos, timestamp);
+      maxNanos = Math.max(maxNanos, timestamp);
+      for (int group = 0; group < KEY_GROUPS; group++) {
+        if (requests[group] == null) {
+          continue;
+        }
+        long keyHash;
+        if (group == GLOBAL) {
+          keyHash = GLOBAL_KEY;
+        } else if (parser.present(group)) {
+          keyHash = parser.hash(buf, group);
+        } else {
+          unkeyed[group]++;
+          continue;
+        }
+        int partition = (int) Long.remainderUnsigned(keyHash, partitions);
+        requests[group][partition].add(timestamp, keyHash, lineOffset);
+      }
+    }
+  }
+
+  /** Line counts and time range over all chunks. */
+  private static final class Totals {
+
+    final long[] unkeyed = new long[KEY_GROUPS];
+    long lines;
+    long requests;
+    long malformed;
+    long minNanos = Long.MAX_VALUE;
+    long maxNanos = Long.MIN_VALUE;
+
+    void add(ParsedBatch batch) {
+      lines += batch.lines;
+      requests += batch.parsed;
+      malformed += batch.malformed;
+      minNanos = Math.min(minNanos, batch.minNanos);
+      maxNanos = Math.max(maxNanos, batch.maxNanos);
+      for (int group = 0; group < KEY_GROUPS; group++) {
+        unkeyed[group] += batch.unkeyed[group];
+      }
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package org.fluxgate.studio.admin.simulation;
+
+/** Arrival processes available to the load model. */
+public enum ArrivalDistribution {
+  /** Requests arrive one at a time with exponentially distributed gaps. */
+  POISSON,
+  /**
+   * Bursts arrive with exponentially distributed gaps; the requests of a burst arrive together and
+   * their number is geometrically distributed.
+   */
+  BURSTY
+}
@@ -0,0 +1,30 @@
+package org.fluxgate.studio.admin.simulation;
+
+/**
+ * Traffic for one key: {@code burstSize} requests arrive at the same instant, every {@code
+ * intervalNanos}, from time 0 until {@code durationNanos}. An interval of 0 sends a single burst.
+ *
+ * @param burstSize requests per burst
+ * @param intervalNanos time between the starts of two bursts
+ * @param durationNanos length of the simulated period
+ */
+public record BurstTraffic(int burstSize, double intervalNanos, long durationNanos) {
+
+  /** Number of bursts that start within the simulated period. */
+  public long bursts() {
+    if (intervalNanos <= 0) {
+      return 1;
+    }
+    return Math.max(1, (long) Math.ceil(durationNanos / intervalNanos));
+  }
+
+  /** Total number of requests. */
+  public long requests() {
+    return bursts() * burstSize;
+  }
+
+  /** Arrival time of burst {@code index}. */
+  public long arrivalNanos(long index) {
+    return Math.round(index * intervalNanos);
+  }
+}
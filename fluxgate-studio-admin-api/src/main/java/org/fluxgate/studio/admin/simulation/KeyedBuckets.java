@@ -0,0 +1,156 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * Token buckets of one rule for many keys, stored in primitive arrays indexed by key slot.
+ *
+ * <p>Applies the same refill and wait semantics as {@link RuleLimiter}, but keeps no object per
+ * key: key hashes map to dense slots through a {@link LongIntHashMap}, and token counts, the last
+ * refill time and rejection counts live in parallel arrays. Each instance is owned by one thread.
+ */
+final class KeyedBuckets {
+
+  private static final int INITIAL_KEYS = 1024;
+
+  private final int bands;
+  private final long[] capacity;
+  private final double[] nanosPerToken;
+  private final long maxWaitNanos;
+  private final LongIntHashMap slots = new LongIntHashMap(INITIAL_KEYS);
+  private final long[] bandRejected;
+
+  private double[] tokens;
+  private long[] lastRefillNanos;
+  private int[] rejectedByKey;
+  private long[] firstRejectedLine;
+
+  private long allowed;
+  private long rejected;
+  private long delayed;
+
+  KeyedBuckets(RateLimitRule rule, long maxWaitNanos) {
+    List<RateLimitBand> ruleBands = rule.getBands();
+    this.bands = ruleBands.size();
+    this.capacity = new long[bands];
+    this.nanosPerToken = new double[bands];
+    for (int b = 0; b < bands; b++) {
+      RateLimitBand band = ruleBands.get(b);
+      capacity[b] = band.getCapacity();
+      nanosPerToken[b] = (double) band.getWindow().toNanos() / band.getCapacity();
+    }
+    this.maxWaitNanos =
+        rule.getOnLimitExceedPolicy() == OnLimitExceedPolicy.WAIT_FOR_REFILL ? maxWaitNanos : 0;
+    this.bandRejected = new long[bands];
+    this.tokens = new double[INITIAL_KEYS * bands];
+    this.lastRefillNanos = new long[INITIAL_KEYS];
+    this.rejectedByKey = new int[INITIAL_KEYS];
+    this.firstRejectedLine = new long[INITIAL_KEYS];
+  }
+
+  /**
+   * Evaluate one request.
+   *
+   * @param keyHash hash of the rate limit key
+   * @param nowNanos arrival time
+   * @param lineOffset file offset of the log line, kept for the first rejection of each key
+   */
+  void acquire(long keyHash, long nowNanos, long lineOffset) {
+    int known = slots.size();
+    int slot = slots.slotOf(keyHash);
+    int base = slot * bands;
+    if (slot == known) {
+      ensureCapacity(slot + 1);
+      for (int b = 0; b < bands; b++) {
+        tokens[base + b] = capacity[b];
+      }
+      lastRefillNanos[slot] = nowNanos;
+    } else if (nowNanos > lastRefillNanos[slot]) {
+      long elapsed = nowNanos - lastRefillNanos[slot];
+      for (int b = 0; b < bands; b++) {
+        tokens[base + b] =
+            TokenBucket.refill(tokens[base + b], capacity[b], nanosPerToken[b], elapsed);
+      }
+      lastRefillNanos[slot] = nowNanos;
+    }
+
+    long wait = 0;
+    for (int b = 0; b < bands; b++) {
+      wait = Math.max(wait, TokenBucket.nanosUntilToken(tokens[base + b], nanosPerToken[b]));
+    }
+    if (wait > maxWaitNanos) {
+      rejected++;
+      for (int b = 0; b < bands; b++) {
+        if (TokenBucket.nanosUntilToken(tokens[base + b], nanosPerToken[b]) > maxWaitNanos) {
+          bandRejected[b]++;
+        }
+      }
+      if (rejectedByKey[slot]++ == 0) {
+        firstRejectedLine[slot] = lineOffset;
+      }
+      return;
+    }
+    for (int b = 0; b < bands; b++) {
+      tokens[base + b] -= 1;
+    }
+    allowed++;
+    if (wait > 0) {
+      delayed++;
+    }
+  }
+
+  long allowed() {
+    return allowed;
+  }
+
+  long rejected() {
+    return rejected;
+  }
+
+  long delayed() {
+    return delayed;
+  }
+
+  long bandRejected(int band) {
+    return bandRejected[band];
+  }
+
+  int distinctKeys() {
+    return slots.size();
+  }
+
+  /**
+   * Offer the most rejected keys to {@code top}, a min-heap of {@code {rejections, lineOffset}}
+   * pairs ordered by rejections and bounded to {@code limit} entries.
+   */
+  void collectTopRejected(PriorityQueue<long[]> top, int limit) {
+    for (int slot = 0; slot < slots.size(); slot++) {
+      int count = rejectedByKey[slot];
+      if (count == 0) {
+        continue;
+      }
+      if (top.size() < limit) {
+        top.add(new long[] {count, firstRejectedLine[slot]});
+      } else if (count > top.peek()[0]) {
+        top.poll();
+        top.add(new long[] {count, firstRejectedLine[slot]});
+      }
+    }
+  }
+
+  private void ensureCapacity(int keys) {
+    if (keys <= lastRefillNanos.length) {
+      return;
+    }
+    int length = Math.max(keys, lastRefillNanos.length * 2);
+    tokens = Arrays.copyOf(tokens, length * bands);
+    lastRefillNanos = Arrays.copyOf(lastRefillNanos, length);
+    rejectedByKey = Arrays.copyOf(rejectedByKey, length);
+    firstRejectedLine = Arrays.copyOf(firstRejectedLine, length);
+  }
+}
@@ -0,0 +1,60 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic traffic from {@code keys} independent clients, each sending {@code ratePerSecond}
+ * requests per second on average for {@code durationNanos}.
+ *
+ * @param distribution arrival process of each key
+ * @param keys number of active keys
+ * @param ratePerSecond mean request rate of one key
+ * @param meanBurstSize mean number of requests per burst; 1 for {@link ArrivalDistribution#POISSON}
+ * @param durationNanos length of one trial
+ */
+public record LoadModel(
+    ArrivalDistribution distribution,
+    int keys,
+    double ratePerSecond,
+    double meanBurstSize,
+    long durationNanos) {
+
+  public LoadModel {
+    if (distribution == ArrivalDistribution.POISSON || meanBurstSize < 1) {
+      meanBurstSize = 1;
+    }
+  }
+
+  /** Expected number of requests in one trial. */
+  public double expectedRequests() {
+    return keys * ratePerSecond * durationNanos / 1e9;
+  }
+
+  /**
+   * The same traffic seen by one shared bucket: the superposition of independent Poisson (burst)
+   * processes is a Poisson (burst) process with the summed rate.
+   */
+  LoadModel merged() {
+    return new LoadModel(distribution, 1, keys * ratePerSecond, meanBurstSize, durationNanos);
+  }
+
+  /** Mean gap between two bursts of one key. */
+  double meanBurstGapNanos() {
+    return meanBurstSize * 1e9 / ratePerSecond;
+  }
+
+  /** Time until the next burst. */
+  long nextGapNanos(SplittableRandom random) {
+    return (long) Math.ceil(-Math.log(1 - random.nextDouble()) * meanBurstGapNanos());
+  }
+
+  /** Number of requests in the next burst. */
+  int nextBurstSize(SplittableRandom random) {
+    if (meanBurstSize <= 1) {
+      return 1;
+    }
+    double u = 1 - random.nextDouble();
+    double size = 1 + Math.floor(Math.log(u) / Math.log(1 - 1 / meanBurstSize));
+    return (int) Math.min(Integer.MAX_VALUE, size);
+  }
+}
@@ -0,0 +1,77 @@
+package org.fluxgate.studio.admin.simulation;
+
+/**
+ * Open-addressing hash map from {@code long} keys to dense {@code int} slots, without boxing.
+ *
+ * <p>Slots are handed out in insertion order starting at 0, so callers can keep per-key state in
+ * parallel primitive arrays indexed by slot. Key 0 is reserved as the empty marker and is remapped
+ * internally. Not thread-safe.
+ */
+final class LongIntHashMap {
+
+  private static final long EMPTY = 0L;
+  private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+
+  LongIntHashMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+    keys = new long[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  /** Slot of {@code key}, assigning the next free slot if the key is new. */
+  int slotOf(long key) {
+    if (key == EMPTY) {
+      key = ZERO_KEY;
+    }
+    int index = mix(key) & mask;
+    while (true) {
+      long existing = keys[index];
+      if (existing == key) {
+        return values[index];
+      }
+      if (existing == EMPTY) {
+        keys[index] = key;
+        values[index] = size;
+        if (++size * 2 > keys.length) {
+          grow();
+        }
+        return size - 1;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new int[oldKeys.length * 2];
+    mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      long key = oldKeys[i];
+      if (key != EMPTY) {
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY) {
+          index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  private static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
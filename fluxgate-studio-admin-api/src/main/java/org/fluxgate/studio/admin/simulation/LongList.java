@@ -0,0 +1,32 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.util.Arrays;
+
+/** Growable list of primitive {@code long} values. Not thread-safe. */
+final class LongList {
+
+  private long[] values;
+  private int size;
+
+  LongList(int initialCapacity) {
+    values = new long[Math.max(4, initialCapacity)];
+  }
+
+  void add(long a, long b, long c) {
+    if (size + 3 > values.length) {
+      values = Arrays.copyOf(values, Math.max(size + 3, values.length * 2));
+    }
+    values[size] = a;
+    values[size + 1] = b;
+    values[size + 2] = c;
+    size += 3;
+  }
+
+  long get(int index) {
+    return values[index];
+  }
+
+  int size() {
+    return size;
+  }
+}
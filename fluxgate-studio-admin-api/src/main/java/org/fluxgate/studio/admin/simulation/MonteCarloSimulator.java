@@ -0,0 +1,258 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.BandLoadResult;
+import org.fluxgate.studio.admin.dto.response.LoadModelResponse;
+import org.fluxgate.studio.admin.dto.response.MetricSummary;
+import org.fluxgate.studio.admin.dto.response.WaitDistribution;
+
+/**
+ * Runs a {@link LoadModel} against a rule many times with random arrivals and summarizes the
+ * outcome over the trials.
+ *
+ * <p>Every trial gives each key its own {@link RuleLimiter}, starting with full buckets, and feeds
+ * it the key's random arrivals in time order; a {@link LimitScope#GLOBAL} rule sees the merged
+ * traffic of all keys in one limiter. Trials are split across a {@link ForkJoinPool}. Each trial
+ * draws from its own random stream, seeded in trial order from the run's seed, so results do not
+ * depend on the number of threads.
+ *
+ * <p>Confidence intervals use the normal approximation of the mean over trials.
+ */
+public final class MonteCarloSimulator {
+
+  /** Confidence level of the reported intervals. */
+  public static final double CONFIDENCE_LEVEL = 0.95;
+
+  private static final double Z = 1.959963984540054;
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private MonteCarloSimulator() {}
+
+  /**
+   * Run {@code trials} trials.
+   *
+   * @param rule the rule to evaluate
+   * @param model the synthetic traffic of one trial
+   * @param trials number of trials, at least 2
+   * @param maxWaitNanos longest wait for {@code WAIT_FOR_REFILL} rules
+   * @param seed seed of the random arrivals
+   * @param pool pool that runs the trials
+   * @return the outcome summarized over all trials
+   */
+  public static LoadModelResponse run(
+      RateLimitRule rule,
+      LoadModel model,
+      int trials,
+      long maxWaitNanos,
+      long seed,
+      ForkJoinPool pool) {
+    LoadModel traffic = rule.getScope() == LimitScope.GLOBAL ? model.merged() : model;
+    Trials results = new Trials(trials, rule.getBands().size(), seed);
+    int leafSize = Math.max(1, trials / (pool.getParallelism() * 4));
+    WaitHistogram waits =
+        pool.invoke(new TrialTask(rule, traffic, maxWaitNanos, 0, trials, leafSize, results));
+
+    List<BandLoadResult> bands = new ArrayList<>(rule.getBands().size());
+    for (int b = 0; b < rule.getBands().size(); b++) {
+      RateLimitBand band = rule.getBands().get(b);
+      bands.add(
+          new BandLoadResult(
+              band.getLabel(),
+              band.getWindow().toSeconds(),
+              band.getCapacity(),
+              summarize(results.bandRejectionRate[b], 1)));
+    }
+    return new LoadModelResponse(
+        rule.getId(),
+        rule.getOnLimitExceedPolicy().name(),
+        rule.getScope() != null ? rule.getScope().name() : null,
+        model.distribution().name(),
+        trials,
+        seed,
+        CONFIDENCE_LEVEL,
+        Arrays.stream(results.requests).average().orElse(0),
+        summarize(results.rejectionRate, 1),
+        summarize(results.delayedRate, 1),
+        summarize(results.p99WaitNanos, NANOS_PER_MILLI),
+        new WaitDistribution(
+            waits.meanNanos() / NANOS_PER_MILLI,
+            waits.percentile(0.5) / NANOS_PER_MILLI,
+            waits.percentile(0.9) / NANOS_PER_MILLI,
+            waits.percentile(0.99) / NANOS_PER_MILLI,
+            waits.maxNanos() / NANOS_PER_MILLI),
+        bands);
+  }
+
+  /**
+   * Run one trial.
+   *
+   * @param waits receives the wait of every admitted request
+   * @param bandRejected receives the number of requests each band rejected
+   * @return {@code {requests, rejected, delayed}}
+   */
+  static long[] runTrial(
+      RateLimitRule rule,
+      LoadModel traffic,
+      long maxWaitNanos,
+      SplittableRandom random,
+      WaitHistogram waits,
+      long[] bandRejected) {
+    long requests = 0;
+    long rejected = 0;
+    long delayed = 0;
+    long duration = traffic.durationNanos();
+    for (int key = 0; key < traffic.keys(); key++) {
+      RuleLimiter limiter = new RuleLimiter(rule, maxWaitNanos);
+      for (long now = traffic.nextGapNanos(random);
+          now < duration;
+          now += traffic.nextGapNanos(random)) {
+        int burstSize = traffic.nextBurstSize(random);
+        requests += burstSize;
+        for (int r = 0; r < burstSize; r++) {
+          long wait = limiter.acquire(now);
+          if (wait == RuleLimiter.REJECTED) {
+            // The rest of the burst meets the same buckets at the same instant
+            long rest = burstSize - r;
+            rejected += rest;
+            for (int b = 0; b < bandRejected.length; b++) {
+              if (limiter.blockedBy(b)) {
+                bandRejected[b] += rest;
+              }
+            }
+            break;
+          }
+          waits.record(wait);
+          if (wait > 0) {
+            delayed++;
+          }
+        }
+      }
+    }
+    return new long[] {requests, rejected, delayed};
+  }
+
+  private static MetricSummary summarize(double[] values, double scale) {
+    int n = values.length;
+    double mean = 0;
+    for (double value : values) {
+      mean += value;
+    }
+    mean /= n;
+    double squares = 0;
+    for (double value : values) {
+      squares += (value - mean) * (value - mean);
+    }
+    double stdDev = Math.sqrt(squares / (n - 1));
+    double margin = Z * stdDev / Math.sqrt(n);
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    return new MetricSummary(
+        mean / scale,
+        stdDev / scale,
+        Math.max(0, mean - margin) / scale,
+        (mean + margin) / scale,
+        percentile(sorted, 0.05) / scale,
+        percentile(sorted, 0.5) / scale,
+        percentile(sorted, 0.95) / scale);
+  }
+
+  private static double percentile(double[] sorted, double quantile) {
+    int rank = (int) Math.ceil(quantile * sorted.length);
+    return sorted[Math.max(0, rank - 1)];
+  }
+
+  /** Per-trial seeds and metrics, each trial writing only its own index. */
+  private static final class Trials {
+
+    final long[] seeds;
+    final double[] requests;
+    final double[] rejectionRate;
+    final double[] delayedRate;
+    final double[] p99WaitNanos;
+    final double[][] bandRejectionRate;
+
+    Trials(int trials, int bands, long seed) {
+      // Seeding with consecutive values would give overlapping SplittableRandom streams
+      SplittableRandom root = new SplittableRandom(seed);
+      seeds = new long[trials];
+      for (int i = 0; i < trials; i++) {
+        seeds[i] = root.nextLong();
+      }
+      requests = new double[trials];
+      rejectionRate = new double[trials];
+      delayedRate = new double[trials];
+      p99WaitNanos = new double[trials];
+      bandRejectionRate = new double[bands][trials];
+    }
+  }
+
+  /** Runs trials {@code [from, to)} and returns the waits of all their admitted requests. */
+  private static final class TrialTask extends RecursiveTask<WaitHistogram> {
+
+    private final RateLimitRule rule;
+    private final LoadModel traffic;
+    private final long maxWaitNanos;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+    private final Trials results;
+
+    TrialTask(
+        RateLimitRule rule,
+        LoadModel traffic,
+        long maxWaitNanos,
+        int from,
+        int to,
+        int leafSize,
+        Trials results) {
+      this.rule = rule;
+      this.traffic = traffic;
+      this.maxWaitNanos = maxWaitNanos;
+      this.from = from;
+      this.to = to;
+      this.leafSize = leafSize;
+      this.results = results;
+    }
+
+    @Override
+    protected WaitHistogram compute() {
+      if (to - from > leafSize) {
+        int middle = (from + to) >>> 1;
+        TrialTask left =
+            new TrialTask(rule, traffic, maxWaitNanos, from, middle, leafSize, results);
+        left.fork();
+        WaitHistogram waits =
+            new TrialTask(rule, traffic, maxWaitNanos, middle, to, leafSize, results).compute();
+        waits.add(left.join());
+        return waits;
+      }
+      WaitHistogram pooled = new WaitHistogram(maxWaitNanos);
+      WaitHistogram trialWaits = new WaitHistogram(maxWaitNanos);
+      long[] bandRejected = new long[rule.getBands().size()];
+      for (int trial = from; trial < to; trial++) {
+        trialWaits.clear();
+        Arrays.fill(bandRejected, 0);
+        SplittableRandom random = new SplittableRandom(results.seeds[trial]);
+        long[] outcome = runTrial(rule, traffic, maxWaitNanos, random, trialWaits, bandRejected);
+        double requests = Math.max(1, outcome[0]);
+        results.requests[trial] = outcome[0];
+        results.rejectionRate[trial] = outcome[1] / requests;
+        results.delayedRate[trial] = outcome[2] / requests;
+        results.p99WaitNanos[trial] = trialWaits.percentile(0.99);
+        for (int b = 0; b < bandRejected.length; b++) {
+          results.bandRejectionRate[b][trial] = bandRejected[b] / requests;
+        }
+        pooled.add(trialWaits);
+      }
+      return pooled;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package org.fluxgate.studio.admin.simulation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for replaying access logs against rule sets.
+ *
+ * @param directory directory that replayed log files are read from; replay is disabled if unset
+ * @param parallelism number of threads and key partitions used by one replay
+ * @param chunkSize bytes of the log mapped and parsed at a time
+ * @param topKeys default number of most rejected keys reported per rule
+ */
+@ConfigurationProperties(prefix = "app.replay")
+public record ReplayProperties(
+    String directory, int parallelism, DataSize chunkSize, int topKeys) {
+
+  public ReplayProperties {
+    if (directory != null && directory.isBlank()) {
+      directory = null;
+    }
+    if (parallelism <= 0) {
+      parallelism = Runtime.getRuntime().availableProcessors();
+    }
+    if (chunkSize == null) {
+      chunkSize = DataSize.ofMegabytes(64);
+    }
+    if (topKeys <= 0) {
+      topKeys = 10;
+    }
+  }
+}
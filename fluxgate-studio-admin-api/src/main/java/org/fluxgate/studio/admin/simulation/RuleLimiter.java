@@ -0,0 +1,77 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.util.List;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * Evaluates requests for a single key against all bands of a rule, on a virtual clock.
+ *
+ * <p>A request is admitted only if every band admits it, and then takes one token from every band.
+ * With {@link OnLimitExceedPolicy#REJECT_REQUEST} a band admits a request if it holds a token.
+ * With {@link OnLimitExceedPolicy#WAIT_FOR_REFILL} the request reserves a token from every band
+ * and waits until the slowest band has refilled, unless that takes longer than the maximum wait,
+ * in which case it is rejected without consuming anything.
+ */
+public final class RuleLimiter {
+
+  /** Returned by {@link #acquire(long)} for a rejected request. */
+  public static final long REJECTED = -1;
+
+  private final TokenBucket[] buckets;
+  private final long maxWaitNanos;
+  private final boolean[] blocked;
+
+  /**
+   * @param rule the rule to evaluate
+   * @param maxWaitNanos longest wait for {@code WAIT_FOR_REFILL}; ignored for other policies
+   */
+  public RuleLimiter(RateLimitRule rule, long maxWaitNanos) {
+    List<RateLimitBand> bands = rule.getBands();
+    this.buckets = new TokenBucket[bands.size()];
+    for (int i = 0; i < buckets.length; i++) {
+      RateLimitBand band = bands.get(i);
+      buckets[i] = new TokenBucket(band.getCapacity(), band.getWindow().toNanos());
+    }
+    this.maxWaitNanos =
+        rule.getOnLimitExceedPolicy() == OnLimitExceedPolicy.WAIT_FOR_REFILL ? maxWaitNanos : 0;
+    this.blocked = new boolean[buckets.length];
+  }
+
+  /**
+   * Evaluate one request arriving at {@code nowNanos}.
+   *
+   * @return the wait in nanoseconds before the request proceeds (0 if immediate), or {@link
+   *     #REJECTED}
+   */
+  public long acquire(long nowNanos) {
+    long wait = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      long bandWait = buckets[i].nanosUntilToken(nowNanos);
+      blocked[i] = bandWait > maxWaitNanos;
+      wait = Math.max(wait, bandWait);
+    }
+    if (wait > maxWaitNanos) {
+      return REJECTED;
+    }
+    for (TokenBucket bucket : buckets) {
+      bucket.consume(nowNanos);
+    }
+    return wait;
+  }
+
+  /** Whether band {@code index} would have rejected the last request passed to {@link #acquire}. */
+  public boolean blockedBy(int index) {
+    return blocked[index];
+  }
+
+  /** Tokens left in band {@code index} at {@code nowNanos}, negative while reserved ahead. */
+  public double available(int index, long nowNanos) {
+    return buckets[index].available(nowNanos);
+  }
+
+  public int bandCount() {
+    return buckets.length;
+  }
+}
@@ -0,0 +1,69 @@
+package org.fluxgate.studio.admin.simulation;
+
+/**
+ * Token bucket for one rate limit band, driven by a virtual clock.
+ *
+ * <p>The bucket starts full and refills continuously at {@code capacity} tokens per window, capped
+ * at the capacity. Time is passed in by the caller as nanoseconds on an arbitrary, non-decreasing
+ * timeline, so millions of requests can be evaluated without sleeping. Reservations may drive the
+ * token count negative; later requests then wait until the debt has been refilled.
+ */
+public final class TokenBucket {
+
+  private final long capacity;
+  private final double nanosPerToken;
+  private double tokens;
+  private long lastRefillNanos;
+
+  /**
+   * @param capacity tokens available per window, at least 1
+   * @param windowNanos window length in nanoseconds, at least 1
+   */
+  public TokenBucket(long capacity, long windowNanos) {
+    if (capacity < 1 || windowNanos < 1) {
+      throw new IllegalArgumentException("capacity and window must be positive");
+    }
+    this.capacity = capacity;
+    this.nanosPerToken = (double) windowNanos / capacity;
+    this.tokens = capacity;
+  }
+
+  /** Tokens available at {@code nowNanos}; negative while reservations are outstanding. */
+  public double available(long nowNanos) {
+    refill(nowNanos);
+    return tokens;
+  }
+
+  /** Nanoseconds from {@code nowNanos} until one token is available, 0 if one already is. */
+  public long nanosUntilToken(long nowNanos) {
+    refill(nowNanos);
+    return nanosUntilToken(tokens, nanosPerToken);
+  }
+
+  /** Take one token at {@code nowNanos}, even if that leaves the bucket in debt. */
+  public void consume(long nowNanos) {
+    refill(nowNanos);
+    tokens -= 1;
+  }
+
+  public long capacity() {
+    return capacity;
+  }
+
+  private void refill(long nowNanos) {
+    if (nowNanos > lastRefillNanos) {
+      tokens = refill(tokens, capacity, nanosPerToken, nowNanos - lastRefillNanos);
+      lastRefillNanos = nowNanos;
+    }
+  }
+
+  /** Token count after {@code elapsedNanos} of refill; shared with the keyed replay state. */
+  static double refill(double tokens, long capacity, double nanosPerToken, long elapsedNanos) {
+    return Math.min(capacity, tokens + elapsedNanos / nanosPerToken);
+  }
+
+  /** Wait until one token is available for the given token count. */
+  static long nanosUntilToken(double tokens, double nanosPerToken) {
+    return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+  }
+}
@@ -0,0 +1,149 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.BandSimulationBucket;
+import org.fluxgate.studio.admin.dto.response.BandSimulationResult;
+import org.fluxgate.studio.admin.dto.response.SimulationBucket;
+import org.fluxgate.studio.admin.dto.response.SimulationResponse;
+
+/**
+ * Replays {@link BurstTraffic} against a rule with a {@link RuleLimiter} and aggregates the
+ * outcome into a fixed number of time buckets.
+ *
+ * <p>Nothing is allocated per request. Once a request of a burst is rejected, the rest of the burst
+ * arrives at the same instant against unchanged buckets and is rejected as a whole, so the cost
+ * grows with the number of admitted requests and bursts rather than with the number of requests.
+ */
+public final class TrafficSimulator {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private TrafficSimulator() {}
+
+  /**
+   * Run a simulation.
+   *
+   * @param rule the rule to evaluate
+   * @param traffic the arriving requests
+   * @param maxWaitNanos longest wait for {@code WAIT_FOR_REFILL} rules
+   * @param bucketCount number of timeline buckets
+   * @return the aggregated outcome
+   */
+  public static SimulationResponse run(
+      RateLimitRule rule, BurstTraffic traffic, long maxWaitNanos, int bucketCount) {
+    RuleLimiter limiter = new RuleLimiter(rule, maxWaitNanos);
+    int bands = limiter.bandCount();
+    long duration = traffic.durationNanos();
+    int burstSize = traffic.burstSize();
+
+    long[] allowed = new long[bucketCount];
+    long[] rejected = new long[bucketCount];
+    long[] delayed = new long[bucketCount];
+    long[][] bandAllowed = new long[bands][bucketCount];
+    long[][] bandRejected = new long[bands][bucketCount];
+    double[][] remaining = new double[bands][bucketCount];
+    double totalWaitNanos = 0;
+    long maxObservedWaitNanos = 0;
+    int sampled = 0;
+
+    long bursts = traffic.bursts();
+    for (long k = 0; k < bursts; k++) {
+      long now = traffic.arrivalNanos(k);
+      int bucket = (int) Math.min(bucketCount - 1, now * bucketCount / duration);
+      sampled = sampleRemaining(limiter, remaining, sampled, bucket, duration);
+      for (int r = 0; r < burstSize; r++) {
+        long wait = limiter.acquire(now);
+        if (wait == RuleLimiter.REJECTED) {
+          long rest = burstSize - r;
+          rejected[bucket] += rest;
+          for (int b = 0; b < bands; b++) {
+            if (limiter.blockedBy(b)) {
+              bandRejected[b][bucket] += rest;
+            } else {
+              bandAllowed[b][bucket] += rest;
+            }
+          }
+          break;
+        }
+        allowed[bucket]++;
+        for (int b = 0; b < bands; b++) {
+          bandAllowed[b][bucket]++;
+        }
+        if (wait > 0) {
+          delayed[bucket]++;
+          totalWaitNanos += wait;
+          maxObservedWaitNanos = Math.max(maxObservedWaitNanos, wait);
+        }
+      }
+    }
+    sampleRemaining(limiter, remaining, sampled, bucketCount, duration);
+
+    List<SimulationBucket> timeline = new ArrayList<>(bucketCount);
+    for (int i = 0; i < bucketCount; i++) {
+      long start = startMillis(i, duration, bucketCount);
+      timeline.add(new SimulationBucket(start, allowed[i], rejected[i], delayed[i]));
+    }
+    List<BandSimulationResult> bandResults = new ArrayList<>(bands);
+    for (int b = 0; b < bands; b++) {
+      RateLimitBand band = rule.getBands().get(b);
+      List<BandSimulationBucket> bandTimeline = new ArrayList<>(bucketCount);
+      for (int i = 0; i < bucketCount; i++) {
+        bandTimeline.add(
+            new BandSimulationBucket(
+                startMillis(i, duration, bucketCount),
+                bandAllowed[b][i],
+                bandRejected[b][i],
+                remaining[b][i]));
+      }
+      bandResults.add(
+          new BandSimulationResult(
+              band.getLabel(),
+              band.getWindow().toSeconds(),
+              band.getCapacity(),
+              sum(bandAllowed[b]),
+              sum(bandRejected[b]),
+              bandTimeline));
+    }
+
+    long totalDelayed = sum(delayed);
+    return new SimulationResponse(
+        rule.getId(),
+        rule.getOnLimitExceedPolicy().name(),
+        traffic.requests(),
+        sum(allowed),
+        sum(rejected),
+        totalDelayed,
+        totalDelayed == 0 ? 0 : totalWaitNanos / totalDelayed / NANOS_PER_MILLI,
+        maxObservedWaitNanos / NANOS_PER_MILLI,
+        timeline,
+        bandResults);
+  }
+
+  /** Record the tokens left at the end of buckets {@code from} to {@code to} (exclusive). */
+  private static int sampleRemaining(
+      RuleLimiter limiter, double[][] remaining, int from, int to, long duration) {
+    int bucketCount = remaining.length == 0 ? 0 : remaining[0].length;
+    for (int i = from; i < to; i++) {
+      long end = (i + 1) * duration / bucketCount;
+      for (int b = 0; b < remaining.length; b++) {
+        remaining[b][i] = limiter.available(b, end);
+      }
+    }
+    return Math.max(from, to);
+  }
+
+  private static long startMillis(int bucket, long duration, int bucketCount) {
+    return Math.round(bucket * duration / bucketCount / NANOS_PER_MILLI);
+  }
+
+  private static long sum(long[] values) {
+    long total = 0;
+    for (long value : values) {
+      total += value;
+    }
+    return total;
+  }
+}
@@ -0,0 +1,72 @@
+package org.fluxgate.studio.admin.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of wait times between 0 and a maximum wait, in a fixed number of linear buckets.
+ * Zero waits are counted exactly; percentiles are reported as the upper bound of their bucket, so
+ * they are accurate to {@code maxWaitNanos / 1000}. Not thread-safe.
+ */
+final class WaitHistogram {
+
+  private static final int RESOLUTION = 1000;
+
+  private final long maxWaitNanos;
+  private final long bucketWidth;
+  private final long[] counts;
+  private long count;
+  private double sumNanos;
+  private long maxNanos;
+
+  WaitHistogram(long maxWaitNanos) {
+    this.maxWaitNanos = maxWaitNanos;
+    this.bucketWidth = Math.max(1, (maxWaitNanos + RESOLUTION - 1) / RESOLUTION);
+    this.counts = new long[1 + (int) ((maxWaitNanos + bucketWidth - 1) / bucketWidth)];
+  }
+
+  void record(long waitNanos) {
+    int bucket =
+        waitNanos <= 0 ? 0 : 1 + (int) ((Math.min(waitNanos, maxWaitNanos) - 1) / bucketWidth);
+    counts[bucket]++;
+    count++;
+    sumNanos += waitNanos;
+    maxNanos = Math.max(maxNanos, waitNanos);
+  }
+
+  void add(WaitHistogram other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    count += other.count;
+    sumNanos += other.sumNanos;
+    maxNanos = Math.max(maxNanos, other.maxNanos);
+  }
+
+  void clear() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sumNanos = 0;
+    maxNanos = 0;
+  }
+
+  /** Wait that {@code quantile} of the recorded requests did not exceed, 0 if none recorded. */
+  long percentile(double quantile) {
+    long rank = (long) Math.ceil(quantile * count);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min(maxNanos, i * bucketWidth);
+      }
+    }
+    return maxNanos;
+  }
+
+  double meanNanos() {
+    return count == 0 ? 0 : sumNanos / count;
+  }
+
+  long maxNanos() {
+    return maxNanos;
+  }
+}
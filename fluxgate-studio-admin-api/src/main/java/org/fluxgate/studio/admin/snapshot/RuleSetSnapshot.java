@@ -0,0 +1,44 @@
+package org.fluxgate.studio.admin.snapshot;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * Compiled binary snapshot of one rule set.
+ *
+ * @param ruleSetId the rule set
+ * @param ruleCount number of rules in the snapshot
+ * @param data the bytes written by {@link RuleSetSnapshotCodec}
+ * @param sha256 hex SHA-256 of {@code data}, which changes whenever any rule of the set changes
+ */
+public record RuleSetSnapshot(String ruleSetId, int ruleCount, byte[] data, String sha256) {
+
+  /**
+   * Compile the rules of a rule set.
+   *
+   * @param ruleSetId the rule set
+   * @param rules its rules, in any order
+   * @return the snapshot
+   */
+  public static RuleSetSnapshot compile(String ruleSetId, List<RateLimitRule> rules) {
+    byte[] data = RuleSetSnapshotCodec.encode(ruleSetId, rules);
+    return new RuleSetSnapshot(ruleSetId, rules.size(), data, sha256(data));
+  }
+
+  /** Strong entity tag for HTTP caching. The hashed bytes include the format version. */
+  public String etag() {
+    return "\"" + sha256 + "\"";
+  }
+
+  private static String sha256(byte[] data) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
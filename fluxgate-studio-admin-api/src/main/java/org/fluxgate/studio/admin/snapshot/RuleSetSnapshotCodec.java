@@ -0,0 +1,339 @@
+package org.fluxgate.studio.admin.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+
+/**
+ * Binary encoding of all rules of one rule set, as pulled by gateways.
+ *
+ * <p>The layout is columnar and big-endian. Every string (IDs, names, enum names, band labels,
+ * attribute keys and values) is stored once in a string table and referenced by index, so a
+ * decoder shares one instance per distinct string. Band windows and capacities are plain {@code
+ * long} arrays indexed through per-rule band offsets:
+ *
+ * <pre>
+ * magic "FGRS", u16 format version
+ * i32 string count, then per string: i32 UTF-8 length, bytes
+ * i32 rule set ref, i32 rule count n
+ * i32[n] id refs, i32[n] name refs, u8[n] flags (bit 0: enabled)
+ * i32[n] scope refs, i32[n] key strategy refs, i32[n] policy refs
+ * i32[n + 1] band offsets, then for b bands: i64[b] window seconds, i64[b] capacities, i32[b]
+ *     label refs
+ * per rule: attributes as a tagged value map
+ * </pre>
+ *
+ * <p>References are {@code -1} for null. Rules are written in ID order and attribute keys in
+ * sorted order, so equal rule sets always encode to equal bytes and their content hash can serve
+ * as a version.
+ */
+public final class RuleSetSnapshotCodec {
+
+  /** Version of the layout written by {@link #encode}. */
+  public static final int FORMAT_VERSION = 1;
+
+  private static final byte[] MAGIC = {'F', 'G', 'R', 'S'};
+  private static final int NULL_REF = -1;
+  private static final int FLAG_ENABLED = 1;
+
+  private static final byte VALUE_NULL = 0;
+  private static final byte VALUE_STRING = 1;
+  private static final byte VALUE_TRUE = 2;
+  private static final byte VALUE_FALSE = 3;
+  private static final byte VALUE_LONG = 4;
+  private static final byte VALUE_DOUBLE = 5;
+  private static final byte VALUE_LIST = 6;
+  private static final byte VALUE_MAP = 7;
+
+  private RuleSetSnapshotCodec() {}
+
+  /**
+   * Encode the rules of a rule set.
+   *
+   * @param ruleSetId the rule set
+   * @param rules its rules, in any order
+   * @return the snapshot bytes
+   */
+  public static byte[] encode(String ruleSetId, List<RateLimitRule> rules) {
+    List<RateLimitRule> sorted = new ArrayList<>(rules);
+    sorted.sort(Comparator.comparing(RateLimitRule::getId));
+    int n = sorted.size();
+    int bandCount = 0;
+    for (RateLimitRule rule : sorted) {
+      bandCount += rule.getBands().size();
+    }
+
+    StringTable strings = new StringTable();
+    ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(64 + n * 64 + bandCount * 20);
+    try (DataOutputStream body = new DataOutputStream(bodyBytes)) {
+      body.writeInt(strings.ref(ruleSetId));
+      body.writeInt(n);
+      for (RateLimitRule rule : sorted) {
+        body.writeInt(strings.ref(rule.getId()));
+      }
+      for (RateLimitRule rule : sorted) {
+        body.writeInt(strings.ref(rule.getName()));
+      }
+      for (RateLimitRule rule : sorted) {
+        body.writeByte(rule.isEnabled() ? FLAG_ENABLED : 0);
+      }
+      for (RateLimitRule rule : sorted) {
+        body.writeInt(strings.ref(rule.getScope() != null ? rule.getScope().name() : null));
+      }
+      for (RateLimitRule rule : sorted) {
+        body.writeInt(strings.ref(rule.getKeyStrategyId()));
+      }
+      for (RateLimitRule rule : sorted) {
+        OnLimitExceedPolicy policy = rule.getOnLimitExceedPolicy();
+        body.writeInt(strings.ref(policy != null ? policy.name() : null));
+      }
+      int offset = 0;
+      body.writeInt(offset);
+      for (RateLimitRule rule : sorted) {
+        offset += rule.getBands().size();
+        body.writeInt(offset);
+      }
+      for (RateLimitRule rule : sorted) {
+        for (RateLimitBand band : rule.getBands()) {
+          body.writeLong(band.getWindow().toSeconds());
+        }
+      }
+      for (RateLimitRule rule : sorted) {
+        for (RateLimitBand band : rule.getBands()) {
+          body.writeLong(band.getCapacity());
+        }
+      }
+      for (RateLimitRule rule : sorted) {
+        for (RateLimitBand band : rule.getBands()) {
+          body.writeInt(strings.ref(band.getLabel()));
+        }
+      }
+      for (RateLimitRule rule : sorted) {
+        writeValue(body, rule.getAttributes() != null ? rule.getAttributes() : Map.of(), strings);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bodyBytes.size() + strings.bytes + 16);
+    try (DataOutputStream header = new DataOutputStream(out)) {
+      header.write(MAGIC);
+      header.writeShort(FORMAT_VERSION);
+      header.writeInt(strings.values.size());
+      for (byte[] value : strings.values) {
+        header.writeInt(value.length);
+        header.write(value);
+      }
+      bodyBytes.writeTo(header);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decode a snapshot back into rules, in ID order.
+   *
+   * @param snapshot bytes written by {@link #encode}
+   * @return the rules
+   * @throws IllegalArgumentException if the bytes are not a snapshot of a supported version
+   */
+  public static List<RateLimitRule> decode(byte[] snapshot) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new IllegalArgumentException("Not a rule set snapshot");
+      }
+      int version = in.readUnsignedShort();
+      if (version != FORMAT_VERSION) {
+        throw new IllegalArgumentException("Unsupported snapshot format version " + version);
+      }
+      String[] strings = new String[readCount(in, Integer.BYTES)];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] value = new byte[readCount(in, 1)];
+        in.readFully(value);
+        strings[i] = new String(value, StandardCharsets.UTF_8);
+      }
+
+      String ruleSetId = string(strings, in.readInt());
+      int n = readCount(in, 5 * Integer.BYTES + 1);
+      int[] ids = readInts(in, n);
+      int[] names = readInts(in, n);
+      byte[] flags = new byte[n];
+      in.readFully(flags);
+      int[] scopes = readInts(in, n);
+      int[] keyStrategies = readInts(in, n);
+      int[] policies = readInts(in, n);
+      int[] bandOffsets = readInts(in, n + 1);
+      int bandCount = bandOffsets[n];
+      if (bandCount < 0 || (long) bandCount * (2 * Long.BYTES + Integer.BYTES) > in.available()) {
+        throw new IllegalArgumentException("Corrupt rule set snapshot");
+      }
+      long[] windows = readLongs(in, bandCount);
+      long[] capacities = readLongs(in, bandCount);
+      int[] labels = readInts(in, bandCount);
+
+      List<RateLimitRule> rules = new ArrayList<>(n);
+      for (int r = 0; r < n; r++) {
+        String scope = string(strings, scopes[r]);
+        String policy = string(strings, policies[r]);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> attributes = (Map<String, Object>) readValue(in, strings);
+        RateLimitRule.Builder builder =
+            RateLimitRule.builder(string(strings, ids[r]))
+                .name(string(strings, names[r]))
+                .enabled((flags[r] & FLAG_ENABLED) != 0)
+                .scope(scope != null ? LimitScope.valueOf(scope) : null)
+                .keyStrategyId(string(strings, keyStrategies[r]))
+                .onLimitExceedPolicy(policy != null ? OnLimitExceedPolicy.valueOf(policy) : null)
+                .ruleSetId(ruleSetId)
+                .attributes(attributes);
+        for (int b = bandOffsets[r]; b < bandOffsets[r + 1]; b++) {
+          builder.addBand(
+              RateLimitBand.builder(Duration.ofSeconds(windows[b]), capacities[b])
+                  .label(string(strings, labels[b]))
+                  .build());
+        }
+        rules.add(builder.build());
+      }
+      return rules;
+    } catch (IllegalArgumentException e) {
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      // Truncated data, references outside the string table or unknown enum names
+      throw new IllegalArgumentException("Corrupt rule set snapshot", e);
+    }
+  }
+
+  private static void writeValue(DataOutputStream out, Object value, StringTable strings)
+      throws IOException {
+    if (value == null) {
+      out.writeByte(VALUE_NULL);
+    } else if (value instanceof Boolean flag) {
+      out.writeByte(flag ? VALUE_TRUE : VALUE_FALSE);
+    } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+      out.writeByte(VALUE_LONG);
+      out.writeLong(((Number) value).longValue());
+    } else if (value instanceof Double || value instanceof Float) {
+      out.writeByte(VALUE_DOUBLE);
+      out.writeDouble(((Number) value).doubleValue());
+    } else if (value instanceof List<?> list) {
+      out.writeByte(VALUE_LIST);
+      out.writeInt(list.size());
+      for (Object element : list) {
+        writeValue(out, element, strings);
+      }
+    } else if (value instanceof Map<?, ?> map) {
+      // Sorted keys keep the bytes independent of the map's iteration order
+      Map<String, Object> sorted = new TreeMap<>();
+      map.forEach((key, element) -> sorted.put(String.valueOf(key), element));
+      out.writeByte(VALUE_MAP);
+      out.writeInt(sorted.size());
+      for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+        out.writeInt(strings.ref(entry.getKey()));
+        writeValue(out, entry.getValue(), strings);
+      }
+    } else {
+      out.writeByte(VALUE_STRING);
+      out.writeInt(strings.ref(value.toString()));
+    }
+  }
+
+  private static Object readValue(DataInputStream in, String[] strings) throws IOException {
+    byte type = in.readByte();
+    return switch (type) {
+      case VALUE_NULL -> null;
+      case VALUE_STRING -> string(strings, in.readInt());
+      case VALUE_TRUE -> Boolean.TRUE;
+      case VALUE_FALSE -> Boolean.FALSE;
+      case VALUE_LONG -> in.readLong();
+      case VALUE_DOUBLE -> in.readDouble();
+      case VALUE_LIST -> {
+        int size = readCount(in, 1);
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(readValue(in, strings));
+        }
+        yield list;
+      }
+      case VALUE_MAP -> {
+        int entries = readCount(in, Integer.BYTES + 1);
+        Map<String, Object> map = new LinkedHashMap<>(entries * 2);
+        for (int i = 0; i < entries; i++) {
+          map.put(string(strings, in.readInt()), readValue(in, strings));
+        }
+        yield map;
+      }
+      default -> throw new IllegalArgumentException("Unknown attribute value type " + type);
+    };
+  }
+
+  /** Read an item count, rejecting counts the remaining bytes cannot hold. */
+  private static int readCount(DataInputStream in, int minBytesPerItem) throws IOException {
+    int count = in.readInt();
+    if (count < 0 || (long) count * minBytesPerItem > in.available()) {
+      throw new IllegalArgumentException("Corrupt rule set snapshot");
+    }
+    return count;
+  }
+
+  private static String string(String[] strings, int ref) {
+    return ref == NULL_REF ? null : strings[ref];
+  }
+
+  private static int[] readInts(DataInputStream in, int count) throws IOException {
+    int[] values = new int[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = in.readInt();
+    }
+    return values;
+  }
+
+  private static long[] readLongs(DataInputStream in, int count) throws IOException {
+    long[] values = new long[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = in.readLong();
+    }
+    return values;
+  }
+
+  /** Distinct strings in order of first use. */
+  private static final class StringTable {
+
+    final Map<String, Integer> refs = new LinkedHashMap<>();
+    final List<byte[]> values = new ArrayList<>();
+    int bytes;
+
+    int ref(String value) {
+      if (value == null) {
+        return NULL_REF;
+      }
+      Integer ref = refs.get(value);
+      if (ref == null) {
+        ref = values.size();
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        values.add(encoded);
+        bytes += encoded.length + Integer.BYTES;
+        refs.put(value, ref);
+      }
+      return ref;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package org.fluxgate.studio.admin.threading;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the virtual thread pinning monitor.
+ *
+ * @param enabled whether pinned virtual threads are recorded
+ * @param threshold shortest pinning that is recorded
+ * @param stackDepth number of stack frames logged for a pinning
+ */
+@ConfigurationProperties(prefix = "app.threads.pinning")
+public record PinningMonitorProperties(boolean enabled, Duration threshold, int stackDepth) {
+
+  public PinningMonitorProperties {
+    if (threshold == null) {
+      threshold = Duration.ofMillis(20);
+    }
+    if (stackDepth <= 0) {
+      stackDepth = 12;
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package org.fluxgate.studio.admin.threading;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.fluxgate.studio.admin.dto.response.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Bounds the number of API requests that are handled at the same time.
+ *
+ * <p>With virtual threads Tomcat no longer limits concurrency through its thread pool, so a burst
+ * of requests would all queue on the MongoDB connection pool and time out there together. This
+ * filter admits at most {@link RequestConcurrencyProperties#maxConcurrent()} requests; the others
+ * wait up to {@link RequestConcurrencyProperties#acquireTimeout()} for a slot and are then
+ * rejected with {@code 503} and a {@code Retry-After} header. It runs after authentication, so
+ * unauthenticated requests never take a slot.
+ *
+ * <p>A request that continues asynchronously keeps its slot until the async processing completes,
+ * such as the rule stream ({@code /api/rules:stream}), which reads MongoDB while it writes the
+ * response after the filter chain has returned. A rule watch ({@code /api/rules/watch}) gives its
+ * slot back once it starts waiting: it holds no thread while it waits and has its own watcher
+ * limit. The rule event stream is long-lived and has its own subscriber limit, so it is not
+ * counted.
+ */
+@Component
+public class RequestConcurrencyFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(RequestConcurrencyFilter.class);
+
+  private static final String API_PREFIX = "/api/";
+  private static final String EVENTS_PATH = "/api/rules/events";
+  private static final String WATCH_PATH = "/api/rules/watch";
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  private final Semaphore permits;
+  private final RequestConcurrencyProperties properties;
+  private final ObjectMapper objectMapper;
+  private final Counter rejected;
+
+  public RequestConcurrencyFilter(
+      RequestConcurrencyProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+    this.permits = new Semaphore(properties.maxConcurrent());
+    this.properties = properties;
+    this.objectMapper = objectMapper;
+    this.rejected = registry.counter("studio.requests.rejected");
+    Gauge.builder("studio.requests.active", this, RequestConcurrencyFilter::activeRequests)
+        .register(registry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = path(request);
+    return !path.startsWith(API_PREFIX) || path.equals(EVENTS_PATH);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    boolean acquired;
+    try {
+      acquired =
+          permits.tryAcquire(properties.acquireTimeout().toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      reject(request, response);
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (request.isAsyncStarted() && !path(request).equals(WATCH_PATH)) {
+        releaseOnAsyncCompletion(request);
+      } else {
+        permits.release();
+      }
+    }
+  }
+
+  /** Number of requests currently being handled. */
+  int activeRequests() {
+    return properties.maxConcurrent() - permits.availablePermits();
+  }
+
+  private void releaseOnAsyncCompletion(HttpServletRequest request) {
+    AtomicBoolean released = new AtomicBoolean();
+    request
+        .getAsyncContext()
+        .addListener(
+            new AsyncListener() {
+              @Override
+              public void onComplete(AsyncEvent event) {
+                release();
+              }
+
+              @Override
+              public void onTimeout(AsyncEvent event) {
+                release();
+              }
+
+              @Override
+              public void onError(AsyncEvent event) {
+                release();
+              }
+
+              @Override
+              public void onStartAsync(AsyncEvent event) {
+                // Listeners are dropped when async processing is started again
+                event.getAsyncContext().addListener(this);
+              }
+
+              private void release() {
+                if (released.compareAndSet(false, true)) {
+                  permits.release();
+                }
+              }
+            });
+  }
+
+  private static String path(HttpServletRequest request) {
+    return request.getRequestURI().substring(request.getContextPath().length());
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    rejected.increment();
+    log.warn(
+        "Rejected {} {}: {} requests already in progress",
+        request.getMethod(),
+        request.getRequestURI(),
+        properties.maxConcurrent());
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(
+        response.getOutputStream(),
+        new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            "Too many concurrent requests, retry later",
+            request.getRequestURI()));
+  }
+}
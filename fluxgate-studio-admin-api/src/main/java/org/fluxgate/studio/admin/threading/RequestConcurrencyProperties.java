@@ -0,0 +1,23 @@
+package org.fluxgate.studio.admin.threading;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the limit on concurrently handled API requests.
+ *
+ * @param maxConcurrent largest number of API requests handled at the same time
+ * @param acquireTimeout how long a request waits for a free slot before it is rejected
+ */
+@ConfigurationProperties(prefix = "app.threads.requests")
+public record RequestConcurrencyProperties(int maxConcurrent, Duration acquireTimeout) {
+
+  public RequestConcurrencyProperties {
+    if (maxConcurrent <= 0) {
+      maxConcurrent = 400;
+    }
+    if (acquireTimeout == null) {
+      acquireTimeout = Duration.ofSeconds(1);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package org.fluxgate.studio.admin.threading;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread while they block.
+ *
+ * <p>A virtual thread that blocks inside a {@code synchronized} block or a native frame keeps its
+ * carrier, so a few of them can stall all virtual request threads. The monitor streams the JFR
+ * {@code jdk.VirtualThreadPinned} event for pinnings longer than {@link
+ * PinningMonitorProperties#threshold()}, records their duration in the {@code
+ * studio.threads.virtual.pinned} timer, and logs the stack of each distinct pinning site once at
+ * {@code WARN}; repeats are logged at {@code DEBUG}.
+ *
+ * <p>Active only when {@code spring.threads.virtual.enabled} is {@code true}.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(
+    prefix = "app.threads.pinning",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class VirtualThreadPinningMonitor {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+  static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  /** Bound on remembered pinning sites, so that generated code cannot grow the set forever. */
+  private static final int MAX_REPORTED_SITES = 1_000;
+
+  private final PinningMonitorProperties properties;
+  private final Timer pinned;
+  private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+  private final RecordingStream stream;
+
+  public VirtualThreadPinningMonitor(PinningMonitorProperties properties, MeterRegistry registry) {
+    this.properties = properties;
+    this.pinned =
+        Timer.builder("studio.threads.virtual.pinned")
+            .description("Time virtual threads spent blocked while pinned to their carrier")
+            .register(registry);
+    this.stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(properties.threshold()).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::onPinned);
+    stream.startAsync();
+    log.info("Monitoring virtual thread pinning longer than {}", properties.threshold());
+  }
+
+  /** Stop the event stream. */
+  @PreDestroy
+  public void close() {
+    stream.close();
+  }
+
+  void onPinned(RecordedEvent event) {
+    pinned.record(event.getDuration());
+    String stack = describe(event.getStackTrace());
+    String thread =
+        event.getThread() != null ? event.getThread().getJavaName() : "unknown virtual thread";
+    if (reportedSites.size() < MAX_REPORTED_SITES && reportedSites.add(stack)) {
+      log.warn(
+          "Virtual thread {} was pinned for {} ms at:{}",
+          thread,
+          event.getDuration().toMillis(),
+          stack);
+    } else {
+      log.debug(
+          "Virtual thread {} was pinned for {} ms", thread, event.getDuration().toMillis());
+    }
+  }
+
+  private String describe(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return " (no stack trace)";
+    }
+    List<RecordedFrame> frames = stackTrace.getFrames();
+    return frames.stream()
+        .limit(properties.stackDepth())
+        .map(
+            frame ->
+                "\n\tat "
+                    + frame.getMethod().getType().getName()
+                    + "."
+                    + frame.getMethod().getName()
+                    + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : ""))
+        .collect(Collectors.joining());
+  }
+}
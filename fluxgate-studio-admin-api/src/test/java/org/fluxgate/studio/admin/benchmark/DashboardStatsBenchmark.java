@@ -0,0 +1,128 @@
+package org.fluxgate.studio.admin.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.repository.MongoRuleStore;
+import org.fluxgate.studio.admin.repository.RuleDocumentMapper;
+import org.fluxgate.studio.admin.repository.RuleStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testcontainers.containers.MongoDBContainer;
+
+/**
+ * JMH benchmark comparing dashboard statistics computed from a full collection scan (the previous
+ * {@code findAll()} path) with the server-side {@code $facet} aggregation.
+ *
+ * <p>Needs Docker for the MongoDB container. Not part of the regular test run. Run it explicitly
+ * with:
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main DashboardStatsBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardStatsBenchmark {
+
+  private static final int INSERT_BATCH_SIZE = 10_000;
+
+  @Param({"1000", "100000", "1000000"})
+  public int ruleCount;
+
+  private MongoDBContainer mongo;
+  private MongoClient client;
+  private MongoCollection<Document> collection;
+  private MongoRuleStore store;
+
+  @Setup
+  public void setUp() {
+    mongo = new MongoDBContainer("mongo:7.0");
+    mongo.start();
+    client = MongoClients.create(mongo.getConnectionString());
+    collection = client.getDatabase("fluxgate").getCollection("rate_limit_rules");
+    seed(collection, ruleCount);
+    store = new MongoRuleStore(collection);
+    RuleStats scanned = scanAll();
+    RuleStats aggregated = store.aggregateStats();
+    if (!aggregated.equals(scanned)) {
+      throw new IllegalStateException("Aggregated " + aggregated + " but scanned " + scanned);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.close();
+    mongo.stop();
+  }
+
+  /** Previous implementation: materialize every rule and count on the client. */
+  @Benchmark
+  public RuleStats scanAll() {
+    List<RateLimitRule> rules =
+        collection.find().map(RuleDocumentMapper::toRule).into(new ArrayList<>());
+    long enabled = rules.stream().filter(RateLimitRule::isEnabled).count();
+    long ruleSets =
+        rules.stream()
+            .map(RateLimitRule::getRuleSetIdOrNull)
+            .filter(id -> id != null && !id.isEmpty())
+            .distinct()
+            .count();
+    return new RuleStats(rules.size(), enabled, ruleSets);
+  }
+
+  @Benchmark
+  public RuleStats aggregate() {
+    return store.aggregateStats();
+  }
+
+  private static void seed(MongoCollection<Document> collection, int ruleCount) {
+    List<Document> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+    for (int i = 0; i < ruleCount; i++) {
+      batch.add(
+          new Document(RuleDocumentMapper.ID, String.format("rule-%07d", i))
+              .append(RuleDocumentMapper.NAME, "Benchmark rule " + i)
+              .append(RuleDocumentMapper.ENABLED, i % 3 != 0)
+              .append(RuleDocumentMapper.SCOPE, "PER_IP")
+              .append(RuleDocumentMapper.KEY_STRATEGY_ID, "ip")
+              .append(RuleDocumentMapper.ON_LIMIT_EXCEED_POLICY, "REJECT_REQUEST")
+              .append(RuleDocumentMapper.RULE_SET_ID, "tenant-" + (i % 500))
+              .append(
+                  RuleDocumentMapper.BANDS,
+                  List.of(
+                      new Document(RuleDocumentMapper.BAND_WINDOW_SECONDS, 60L)
+                          .append(RuleDocumentMapper.BAND_CAPACITY, 100L)
+                          .append(RuleDocumentMapper.BAND_LABEL, "per-minute")))
+              .append(
+                  RuleDocumentMapper.ATTRIBUTES,
+                  new Document("tags", List.of("benchmark", "tenant-" + (i % 500)))));
+      if (batch.size() == INSERT_BATCH_SIZE) {
+        collection.insertMany(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      collection.insertMany(batch);
+    }
+  }
+}
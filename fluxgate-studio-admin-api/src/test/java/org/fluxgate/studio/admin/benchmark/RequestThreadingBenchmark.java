@@ -0,0 +1,202 @@
+package org.fluxgate.studio.admin.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.core.spi.RateLimitRuleRepository;
+import org.fluxgate.studio.admin.cache.RuleCache;
+import org.fluxgate.studio.admin.cache.RuleCacheProperties;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
+import org.fluxgate.studio.admin.notify.RuleChangeNotifier;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.repository.StoredRule;
+import org.fluxgate.studio.admin.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+/**
+ * JMH benchmark comparing Tomcat's platform thread pool with virtual request threads when every
+ * request blocks on slow storage.
+ *
+ * <p>An embedded Tomcat serves {@code GET /api/rules/{id}} through {@link RuleService}, whose
+ * repository is a stand-in that blocks for {@link #STORAGE_LATENCY} per call. Each invocation sends
+ * one request from each of {@link #CONCURRENCY} concurrent clients and the score is in requests per
+ * second. With 200 platform threads throughput is capped at about {@code 200 / latency} and the
+ * remaining requests queue in Tomcat; virtual threads block without holding a carrier, so
+ * throughput follows the offered load.
+ *
+ * <p>Not part of the regular test run. Run it explicitly with:
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main RequestThreadingBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestThreadingBenchmark {
+
+  private static final Duration STORAGE_LATENCY = Duration.ofMillis(50);
+  private static final int PLATFORM_MAX_THREADS = 200;
+  private static final int CONCURRENCY = 2_000;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  private WebServer server;
+  private ExecutorService clients;
+  private HttpClient http;
+  private List<HttpRequest> requests;
+
+  @Setup
+  public void setUp() {
+    TomcatServletWebServerFactory factory =
+        threads.equals("virtual") ? virtualThreads() : platformThreads();
+    RuleServlet servlet = new RuleServlet(ruleService(), new ObjectMapper());
+    server =
+        factory.getWebServer(
+            context -> context.addServlet("rules", servlet).addMapping("/api/rules/*"));
+    server.start();
+    clients = Executors.newVirtualThreadPerTaskExecutor();
+    http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+    URI base = URI.create("http://localhost:" + server.getPort() + "/api/rules/");
+    requests = new ArrayList<>(CONCURRENCY);
+    for (int c = 0; c < CONCURRENCY; c++) {
+      requests.add(HttpRequest.newBuilder(base.resolve("rule-" + c)).build());
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    clients.close();
+    server.stop();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENCY)
+  public int concurrentRequests() throws Exception {
+    List<Future<Integer>> responses = new ArrayList<>(CONCURRENCY);
+    for (HttpRequest request : requests) {
+      responses.add(
+          clients.submit(
+              () -> http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+    }
+    int succeeded = 0;
+    for (Future<Integer> response : responses) {
+      int status = response.get();
+      if (status != 200) {
+        throw new IllegalStateException("Unexpected status " + status);
+      }
+      succeeded++;
+    }
+    return succeeded;
+  }
+
+  private static RuleService ruleService() {
+    RuleStore ruleStore = mock(RuleStore.class, withSettings().stubOnly());
+    when(ruleStore.findById(anyString()))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(STORAGE_LATENCY);
+              return Optional.of(new StoredRule(rule(invocation.getArgument(0)), 1));
+            });
+    return new RuleService(
+        mock(RateLimitRuleRepository.class, withSettings().stubOnly()),
+        ruleStore,
+        new RuleCache(
+            ruleStore, new RuleCacheProperties(false, 0, null), new SimpleMeterRegistry()),
+        mock(RuleChangeLog.class, withSettings().stubOnly()),
+        mock(RuleChangeNotifier.class, withSettings().stubOnly()),
+        event -> {});
+  }
+
+  private static TomcatServletWebServerFactory platformThreads() {
+    TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+    factory.addProtocolHandlerCustomizers(
+        handler -> ((AbstractProtocol<?>) handler).setMaxThreads(PLATFORM_MAX_THREADS));
+    return factory;
+  }
+
+  /** Same executor that {@code spring.threads.virtual.enabled=true} installs. */
+  private static TomcatServletWebServerFactory virtualThreads() {
+    TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+    factory.addProtocolHandlerCustomizers(
+        handler -> handler.setExecutor(new VirtualThreadExecutor("tomcat-handler-")));
+    return factory;
+  }
+
+  private static RateLimitRule rule(String id) {
+    return RateLimitRule.builder(id)
+        .name("Benchmark rule " + id)
+        .enabled(true)
+        .scope(LimitScope.PER_IP)
+        .keyStrategyId("ip")
+        .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+        .ruleSetId("benchmark")
+        .addBand(RateLimitBand.builder(Duration.ofMinutes(1), 100).label("per-minute").build())
+        .build();
+  }
+
+  /** Minimal stand-in for {@code RuleController#getRuleById}. */
+  private static final class RuleServlet extends HttpServlet {
+
+    private final transient RuleService ruleService;
+    private final transient ObjectMapper objectMapper;
+
+    RuleServlet(RuleService ruleService, ObjectMapper objectMapper) {
+      this.ruleService = ruleService;
+      this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+      String id = request.getPathInfo().substring(1);
+      response.setContentType("application/json");
+      objectMapper.writeValue(response.getOutputStream(), ruleService.getRuleById(id));
+    }
+  }
+}
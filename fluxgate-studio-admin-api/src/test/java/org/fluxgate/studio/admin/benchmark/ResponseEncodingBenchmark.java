@@ -0,0 +1,126 @@
+package org.fluxgate.studio.admin.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.fluxgate.studio.admin.dto.response.RateBandResponse;
+import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * JMH benchmark of encoding and decoding a full rule list in JSON, CBOR and Smile, each plain and
+ * gzipped as the server compresses large responses. The encoded sizes are logged once per trial.
+ *
+ * <p>Not part of the regular test run. Run it explicitly with:
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ResponseEncodingBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseEncodingBenchmark {
+
+  private static final Logger log = LoggerFactory.getLogger(ResponseEncodingBenchmark.class);
+
+  private static final TypeReference<List<RuleResponse>> RULE_LIST = new TypeReference<>() {};
+
+  @Param({"10000", "100000"})
+  public int ruleCount;
+
+  @Param({"json", "cbor", "smile"})
+  public String format;
+
+  private List<RuleResponse> rules;
+  private ObjectMapper mapper;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws IOException {
+    rules = rules(ruleCount);
+    mapper =
+        switch (format) {
+          case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+          case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+          default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+    encoded = mapper.writeValueAsBytes(rules);
+    if (!mapper.readValue(encoded, RULE_LIST).equals(rules)) {
+      throw new IllegalStateException(format + " does not round-trip the rule list");
+    }
+    log.info(
+        "{} rules as {}: {} bytes, {} bytes gzipped",
+        ruleCount,
+        format,
+        encoded.length,
+        writeGzipped().length);
+  }
+
+  @Benchmark
+  public byte[] write() throws IOException {
+    return mapper.writeValueAsBytes(rules);
+  }
+
+  @Benchmark
+  public byte[] writeGzipped() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new GZIPOutputStream(bytes)) {
+      mapper.writeValue(out, rules);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public List<RuleResponse> read() throws IOException {
+    return mapper.readValue(encoded, RULE_LIST);
+  }
+
+  private static List<RuleResponse> rules(int ruleCount) {
+    List<RuleResponse> rules = new ArrayList<>(ruleCount);
+    for (int i = 0; i < ruleCount; i++) {
+      String ruleSetId = "tenant-" + (i % 500);
+      List<String> tags = List.of("benchmark", ruleSetId);
+      rules.add(
+          new RuleResponse(
+              String.format("rule-%07d", i),
+              "Benchmark rule " + i,
+              i % 3 != 0,
+              "PER_IP",
+              "ip",
+              "REJECT_REQUEST",
+              List.of(
+                  new RateBandResponse(1, 10, "burst"),
+                  new RateBandResponse(60, 100 + i % 1_000, "per-minute")),
+              ruleSetId,
+              tags,
+              Map.of("tags", tags, "owner", "team-" + (i % 40)),
+              null));
+    }
+    return rules;
+  }
+}
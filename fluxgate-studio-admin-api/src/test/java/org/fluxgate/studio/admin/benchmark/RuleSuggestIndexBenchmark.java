@@ -0,0 +1,118 @@
+package org.fluxgate.studio.admin.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestion;
+import org.fluxgate.studio.admin.search.RuleSuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of how long the rule suggestion index takes to build, to update for one rule and
+ * to answer prefix, ID, multi-word, misspelled and rare queries.
+ *
+ * <p>Not part of the regular test run. Run it explicitly with:
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main RuleSuggestIndexBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleSuggestIndexBenchmark {
+
+  private static final String[] WORDS = {
+    "checkout", "payments", "login", "search", "orders", "inventory",
+    "catalog", "profile", "billing", "webhook", "export", "reports"
+  };
+  private static final String[] TAGS = {
+    "payments", "eu", "us", "internal", "partner", "mobile", "web", "batch"
+  };
+
+  /** Rule count of the index built by {@link #build}. */
+  @State(Scope.Benchmark)
+  public static class BuildState {
+
+    @Param({"10000", "100000"})
+    public int ruleCount;
+  }
+
+  /** An index built once per trial. */
+  @State(Scope.Benchmark)
+  public static class IndexState {
+
+    @Param({"10000", "100000"})
+    public int ruleCount;
+
+    RuleSuggestIndex index;
+    SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+      index = buildIndex(ruleCount);
+      random = new SplittableRandom(7);
+    }
+  }
+
+  /** Prefix, ID, multi-word, misspelled and rare queries that all have suggestions. */
+  @State(Scope.Benchmark)
+  public static class QueryState {
+
+    @Param({"chec", "rule-0042", "checkout pay", "chekout", "limit 4242"})
+    public String query;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public RuleSuggestIndex build(BuildState state) {
+    return buildIndex(state.ruleCount);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<RuleSuggestion> suggest(IndexState state, QueryState query) {
+    return state.index.suggest(query.query, 10);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public RuleSuggestIndex update(IndexState state) {
+    int rule = state.random.nextInt(state.ruleCount);
+    state.index.put(
+        ruleId(rule), "renamed " + WORDS[rule % WORDS.length], "tenant-1", List.of("eu"));
+    return state.index;
+  }
+
+  private static RuleSuggestIndex buildIndex(int ruleCount) {
+    SplittableRandom random = new SplittableRandom(1);
+    RuleSuggestIndex index = new RuleSuggestIndex();
+    for (int i = 0; i < ruleCount; i++) {
+      String name =
+          WORDS[random.nextInt(WORDS.length)]
+              + " "
+              + WORDS[random.nextInt(WORDS.length)]
+              + " limit "
+              + i;
+      String tenant = "tenant-" + (i % 500);
+      index.put(ruleId(i), name, tenant, List.of(TAGS[random.nextInt(TAGS.length)], tenant));
+    }
+    return index;
+  }
+
+  private static String ruleId(int i) {
+    return String.format("rule-%06d", i);
+  }
+}
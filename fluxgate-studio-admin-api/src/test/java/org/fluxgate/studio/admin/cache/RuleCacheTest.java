@@ -0,0 +1,368 @@
+package org.fluxgate.studio.admin.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.repository.StoredRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RuleCacheTest {
+
+  @Mock private RuleStore ruleStore;
+
+  private MeterRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+  }
+
+  private RateLimitRule createTestRule(String id, String ruleSetId) {
+    RateLimitRule.Builder builder =
+        RateLimitRule.builder(id)
+            .name("Test Rule " + id)
+            .enabled(true)
+            .scope(LimitScope.PER_IP)
+            .keyStrategyId("ip")
+            .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+            .ruleSetId(ruleSetId);
+    builder.addBand(RateLimitBand.builder(Duration.ofSeconds(60), 100).build());
+    return builder.build();
+  }
+
+  private void givenStoredRules(RateLimitRule... rules) {
+    doAnswer(
+            invocation -> {
+              Consumer<StoredRule> action = invocation.getArgument(1);
+              for (RateLimitRule rule : rules) {
+                action.accept(new StoredRule(rule, StoredRule.INITIAL_VERSION));
+              }
+              return null;
+            })
+        .when(ruleStore)
+        .forEachStored(isNull(), any());
+  }
+
+  private StoredRule stored(RateLimitRule rule, long version) {
+    return new StoredRule(rule, version);
+  }
+
+  private RuleCache createCache(boolean enabled, int maxRules) {
+    return new RuleCache(
+        ruleStore,
+        new RuleCacheProperties(enabled, maxRules, Duration.ofMinutes(5)),
+        registry);
+  }
+
+  private double count(String result) {
+    return registry.counter("studio.rule.cache.requests", "result", result).count();
+  }
+
+  @Test
+  @DisplayName("should not touch the store when disabled")
+  void shouldBypassWhenDisabled() {
+    // given
+    RuleCache cache = createCache(false, 10);
+
+    // when/then
+    assertThat(cache.snapshot()).isEmpty();
+    verifyNoInteractions(ruleStore);
+  }
+
+  @Nested
+  @DisplayName("snapshot")
+  class SnapshotTests {
+
+    @Test
+    @DisplayName("should load once and serve later reads from memory")
+    void shouldLoadOnce() {
+      // given
+      givenStoredRules(createTestRule("rule-b", "a"), createTestRule("rule-a", "a"));
+      RuleCache cache = createCache(true, 10);
+
+      // when
+      RuleSnapshot first = cache.snapshot().orElseThrow();
+      RuleSnapshot second = cache.snapshot().orElseThrow();
+
+      // then
+      assertThat(second).isSameAs(first);
+      assertThat(first.all()).extracting(RateLimitRule::getId).containsExactly("rule-a", "rule-b");
+      assertThat(first.ruleSet("a")).hasSize(2);
+      assertThat(count("miss")).isEqualTo(1);
+      assertThat(count("hit")).isEqualTo(1);
+      verify(ruleStore, times(1)).forEachStored(isNull(), any());
+    }
+
+    @Test
+    @DisplayName("should fall back to the store when rules exceed the size bound")
+    void shouldFallBackWhenOversized() {
+      // given
+      givenStoredRules(
+          createTestRule("rule-1", "a"),
+          createTestRule("rule-2", "a"),
+          createTestRule("rule-3", "a"));
+      RuleCache cache = createCache(true, 2);
+
+      // when/then
+      assertThat(cache.snapshot()).isEmpty();
+      assertThat(cache.snapshot()).isEmpty();
+      assertThat(count("miss")).isEqualTo(2);
+      verify(ruleStore, times(1)).forEachStored(isNull(), any());
+    }
+
+    @Test
+    @DisplayName("should reload after invalidation")
+    void shouldReloadAfterInvalidation() {
+      // given
+      givenStoredRules(createTestRule("rule-1", "a"));
+      RuleCache cache = createCache(true, 10);
+      cache.snapshot();
+
+      // when
+      cache.invalidate();
+      cache.snapshot();
+
+      // then
+      verify(ruleStore, times(2)).forEachStored(isNull(), any());
+    }
+
+    @Test
+    @DisplayName("should accept writes while loading and apply them to the loaded snapshot")
+    void shouldReplayWritesMadeWhileLoading() {
+      // given
+      RuleCache cache = createCache(true, 10);
+      doAnswer(
+              invocation -> {
+                Consumer<StoredRule> action = invocation.getArgument(1);
+                action.accept(stored(createTestRule("rule-1", "a"), 1));
+                // Another writer must not wait for the load
+                CompletableFuture.runAsync(
+                        () -> {
+                          cache.put(stored(createTestRule("rule-1", "b"), 2));
+                          cache.evict("rule-2", 1);
+                        })
+                    .get(5, TimeUnit.SECONDS);
+                action.accept(stored(createTestRule("rule-2", "a"), 1));
+                return null;
+              })
+          .when(ruleStore)
+          .forEachStored(isNull(), any());
+
+      // when
+      RuleSnapshot snapshot = cache.snapshot().orElseThrow();
+
+      // then
+      assertThat(snapshot.all()).extracting(RateLimitRule::getId).containsExactly("rule-1");
+      assertThat(snapshot.ruleSet("b")).extracting(RateLimitRule::getId).containsExactly("rule-1");
+    }
+
+    @Test
+    @DisplayName("should discard a load invalidated while it ran")
+    void shouldDiscardInvalidatedLoad() {
+      // given
+      RuleCache cache = createCache(true, 10);
+      doAnswer(
+              invocation -> {
+                cache.invalidate();
+                return null;
+              })
+          .when(ruleStore)
+          .forEachStored(isNull(), any());
+
+      // when
+      boolean servedFromLoad = cache.snapshot().isPresent();
+
+      // then
+      assertThat(servedFromLoad).isFalse();
+      assertThat(registry.get("studio.rule.cache.size").gauge().value()).isZero();
+    }
+  }
+
+  @Nested
+  @DisplayName("write-through")
+  class WriteThroughTests {
+
+    @Test
+    @DisplayName("should add and replace rules and move them between rule sets")
+    void shouldPutRules() {
+      // given
+      givenStoredRules(createTestRule("rule-1", "a"));
+      RuleCache cache = createCache(true, 10);
+      cache.snapshot();
+
+      // when
+      cache.put(stored(createTestRule("rule-2", "a"), 1));
+      cache.put(stored(createTestRule("rule-1", "b"), 2));
+
+      // then
+      RuleSnapshot snapshot = cache.snapshot().orElseThrow();
+      assertThat(snapshot.all())
+          .extracting(RateLimitRule::getId)
+          .containsExactly("rule-1", "rule-2");
+      assertThat(snapshot.ruleSet("a")).extracting(RateLimitRule::getId).containsExactly("rule-2");
+      assertThat(snapshot.ruleSet("b")).extracting(RateLimitRule::getId).containsExactly("rule-1");
+    }
+
+    @Test
+    @DisplayName("should add many rules at once")
+    void shouldPutAllRules() {
+      // given
+      givenStoredRules(createTestRule("rule-1", "a"));
+      RuleCache cache = createCache(true, 10);
+      cache.snapshot();
+
+      // when
+      cache.putAll(
+          List.of(
+              stored(createTestRule("rule-1", "b"), 2), stored(createTestRule("rule-2", "b"), 1)));
+
+      // then
+      RuleSnapshot snapshot = cache.snapshot().orElseThrow();
+      assertThat(snapshot.ruleSet("a")).isEmpty();
+      assertThat(snapshot.ruleSet("b"))
+          .extracting(RateLimitRule::getId)
+          .containsExactly("rule-1", "rule-2");
+    }
+
+    @Test
+    @DisplayName("should ignore a write that is not newer than the cached version")
+    void shouldIgnoreStaleWrites() {
+      // given
+      givenStoredRules(createTestRule("rule-1", "a"));
+      RuleCache cache = createCache(true, 10);
+      cache.snapshot();
+      cache.put(stored(createTestRule("rule-1", "b"), 3));
+
+      // when
+      cache.put(stored(createTestRule("rule-1", "c"), 2));
+      cache.putAll(List.of(stored(createTestRule("rule-1", "d"), 3)));
+
+      // then
+      RuleSnapshot snapshot = cache.snapshot().orElseThrow();
+      assertThat(snapshot.ruleSet("b")).extracting(RateLimitRule::getId).containsExactly("rule-1");
+      assertThat(snapshot.ruleSet("c")).isEmpty();
+      assertThat(snapshot.ruleSet("d")).isEmpty();
+      assertThat(snapshot.version("rule-1")).contains(3L);
+    }
+
+    @Test
+    @DisplayName("should re-read rules written without their versions")
+    void shouldPutLatestRules() {
+      // given
+      givenStoredRules(createTestRule("rule-1", "a"));
+      RuleCache cache = createCache(true, 10);
+      cache.snapshot();
+      when(ruleStore.findStoredByIds(List.of("rule-1", "rule-2")))
+          .thenReturn(
+              List.of(
+                  stored(createTestRule("rule-1", "b"), 2),
+                  stored(createTestRule("rule-2", "b"), 1)));
+
+      // when
+      cache.putLatest(List.of("rule-1", "rule-2"));
+
+      // then
+      assertThat(cache.snapshot().orElseThrow().ruleSet("b"))
+          .extracting(RateLimitRule::getId)
+          .containsExactly("rule-1", "rule-2");
+    }
+
+    @Test
+    @DisplayName("should evict single rules and whole rule sets")
+    void shouldEvictRules() {
+      // given
+      givenStoredRules(
+          createTestRule("rule-1", "a"),
+          createTestRule("rule-2", "a"),
+          createTestRule("rule-3", "b"));
+      RuleCache cache = createCache(true, 10);
+      cache.snapshot();
+
+      // when
+      cache.evict("rule-3", 1);
+      cache.evictRuleSet("a");
+
+      // then
+      RuleSnapshot snapshot = cache.snapshot().orElseThrow();
+      assertThat(snapshot.size()).isZero();
+      assertThat(snapshot.get("rule-1")).isEmpty();
+      assertThat(snapshot.ruleSet("b")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should ignore writes of evicted versions until the rule is created again")
+    void shouldKeepEvictedRulesOut() {
+      // given
+      givenStoredRules(createTestRule("rule-1", "a"));
+      RuleCache cache = createCache(true, 10);
+      cache.snapshot();
+      cache.evict("rule-1", 3);
+
+      // when
+      cache.put(stored(createTestRule("rule-1", "a"), 3));
+      boolean keptOut = cache.snapshot().orElseThrow().get("rule-1").isEmpty();
+      cache.putCreated(stored(createTestRule("rule-1", "b"), StoredRule.INITIAL_VERSION));
+
+      // then
+      assertThat(keptOut).isTrue();
+      assertThat(cache.snapshot().orElseThrow().ruleSet("b"))
+          .extracting(RateLimitRule::getId)
+          .containsExactly("rule-1");
+    }
+
+    @Test
+    @DisplayName("should drop the snapshot when a write exceeds the size bound")
+    void shouldDropSnapshotWhenWriteExceedsBound() {
+      // given
+      givenStoredRules(createTestRule("rule-1", "a"));
+      RuleCache cache = createCache(true, 1);
+      cache.snapshot();
+
+      // when
+      cache.put(stored(createTestRule("rule-2", "a"), 1));
+
+      // then
+      assertThat(cache.snapshot()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should ignore writes before the first load")
+    void shouldIgnoreWritesBeforeLoad() {
+      // given
+      RuleCache cache = createCache(true, 10);
+
+      // when
+      cache.put(stored(createTestRule("rule-1", "a"), 1));
+      cache.putLatest(List.of("rule-1"));
+
+      // then
+      verifyNoInteractions(ruleStore);
+      assertThat(registry.get("studio.rule.cache.size").gauge().value()).isZero();
+    }
+  }
+}
@@ -0,0 +1,393 @@
+package org.fluxgate.studio.admin.changelog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.RuleChangeResponse;
+import org.fluxgate.studio.admin.dto.response.RuleChangesResponse;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.repository.RuleChangeEntry;
+import org.fluxgate.studio.admin.repository.RuleChangeLogPosition;
+import org.fluxgate.studio.admin.repository.RuleChangeLogStore;
+import org.fluxgate.studio.admin.repository.RuleChangeRecord;
+import org.fluxgate.studio.admin.repository.RuleChangeReservation;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RuleChangeLogTest {
+
+  @Mock private RuleChangeLogStore store;
+
+  @Mock private RuleStore ruleStore;
+
+  private RuleChangeLog changeLog;
+
+  @BeforeEach
+  void setUp() {
+    changeLog = createChangeLog(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    changeLog.close();
+  }
+
+  private RuleChangeLog createChangeLog(boolean enabled) {
+    return new RuleChangeLog(
+        store,
+        ruleStore,
+        new RuleChangeLogProperties(enabled, null, Duration.ofSeconds(5), null, null, 100));
+  }
+
+  private static RateLimitRule createTestRule(String id, String ruleSetId) {
+    return RateLimitRule.builder(id)
+        .name("Rule " + id)
+        .enabled(true)
+        .scope(LimitScope.PER_IP)
+        .keyStrategyId("ip")
+        .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+        .ruleSetId(ruleSetId)
+        .addBand(RateLimitBand.builder(Duration.ofSeconds(60), 100).build())
+        .build();
+  }
+
+  private static RuleChangeEntry ruleEntry(long seq, String id, String... ruleSetIds) {
+    return new RuleChangeEntry(
+        seq,
+        RuleChangeEntry.Kind.RULE,
+        id,
+        List.of(ruleSetIds),
+        false,
+        Instant.now().minusSeconds(60));
+  }
+
+  @Nested
+  @DisplayName("recording")
+  class RecordTests {
+
+    @Test
+    @DisplayName("should prepare entries before a write and complete them with its changes")
+    void shouldPrepareAndCompleteChanges() {
+      // given
+      RuleChangeReservation reservation =
+          new RuleChangeReservation("token", List.of("rule-1"), false);
+      when(store.prepareRules(List.of("rule-1"), false)).thenReturn(reservation);
+      List<RuleChangeRecord> changes =
+          List.of(RuleChangeRecord.changed(createTestRule("rule-1", "set-a")));
+
+      // when
+      changeLog.prepare(List.of("rule-1"), false).complete(changes);
+
+      // then
+      verify(store).completeRules(reservation, changes);
+    }
+
+    @Test
+    @DisplayName("should prepare and complete rule set deletions")
+    void shouldPrepareRuleSetDeletion() {
+      // given
+      RuleChangeReservation reservation = new RuleChangeReservation("token", List.of(), true);
+      when(store.prepareRuleSetDeleted("set-b")).thenReturn(reservation);
+
+      // when
+      changeLog.prepareRuleSetDeleted("set-b").complete(List.of());
+
+      // then
+      verify(store).completeRuleSetDeleted(reservation, "set-b");
+    }
+
+    @Test
+    @DisplayName("should fail the write when entries cannot be prepared")
+    void shouldFailWhenPrepareFails() {
+      // given
+      when(store.prepareRules(List.of("rule-1"), true))
+          .thenThrow(new IllegalStateException("connection refused"));
+
+      // when/then
+      assertThatThrownBy(() -> changeLog.prepare(List.of("rule-1"), true))
+          .isInstanceOf(StorageOperationException.class)
+          .hasMessageContaining("prepareChanges");
+    }
+
+    @Test
+    @DisplayName("should not throw when entries cannot be completed")
+    void shouldNotThrowWhenCompletionFails() {
+      // given
+      doThrow(new IllegalStateException("connection refused"))
+          .when(store)
+          .completeRules(any(), any());
+      PendingRuleChanges pending = changeLog.prepare(List.of("rule-1"), false);
+
+      // when
+      pending.complete(List.of());
+
+      // then
+      verify(store).completeRules(any(), eq(List.of()));
+    }
+
+    @Test
+    @DisplayName("should record nothing when disabled")
+    void shouldRecordNothingWhenDisabled() {
+      // given
+      RuleChangeLog disabled = createChangeLog(false);
+
+      // when
+      disabled.prepare(List.of("rule-1"), false).complete(List.of());
+      disabled.prepareRuleSetDeleted("set-a").complete(List.of());
+
+      // then
+      verify(store, never()).prepareRules(anyList(), anyBoolean());
+      verify(store, never()).prepareRuleSetDeleted(any());
+      assertThatThrownBy(() -> disabled.getChanges(0L, null, 10))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("disabled");
+      disabled.close();
+    }
+  }
+
+  @Nested
+  @DisplayName("getChanges")
+  class GetChangesTests {
+
+    @Test
+    @DisplayName("should require a resync up to the visible end of the log without a position")
+    void shouldRequireResyncWithoutSince() {
+      // given
+      when(store.position()).thenReturn(new RuleChangeLogPosition(120, 118, 0));
+
+      // when
+      RuleChangesResponse response = changeLog.getChanges(null, null, 10);
+
+      // then
+      assertThat(response.resyncRequired()).isTrue();
+      assertThat(response.nextSince()).isEqualTo(118);
+      assertThat(response.changes()).isEmpty();
+      verify(store, never()).findSince(anyLong(), anyLong(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("should require a resync when deletions after the position were purged")
+    void shouldRequireResyncAfterPurge() {
+      // given
+      when(store.position()).thenReturn(new RuleChangeLogPosition(120, 120, 50));
+
+      // when
+      RuleChangesResponse response = changeLog.getChanges(49L, null, 10);
+
+      // then
+      assertThat(response.resyncRequired()).isTrue();
+      assertThat(response.since()).isEqualTo(49);
+      assertThat(response.nextSince()).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("should require a resync for a position ahead of the log")
+    void shouldRequireResyncAheadOfLog() {
+      // given
+      when(store.position()).thenReturn(new RuleChangeLogPosition(120, 120, 0));
+
+      // when
+      RuleChangesResponse response = changeLog.getChanges(500L, null, 10);
+
+      // then
+      assertThat(response.resyncRequired()).isTrue();
+    }
+
+    @Test
+    @DisplayName("should build upserts and deletes from the current rules")
+    void shouldBuildDeltasFromCurrentRules() {
+      // given
+      when(store.position()).thenReturn(new RuleChangeLogPosition(20, 20, 0));
+      when(store.findSince(10, 20, "set-a", 3))
+          .thenReturn(
+              List.of(
+                  ruleEntry(11, "rule-1", "set-a"),
+                  ruleEntry(12, "rule-2", "set-a"),
+                  ruleEntry(13, "rule-3", "set-a")));
+      when(ruleStore.findByIds(List.of("rule-1", "rule-2")))
+          .thenReturn(List.of(createTestRule("rule-1", "set-a")));
+
+      // when
+      RuleChangesResponse response = changeLog.getChanges(10L, "set-a", 2);
+
+      // then
+      assertThat(response.resyncRequired()).isFalse();
+      assertThat(response.nextSince()).isEqualTo(12);
+      assertThat(response.hasMore()).isTrue();
+      assertThat(response.changes())
+          .extracting(RuleChangeResponse::seq, RuleChangeResponse::type, RuleChangeResponse::ruleId)
+          .containsExactly(tuple(11L, "UPSERT", "rule-1"), tuple(12L, "DELETE", "rule-2"));
+      assertThat(response.changes().get(0).rule().name()).isEqualTo("Rule rule-1");
+    }
+
+    @Test
+    @DisplayName("should delete a rule that moved out of the requested rule set")
+    void shouldDeleteRuleMovedOutOfRuleSet() {
+      // given
+      when(store.position()).thenReturn(new RuleChangeLogPosition(20, 20, 0));
+      when(store.findSince(10, 20, "set-a", 11))
+          .thenReturn(List.of(ruleEntry(14, "rule-3", "set-a", "set-b")));
+      when(ruleStore.findByIds(List.of("rule-3")))
+          .thenReturn(List.of(createTestRule("rule-3", "set-b")));
+
+      // when
+      RuleChangesResponse response = changeLog.getChanges(10L, "set-a", 10);
+
+      // then
+      assertThat(response.changes())
+          .extracting(RuleChangeResponse::type, RuleChangeResponse::ruleSetId)
+          .containsExactly(tuple("DELETE", "set-a"));
+      assertThat(response.hasMore()).isFalse();
+      assertThat(response.nextSince()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("should not read past changes that are still being written")
+    void shouldStopAtVisibleEnd() {
+      // given
+      when(store.position()).thenReturn(new RuleChangeLogPosition(15, 12, 0));
+      when(store.findSince(10, 12, null, 11)).thenReturn(List.of(ruleEntry(11, "rule-1")));
+      when(ruleStore.findByIds(List.of("rule-1")))
+          .thenReturn(List.of(createTestRule("rule-1", "set-a")));
+
+      // when
+      RuleChangesResponse response = changeLog.getChanges(10L, null, 10);
+
+      // then
+      assertThat(response.nextSince()).isEqualTo(12);
+      assertThat(response.changes()).extracting(RuleChangeResponse::seq).containsExactly(11L);
+    }
+
+    @Test
+    @DisplayName("should return no changes without reading entries when the caller is up to date")
+    void shouldReturnNothingWhenUpToDate() {
+      // given
+      when(store.position()).thenReturn(new RuleChangeLogPosition(15, 12, 0));
+
+      // when
+      RuleChangesResponse response = changeLog.getChanges(12L, null, 10);
+
+      // then
+      assertThat(response.resyncRequired()).isFalse();
+      assertThat(response.nextSince()).isEqualTo(12);
+      assertThat(response.changes()).isEmpty();
+      verify(store, never()).findSince(anyLong(), anyLong(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("should follow a rule set deletion with the rules the set holds now")
+    void shouldReplayRulesOfDeletedRuleSet() {
+      // given
+      RuleChangeEntry deletedSet =
+          new RuleChangeEntry(
+              20,
+              RuleChangeEntry.Kind.RULE_SET,
+              "set-a",
+              List.of("set-a"),
+              true,
+              Instant.now().minusSeconds(60));
+      when(store.position()).thenReturn(new RuleChangeLogPosition(20, 20, 0));
+      when(store.findSince(10, 20, null, 11)).thenReturn(List.of(deletedSet));
+      doAnswer(
+              invocation -> {
+                Consumer<RateLimitRule> action = invocation.getArgument(1);
+                action.accept(createTestRule("rule-9", "set-a"));
+                return null;
+              })
+          .when(ruleStore)
+          .forEach(eq("set-a"), any());
+
+      // when
+      RuleChangesResponse response = changeLog.getChanges(10L, null, 10);
+
+      // then
+      assertThat(response.nextSince()).isEqualTo(20);
+      assertThat(response.changes())
+          .extracting(RuleChangeResponse::type, RuleChangeResponse::ruleId)
+          .containsExactly(tuple("RULE_SET_DELETED", null), tuple("UPSERT", "rule-9"));
+    }
+
+    @Test
+    @DisplayName("should reject a negative position or an out-of-range limit")
+    void shouldRejectInvalidArguments() {
+      // when/then
+      assertThatThrownBy(() -> changeLog.getChanges(-1L, null, 10))
+          .isInstanceOf(InvalidRequestException.class);
+      assertThatThrownBy(() -> changeLog.getChanges(0L, null, 0))
+          .isInstanceOf(InvalidRequestException.class);
+      assertThatThrownBy(() -> changeLog.getChanges(0L, null, 101))
+          .isInstanceOf(InvalidRequestException.class);
+      verify(store, never()).position();
+    }
+
+    @Test
+    @DisplayName("should wrap store failures in StorageOperationException")
+    void shouldWrapStoreFailures() {
+      // given
+      when(store.position()).thenThrow(new RuntimeException("connection lost"));
+
+      // when/then
+      assertThatThrownBy(() -> changeLog.getChanges(0L, "set-a", 10))
+          .isInstanceOf(StorageOperationException.class)
+          .hasMessageContaining("getChanges");
+    }
+  }
+
+  @Test
+  @DisplayName("should purge deletions older than the retention")
+  void shouldPurgeExpiredTombstones() {
+    // given
+    when(store.purgeTombstones(any())).thenReturn(3L);
+
+    // when
+    changeLog.purge();
+
+    // then
+    verify(store)
+        .purgeTombstones(
+            argThat(cutoff -> cutoff.isBefore(Instant.now().minus(Duration.ofDays(6)))));
+  }
+
+  @Test
+  @DisplayName("should not throw when abandoned writes cannot be recorded")
+  void shouldNotThrowWhenRecordingAbandonedWritesFails() {
+    // given
+    when(store.recordAbandonedWrites()).thenThrow(new IllegalStateException("connection refused"));
+
+    // when
+    changeLog.recordAbandonedWrites();
+
+    // then
+    verify(store).recordAbandonedWrites();
+  }
+}
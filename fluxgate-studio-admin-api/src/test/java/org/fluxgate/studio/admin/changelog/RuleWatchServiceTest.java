@@ -0,0 +1,279 @@
+package org.fluxgate.studio.admin.changelog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fluxgate.studio.admin.dto.response.RuleChangeResponse;
+import org.fluxgate.studio.admin.dto.response.RuleChangesResponse;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.TooManyWatchersException;
+import org.fluxgate.studio.admin.repository.RuleChangeLogPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@ExtendWith(MockitoExtension.class)
+class RuleWatchServiceTest {
+
+  @Mock private RuleChangeLog changeLog;
+
+  private RuleWatchService watchService;
+
+  @BeforeEach
+  void setUp() {
+    watchService = createWatchService(10);
+  }
+
+  @AfterEach
+  void tearDown() {
+    watchService.close();
+  }
+
+  private RuleWatchService createWatchService(int maxWatchers) {
+    return new RuleWatchService(
+        changeLog,
+        new RuleWatchProperties(maxWatchers, null, Duration.ofMinutes(1), null),
+        new SimpleMeterRegistry());
+  }
+
+  private static RuleChangesResponse noChanges(Long since, long nextSince) {
+    return new RuleChangesResponse(since, nextSince, false, false, List.of());
+  }
+
+  private static RuleChangesResponse deleted(Long since, long seq, String ruleId) {
+    return new RuleChangesResponse(
+        since, seq, false, false, List.of(RuleChangeResponse.delete(seq, ruleId, "set-a")));
+  }
+
+  @Nested
+  @DisplayName("watch")
+  class WatchTests {
+
+    @Test
+    @DisplayName("should answer right away when changes already exist")
+    void shouldAnswerExistingChanges() {
+      // given
+      RuleChangesResponse changes = deleted(41L, 42, "rule-1");
+      when(changeLog.getChanges(41L, "set-a", 500)).thenReturn(changes);
+
+      // when
+      DeferredResult<RuleChangesResponse> result = watchService.watch("set-a", 41L, 500, null);
+
+      // then
+      assertThat(result.getResult()).isEqualTo(changes);
+      assertThat(watchService.watcherCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should answer right away when the caller has to resync")
+    void shouldAnswerResync() {
+      // given
+      RuleChangesResponse resync = new RuleChangesResponse(null, 42, true, false, List.of());
+      when(changeLog.getChanges(null, null, 500)).thenReturn(resync);
+
+      // when
+      DeferredResult<RuleChangesResponse> result = watchService.watch(null, null, 500, null);
+
+      // then
+      assertThat(result.getResult()).isEqualTo(resync);
+    }
+
+    @Test
+    @DisplayName("should wait when the caller is up to date")
+    void shouldWaitWhenUpToDate() {
+      // given
+      when(changeLog.getChanges(42L, "set-a", 500)).thenReturn(noChanges(42L, 42));
+
+      // when
+      DeferredResult<RuleChangesResponse> result = watchService.watch("set-a", 42L, 500, 10);
+
+      // then
+      assertThat(result.hasResult()).isFalse();
+      assertThat(watchService.watcherCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should reject a timeout above the maximum")
+    void shouldRejectLongTimeout() {
+      // when/then
+      assertThatThrownBy(() -> watchService.watch(null, 42L, 500, 61))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("timeoutSeconds");
+      verify(changeLog, never()).getChanges(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("should reject watches above the watcher limit")
+    void shouldRejectOverLimit() {
+      // given
+      watchService.close();
+      watchService = createWatchService(1);
+      when(changeLog.getChanges(42L, null, 500)).thenReturn(noChanges(42L, 42));
+      watchService.watch(null, 42L, 500, null);
+
+      // when/then
+      assertThatThrownBy(() -> watchService.watch(null, 42L, 500, null))
+          .isInstanceOf(TooManyWatchersException.class);
+    }
+
+    @Test
+    @DisplayName("should not let concurrent watches pass the watcher limit")
+    void shouldReserveSlotsAtomically() throws Exception {
+      // given
+      watchService.close();
+      watchService = createWatchService(5);
+      when(changeLog.getChanges(42L, null, 500)).thenReturn(noChanges(42L, 42));
+      AtomicInteger accepted = new AtomicInteger();
+
+      // when
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (int i = 0; i < 50; i++) {
+          executor.submit(
+              () -> {
+                try {
+                  watchService.watch(null, 42L, 500, null);
+                  accepted.incrementAndGet();
+                } catch (TooManyWatchersException e) {
+                  // Over the limit
+                }
+              });
+        }
+      }
+
+      // then
+      assertThat(accepted).hasValue(5);
+      assertThat(watchService.watcherCount()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("should free the slot of an answered watch")
+    void shouldFreeSlotOfAnsweredWatch() {
+      // given
+      watchService.close();
+      watchService = createWatchService(1);
+      when(changeLog.getChanges(42L, null, 500))
+          .thenReturn(noChanges(42L, 42), deleted(42L, 43, "rule-1"));
+      when(changeLog.position()).thenReturn(new RuleChangeLogPosition(43, 43, 0));
+      watchService.watch(null, 42L, 500, null);
+      watchService.poll();
+
+      // when
+      DeferredResult<RuleChangesResponse> result = watchService.watch(null, 43L, 500, null);
+
+      // then
+      assertThat(result.hasResult()).isFalse();
+      assertThat(watchService.watcherCount()).isEqualTo(1);
+    }
+  }
+
+  @Nested
+  @DisplayName("poll")
+  class PollTests {
+
+    @Test
+    @DisplayName("should answer watches at the same position from one read")
+    void shouldAnswerWatchesFromOneRead() {
+      // given
+      RuleChangesResponse changes = deleted(42L, 43, "rule-1");
+      when(changeLog.getChanges(42L, "set-a", 500))
+          .thenReturn(noChanges(42L, 42), noChanges(42L, 42), changes);
+      when(changeLog.position()).thenReturn(new RuleChangeLogPosition(43, 43, 0));
+      DeferredResult<RuleChangesResponse> first = watchService.watch("set-a", 42L, 500, null);
+      DeferredResult<RuleChangesResponse> second = watchService.watch("set-a", 42L, 500, null);
+
+      // when
+      watchService.poll();
+
+      // then
+      assertThat(first.getResult()).isEqualTo(changes);
+      assertThat(second.getResult()).isEqualTo(changes);
+      assertThat(watchService.watcherCount()).isZero();
+      verify(changeLog, times(3)).getChanges(42L, "set-a", 500);
+    }
+
+    @Test
+    @DisplayName("should keep a watch waiting at the new position when its rule set is unchanged")
+    void shouldAdvanceUnchangedWatch() {
+      // given
+      when(changeLog.getChanges(42L, "set-b", 500))
+          .thenReturn(noChanges(42L, 42), noChanges(42L, 43));
+      when(changeLog.position()).thenReturn(new RuleChangeLogPosition(43, 43, 0));
+      DeferredResult<RuleChangesResponse> result = watchService.watch("set-b", 42L, 500, null);
+
+      // when
+      watchService.poll();
+      watchService.poll();
+
+      // then
+      assertThat(result.hasResult()).isFalse();
+      verify(changeLog, times(2)).getChanges(42L, "set-b", 500);
+      verify(changeLog, never()).getChanges(43L, "set-b", 500);
+    }
+
+    @Test
+    @DisplayName("should not read for a watch at the last polled position")
+    void shouldSkipReadAtPolledPosition() {
+      // given
+      when(changeLog.getChanges(42L, null, 500)).thenReturn(noChanges(42L, 43));
+      when(changeLog.position()).thenReturn(new RuleChangeLogPosition(43, 43, 0));
+      watchService.watch(null, 42L, 500, null);
+      watchService.poll();
+
+      // when
+      DeferredResult<RuleChangesResponse> result = watchService.watch(null, 43L, 500, null);
+
+      // then
+      assertThat(result.hasResult()).isFalse();
+      verify(changeLog, never()).getChanges(43L, null, 500);
+    }
+
+    @Test
+    @DisplayName("should keep watches waiting when the log cannot be read")
+    void shouldKeepWaitingOnFailure() {
+      // given
+      when(changeLog.getChanges(42L, null, 500)).thenReturn(noChanges(42L, 42));
+      when(changeLog.position()).thenThrow(new IllegalStateException("connection refused"));
+      DeferredResult<RuleChangesResponse> result = watchService.watch(null, 42L, 500, null);
+
+      // when
+      watchService.poll();
+
+      // then
+      assertThat(result.hasResult()).isFalse();
+      assertThat(watchService.watcherCount()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  @DisplayName("should answer waiting watches without changes on close")
+  void shouldAnswerWatchesOnClose() {
+    // given
+    when(changeLog.getChanges(42L, null, 500)).thenReturn(noChanges(42L, 42));
+    DeferredResult<RuleChangesResponse> result = watchService.watch(null, 42L, 500, null);
+
+    // when
+    watchService.close();
+
+    // then
+    assertThat(result.getResult()).isEqualTo(noChanges(42L, 42));
+    assertThat(watchService.watcherCount()).isZero();
+  }
+}
@@ -0,0 +1,85 @@
+package org.fluxgate.studio.admin.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.fluxgate.studio.admin.dto.response.RateBandResponse;
+import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+class ContentNegotiationConfigTest {
+
+  private final ContentNegotiationConfig config =
+      new ContentNegotiationConfig(
+          new Jackson2ObjectMapperBuilder()
+              .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+  @Test
+  @DisplayName("should replace default binary converters and keep JSON first")
+  void shouldRegisterBinaryConvertersAfterJson() {
+    // given
+    List<HttpMessageConverter<?>> converters =
+        new ArrayList<>(
+            List.of(
+                new StringHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter(),
+                new MappingJackson2CborHttpMessageConverter()));
+
+    // when
+    config.extendMessageConverters(converters);
+
+    // then
+    assertThat(converters)
+        .hasExactlyElementsOfTypes(
+            StringHttpMessageConverter.class,
+            MappingJackson2HttpMessageConverter.class,
+            MappingJackson2CborHttpMessageConverter.class,
+            MappingJackson2SmileHttpMessageConverter.class);
+    ObjectMapper cbor =
+        ((MappingJackson2CborHttpMessageConverter) converters.get(2)).getObjectMapper();
+    assertThat(cbor.getFactory()).isInstanceOf(CBORFactory.class);
+    assertThat(cbor.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)).isFalse();
+  }
+
+  @Test
+  @DisplayName("should encode rules in CBOR with the same fields as JSON")
+  void shouldRoundTripRulesInCbor() throws Exception {
+    // given
+    List<HttpMessageConverter<?>> converters = new ArrayList<>();
+    config.extendMessageConverters(converters);
+    ObjectMapper cbor =
+        ((MappingJackson2CborHttpMessageConverter) converters.get(0)).getObjectMapper();
+    RuleResponse rule =
+        new RuleResponse(
+            "rule-1",
+            "Rule 1",
+            true,
+            "PER_IP",
+            "ip",
+            "REJECT_REQUEST",
+            List.of(new RateBandResponse(60, 100, "per-minute")),
+            null,
+            List.of("api"),
+            Map.of("tags", List.of("api")),
+            null);
+
+    // when
+    byte[] encoded = cbor.writeValueAsBytes(rule);
+
+    // then
+    assertThat(cbor.readValue(encoded, RuleResponse.class)).isEqualTo(rule);
+    assertThat(cbor.readTree(encoded).get("ruleSetId").isNull()).isTrue();
+  }
+}
@@ -0,0 +1,155 @@
+package org.fluxgate.studio.admin.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
+import org.fluxgate.studio.admin.changelog.RuleWatchService;
+import org.fluxgate.studio.admin.dto.response.RuleChangeResponse;
+import org.fluxgate.studio.admin.dto.response.RuleChangesResponse;
+import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.fluxgate.studio.admin.exception.GlobalExceptionHandler;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.TooManyWatchersException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@ExtendWith(MockitoExtension.class)
+class RuleChangeControllerTest {
+
+  @Mock private RuleChangeLog changeLog;
+  @Mock private RuleWatchService watchService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(new RuleChangeController(changeLog, watchService))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  @Test
+  @DisplayName("should return the changes since the given sequence number")
+  void shouldReturnChanges() throws Exception {
+    // given
+    RuleResponse rule =
+        new RuleResponse(
+            "rule-1",
+            "Rule 1",
+            true,
+            "PER_IP",
+            "ip",
+            "REJECT_REQUEST",
+            List.of(),
+            "set-a",
+            List.of(),
+            null,
+            null);
+    when(changeLog.getChanges(41L, "set-a", 500))
+        .thenReturn(
+            new RuleChangesResponse(
+                41L,
+                43,
+                false,
+                false,
+                List.of(
+                    RuleChangeResponse.upsert(42, rule),
+                    RuleChangeResponse.delete(43, "rule-2", "set-a"))));
+
+    // when/then
+    mockMvc
+        .perform(get("/api/rules/changes").param("since", "41").param("ruleSetId", "set-a"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.nextSince").value(43))
+        .andExpect(jsonPath("$.resyncRequired").value(false))
+        .andExpect(jsonPath("$.changes[0].type").value("UPSERT"))
+        .andExpect(jsonPath("$.changes[0].rule.id").value("rule-1"))
+        .andExpect(jsonPath("$.changes[1].type").value("DELETE"))
+        .andExpect(jsonPath("$.changes[1].ruleId").value("rule-2"));
+  }
+
+  @Test
+  @DisplayName("should tell the caller to resync without a sequence number")
+  void shouldRequireResyncWithoutSince() throws Exception {
+    // given
+    when(changeLog.getChanges(null, null, 500))
+        .thenReturn(new RuleChangesResponse(null, 120, true, false, List.of()));
+
+    // when/then
+    mockMvc
+        .perform(get("/api/rules/changes"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.resyncRequired").value(true))
+        .andExpect(jsonPath("$.nextSince").value(120));
+  }
+
+  @Test
+  @DisplayName("should return 400 for an invalid limit")
+  void shouldRejectInvalidLimit() throws Exception {
+    // given
+    when(changeLog.getChanges(0L, null, 5000))
+        .thenThrow(new InvalidRequestException("limit must be between 1 and 1000"));
+
+    // when/then
+    mockMvc
+        .perform(get("/api/rules/changes").param("since", "0").param("limit", "5000"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("should answer a watch asynchronously with the changes")
+  void shouldWatchChanges() throws Exception {
+    // given
+    DeferredResult<RuleChangesResponse> result = new DeferredResult<>();
+    when(watchService.watch("set-a", 43L, 500, 10)).thenReturn(result);
+    MvcResult pending =
+        mockMvc
+            .perform(
+                get("/api/rules/watch")
+                    .param("ruleSetId", "set-a")
+                    .param("resourceVersion", "43")
+                    .param("timeoutSeconds", "10"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // when
+    result.setResult(
+        new RuleChangesResponse(
+            43L, 44, false, false, List.of(RuleChangeResponse.delete(44, "rule-1", "set-a"))));
+
+    // then
+    mockMvc
+        .perform(asyncDispatch(pending))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.nextSince").value(44))
+        .andExpect(jsonPath("$.changes[0].type").value("DELETE"))
+        .andExpect(jsonPath("$.changes[0].ruleId").value("rule-1"));
+  }
+
+  @Test
+  @DisplayName("should return 503 when the watch limit is reached")
+  void shouldRejectWatchOverLimit() throws Exception {
+    // given
+    when(watchService.watch(null, 43L, 500, null)).thenThrow(new TooManyWatchersException(10));
+
+    // when/then
+    mockMvc
+        .perform(get("/api/rules/watch").param("resourceVersion", "43"))
+        .andExpect(status().isServiceUnavailable());
+  }
+}
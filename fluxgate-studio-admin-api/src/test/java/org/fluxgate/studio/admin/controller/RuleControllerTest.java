@@ -1,29 +1,51 @@
 package org.fluxgate.studio.admin.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import org.fluxgate.studio.admin.dto.request.BatchRuleItem;
+import org.fluxgate.studio.admin.dto.request.BatchRuleRequest;
 import org.fluxgate.studio.admin.dto.request.CreateRuleRequest;
 import org.fluxgate.studio.admin.dto.request.RateBandRequest;
+import org.fluxgate.studio.admin.dto.request.RuleSearchRequest;
+import org.fluxgate.studio.admin.dto.request.SetEnabledRequest;
 import org.fluxgate.studio.admin.dto.request.UpdateRuleRequest;
+import org.fluxgate.studio.admin.dto.response.BatchRuleResponse;
+import org.fluxgate.studio.admin.dto.response.BatchRuleResult;
+import org.fluxgate.studio.admin.dto.response.PartialRuleResponse;
 import org.fluxgate.studio.admin.dto.response.RateBandResponse;
+import org.fluxgate.studio.admin.dto.response.RuleFacetsResponse;
+import org.fluxgate.studio.admin.dto.response.RulePageResponse;
 import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.fluxgate.studio.admin.dto.response.RuleSearchResponse;
+import org.fluxgate.studio.admin.dto.response.SetEnabledResponse;
 import org.fluxgate.studio.admin.exception.GlobalExceptionHandler;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
 import org.fluxgate.studio.admin.exception.RuleAlreadyExistsException;
 import org.fluxgate.studio.admin.exception.RuleNotFoundException;
+import org.fluxgate.studio.admin.exception.RuleVersionConflictException;
+import org.fluxgate.studio.admin.service.RuleBatchService;
 import org.fluxgate.studio.admin.service.RuleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -32,8 +54,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,17 +65,19 @@ class RuleControllerTest {
 
   @Mock private RuleService ruleService;
 
+  @Mock private RuleBatchService ruleBatchService;
+
   private MockMvc mockMvc;
   private ObjectMapper objectMapper;
 
   @BeforeEach
   void setUp() {
-    RuleController controller = new RuleController(ruleService);
+    objectMapper = new ObjectMapper();
+    RuleController controller = new RuleController(ruleService, ruleBatchService, objectMapper);
     mockMvc =
         MockMvcBuilders.standaloneSetup(controller)
             .setControllerAdvice(new GlobalExceptionHandler())
             .build();
-    objectMapper = new ObjectMapper();
   }
 
   private RuleResponse createTestRuleResponse(String id, String name, boolean enabled) {
@@ -65,7 +91,8 @@ class RuleControllerTest {
         List.of(new RateBandResponse(60, 100, "100-per-minute")),
         "test-ruleset",
         List.of("api"),
-        Map.of());
+        Map.of(),
+        3L);
   }
 
   @Nested
@@ -105,6 +132,172 @@ class RuleControllerTest {
           .andExpect(jsonPath("$.length()").value(1));
       verify(ruleService).getRulesByRuleSetId("test-ruleset");
     }
+
+    @Test
+    @DisplayName("should pass the fields projection and omit unselected fields")
+    void shouldOmitUnselectedFields() throws Exception {
+      // given
+      when(ruleService.getPartialRules(null, "id,name"))
+          .thenReturn(
+              List.of(
+                  new PartialRuleResponse(
+                      "rule-1", "Rule 1", null, null, null, null, null, null, null, null)));
+
+      // when/then
+      mockMvc
+          .perform(get("/api/rules").param("fields", "id,name"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].id").value("rule-1"))
+          .andExpect(jsonPath("$[0].name").value("Rule 1"))
+          .andExpect(jsonPath("$[0].enabled").doesNotExist())
+          .andExpect(jsonPath("$[0].bands").doesNotExist())
+          .andExpect(jsonPath("$[0].attributes").doesNotExist());
+    }
+  }
+
+  @Nested
+  @DisplayName("GET /api/rules?limit=")
+  class ListRulesPageTests {
+
+    @Test
+    @DisplayName("should return a page with next cursor")
+    void shouldReturnPage() throws Exception {
+      // given
+      RulePageResponse<RuleResponse> page =
+          new RulePageResponse<>(
+              List.of(createTestRuleResponse("rule-1", "Rule 1", true)), "cursor-1", true);
+      when(ruleService.getRulePage(null, null, 1)).thenReturn(page);
+
+      // when/then
+      mockMvc
+          .perform(get("/api/rules").param("limit", "1"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(1))
+          .andExpect(jsonPath("$.items[0].id").value("rule-1"))
+          .andExpect(jsonPath("$.nextCursor").value("cursor-1"))
+          .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @DisplayName("should return 400 for invalid cursor")
+    void shouldReturn400ForInvalidCursor() throws Exception {
+      // given
+      when(ruleService.getRulePage("test-ruleset", "bad", 10))
+          .thenThrow(new InvalidRequestException("Invalid cursor: bad"));
+
+      // when/then
+      mockMvc
+          .perform(
+              get("/api/rules")
+                  .param("ruleSetId", "test-ruleset")
+                  .param("limit", "10")
+                  .param("cursor", "bad"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Invalid cursor: bad"));
+    }
+  }
+
+  @Nested
+  @DisplayName("GET /api/rules:search")
+  class SearchRulesTests {
+
+    @Test
+    @DisplayName("should bind all filters and return the page with facets")
+    void shouldBindFiltersAndReturnFacets() throws Exception {
+      // given
+      RuleSearchRequest request =
+          new RuleSearchRequest(
+              null,
+              "PER_API_KEY",
+              false,
+              null,
+              null,
+              List.of("payments", "eu"),
+              "Checkout");
+      RuleSearchResponse<RuleResponse> response =
+          new RuleSearchResponse<>(
+              List.of(createTestRuleResponse("rule-1", "Checkout", false)),
+              null,
+              false,
+              new RuleFacetsResponse(
+                  1,
+                  0,
+                  1,
+                  Map.of("PER_API_KEY", 1L),
+                  Map.of("REJECT_REQUEST", 1L),
+                  Map.of("api-key", 1L),
+                  Map.of("payments", 1L, "eu", 1L)));
+      when(ruleService.searchRules(request, null, 100, true)).thenReturn(response);
+
+      // when/then
+      mockMvc
+          .perform(
+              get("/api/rules:search")
+                  .param("scope", "PER_API_KEY")
+                  .param("enabled", "false")
+                  .param("tag", "payments", "eu")
+                  .param("namePrefix", "Checkout"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items[0].id").value("rule-1"))
+          .andExpect(jsonPath("$.hasMore").value(false))
+          .andExpect(jsonPath("$.facets.disabled").value(1))
+          .andExpect(jsonPath("$.facets.scopes.PER_API_KEY").value(1));
+    }
+
+    @Test
+    @DisplayName("should return 400 for an invalid filter")
+    void shouldReturn400ForInvalidFilter() throws Exception {
+      // given
+      when(ruleService.searchRules(any(), isNull(), eq(10), eq(false)))
+          .thenThrow(new InvalidRequestException("scope must be one of: [GLOBAL]"));
+
+      // when/then
+      mockMvc
+          .perform(
+              get("/api/rules:search")
+                  .param("scope", "PER_TENANT")
+                  .param("limit", "10")
+                  .param("facets", "false"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("scope must be one of: [GLOBAL]"));
+    }
+  }
+
+  @Nested
+  @DisplayName("GET /api/rules:stream")
+  class StreamRulesTests {
+
+    @Test
+    @DisplayName("should stream rules as newline-delimited JSON")
+    void shouldStreamRulesAsNdjson() throws Exception {
+      // given
+      doAnswer(
+              invocation -> {
+                Consumer<RuleResponse> action = invocation.getArgument(1);
+                action.accept(createTestRuleResponse("rule-1", "Rule 1", true));
+                action.accept(createTestRuleResponse("rule-2", "Rule 2", false));
+                return null;
+              })
+          .when(ruleService)
+          .forEachRule(isNull(), any());
+
+      // when
+      MvcResult result =
+          mockMvc.perform(get("/api/rules:stream")).andExpect(request().asyncStarted()).andReturn();
+
+      // then
+      String body =
+          mockMvc
+              .perform(asyncDispatch(result))
+              .andExpect(status().isOk())
+              .andExpect(content().contentType("application/x-ndjson"))
+              .andReturn()
+              .getResponse()
+              .getContentAsString();
+      String[] lines = body.strip().split("\n");
+      assertThat(lines).hasSize(2);
+      assertThat(objectMapper.readValue(lines[1], RuleResponse.class).id()).isEqualTo("rule-2");
+    }
   }
 
   @Nested
@@ -122,6 +315,7 @@ class RuleControllerTest {
       mockMvc
           .perform(get("/api/rules/test-rule"))
           .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
           .andExpect(jsonPath("$.id").value("test-rule"))
           .andExpect(jsonPath("$.name").value("Test Rule"));
     }
@@ -217,6 +411,62 @@ class RuleControllerTest {
     }
   }
 
+  @Nested
+  @DisplayName("POST /api/rules:batch")
+  class BatchRulesTests {
+
+    @Test
+    @DisplayName("should return per-item results")
+    void shouldReturnPerItemResults() throws Exception {
+      // given
+      CreateRuleRequest create =
+          new CreateRuleRequest(
+              "new-rule",
+              "New Rule",
+              true,
+              "PER_IP",
+              "ip",
+              "REJECT_REQUEST",
+              List.of(new RateBandRequest(60L, 100L, "100-per-minute")),
+              "test-ruleset",
+              null,
+              null);
+      BatchRuleRequest request =
+          new BatchRuleRequest(List.of(new BatchRuleItem(create, null, null)));
+      BatchRuleResponse response =
+          new BatchRuleResponse(
+              1,
+              1,
+              0,
+              List.of("test-ruleset"),
+              List.of(new BatchRuleResult(0, "new-rule", "CREATE", "CREATED", List.of())));
+      when(ruleBatchService.applyBatch(any(BatchRuleRequest.class))).thenReturn(response);
+
+      // when/then
+      mockMvc
+          .perform(
+              post("/api/rules:batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.succeeded").value(1))
+          .andExpect(jsonPath("$.affectedRuleSets[0]").value("test-ruleset"))
+          .andExpect(jsonPath("$.results[0].status").value("CREATED"));
+    }
+
+    @Test
+    @DisplayName("should return 400 for an empty batch")
+    void shouldReturn400ForEmptyBatch() throws Exception {
+      // when/then
+      mockMvc
+          .perform(
+              post("/api/rules:batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"items\":[]}"))
+          .andExpect(status().isBadRequest());
+    }
+  }
+
   @Nested
   @DisplayName("PUT /api/rules/{id}")
   class UpdateRuleTests {
@@ -247,8 +497,9 @@ class RuleControllerTest {
               List.of(new RateBandResponse(120, 50, "50-per-2minutes")),
               "updated-ruleset",
               List.of(),
-              Map.of());
-      when(ruleService.updateRule(eq("test-rule"), any(UpdateRuleRequest.class)))
+              Map.of(),
+              4L);
+      when(ruleService.updateRule(eq("test-rule"), any(UpdateRuleRequest.class), isNull()))
           .thenReturn(response);
 
       // when/then
@@ -258,7 +509,54 @@ class RuleControllerTest {
                   .contentType(MediaType.APPLICATION_JSON)
                   .content(objectMapper.writeValueAsString(request)))
           .andExpect(status().isOk())
-          .andExpect(jsonPath("$.name").value("Updated Rule"));
+          .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+          .andExpect(jsonPath("$.name").value("Updated Rule"))
+          .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    @DisplayName("should pass the If-Match version and return 412 on conflict")
+    void shouldReturn412OnVersionConflict() throws Exception {
+      // given
+      when(ruleService.updateRule(eq("test-rule"), any(UpdateRuleRequest.class), eq(3L)))
+          .thenThrow(new RuleVersionConflictException("test-rule", 3, 5));
+
+      // when/then
+      mockMvc
+          .perform(
+              put("/api/rules/test-rule")
+                  .header(HttpHeaders.IF_MATCH, "\"3\"")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(updateRequest())))
+          .andExpect(status().isPreconditionFailed())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+          .andExpect(jsonPath("$.error").value("Precondition Failed"));
+    }
+
+    @Test
+    @DisplayName("should return 400 for an If-Match that is not a rule version")
+    void shouldRejectInvalidIfMatch() throws Exception {
+      // when/then
+      mockMvc
+          .perform(
+              put("/api/rules/test-rule")
+                  .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(updateRequest())))
+          .andExpect(status().isBadRequest());
+    }
+
+    private UpdateRuleRequest updateRequest() {
+      return new UpdateRuleRequest(
+          "Updated Rule",
+          true,
+          "PER_IP",
+          "ip",
+          "REJECT_REQUEST",
+          List.of(new RateBandRequest(60L, 100L, "100-per-minute")),
+          null,
+          null,
+          null);
     }
   }
 
@@ -287,6 +585,92 @@ class RuleControllerTest {
     }
   }
 
+  @Nested
+  @DisplayName("POST /api/rules:setEnabled")
+  class SetEnabledTests {
+
+    @Test
+    @DisplayName("should return matched and modified counts")
+    void shouldSetEnabled() throws Exception {
+      // given
+      SetEnabledRequest request =
+          new SetEnabledRequest(false, "checkout", List.of("experimental"), null, null);
+      when(ruleBatchService.setEnabled(request))
+          .thenReturn(new SetEnabledResponse(false, 12, 9, List.of("checkout")));
+
+      // when/then
+      mockMvc
+          .perform(
+              post("/api/rules:setEnabled")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.matched").value(12))
+          .andExpect(jsonPath("$.modified").value(9))
+          .andExpect(jsonPath("$.affectedRuleSets[0]").value("checkout"));
+    }
+
+    @Test
+    @DisplayName("should return 400 without enabled")
+    void shouldReturn400WithoutEnabled() throws Exception {
+      // when/then
+      mockMvc
+          .perform(
+              post("/api/rules:setEnabled")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"ruleSetId\":\"checkout\"}"))
+          .andExpect(status().isBadRequest());
+    }
+  }
+
+  @Nested
+  @DisplayName("PATCH /api/rules/{id}")
+  class PatchRuleTests {
+
+    @Test
+    @DisplayName("should apply a merge patch with the If-Match version")
+    void shouldPatchRule() throws Exception {
+      // given
+      RuleResponse response = createTestRuleResponse("test-rule", "Renamed", true);
+      Map<String, Object> bandUpdate =
+          Map.of("op", "update", "label", "per-minute", "capacity", 200);
+      when(ruleService.patchRule(
+              "test-rule",
+              Map.of("name", "Renamed", "bandOperations", List.of(bandUpdate)),
+              2L))
+          .thenReturn(response);
+
+      // when/then
+      mockMvc
+          .perform(
+              patch("/api/rules/test-rule")
+                  .header(HttpHeaders.IF_MATCH, "\"2\"")
+                  .contentType("application/merge-patch+json")
+                  .content(
+                      "{\"name\":\"Renamed\",\"bandOperations\":[{\"op\":\"update\","
+                          + "\"label\":\"per-minute\",\"capacity\":200}]}"))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+          .andExpect(jsonPath("$.name").value("Renamed"));
+    }
+
+    @Test
+    @DisplayName("should return 400 for an invalid patch")
+    void shouldReturn400ForInvalidPatch() throws Exception {
+      // given
+      when(ruleService.patchRule("test-rule", Map.of("id", "other"), null))
+          .thenThrow(new InvalidRequestException("Unknown or read-only field: id"));
+
+      // when/then
+      mockMvc
+          .perform(
+              patch("/api/rules/test-rule")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"id\":\"other\"}"))
+          .andExpect(status().isBadRequest());
+    }
+  }
+
   @Nested
   @DisplayName("PATCH /api/rules/{id}/toggle")
   class ToggleRuleTests {
@@ -296,12 +680,13 @@ class RuleControllerTest {
     void shouldToggleRuleSuccessfully() throws Exception {
       // given
       RuleResponse response = createTestRuleResponse("test-rule", "Test Rule", false);
-      when(ruleService.toggleRule("test-rule")).thenReturn(response);
+      when(ruleService.toggleRule("test-rule", 2L)).thenReturn(response);
 
       // when/then
       mockMvc
-          .perform(patch("/api/rules/test-rule/toggle"))
+          .perform(patch("/api/rules/test-rule/toggle").header(HttpHeaders.IF_MATCH, "W/\"2\""))
           .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
           .andExpect(jsonPath("$.enabled").value(false));
     }
   }
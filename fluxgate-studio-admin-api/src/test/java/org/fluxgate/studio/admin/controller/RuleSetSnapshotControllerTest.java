@@ -0,0 +1,102 @@
+package org.fluxgate.studio.admin.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.List;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.exception.GlobalExceptionHandler;
+import org.fluxgate.studio.admin.service.RuleSetSnapshotService;
+import org.fluxgate.studio.admin.snapshot.RuleSetSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class RuleSetSnapshotControllerTest {
+
+  @Mock private RuleSetSnapshotService snapshotService;
+
+  private MockMvc mockMvc;
+
+  private RuleSetSnapshot snapshot;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(new RuleSetSnapshotController(snapshotService))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+    RateLimitRule rule =
+        RateLimitRule.builder("rule-1")
+            .name("Rule 1")
+            .enabled(true)
+            .scope(LimitScope.PER_IP)
+            .keyStrategyId("ip")
+            .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+            .ruleSetId("set-a")
+            .addBand(RateLimitBand.builder(Duration.ofSeconds(60), 100).build())
+            .build();
+    snapshot = RuleSetSnapshot.compile("set-a", List.of(rule));
+  }
+
+  @Test
+  @DisplayName("should return the snapshot bytes with its content hash as ETag")
+  void shouldReturnSnapshot() throws Exception {
+    // given
+    when(snapshotService.getSnapshot("set-a")).thenReturn(snapshot);
+
+    // when/then
+    mockMvc
+        .perform(get("/api/rulesets/set-a/snapshot"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+        .andExpect(header().string("X-Rule-Count", "1"))
+        .andExpect(content().contentType(RuleSetSnapshotController.SNAPSHOT_MEDIA_TYPE))
+        .andExpect(content().bytes(snapshot.data()));
+  }
+
+  @Test
+  @DisplayName("should return 304 without body when the ETag still matches")
+  void shouldReturnNotModified() throws Exception {
+    // given
+    when(snapshotService.getSnapshot("set-a")).thenReturn(snapshot);
+
+    // when/then
+    mockMvc
+        .perform(
+            get("/api/rulesets/set-a/snapshot")
+                .header(HttpHeaders.IF_NONE_MATCH, snapshot.etag()))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+        .andExpect(content().bytes(new byte[0]));
+  }
+
+  @Test
+  @DisplayName("should return the new snapshot when the ETag is outdated")
+  void shouldReturnChangedSnapshot() throws Exception {
+    // given
+    when(snapshotService.getSnapshot("set-a")).thenReturn(snapshot);
+
+    // when/then
+    mockMvc
+        .perform(
+            get("/api/rulesets/set-a/snapshot").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+        .andExpect(status().isOk())
+        .andExpect(content().bytes(snapshot.data()));
+  }
+}
@@ -0,0 +1,83 @@
+package org.fluxgate.studio.admin.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestResponse;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestion;
+import org.fluxgate.studio.admin.exception.GlobalExceptionHandler;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.search.RuleSuggestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class RuleSuggestControllerTest {
+
+  @Mock private RuleSuggestService suggestService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(new RuleSuggestController(suggestService))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  @Test
+  @DisplayName("should return suggestions for the query with the default limit")
+  void shouldReturnSuggestions() throws Exception {
+    // given
+    when(suggestService.suggest("chekout", 10))
+        .thenReturn(
+            new RuleSuggestResponse(
+                "chekout",
+                true,
+                List.of(
+                    new RuleSuggestion(
+                        "checkout-api", "Checkout API", "shop", List.of("payments"), 1.2))));
+
+    // when/then
+    mockMvc
+        .perform(get("/api/rules:suggest").param("q", "chekout"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.ready").value(true))
+        .andExpect(jsonPath("$.suggestions[0].id").value("checkout-api"))
+        .andExpect(jsonPath("$.suggestions[0].tags[0]").value("payments"));
+  }
+
+  @Test
+  @DisplayName("should return 400 for an invalid limit")
+  void shouldRejectInvalidLimit() throws Exception {
+    // given
+    when(suggestService.suggest("checkout", 500))
+        .thenThrow(new InvalidRequestException("limit must be between 1 and 50"));
+
+    // when/then
+    mockMvc
+        .perform(get("/api/rules:suggest").param("q", "checkout").param("limit", "500"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("should return 400 without a query")
+  void shouldRequireQuery() throws Exception {
+    // given
+    when(suggestService.suggest(null, 10))
+        .thenThrow(new InvalidRequestException("q must not be blank"));
+
+    // when/then
+    mockMvc.perform(get("/api/rules:suggest")).andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,266 @@
+package org.fluxgate.studio.admin.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import org.fluxgate.studio.admin.dto.request.InlineSimulationRequest;
+import org.fluxgate.studio.admin.dto.request.LoadModelRequest;
+import org.fluxgate.studio.admin.dto.request.ReplayRequest;
+import org.fluxgate.studio.admin.dto.request.SimulationRequest;
+import org.fluxgate.studio.admin.dto.response.BandLoadResult;
+import org.fluxgate.studio.admin.dto.response.BandReplayResult;
+import org.fluxgate.studio.admin.dto.response.BandSimulationBucket;
+import org.fluxgate.studio.admin.dto.response.BandSimulationResult;
+import org.fluxgate.studio.admin.dto.response.KeyRejections;
+import org.fluxgate.studio.admin.dto.response.LoadModelResponse;
+import org.fluxgate.studio.admin.dto.response.MetricSummary;
+import org.fluxgate.studio.admin.dto.response.ReplayResponse;
+import org.fluxgate.studio.admin.dto.response.RuleReplayResult;
+import org.fluxgate.studio.admin.dto.response.SimulationBucket;
+import org.fluxgate.studio.admin.dto.response.SimulationResponse;
+import org.fluxgate.studio.admin.dto.response.WaitDistribution;
+import org.fluxgate.studio.admin.exception.GlobalExceptionHandler;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.RuleNotFoundException;
+import org.fluxgate.studio.admin.service.ReplayService;
+import org.fluxgate.studio.admin.service.SimulationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class SimulationControllerTest {
+
+  @Mock private SimulationService simulationService;
+
+  @Mock private ReplayService replayService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    SimulationController controller = new SimulationController(simulationService, replayService);
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(controller)
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  private SimulationResponse createResponse(String ruleId) {
+    return new SimulationResponse(
+        ruleId,
+        "REJECT_REQUEST",
+        15,
+        10,
+        5,
+        0,
+        0,
+        0,
+        List.of(new SimulationBucket(0, 10, 5, 0)),
+        List.of(
+            new BandSimulationResult(
+                "10-per-second", 1, 10, 10, 5, List.of(new BandSimulationBucket(0, 10, 5, 0)))));
+  }
+
+  @Test
+  @DisplayName("should simulate a stored rule")
+  void shouldSimulateStoredRule() throws Exception {
+    // given
+    when(simulationService.simulate(eq("test-rule"), any(SimulationRequest.class)))
+        .thenReturn(createResponse("test-rule"));
+
+    // when/then
+    mockMvc
+        .perform(
+            post("/api/rules/test-rule/simulate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"burstSize\":15,\"intervalMillis\":0,\"durationMillis\":1000}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.allowed").value(10))
+        .andExpect(jsonPath("$.rejected").value(5))
+        .andExpect(jsonPath("$.bands[0].timeline[0].rejected").value(5));
+  }
+
+  @Test
+  @DisplayName("should return 404 when the rule does not exist")
+  void shouldReturn404ForUnknownRule() throws Exception {
+    // given
+    when(simulationService.simulate(eq("missing"), any(SimulationRequest.class)))
+        .thenThrow(new RuleNotFoundException("missing"));
+
+    // when/then
+    mockMvc
+        .perform(
+            post("/api/rules/missing/simulate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"burstSize\":1,\"intervalMillis\":0,\"durationMillis\":1000}"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("should reject an invalid timeline")
+  void shouldRejectInvalidTimeline() throws Exception {
+    // when/then
+    mockMvc
+        .perform(
+            post("/api/rules/test-rule/simulate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"burstSize\":0,\"intervalMillis\":-1,\"durationMillis\":1000}"))
+        .andExpect(status().isBadRequest());
+    verify(simulationService, never()).simulate(any(), any());
+  }
+
+  @Test
+  @DisplayName("should simulate an unsaved rule")
+  void shouldSimulateInlineRule() throws Exception {
+    // given
+    when(simulationService.simulate(any(InlineSimulationRequest.class)))
+        .thenReturn(createResponse("draft"));
+    String body =
+        """
+        {
+          "rule": {
+            "id": "draft", "name": "Draft", "enabled": true, "scope": "PER_IP",
+            "keyStrategyId": "ip", "onLimitExceedPolicy": "REJECT_REQUEST",
+            "bands": [{"windowSeconds": 1, "capacity": 10, "label": "10-per-second"}]
+          },
+          "traffic": {"burstSize": 15, "intervalMillis": 0, "durationMillis": 1000}
+        }
+        """;
+
+    // when/then
+    mockMvc
+        .perform(post("/api/rules:simulate").contentType(MediaType.APPLICATION_JSON).content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.ruleId").value("draft"));
+  }
+
+  @Test
+  @DisplayName("should run a load model for a stored rule")
+  void shouldRunLoadModel() throws Exception {
+    // given
+    MetricSummary rejection = new MetricSummary(0.1, 0.01, 0.098, 0.102, 0.085, 0.1, 0.115);
+    MetricSummary zero = new MetricSummary(0, 0, 0, 0, 0, 0, 0);
+    when(simulationService.analyzeLoad(eq("test-rule"), any(LoadModelRequest.class)))
+        .thenReturn(
+            new LoadModelResponse(
+                "test-rule",
+                "REJECT_REQUEST",
+                "PER_IP",
+                "POISSON",
+                100,
+                42,
+                0.95,
+                360_000,
+                rejection,
+                zero,
+                zero,
+                new WaitDistribution(0, 0, 0, 0, 0),
+                List.of(new BandLoadResult("10-per-second", 1, 10, rejection))));
+
+    // when/then
+    mockMvc
+        .perform(
+            post("/api/rules/test-rule/load-model")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"keys\":2000,\"ratePerKey\":3,\"durationMillis\":60000}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rejectionRate.mean").value(0.1))
+        .andExpect(jsonPath("$.bands[0].rejectionRate.upper").value(0.102));
+  }
+
+  @Test
+  @DisplayName("should reject an invalid load model")
+  void shouldRejectInvalidLoadModel() throws Exception {
+    // when/then
+    mockMvc
+        .perform(
+            post("/api/rules/test-rule/load-model")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "{\"distribution\":\"NORMAL\",\"keys\":0,\"ratePerKey\":0,"
+                        + "\"durationMillis\":60000,\"trials\":1}"))
+        .andExpect(status().isBadRequest());
+    verify(simulationService, never()).analyzeLoad(any(), any());
+  }
+
+  @Test
+  @DisplayName("should replay an access log against a rule set")
+  void shouldReplayAccessLog() throws Exception {
+    // given
+    RuleReplayResult rule =
+        new RuleReplayResult(
+            "per-ip",
+            "Per IP",
+            "PER_IP",
+            "EVALUATED",
+            null,
+            100,
+            90,
+            10,
+            0,
+            0,
+            3,
+            List.of(new BandReplayResult("10-per-second", 1, 10, 10)),
+            List.of(new KeyRejections("10.0.0.1", 10)));
+    when(replayService.replay(any(ReplayRequest.class)))
+        .thenReturn(
+            new ReplayResponse(
+                "access.ndjson",
+                "set-a",
+                "NDJSON",
+                100,
+                100,
+                0,
+                "2026-01-01T00:00:00Z",
+                "2026-01-01T00:00:10Z",
+                5,
+                List.of(rule)));
+
+    // when/then
+    mockMvc
+        .perform(
+            post("/api/rules:replay")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ruleSetId\":\"set-a\",\"file\":\"access.ndjson\"}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rules[0].rejected").value(10))
+        .andExpect(jsonPath("$.rules[0].topRejectedKeys[0].key").value("10.0.0.1"));
+  }
+
+  @Test
+  @DisplayName("should return 400 for an unknown format or log file")
+  void shouldRejectInvalidReplayRequest() throws Exception {
+    // given
+    when(replayService.replay(any(ReplayRequest.class)))
+        .thenThrow(new InvalidRequestException("Access log not found in replay directory"));
+
+    // when/then
+    mockMvc
+        .perform(
+            post("/api/rules:replay")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ruleSetId\":\"set-a\",\"file\":\"a.log\",\"format\":\"XML\"}"))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(
+            post("/api/rules:replay")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ruleSetId\":\"set-a\",\"file\":\"../etc/passwd\"}"))
+        .andExpect(status().isBadRequest());
+    verify(replayService).replay(any(ReplayRequest.class));
+  }
+}
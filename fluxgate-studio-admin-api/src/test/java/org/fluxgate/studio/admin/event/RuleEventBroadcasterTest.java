@@ -0,0 +1,187 @@
+package org.fluxgate.studio.admin.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import org.fluxgate.studio.admin.controller.RuleEventController;
+import org.fluxgate.studio.admin.dto.response.DashboardStatsResponse;
+import org.fluxgate.studio.admin.exception.GlobalExceptionHandler;
+import org.fluxgate.studio.admin.service.DashboardService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class RuleEventBroadcasterTest {
+
+  @Mock private DashboardService dashboardService;
+
+  private SimpleMeterRegistry registry;
+  private RuleEventBroadcaster broadcaster;
+  private MockMvc mockMvc;
+
+  @AfterEach
+  void tearDown() {
+    broadcaster.close();
+  }
+
+  private void createBroadcaster(int maxSubscribers, int queueCapacity) {
+    registry = new SimpleMeterRegistry();
+    broadcaster =
+        new RuleEventBroadcaster(
+            dashboardService,
+            new ObjectMapper(),
+            new RuleEventProperties(
+                maxSubscribers,
+                queueCapacity,
+                Duration.ofMinutes(1),
+                Duration.ofMinutes(1),
+                Duration.ofMillis(10)),
+            registry);
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(new RuleEventController(broadcaster))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  private MockHttpServletResponse connect() throws Exception {
+    MvcResult result =
+        mockMvc.perform(get("/api/rules/events")).andExpect(request().asyncStarted()).andReturn();
+    return result.getResponse();
+  }
+
+  private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  private static String content(MockHttpServletResponse response) {
+    try {
+      return response.getContentAsString();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static DashboardStatsResponse stats(long totalRules) {
+    return new DashboardStatsResponse(totalRules, totalRules, 0, 1, "2025-01-01T00:00:00Z");
+  }
+
+  @Test
+  @DisplayName("should send the current stats when a client connects")
+  void shouldSendStatsOnConnect() throws Exception {
+    // given
+    createBroadcaster(10, 16);
+    when(dashboardService.getStats()).thenReturn(stats(10));
+
+    // when
+    MockHttpServletResponse response = connect();
+
+    // then
+    awaitCondition(() -> content(response).contains("event:stats"));
+    assertThat(content(response)).contains("\"totalRules\":10");
+    assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    assertThat(registry.get("studio.rule.events.subscribers").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should push rule changes followed by refreshed stats")
+  void shouldPushRuleChangesAndStats() throws Exception {
+    // given
+    createBroadcaster(10, 16);
+    when(dashboardService.getStats()).thenReturn(stats(10), stats(9));
+    MockHttpServletResponse response = connect();
+
+    // when
+    broadcaster.onRuleChanged(RuleChangedEvent.deleted("rule-1", "set-a"));
+    broadcaster.onRuleChanged(RuleChangedEvent.deleted("rule-2", "set-a"));
+
+    // then
+    awaitCondition(() -> content(response).contains("\"totalRules\":9"));
+    String body = content(response);
+    assertThat(body).contains("event:rule");
+    assertThat(body)
+        .contains("\"type\":\"DELETED\"", "\"ruleId\":\"rule-1\"", "\"ruleId\":\"rule-2\"");
+    assertThat(body.indexOf("rule-2")).isLessThan(body.indexOf("\"totalRules\":9"));
+  }
+
+  @Test
+  @DisplayName("should not compute stats when no client is connected")
+  void shouldSkipWorkWithoutSubscribers() throws Exception {
+    // given
+    createBroadcaster(10, 16);
+
+    // when
+    broadcaster.onRuleChanged(RuleChangedEvent.bulkChanged());
+    Thread.sleep(50);
+
+    // then
+    verify(dashboardService, never()).getStats();
+  }
+
+  @Test
+  @DisplayName("should return 503 when the connection limit is reached")
+  void shouldRejectBeyondConnectionLimit() throws Exception {
+    // given
+    createBroadcaster(1, 16);
+    when(dashboardService.getStats()).thenReturn(stats(10));
+    connect();
+
+    // when/then
+    mockMvc
+        .perform(get("/api/rules/events"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.message").value("Event stream connection limit of 1 reached"));
+    assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should free the connection slot when a client disconnects")
+  void shouldReleaseSlotOnDisconnect() throws Exception {
+    // given
+    createBroadcaster(1, 16);
+    when(dashboardService.getStats()).thenReturn(stats(10));
+    connect();
+    broadcaster.close();
+
+    // when/then
+    connect();
+    assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should disconnect all clients on close")
+  void shouldDisconnectClientsOnClose() throws Exception {
+    // given
+    createBroadcaster(10, 16);
+    when(dashboardService.getStats()).thenReturn(stats(10));
+    connect();
+    connect();
+
+    // when
+    broadcaster.close();
+
+    // then
+    assertThat(broadcaster.subscriberCount()).isZero();
+  }
+}
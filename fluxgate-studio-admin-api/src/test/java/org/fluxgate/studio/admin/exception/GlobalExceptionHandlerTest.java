@@ -2,9 +2,11 @@ package org.fluxgate.studio.admin.exception;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,9 +14,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @ExtendWith(MockitoExtension.class)
@@ -76,6 +80,65 @@ class GlobalExceptionHandlerTest {
     }
   }
 
+  @Nested
+  @DisplayName("TooManySubscribersException handling")
+  class TooManySubscribersExceptionTests {
+
+    @Test
+    @DisplayName("should return 503 when the event stream limit is reached")
+    void shouldReturn503WhenSubscriberLimitReached() throws Exception {
+      // given
+      when(testService.doSomething()).thenThrow(new TooManySubscribersException(100));
+
+      // when/then
+      mockMvc
+          .perform(get("/test"))
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(jsonPath("$.status").value(503))
+          .andExpect(jsonPath("$.message").value("Event stream connection limit of 100 reached"));
+    }
+  }
+
+  @Nested
+  @DisplayName("Request parameter handling")
+  class RequestParameterTests {
+
+    @Test
+    @DisplayName("should return 400 for a parameter of the wrong type")
+    void shouldReturn400ForTypeMismatch() throws Exception {
+      mockMvc
+          .perform(get("/test/changes").param("since", "abc"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.status").value(400))
+          .andExpect(jsonPath("$.error").value("Bad Request"))
+          .andExpect(jsonPath("$.message").value("Invalid value for parameter 'since'"));
+    }
+
+    @Test
+    @DisplayName("should return 400 for a missing required parameter")
+    void shouldReturn400ForMissingParameter() throws Exception {
+      mockMvc
+          .perform(get("/test/changes"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.status").value(400))
+          .andExpect(jsonPath("$.message").value("Missing required parameter 'since'"));
+    }
+  }
+
+  @Nested
+  @DisplayName("HttpMediaTypeNotAcceptableException handling")
+  class NotAcceptableTests {
+
+    @Test
+    @DisplayName("should return 406 when no accepted media type can be written")
+    void shouldReturn406ForUnacceptableMediaType() throws Exception {
+      mockMvc
+          .perform(get("/test/json").accept(MediaType.IMAGE_PNG))
+          .andExpect(status().isNotAcceptable())
+          .andExpect(content().string(""));
+    }
+  }
+
   @Nested
   @DisplayName("General Exception handling")
   class GeneralExceptionTests {
@@ -109,6 +172,16 @@ class GlobalExceptionHandlerTest {
     public String test() {
       return testService.doSomething();
     }
+
+    @GetMapping("/test/json")
+    public Map<String, String> json() {
+      return Map.of("value", "ok");
+    }
+
+    @GetMapping("/test/changes")
+    public String changes(@RequestParam long since) {
+      return Long.toString(since);
+    }
   }
 
   // Test service interface
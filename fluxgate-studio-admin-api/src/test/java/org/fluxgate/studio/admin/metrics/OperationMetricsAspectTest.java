@@ -0,0 +1,113 @@
+package org.fluxgate.studio.admin.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.RuleAlreadyExistsException;
+import org.fluxgate.studio.admin.exception.RuleNotFoundException;
+import org.fluxgate.studio.admin.exception.RuleVersionConflictException;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.repository.RuleStats;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.service.DashboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+@ExtendWith(MockitoExtension.class)
+class OperationMetricsAspectTest {
+
+  @Mock private RuleStore ruleStore;
+
+  private SimpleMeterRegistry registry;
+  private DashboardService dashboardService;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    OperationMetricsAspect aspect = new OperationMetricsAspect(registry);
+    RuleStore timedStore = proxy(ruleStore, aspect);
+    dashboardService = proxy(new DashboardService(timedStore), aspect);
+  }
+
+  private static <T> T proxy(T target, OperationMetricsAspect aspect) {
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.addAspect(aspect);
+    return factory.getProxy();
+  }
+
+  @Test
+  @DisplayName("should time the service method and the repository call it makes")
+  void shouldTimeServiceAndRepository() {
+    // given
+    when(ruleStore.aggregateStats()).thenReturn(new RuleStats(3, 2, 1));
+
+    // when
+    dashboardService.getStats();
+
+    // then
+    Timer service =
+        registry
+            .get(OperationMetricsAspect.SERVICE_TIMER)
+            .tags("service", "DashboardService", "operation", "getStats")
+            .tags("outcome", "success", "exception", "none")
+            .timer();
+    Timer repository =
+        registry
+            .get(OperationMetricsAspect.REPOSITORY_TIMER)
+            .tags("repository", "RuleStore", "operation", "aggregateStats")
+            .tags("outcome", "success")
+            .timer();
+    assertThat(service.count()).isEqualTo(1);
+    assertThat(repository.count()).isEqualTo(1);
+    assertThat(service.takeSnapshot().histogramCounts()).isNotEmpty();
+  }
+
+  @Test
+  @DisplayName("should tag failures with the error outcome and rethrow them")
+  void shouldRecordFailures() {
+    // given
+    when(ruleStore.aggregateStats()).thenThrow(new IllegalStateException("connection lost"));
+
+    // when/then
+    assertThatThrownBy(() -> dashboardService.getStats())
+        .isInstanceOf(StorageOperationException.class);
+    assertThat(
+            registry
+                .get(OperationMetricsAspect.REPOSITORY_TIMER)
+                .tags("outcome", "error", "exception", "IllegalStateException")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            registry
+                .get(OperationMetricsAspect.SERVICE_TIMER)
+                .tags("outcome", "error", "exception", "StorageOperationException")
+                .timer()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should tell client errors apart from failures")
+  void shouldClassifyClientErrors() {
+    assertThat(OperationMetricsAspect.outcome(new RuleNotFoundException("rule-1")))
+        .isEqualTo(OperationMetricsAspect.NOT_FOUND);
+    assertThat(OperationMetricsAspect.outcome(new RuleAlreadyExistsException("rule-1")))
+        .isEqualTo(OperationMetricsAspect.CONFLICT);
+    assertThat(OperationMetricsAspect.outcome(new RuleVersionConflictException("rule-1", 2, 3)))
+        .isEqualTo(OperationMetricsAspect.CONFLICT);
+    assertThat(OperationMetricsAspect.outcome(new InvalidRequestException("bad")))
+        .isEqualTo(OperationMetricsAspect.INVALID);
+    assertThat(OperationMetricsAspect.outcome(new RuntimeException("boom")))
+        .isEqualTo(OperationMetricsAspect.ERROR);
+  }
+}
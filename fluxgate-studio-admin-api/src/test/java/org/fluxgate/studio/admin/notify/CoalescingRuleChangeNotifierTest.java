@@ -0,0 +1,156 @@
+package org.fluxgate.studio.admin.notify;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingRuleChangeNotifierTest {
+
+  @Mock private RuleChangePublisher publisher;
+
+  private SimpleMeterRegistry registry;
+  private CoalescingRuleChangeNotifier notifier;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (notifier != null) {
+      notifier.close();
+    }
+  }
+
+  /** Window long enough that only explicit {@code flush()} calls publish. */
+  private void createNotifier(int fullReloadThreshold) {
+    notifier =
+        new CoalescingRuleChangeNotifier(
+            publisher,
+            new RuleNotifyProperties(Duration.ofMinutes(10), fullReloadThreshold),
+            registry);
+  }
+
+  private double messages(String type) {
+    return registry.counter("studio.rule.notify.messages", "type", type).count();
+  }
+
+  @Test
+  @DisplayName("should publish each changed rule set once per window")
+  void shouldMergeChangesPerRuleSet() {
+    // given
+    createNotifier(10);
+    for (int i = 0; i < 50; i++) {
+      notifier.ruleSetChanged(i % 2 == 0 ? "set-a" : "set-b");
+    }
+
+    // when
+    notifier.flush();
+
+    // then
+    verify(publisher).publishRuleSetChange("set-a");
+    verify(publisher).publishRuleSetChange("set-b");
+    verify(publisher, never()).publishFullReload();
+    assertThat(registry.counter("studio.rule.notify.events").count()).isEqualTo(50);
+    assertThat(messages("rule_set")).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("should upgrade to a full reload above the rule set threshold")
+  void shouldUpgradeToFullReloadAboveThreshold() {
+    // given
+    createNotifier(2);
+    notifier.ruleSetChanged("set-a");
+    notifier.ruleSetChanged("set-b");
+    notifier.ruleSetChanged("set-c");
+
+    // when
+    notifier.flush();
+
+    // then
+    verify(publisher).publishFullReload();
+    verify(publisher, never()).publishRuleSetChange(any());
+    assertThat(messages("full_reload")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should fold rule set changes into a requested full reload")
+  void shouldFoldIntoRequestedFullReload() {
+    // given
+    createNotifier(10);
+    notifier.ruleSetChanged("set-a");
+    notifier.fullReload();
+    notifier.ruleSetChanged(null);
+
+    // when
+    notifier.flush();
+    notifier.flush();
+
+    // then
+    verify(publisher, times(1)).publishFullReload();
+    verify(publisher, never()).publishRuleSetChange(any());
+  }
+
+  @Test
+  @DisplayName("should publish on the notifier thread once the window closes")
+  void shouldPublishAfterWindow() {
+    // given
+    notifier =
+        new CoalescingRuleChangeNotifier(
+            publisher, new RuleNotifyProperties(Duration.ofMillis(20), 10), registry);
+
+    // when
+    notifier.ruleSetChanged("set-a");
+    notifier.ruleSetChanged("set-a");
+
+    // then
+    verify(publisher, timeout(2000)).publishRuleSetChange("set-a");
+  }
+
+  @Test
+  @DisplayName("should keep publishing after a failed publish")
+  void shouldSurvivePublishFailure() {
+    // given
+    createNotifier(10);
+    doThrow(new IllegalStateException("redis down")).when(publisher).publishRuleSetChange("set-a");
+    notifier.ruleSetChanged("set-a");
+    notifier.flush();
+
+    // when
+    notifier.ruleSetChanged("set-b");
+    notifier.flush();
+
+    // then
+    verify(publisher).publishRuleSetChange("set-b");
+  }
+
+  @Test
+  @DisplayName("should publish pending changes on close")
+  void shouldFlushOnClose() {
+    // given
+    createNotifier(10);
+    notifier.ruleSetChanged("set-a");
+
+    // when
+    notifier.close();
+
+    // then
+    verify(publisher).publishRuleSetChange("set-a");
+  }
+}
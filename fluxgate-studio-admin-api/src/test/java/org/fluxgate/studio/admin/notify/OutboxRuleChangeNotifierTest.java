@@ -0,0 +1,69 @@
+package org.fluxgate.studio.admin.notify;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.fluxgate.studio.admin.repository.RuleOutboxStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRuleChangeNotifierTest {
+
+  @Mock private RuleOutboxStore outboxStore;
+
+  @Mock private RuleOutboxDispatcher dispatcher;
+
+  @Mock private RuleChangePublisher publisher;
+
+  private OutboxRuleChangeNotifier notifier;
+
+  @BeforeEach
+  void setUp() {
+    notifier =
+        new OutboxRuleChangeNotifier(
+            outboxStore,
+            dispatcher,
+            publisher,
+            new RuleNotifyProperties(Duration.ofMillis(200), 20),
+            new SimpleMeterRegistry());
+  }
+
+  @Test
+  @DisplayName("should record changes in the outbox and wake the dispatcher")
+  void shouldAppendAndSignal() {
+    // when
+    notifier.ruleSetChanged("set-a");
+    notifier.ruleSetChanged("");
+    notifier.fullReload();
+
+    // then
+    verify(outboxStore).append("set-a");
+    verify(outboxStore, times(2)).append(null);
+    verify(dispatcher, times(3)).signal();
+    verifyNoInteractions(publisher);
+  }
+
+  @Test
+  @DisplayName("should publish directly when the outbox cannot be written")
+  void shouldPublishDirectlyWhenOutboxFails() {
+    // given
+    doThrow(new IllegalStateException("mongo down")).when(outboxStore).append("set-a");
+
+    // when
+    notifier.ruleSetChanged("set-a");
+
+    // then
+    verify(publisher).publishRuleSetChange("set-a");
+    verify(dispatcher, never()).signal();
+  }
+}
@@ -0,0 +1,197 @@
+package org.fluxgate.studio.admin.notify;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.fluxgate.studio.admin.repository.RuleOutboxEntry;
+import org.fluxgate.studio.admin.repository.RuleOutboxStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RuleOutboxDispatcherTest {
+
+  @Mock private RuleOutboxStore outboxStore;
+
+  @Mock private RuleChangePublisher publisher;
+
+  private SimpleMeterRegistry registry;
+  private RuleOutboxDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    dispatcher = createDispatcher(2);
+  }
+
+  private RuleOutboxDispatcher createDispatcher(int batchSize) {
+    return new RuleOutboxDispatcher(
+        outboxStore,
+        publisher,
+        new RuleNotifyProperties(Duration.ofMillis(10), 10),
+        new RuleOutboxProperties(
+            true,
+            null,
+            batchSize,
+            Duration.ofMinutes(10),
+            Duration.ofMillis(10),
+            Duration.ofMillis(40),
+            Duration.ofMillis(200),
+            Duration.ofMinutes(1)),
+        registry);
+  }
+
+  private static RuleOutboxEntry entry(String id, String ruleSetId) {
+    return new RuleOutboxEntry(id, ruleSetId, Instant.now().minusSeconds(5));
+  }
+
+  @Test
+  @DisplayName("should publish merged batches and delete them afterwards")
+  void shouldPublishAndDeleteBatches() {
+    // given
+    when(outboxStore.claim(anyString(), eq(2), any()))
+        .thenReturn(List.of(entry("1", "set-a"), entry("2", "set-a")))
+        .thenReturn(List.of(entry("3", "set-b")));
+
+    // when
+    boolean drained = dispatcher.dispatchPending();
+
+    // then
+    assertThat(drained).isTrue();
+    verify(publisher).publishRuleSetChange("set-a");
+    verify(publisher).publishRuleSetChange("set-b");
+    verify(outboxStore).delete(List.of("1", "2"));
+    verify(outboxStore).delete(List.of("3"));
+    assertThat(registry.counter("studio.rule.notify.messages", "type", "rule_set").count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("should keep entries when publishing fails")
+  void shouldKeepEntriesWhenPublishFails() {
+    // given
+    when(outboxStore.claim(anyString(), eq(2), any())).thenReturn(List.of(entry("1", "set-a")));
+    doThrow(new IllegalStateException("redis down")).when(publisher).publishRuleSetChange("set-a");
+
+    // when
+    boolean drained = dispatcher.dispatchPending();
+
+    // then
+    assertThat(drained).isFalse();
+    verify(outboxStore, never()).delete(any());
+    assertThat(registry.counter("studio.rule.outbox.publish.failures").count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should report backlog and lag from the outbox when scraped")
+  void shouldReportBacklogAndLagFromOutbox() {
+    // given
+    when(outboxStore.count()).thenReturn(3L);
+    when(outboxStore.oldestCreatedAt()).thenReturn(Optional.of(Instant.now().minusSeconds(5)));
+
+    // when
+    double backlog = registry.get("studio.rule.outbox.backlog").gauge().value();
+    double lag = registry.get("studio.rule.outbox.lag").gauge().value();
+
+    // then
+    assertThat(backlog).isEqualTo(3);
+    assertThat(lag).isGreaterThan(4);
+  }
+
+  @Test
+  @DisplayName("should report no lag when the outbox is empty")
+  void shouldReportNoLagWhenEmpty() {
+    // given
+    when(outboxStore.oldestCreatedAt()).thenReturn(Optional.empty());
+
+    // when
+    double lag = registry.get("studio.rule.outbox.lag").gauge().value();
+
+    // then
+    assertThat(lag).isZero();
+  }
+
+  @Test
+  @DisplayName("should publish a full reload entry as a single full reload")
+  void shouldPublishFullReload() {
+    // given
+    when(outboxStore.claim(anyString(), eq(10), any()))
+        .thenReturn(List.of(entry("1", "set-a"), entry("2", null)));
+
+    // when
+    createDispatcher(10).dispatchPending();
+
+    // then
+    verify(publisher).publishFullReload();
+    verify(publisher, never()).publishRuleSetChange(any());
+  }
+
+  @Test
+  @DisplayName("should dispatch in the background and retry after a failure")
+  void shouldDispatchInBackgroundWithRetry() throws Exception {
+    // given
+    when(outboxStore.claim(anyString(), anyInt(), any()))
+        .thenThrow(new IllegalStateException("mongo down"))
+        .thenReturn(List.of(entry("1", "set-a")))
+        .thenReturn(List.of());
+
+    // when
+    dispatcher.start();
+
+    // then
+    verify(publisher, timeout(2000)).publishRuleSetChange("set-a");
+    verify(outboxStore, timeout(2000)).delete(List.of("1"));
+    dispatcher.stop();
+  }
+
+  @Test
+  @DisplayName("should drain once on the dispatcher thread when stopped while running")
+  void shouldDrainOnceOnDispatcherThread() throws Exception {
+    // given
+    when(outboxStore.claim(anyString(), anyInt(), any()))
+        .thenReturn(List.of())
+        .thenReturn(List.of(entry("1", "set-a")))
+        .thenReturn(List.of());
+    dispatcher.start();
+    verify(outboxStore, timeout(2000)).claim(anyString(), anyInt(), any());
+
+    // when
+    dispatcher.stop();
+
+    // then
+    verify(publisher, times(1)).publishRuleSetChange("set-a");
+    verify(outboxStore, times(1)).delete(List.of("1"));
+  }
+
+  @Test
+  @DisplayName("should drain pending entries on stop")
+  void shouldDrainOnStop() throws Exception {
+    // given
+    when(outboxStore.claim(anyString(), anyInt(), any())).thenReturn(List.of(entry("1", "set-a")));
+
+    // when
+    dispatcher.stop();
+
+    // then
+    verify(publisher).publishRuleSetChange("set-a");
+    verify(outboxStore).delete(List.of("1"));
+  }
+}
@@ -0,0 +1,69 @@
+package org.fluxgate.studio.admin.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.MongoClientSettings;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MongoConnectionTest {
+
+  private final MongoConnectionProperties properties =
+      new MongoConnectionProperties(
+          20,
+          2,
+          Duration.ofMillis(500),
+          Duration.ofMinutes(1),
+          Duration.ofSeconds(3),
+          Duration.ofSeconds(10),
+          Duration.ofSeconds(4));
+
+  @Test
+  @DisplayName("should size the pool and timeouts from the properties")
+  void shouldApplyProperties() {
+    // when
+    MongoClientSettings settings =
+        MongoConnection.settings("mongodb://localhost:27017/fluxgate", properties);
+
+    // then
+    assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(20);
+    assertThat(settings.getConnectionPoolSettings().getMinSize()).isEqualTo(2);
+    assertThat(settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS))
+        .isEqualTo(500);
+    assertThat(settings.getSocketSettings().getConnectTimeout(TimeUnit.SECONDS)).isEqualTo(3);
+    assertThat(settings.getSocketSettings().getReadTimeout(TimeUnit.SECONDS)).isEqualTo(10);
+    assertThat(settings.getClusterSettings().getServerSelectionTimeout(TimeUnit.SECONDS))
+        .isEqualTo(4);
+  }
+
+  @Test
+  @DisplayName("should let options in the connection string override the properties")
+  void shouldPreferConnectionStringOptions() {
+    // when
+    MongoClientSettings settings =
+        MongoConnection.settings(
+            "mongodb://localhost:27017/fluxgate?maxPoolSize=50&serverSelectionTimeoutMS=1000",
+            properties);
+
+    // then
+    assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(50);
+    assertThat(settings.getClusterSettings().getServerSelectionTimeout(TimeUnit.MILLISECONDS))
+        .isEqualTo(1000);
+    assertThat(settings.getConnectionPoolSettings().getMinSize()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("should default unset properties")
+  void shouldDefaultUnsetProperties() {
+    // when
+    MongoConnectionProperties defaults =
+        new MongoConnectionProperties(0, 0, null, null, null, null, null);
+
+    // then
+    assertThat(defaults.maxPoolSize()).isEqualTo(100);
+    assertThat(defaults.maxWaitTime()).isEqualTo(Duration.ofSeconds(2));
+    assertThat(defaults.serverSelectionTimeout()).isEqualTo(Duration.ofSeconds(5));
+  }
+}
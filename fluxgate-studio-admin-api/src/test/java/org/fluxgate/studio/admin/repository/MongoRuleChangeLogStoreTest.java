@@ -0,0 +1,289 @@
+package org.fluxgate.studio.admin.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+class MongoRuleChangeLogStoreTest {
+
+  @Container static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+  private static MongoClient client;
+
+  private MongoCollection<Document> collection;
+  private MongoRuleChangeLogStore store;
+
+  @BeforeAll
+  static void connect() {
+    client = MongoClients.create(mongo.getConnectionString());
+  }
+
+  @AfterAll
+  static void disconnect() {
+    client.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    collection = client.getDatabase("fluxgate").getCollection("rule_changes");
+    collection.drop();
+    store = new MongoRuleChangeLogStore(collection, Duration.ofSeconds(5));
+    store.ensureIndexes();
+  }
+
+  @Test
+  @DisplayName("should keep only the latest change per rule in sequence order")
+  void shouldCompactChangesPerRule() {
+    // given
+    store.recordRules(
+        List.of(
+            new RuleChangeRecord("rule-1", "set-a", null, false),
+            new RuleChangeRecord("rule-2", "set-a", null, false)));
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-b", "set-a", false)));
+    store.recordRules(List.of(RuleChangeRecord.deleted("rule-3", "set-b")));
+
+    // when
+    List<RuleChangeEntry> all = store.findSince(0, Long.MAX_VALUE, null, 10);
+    List<RuleChangeEntry> setA = store.findSince(2, Long.MAX_VALUE, "set-a", 10);
+
+    // then
+    assertThat(all)
+        .extracting(RuleChangeEntry::seq, RuleChangeEntry::id, RuleChangeEntry::deleted)
+        .containsExactly(
+            tuple(2L, "rule-2", false), tuple(3L, "rule-1", false), tuple(4L, "rule-3", true));
+    assertThat(all.get(1).ruleSetIds()).containsExactlyInAnyOrder("set-a", "set-b");
+    assertThat(setA).extracting(RuleChangeEntry::id).containsExactly("rule-1");
+    assertThat(store.position()).isEqualTo(new RuleChangeLogPosition(4, 4, 0));
+  }
+
+  @Test
+  @DisplayName("should keep the visible end below reservations that are still being written")
+  void shouldStopVisibleEndAtPendingReservation() {
+    // given
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-a", null, false)));
+    collection.updateOne(
+        Filters.eq("_id", "sequence"),
+        Updates.combine(
+            Updates.set("next", 3L),
+            Updates.pushEach(
+                "pending",
+                List.of(
+                    new Document("token", "live")
+                        .append("from", 3L)
+                        .append("reservedAt", new Date()),
+                    new Document("token", "abandoned")
+                        .append("from", 2L)
+                        .append("reservedAt", Date.from(Instant.now().minusSeconds(60)))))));
+
+    // when
+    RuleChangeLogPosition position = store.position();
+
+    // then
+    assertThat(position.lastSeq()).isEqualTo(3);
+    assertThat(position.visibleThrough()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("should record nothing until a prepared write completes")
+  void shouldRecordPreparedWriteOnCompletion() {
+    // given
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-a", null, false)));
+
+    // when
+    RuleChangeReservation reservation = store.prepareRules(List.of("rule-1", "rule-2"), false);
+
+    // then
+    assertThat(store.position()).isEqualTo(new RuleChangeLogPosition(1, 1, 0));
+    assertThat(store.findSince(1, Long.MAX_VALUE, null, 10)).isEmpty();
+
+    // when
+    store.completeRules(
+        reservation,
+        List.of(
+            new RuleChangeRecord("rule-1", "set-b", "set-a", false),
+            new RuleChangeRecord("rule-2", "set-a", null, false)));
+
+    // then
+    assertThat(store.position()).isEqualTo(new RuleChangeLogPosition(3, 3, 0));
+    assertThat(store.findSince(1, 3, "set-z", 10)).isEmpty();
+    List<RuleChangeEntry> setB = store.findSince(1, 3, "set-b", 10);
+    assertThat(setB).extracting(RuleChangeEntry::id).containsExactly("rule-1");
+    assertThat(setB.get(0).ruleSetIds()).containsExactlyInAnyOrder("set-a", "set-b");
+    assertThat(collection.countDocuments(Filters.exists("preparedAt"))).isZero();
+  }
+
+  @Test
+  @DisplayName("should leave the log unchanged when a prepared write is rejected")
+  void shouldLeaveLogUnchangedWhenRejected() {
+    // given
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-a", null, false)));
+    RuleChangeReservation reservation = store.prepareRules(List.of("rule-1"), false);
+
+    // when
+    store.completeRules(reservation, List.of());
+
+    // then
+    assertThat(store.position()).isEqualTo(new RuleChangeLogPosition(1, 1, 0));
+    assertThat(store.findSince(0, Long.MAX_VALUE, null, 10))
+        .extracting(RuleChangeEntry::seq, RuleChangeEntry::id)
+        .containsExactly(tuple(1L, "rule-1"));
+    assertThat(collection.countDocuments(Filters.exists("preparedAt"))).isZero();
+  }
+
+  @Test
+  @DisplayName("should match every rule set filter until a rule with unknown outcome is recorded")
+  void shouldKeepWildcardForUnknownOutcome() {
+    // given
+    RuleChangeReservation reservation = store.prepareRules(List.of("rule-1"), false);
+
+    // when
+    store.completeRules(reservation, null);
+
+    // then
+    assertThat(store.position()).isEqualTo(new RuleChangeLogPosition(1, 1, 0));
+    assertThat(store.findSince(0, 1, "set-z", 10))
+        .extracting(RuleChangeEntry::id, RuleChangeEntry::ruleSetIds)
+        .containsExactly(tuple("rule-1", List.of()));
+
+    // when
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-a", null, false)));
+
+    // then
+    assertThat(store.findSince(0, 2, "set-z", 10)).isEmpty();
+    assertThat(store.findSince(0, 2, "set-a", 10))
+        .extracting(RuleChangeEntry::seq, RuleChangeEntry::ruleSetIds)
+        .containsExactly(tuple(2L, List.of("set-a")));
+  }
+
+  @Test
+  @DisplayName("should record changes again when readers passed a timed out reservation")
+  void shouldRecordAgainAfterTimeout() {
+    // given
+    MongoRuleChangeLogStore impatient = new MongoRuleChangeLogStore(collection, Duration.ZERO);
+    RuleChangeReservation reservation = impatient.prepareRules(List.of("rule-1"), false);
+
+    // when
+    impatient.completeRules(
+        reservation, List.of(new RuleChangeRecord("rule-1", "set-a", null, false)));
+
+    // then
+    assertThat(impatient.findSince(1, Long.MAX_VALUE, "set-a", 10))
+        .extracting(RuleChangeEntry::seq, RuleChangeEntry::id)
+        .containsExactly(tuple(2L, "rule-1"));
+  }
+
+  @Test
+  @DisplayName("should record writes whose writer stopped before completing them")
+  void shouldRecordAbandonedWrites() throws InterruptedException {
+    // given
+    MongoRuleChangeLogStore impatient = new MongoRuleChangeLogStore(collection, Duration.ZERO);
+    impatient.prepareRules(List.of("rule-1"), true);
+    Thread.sleep(5);
+
+    // when
+    int recorded = impatient.recordAbandonedWrites();
+
+    // then
+    assertThat(recorded).isEqualTo(1);
+    assertThat(impatient.findSince(0, Long.MAX_VALUE, "set-z", 10))
+        .extracting(RuleChangeEntry::id, RuleChangeEntry::deleted)
+        .containsExactly(tuple("rule-1", true));
+    assertThat(impatient.recordAbandonedWrites()).isZero();
+  }
+
+  @Test
+  @DisplayName("should turn rules into tombstones when a prepared rule set deletion completes")
+  void shouldPrepareRuleSetDeletion() {
+    // given
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-a", null, false)));
+
+    // when
+    RuleChangeReservation reservation = store.prepareRuleSetDeleted("set-a");
+    long visibleWhilePending = store.position().visibleThrough();
+    store.completeRuleSetDeleted(reservation, "set-a");
+
+    // then
+    assertThat(visibleWhilePending).isEqualTo(1);
+    assertThat(store.position()).isEqualTo(new RuleChangeLogPosition(2, 2, 0));
+    assertThat(store.findSince(0, Long.MAX_VALUE, "set-a", 10))
+        .extracting(RuleChangeEntry::seq, RuleChangeEntry::kind, RuleChangeEntry::deleted)
+        .containsExactly(
+            tuple(1L, RuleChangeEntry.Kind.RULE, true),
+            tuple(2L, RuleChangeEntry.Kind.RULE_SET, true));
+  }
+
+  @Test
+  @DisplayName("should record a rule set deletion and turn its rules into tombstones")
+  void shouldRecordRuleSetDeletion() {
+    // given
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-a", null, false)));
+
+    // when
+    store.recordRuleSetDeleted("set-a");
+
+    // then
+    assertThat(store.findSince(0, Long.MAX_VALUE, "set-a", 10))
+        .extracting(RuleChangeEntry::seq, RuleChangeEntry::kind, RuleChangeEntry::deleted)
+        .containsExactly(
+            tuple(1L, RuleChangeEntry.Kind.RULE, true),
+            tuple(2L, RuleChangeEntry.Kind.RULE_SET, true));
+  }
+
+  @Test
+  @DisplayName("should keep rules that moved to another rule set alive when the old one is deleted")
+  void shouldKeepMovedRulesOnRuleSetDeletion() {
+    // given
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-a", null, false)));
+    store.recordRules(List.of(new RuleChangeRecord("rule-1", "set-b", "set-a", false)));
+
+    // when
+    store.recordRuleSetDeleted("set-a");
+
+    // then
+    assertThat(store.findSince(0, Long.MAX_VALUE, "set-b", 10))
+        .extracting(RuleChangeEntry::id, RuleChangeEntry::deleted)
+        .containsExactly(tuple("rule-1", false));
+  }
+
+  @Test
+  @DisplayName("should purge old tombstones and raise the watermark to the newest purged one")
+  void shouldPurgeTombstones() {
+    // given
+    store.recordRules(
+        List.of(
+            RuleChangeRecord.deleted("rule-1", "set-a"),
+            new RuleChangeRecord("rule-2", "set-a", null, false),
+            RuleChangeRecord.deleted("rule-3", "set-a")));
+
+    // when
+    long purged = store.purgeTombstones(Instant.now().plusSeconds(1));
+
+    // then
+    assertThat(purged).isEqualTo(2);
+    assertThat(store.position().purgedThrough()).isEqualTo(3);
+    assertThat(store.findSince(0, Long.MAX_VALUE, null, 10))
+        .extracting(RuleChangeEntry::id)
+        .containsExactly("rule-2");
+    assertThat(store.purgeTombstones(Instant.now().minusSeconds(60))).isZero();
+    assertThat(store.position().purgedThrough()).isEqualTo(3);
+  }
+}
@@ -0,0 +1,128 @@
+package org.fluxgate.studio.admin.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+class MongoRuleOutboxStoreTest {
+
+  @Container static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+  private static final Duration LEASE = Duration.ofMinutes(1);
+
+  private static MongoClient client;
+
+  private MongoRuleOutboxStore store;
+
+  @BeforeAll
+  static void connect() {
+    client = MongoClients.create(mongo.getConnectionString());
+  }
+
+  @AfterAll
+  static void disconnect() {
+    client.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    MongoCollection<Document> collection =
+        client.getDatabase("fluxgate").getCollection("rule_change_outbox");
+    collection.drop();
+    store = new MongoRuleOutboxStore(collection);
+  }
+
+  @Test
+  @DisplayName("should claim entries oldest first and delete published ones")
+  void shouldQueueEntriesInOrder() {
+    // given
+    store.append("set-a");
+    store.append(null);
+    store.append("set-b");
+
+    // when
+    List<RuleOutboxEntry> oldest = store.claim("owner-a", 2, LEASE);
+    store.delete(oldest.stream().map(RuleOutboxEntry::id).toList());
+
+    // then
+    assertThat(oldest)
+        .extracting(RuleOutboxEntry::ruleSetId)
+        .containsExactlyElementsOf(Arrays.asList("set-a", null));
+    assertThat(oldest).allSatisfy(entry -> assertThat(entry.createdAt()).isNotNull());
+    assertThat(store.count()).isEqualTo(1);
+    assertThat(store.claim("owner-a", 10, LEASE))
+        .extracting(RuleOutboxEntry::ruleSetId)
+        .containsExactly("set-b");
+  }
+
+  @Test
+  @DisplayName("should hand each entry to one owner until its lease expires")
+  void shouldClaimEntriesForOneOwner() {
+    // given
+    store.append("set-a");
+    store.append("set-b");
+    store.append("set-c");
+
+    // when
+    List<RuleOutboxEntry> claimedByA = store.claim("owner-a", 2, LEASE);
+    List<RuleOutboxEntry> claimedByB = store.claim("owner-b", 10, LEASE);
+    List<RuleOutboxEntry> reclaimedByA = store.claim("owner-a", 10, LEASE);
+
+    // then
+    assertThat(claimedByA)
+        .extracting(RuleOutboxEntry::ruleSetId)
+        .containsExactly("set-a", "set-b");
+    assertThat(claimedByB).extracting(RuleOutboxEntry::ruleSetId).containsExactly("set-c");
+    assertThat(reclaimedByA)
+        .extracting(RuleOutboxEntry::ruleSetId)
+        .containsExactly("set-a", "set-b");
+  }
+
+  @Test
+  @DisplayName("should let another owner claim entries whose lease expired")
+  void shouldClaimExpiredEntries() {
+    // given
+    store.append("set-a");
+    store.claim("owner-a", 10, Duration.ZERO);
+
+    // when
+    List<RuleOutboxEntry> claimed = store.claim("owner-b", 10, LEASE);
+
+    // then
+    assertThat(claimed).extracting(RuleOutboxEntry::ruleSetId).containsExactly("set-a");
+    assertThat(store.claim("owner-a", 10, LEASE)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should report when the oldest pending entry was recorded")
+  void shouldFindOldestCreatedAt() {
+    // given
+    assertThat(store.oldestCreatedAt()).isEmpty();
+    store.append("set-a");
+    Instant first = store.claim("owner-a", 1, LEASE).get(0).createdAt();
+    store.append("set-b");
+
+    // when
+    Optional<Instant> oldest = store.oldestCreatedAt();
+
+    // then
+    assertThat(oldest).contains(first);
+  }
+}
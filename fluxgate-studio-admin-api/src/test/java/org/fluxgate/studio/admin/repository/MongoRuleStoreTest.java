@@ -0,0 +1,828 @@
+package org.fluxgate.studio.admin.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.repository.RulePatch.BandOperation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+class MongoRuleStoreTest {
+
+  @Container static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+  private static MongoClient client;
+
+  private MongoCollection<Document> collection;
+  private MongoRuleStore store;
+
+  @BeforeAll
+  static void connect() {
+    client = MongoClients.create(mongo.getConnectionString());
+  }
+
+  @AfterAll
+  static void disconnect() {
+    client.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    collection = client.getDatabase("fluxgate").getCollection("rate_limit_rules");
+    collection.drop();
+    store = new MongoRuleStore(collection);
+    store.ensureIndexes();
+  }
+
+  private RateLimitRule createTestRule(String id, boolean enabled, String ruleSetId) {
+    RateLimitRule.Builder builder =
+        RateLimitRule.builder(id)
+            .name("Test Rule " + id)
+            .enabled(enabled)
+            .scope(LimitScope.PER_IP)
+            .keyStrategyId("ip")
+            .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+            .ruleSetId(ruleSetId);
+    builder.addBand(RateLimitBand.builder(Duration.ofSeconds(60), 100).build());
+    return builder.build();
+  }
+
+  private void insert(RateLimitRule... rules) {
+    for (RateLimitRule rule : rules) {
+      collection.insertOne(RuleDocumentMapper.toDocument(rule));
+    }
+  }
+
+  @Nested
+  @DisplayName("findPage")
+  class FindPageTests {
+
+    @Test
+    @DisplayName("should page through rules ordered by ID")
+    void shouldPageInIdOrder() {
+      // given
+      insert(
+          createTestRule("rule-c", true, "a"),
+          createTestRule("rule-a", true, "a"),
+          createTestRule("rule-b", true, "b"));
+
+      // when
+      List<RateLimitRule> first = store.findPage(null, null, 2);
+      List<RateLimitRule> second = store.findPage(null, "rule-b", 2);
+
+      // then
+      assertThat(first).extracting(RateLimitRule::getId).containsExactly("rule-a", "rule-b");
+      assertThat(second).extracting(RateLimitRule::getId).containsExactly("rule-c");
+    }
+
+    @Test
+    @DisplayName("should filter by rule set")
+    void shouldFilterByRuleSet() {
+      // given
+      insert(createTestRule("rule-a", true, "a"), createTestRule("rule-b", true, "b"));
+
+      // when
+      List<RateLimitRule> page = store.findPage("b", null, 10);
+
+      // then
+      assertThat(page).extracting(RateLimitRule::getId).containsExactly("rule-b");
+    }
+  }
+
+  @Nested
+  @DisplayName("forEach")
+  class ForEachTests {
+
+    @Test
+    @DisplayName("should stream every matching rule in ID order")
+    void shouldStreamRules() {
+      // given
+      insert(
+          createTestRule("rule-b", true, "a"),
+          createTestRule("rule-a", false, "a"),
+          createTestRule("rule-c", true, "b"));
+      List<String> ids = new ArrayList<>();
+
+      // when
+      store.forEach("a", rule -> ids.add(rule.getId()));
+
+      // then
+      assertThat(ids).containsExactly("rule-a", "rule-b");
+    }
+  }
+
+  @Nested
+  @DisplayName("findByIds")
+  class FindByIdsTests {
+
+    @Test
+    @DisplayName("should return the existing rules and skip missing IDs")
+    void shouldFindExistingRules() {
+      // given
+      insert(createTestRule("rule-a", true, "a"), createTestRule("rule-b", true, "b"));
+
+      // when
+      List<RateLimitRule> rules = store.findByIds(List.of("rule-b", "rule-x", "rule-a"));
+
+      // then
+      assertThat(rules)
+          .extracting(RateLimitRule::getId)
+          .containsExactlyInAnyOrder("rule-a", "rule-b");
+    }
+  }
+
+  @Nested
+  @DisplayName("search")
+  class SearchTests {
+
+    private RateLimitRule createSearchRule(
+        String id, String name, boolean enabled, LimitScope scope, String... tags) {
+      return RateLimitRule.builder(id)
+          .name(name)
+          .enabled(enabled)
+          .scope(scope)
+          .keyStrategyId(scope == LimitScope.PER_API_KEY ? "api-key" : "ip")
+          .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+          .ruleSetId("set-a")
+          .attributes(Map.of("tags", List.of(tags)))
+          .addBand(RateLimitBand.builder(Duration.ofSeconds(60), 100).build())
+          .build();
+    }
+
+    @BeforeEach
+    void insertRules() {
+      insert(
+          createSearchRule("rule-1", "Checkout API", false, LimitScope.PER_API_KEY, "payments"),
+          createSearchRule("rule-2", "Checkout web", true, LimitScope.PER_API_KEY, "payments"),
+          createSearchRule("rule-3", "Card (EU)", false, LimitScope.PER_API_KEY, "payments", "eu"),
+          createSearchRule("rule-4", "Login", false, LimitScope.PER_IP, "auth"),
+          createSearchRule("rule-5", "Search", false, LimitScope.PER_API_KEY));
+    }
+
+    @Test
+    @DisplayName("should combine scope, enabled and tag filters")
+    void shouldCombineFilters() {
+      // given
+      RuleQuery query =
+          new RuleQuery(null, "PER_API_KEY", false, null, null, List.of("payments"), null);
+
+      // when
+      List<RateLimitRule> rules = store.search(query, null, 10);
+
+      // then
+      assertThat(rules).extracting(RateLimitRule::getId).containsExactly("rule-1", "rule-3");
+    }
+
+    @Test
+    @DisplayName("should require every tag and page after the given ID")
+    void shouldRequireAllTagsAndPage() {
+      // given
+      RuleQuery payments = new RuleQuery(null, null, null, null, null, List.of("payments"), null);
+      RuleQuery paymentsEu =
+          new RuleQuery(null, null, null, null, null, List.of("payments", "eu"), null);
+
+      // when
+      List<RateLimitRule> second = store.search(payments, "rule-1", 1);
+      List<RateLimitRule> both = store.search(paymentsEu, null, 10);
+
+      // then
+      assertThat(second).extracting(RateLimitRule::getId).containsExactly("rule-2");
+      assertThat(both).extracting(RateLimitRule::getId).containsExactly("rule-3");
+    }
+
+    @Test
+    @DisplayName("should read only the selected fields of matching rules")
+    void shouldReadSelectedFields() {
+      // given
+      RuleQuery payments = new RuleQuery(null, null, null, null, null, List.of("payments"), null);
+
+      // when
+      List<PartialRule> rules =
+          store.findPartial(
+              payments, "rule-1", 0, EnumSet.of(RuleField.NAME, RuleField.ENABLED, RuleField.TAGS));
+
+      // then
+      assertThat(rules)
+          .extracting(PartialRule::id, PartialRule::name, PartialRule::enabled)
+          .containsExactly(
+              tuple("rule-2", "Checkout web", true), tuple("rule-3", "Card (EU)", false));
+      PartialRule rule = rules.get(1);
+      assertThat(rule.attributes()).containsOnly(entry("tags", List.of("payments", "eu")));
+      assertThat(rule.scope()).isNull();
+      assertThat(rule.ruleSetId()).isNull();
+      assertThat(rule.bands()).isNull();
+    }
+
+    @Test
+    @DisplayName("should read tags and attributes together and apply the limit")
+    void shouldReadTagsWithAttributes() {
+      // when
+      List<PartialRule> rules =
+          store.findPartial(
+              new RuleQuery(null, null, null, null, null, null, null),
+              null,
+              1,
+              EnumSet.of(RuleField.TAGS, RuleField.ATTRIBUTES, RuleField.BANDS));
+
+      // then
+      assertThat(rules)
+          .singleElement()
+          .satisfies(
+              rule -> {
+                assertThat(rule.id()).isEqualTo("rule-1");
+                assertThat(rule.attributes()).containsEntry("tags", List.of("payments"));
+                assertThat(rule.bands()).hasSize(1);
+                assertThat(rule.enabled()).isNull();
+              });
+    }
+
+    @Test
+    @DisplayName("should match the name prefix literally")
+    void shouldMatchNamePrefixLiterally() {
+      // when
+      List<RateLimitRule> checkout =
+          store.search(new RuleQuery(null, null, null, null, null, null, "Checkout"), null, 10);
+      List<RateLimitRule> card =
+          store.search(new RuleQuery(null, null, null, null, null, null, "Card (E"), null, 10);
+      List<RateLimitRule> regex =
+          store.search(new RuleQuery(null, null, null, null, null, null, ".*"), null, 10);
+
+      // then
+      assertThat(checkout).extracting(RateLimitRule::getId).containsExactly("rule-1", "rule-2");
+      assertThat(card).extracting(RateLimitRule::getId).containsExactly("rule-3");
+      assertThat(regex).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should count matching rules per field value")
+    void shouldCountFacets() {
+      // given
+      RuleQuery disabled = new RuleQuery(null, null, false, null, null, null, null);
+
+      // when
+      RuleFacets facets = store.countFacets(disabled, 1);
+
+      // then
+      assertThat(facets.total()).isEqualTo(4);
+      assertThat(facets.enabled()).isZero();
+      assertThat(facets.scopes()).containsExactly(entry("PER_API_KEY", 3L), entry("PER_IP", 1L));
+      assertThat(facets.keyStrategies()).containsEntry("api-key", 3L);
+      assertThat(facets.onLimitExceedPolicies()).containsEntry("REJECT_REQUEST", 4L);
+      assertThat(facets.tags()).containsExactly(entry("payments", 2L));
+    }
+
+    @Test
+    @DisplayName("should answer a scope and enabled search from the compound index")
+    void shouldUseCompoundIndex() {
+      // given
+      Bson filter =
+          MongoRuleStore.queryFilter(
+              new RuleQuery(null, "PER_API_KEY", false, null, null, null, null));
+
+      // when
+      Document plan = collection.find(filter).sort(new Document("id", 1)).explain();
+
+      // then
+      assertThat(plan.toJson())
+          .contains("scope_1_enabled_1_id_1")
+          .doesNotContain("\"SORT\"");
+    }
+  }
+
+  @Nested
+  @DisplayName("aggregateStats")
+  class AggregateStatsTests {
+
+    @Test
+    @DisplayName("should count rules, enabled rules and distinct rule sets")
+    void shouldAggregateStats() {
+      // given
+      insert(
+          createTestRule("rule-1", true, "ruleset-a"),
+          createTestRule("rule-2", true, "ruleset-a"),
+          createTestRule("rule-3", false, "ruleset-b"),
+          createTestRule("rule-4", true, "ruleset-c"),
+          createTestRule("rule-5", false, null),
+          createTestRule("rule-6", true, ""));
+
+      // when
+      RuleStats stats = store.aggregateStats();
+
+      // then
+      assertThat(stats.totalRules()).isEqualTo(6);
+      assertThat(stats.enabledRules()).isEqualTo(4);
+      assertThat(stats.ruleSets()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should return zero counts for an empty collection")
+    void shouldHandleEmptyCollection() {
+      // when
+      RuleStats stats = store.aggregateStats();
+
+      // then
+      assertThat(stats).isEqualTo(new RuleStats(0, 0, 0));
+    }
+  }
+
+  @Nested
+  @DisplayName("toggleEnabled")
+  class ToggleEnabledTests {
+
+    @Test
+    @DisplayName("should flip only the enabled flag and return the new state")
+    void shouldFlipEnabled() {
+      // given
+      insert(createTestRule("rule-1", true, "a"));
+
+      // when
+      Optional<StoredRule> first = store.toggleEnabled("rule-1", null);
+      Optional<StoredRule> second = store.toggleEnabled("rule-1", null);
+
+      // then
+      assertThat(first).map(stored -> stored.rule().isEnabled()).contains(false);
+      assertThat(second).map(stored -> stored.rule().isEnabled()).contains(true);
+      assertThat(second.get().rule().getBands()).hasSize(1);
+      assertThat(second.get().rule().getRuleSetIdOrNull()).isEqualTo("a");
+      assertThat(second.get().version()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should toggle only at the expected version")
+    void shouldCompareVersion() {
+      // given
+      store.insert(createTestRule("rule-1", true, "a"));
+
+      // when
+      Optional<StoredRule> stale = store.toggleEnabled("rule-1", 2L);
+      Optional<StoredRule> current = store.toggleEnabled("rule-1", 1L);
+
+      // then
+      assertThat(stale).isEmpty();
+      assertThat(current).map(StoredRule::version).contains(2L);
+    }
+
+    @Test
+    @DisplayName("should return empty for unknown rule")
+    void shouldReturnEmptyForUnknownRule() {
+      assertThat(store.toggleEnabled("missing", null)).isEmpty();
+    }
+  }
+
+  @Nested
+  @DisplayName("ensureIndexes")
+  class EnsureIndexesTests {
+
+    @Test
+    @DisplayName("should accept an existing unique ID index with another name")
+    void shouldAcceptExistingUniqueIndex() {
+      // given
+      collection.drop();
+      collection.createIndex(
+          new Document(RuleDocumentMapper.ID, 1),
+          new IndexOptions().unique(true).name("fluxgate_rule_id"));
+
+      // when
+      store.ensureIndexes();
+
+      // then
+      assertThat(store.insert(createTestRule("rule-1", true, "a"))).isTrue();
+      assertThat(store.insert(createTestRule("rule-1", true, "a"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("should fail when rule IDs cannot be indexed as unique")
+    void shouldFailWithoutUniqueIndex() {
+      // given
+      collection.drop();
+      insert(createTestRule("rule-1", true, "a"), createTestRule("rule-1", false, "b"));
+
+      // when/then
+      assertThatThrownBy(() -> store.ensureIndexes())
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("unique index");
+    }
+  }
+
+  @Nested
+  @DisplayName("insert")
+  class InsertTests {
+
+    @Test
+    @DisplayName("should insert a new rule")
+    void shouldInsertNewRule() {
+      // when
+      boolean inserted = store.insert(createTestRule("rule-1", true, "a"));
+
+      // then
+      assertThat(inserted).isTrue();
+      assertThat(store.findById("rule-1")).map(StoredRule::version).contains(1L);
+    }
+
+    @Test
+    @DisplayName("should report duplicate ID without overwriting")
+    void shouldRejectDuplicate() {
+      // given
+      store.insert(createTestRule("rule-1", true, "a"));
+
+      // when
+      boolean inserted = store.insert(createTestRule("rule-1", false, "b"));
+
+      // then
+      assertThat(inserted).isFalse();
+      assertThat(store.findPage(null, null, 10).get(0).getRuleSetIdOrNull()).isEqualTo("a");
+    }
+  }
+
+  @Nested
+  @DisplayName("replace")
+  class ReplaceTests {
+
+    @Test
+    @DisplayName("should replace an existing rule")
+    void shouldReplaceExistingRule() {
+      // given
+      insert(createTestRule("rule-1", true, "a"));
+
+      // when
+      Optional<UpdatedRule> replaced = store.replace(createTestRule("rule-1", false, "b"), null);
+
+      // then
+      assertThat(replaced).map(updated -> updated.stored().version()).contains(1L);
+      assertThat(replaced).map(UpdatedRule::previousRuleSetId).contains("a");
+      StoredRule stored = store.findById("rule-1").orElseThrow();
+      assertThat(stored.rule().isEnabled()).isFalse();
+      assertThat(stored.rule().getRuleSetIdOrNull()).isEqualTo("b");
+      assertThat(stored.version()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should replace only at the expected version")
+    void shouldCompareVersion() {
+      // given
+      store.insert(createTestRule("rule-1", true, "a"));
+      store.replace(createTestRule("rule-1", true, "b"), 1L);
+
+      // when
+      Optional<UpdatedRule> stale = store.replace(createTestRule("rule-1", false, "c"), 1L);
+
+      // then
+      assertThat(stale).isEmpty();
+      StoredRule stored = store.findById("rule-1").orElseThrow();
+      assertThat(stored.rule().getRuleSetIdOrNull()).isEqualTo("b");
+      assertThat(stored.version()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should treat a rule without a version as version 0")
+    void shouldMatchUnversionedRuleAtZero() {
+      // given
+      insert(createTestRule("rule-1", true, "a"));
+
+      // when
+      Optional<UpdatedRule> replaced = store.replace(createTestRule("rule-1", true, "b"), 0L);
+
+      // then
+      assertThat(replaced).map(updated -> updated.stored().version()).contains(1L);
+    }
+
+    @Test
+    @DisplayName("should not create a missing rule")
+    void shouldNotCreateMissingRule() {
+      // when
+      Optional<UpdatedRule> replaced = store.replace(createTestRule("rule-1", true, "a"), null);
+
+      // then
+      assertThat(replaced).isEmpty();
+      assertThat(store.findPage(null, null, 10)).isEmpty();
+    }
+  }
+
+  @Nested
+  @DisplayName("patch")
+  class PatchTests {
+
+    private RateLimitRule createBandedRule(String id) {
+      RateLimitRule.Builder builder =
+          RateLimitRule.builder(id)
+              .name("Banded " + id)
+              .enabled(true)
+              .scope(LimitScope.PER_IP)
+              .keyStrategyId("ip")
+              .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+              .ruleSetId("a")
+              .attributes(Map.of("team", "core", "tags", List.of("edge")));
+      builder.addBand(RateLimitBand.builder(Duration.ofSeconds(1), 10).label("burst").build());
+      builder.addBand(
+          RateLimitBand.builder(Duration.ofSeconds(60), 100).label("per-minute").build());
+      return builder.build();
+    }
+
+    private RulePatch bandPatch(BandOperation... operations) {
+      return new RulePatch(Map.of(), Map.of(), null, List.of(operations));
+    }
+
+    @Test
+    @DisplayName("should set and clear only the patched fields")
+    void shouldPatchFields() {
+      // given
+      store.insert(createBandedRule("rule-1"));
+      Map<String, Object> fields = new HashMap<>();
+      fields.put(RuleDocumentMapper.NAME, "Renamed");
+      fields.put(RuleDocumentMapper.RULE_SET_ID, null);
+      Map<String, Object> attributes = new HashMap<>();
+      attributes.put("owner", "payments");
+      attributes.put("team", null);
+
+      // when
+      Optional<UpdatedRule> patched =
+          store.patch("rule-1", new RulePatch(fields, attributes, null, List.of()), 1L);
+
+      // then
+      assertThat(patched).map(updated -> updated.stored().version()).contains(2L);
+      assertThat(patched).map(UpdatedRule::previousRuleSetId).contains("a");
+      RateLimitRule rule = store.findById("rule-1").orElseThrow().rule();
+      assertThat(rule.getName()).isEqualTo("Renamed");
+      assertThat(rule.getRuleSetIdOrNull()).isNull();
+      assertThat(rule.getAttributes())
+          .containsEntry("owner", "payments")
+          .containsEntry("tags", List.of("edge"))
+          .doesNotContainKey("team");
+      assertThat(rule.getBands()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should add, remove and update single bands by label")
+    void shouldApplyBandOperations() {
+      // given
+      store.insert(createBandedRule("rule-1"));
+
+      // when
+      Optional<UpdatedRule> patched =
+          store.patch(
+              "rule-1",
+              bandPatch(
+                  new BandOperation(BandOperation.Type.REMOVE, "burst", null, null),
+                  new BandOperation(BandOperation.Type.UPDATE, "per-minute", null, 200L),
+                  new BandOperation(BandOperation.Type.ADD, "per-hour", 3600L, 5000L)),
+              null);
+
+      // then
+      assertThat(patched).isPresent();
+      assertThat(patched.get().previousRuleSetId()).isEqualTo("a");
+      assertThat(patched.get().stored().rule().getBands())
+          .extracting(
+              RateLimitBand::getLabel,
+              band -> band.getWindow().toSeconds(),
+              RateLimitBand::getCapacity)
+          .containsExactly(tuple("per-minute", 60L, 200L), tuple("per-hour", 3600L, 5000L));
+      assertThat(patched.get().stored().rule().getAttributes()).containsEntry("team", "core");
+    }
+
+    @Test
+    @DisplayName("should not write a patch that changes nothing")
+    void shouldSkipNoOp() {
+      // given
+      store.insert(createBandedRule("rule-1"));
+
+      // when
+      Optional<UpdatedRule> patched =
+          store.patch(
+              "rule-1",
+              new RulePatch(
+                  Map.of(RuleDocumentMapper.ENABLED, true),
+                  Map.of("team", "core"),
+                  null,
+                  List.of(new BandOperation(BandOperation.Type.UPDATE, "burst", 1L, 10L))),
+              null);
+
+      // then
+      assertThat(patched).isEmpty();
+      assertThat(store.findById("rule-1").orElseThrow().version()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not update a band that does not exist or remove the last band")
+    void shouldRejectInvalidBandChanges() {
+      // given
+      store.insert(createBandedRule("rule-1"));
+
+      // when
+      Optional<UpdatedRule> unknownLabel =
+          store.patch(
+              "rule-1",
+              bandPatch(
+                  new BandOperation(BandOperation.Type.REMOVE, "burst", null, null),
+                  new BandOperation(BandOperation.Type.UPDATE, "burst", null, 5L)),
+              null);
+      Optional<UpdatedRule> noBands =
+          store.patch(
+              "rule-1",
+              bandPatch(
+                  new BandOperation(BandOperation.Type.REMOVE, "burst", null, null),
+                  new BandOperation(BandOperation.Type.REMOVE, "per-minute", null, null)),
+              null);
+
+      // then
+      assertThat(unknownLabel).isEmpty();
+      assertThat(noBands).isEmpty();
+      StoredRule stored = store.findById("rule-1").orElseThrow();
+      assertThat(stored.version()).isEqualTo(1);
+      assertThat(stored.rule().getBands()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should not move a rule when the rest of the patch does not match")
+    void shouldNotMoveWithoutMatch() {
+      // given
+      store.insert(createBandedRule("rule-1"));
+
+      // when
+      Optional<UpdatedRule> stale =
+          store.patch(
+              "rule-1",
+              new RulePatch(Map.of(RuleDocumentMapper.RULE_SET_ID, "b"), Map.of(), null, List.of()),
+              2L);
+      Optional<UpdatedRule> missing =
+          store.patch(
+              "rule-2",
+              new RulePatch(Map.of(RuleDocumentMapper.RULE_SET_ID, "b"), Map.of(), null, List.of()),
+              null);
+
+      // then
+      assertThat(stale).isEmpty();
+      assertThat(missing).isEmpty();
+      assertThat(store.findById("rule-1").orElseThrow().rule().getRuleSetIdOrNull())
+          .isEqualTo("a");
+    }
+
+    @Test
+    @DisplayName("should patch only at the expected version")
+    void shouldCompareVersion() {
+      // given
+      store.insert(createBandedRule("rule-1"));
+
+      // when
+      Optional<UpdatedRule> stale =
+          store.patch(
+              "rule-1",
+              new RulePatch(Map.of(RuleDocumentMapper.ENABLED, false), Map.of(), null, List.of()),
+              2L);
+
+      // then
+      assertThat(stale).isEmpty();
+      assertThat(store.findById("rule-1").orElseThrow().rule().isEnabled()).isTrue();
+    }
+  }
+
+  @Nested
+  @DisplayName("setEnabled")
+  class SetEnabledTests {
+
+    @Test
+    @DisplayName("should find matching rules that are not yet in the requested state")
+    void shouldFindEnabledChangesByFilter() {
+      // given
+      store.insert(createTestRule("rule-1", true, "checkout"));
+      store.insert(createTestRule("rule-2", false, "checkout"));
+      store.insert(createTestRule("rule-3", true, "search"));
+
+      // when
+      EnabledChanges found =
+          store.findEnabledChanges(
+              new RuleQuery("checkout", null, null, null, null, null, null), List.of(), false);
+
+      // then
+      assertThat(found.matchedCount()).isEqualTo(2);
+      assertThat(found.changes())
+          .containsExactly(new RuleChangeRecord("rule-1", "checkout", null, false));
+    }
+
+    @Test
+    @DisplayName("should restrict the search to the given IDs")
+    void shouldRestrictToIds() {
+      // given
+      store.insert(createTestRule("rule-1", false, "checkout"));
+      store.insert(createTestRule("rule-2", false, "checkout"));
+
+      // when
+      EnabledChanges found =
+          store.findEnabledChanges(
+              new RuleQuery(null, null, null, null, null, null, null), List.of("rule-2"), true);
+
+      // then
+      assertThat(found.matchedCount()).isEqualTo(1);
+      assertThat(found.changes()).extracting(RuleChangeRecord::ruleId).containsExactly("rule-2");
+    }
+
+    @Test
+    @DisplayName("should write only rules that are not yet in the requested state")
+    void shouldSetEnabled() {
+      // given
+      store.insert(createTestRule("rule-1", true, "checkout"));
+      store.insert(createTestRule("rule-2", false, "checkout"));
+
+      // when
+      long modified = store.setEnabled(List.of("rule-1", "rule-2"), false);
+
+      // then
+      assertThat(modified).isEqualTo(1);
+      StoredRule changed = store.findById("rule-1").orElseThrow();
+      assertThat(changed.rule().isEnabled()).isFalse();
+      assertThat(changed.version()).isEqualTo(2);
+      assertThat(store.findById("rule-2").orElseThrow().version()).isEqualTo(1);
+    }
+  }
+
+  @Nested
+  @DisplayName("findAndDelete")
+  class FindAndDeleteTests {
+
+    @Test
+    @DisplayName("should delete the rule and return its last state")
+    void shouldDeleteAndReturnRule() {
+      // given
+      store.insert(createTestRule("rule-1", true, "a"));
+      store.insert(createTestRule("rule-2", true, "b"));
+
+      // when
+      Optional<StoredRule> deleted = store.findAndDelete("rule-1");
+
+      // then
+      assertThat(deleted.orElseThrow().rule().getRuleSetIdOrNull()).isEqualTo("a");
+      assertThat(deleted.orElseThrow().version()).isEqualTo(StoredRule.INITIAL_VERSION);
+      assertThat(store.findPage(null, null, 10))
+          .extracting(RateLimitRule::getId)
+          .containsExactly("rule-2");
+    }
+
+    @Test
+    @DisplayName("should return empty for unknown rule")
+    void shouldReturnEmptyForUnknownRule() {
+      assertThat(store.findAndDelete("missing")).isEmpty();
+    }
+  }
+
+  @Nested
+  @DisplayName("bulkWrite")
+  class BulkWriteTests {
+
+    @Test
+    @DisplayName("should apply inserts and replaces and report each item")
+    void shouldReportEachItem() {
+      // given
+      insert(createTestRule("existing", true, "a"), createTestRule("taken", true, "a"));
+
+      // when
+      List<RuleWriteResult> results =
+          store.bulkWrite(
+              List.of(
+                  RuleWrite.insert(createTestRule("new", true, "a")),
+                  RuleWrite.insert(createTestRule("taken", false, "b")),
+                  RuleWrite.replace(createTestRule("existing", false, "b")),
+                  RuleWrite.replace(createTestRule("missing", true, "a"))));
+
+      // then
+      assertThat(results)
+          .extracting(RuleWriteResult::status)
+          .containsExactly(
+              RuleWriteResult.Status.APPLIED,
+              RuleWriteResult.Status.DUPLICATE,
+              RuleWriteResult.Status.APPLIED,
+              RuleWriteResult.Status.NOT_FOUND);
+      assertThat(results.get(2).previousRuleSetId()).isEqualTo("a");
+      assertThat(store.findPage(null, null, 10))
+          .extracting(RateLimitRule::getId, RateLimitRule::getRuleSetIdOrNull)
+          .containsExactly(tuple("existing", "b"), tuple("new", "a"), tuple("taken", "a"));
+      assertThat(store.findById("existing")).map(StoredRule::version).contains(1L);
+      assertThat(store.findById("new")).map(StoredRule::version).contains(1L);
+    }
+  }
+}
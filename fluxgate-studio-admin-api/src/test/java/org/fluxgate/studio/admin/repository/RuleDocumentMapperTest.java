@@ -0,0 +1,83 @@
+package org.fluxgate.studio.admin.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RuleDocumentMapperTest {
+
+  private RateLimitRule createTestRule() {
+    RateLimitRule.Builder builder =
+        RateLimitRule.builder("test-rule")
+            .name("Test Rule")
+            .enabled(false)
+            .scope(LimitScope.PER_API_KEY)
+            .keyStrategyId("apiKey")
+            .onLimitExceedPolicy(OnLimitExceedPolicy.WAIT_FOR_REFILL)
+            .ruleSetId("test-ruleset")
+            .attributes(Map.of("tags", List.of("payments"), "owner", "team-a"));
+    builder.addBand(RateLimitBand.builder(Duration.ofSeconds(1), 10).label("burst").build());
+    builder.addBand(RateLimitBand.builder(Duration.ofSeconds(60), 100).label("minute").build());
+    return builder.build();
+  }
+
+  @Test
+  @DisplayName("should write rule fields using the adapter document layout")
+  void shouldWriteDocument() {
+    // when
+    Document document = RuleDocumentMapper.toDocument(createTestRule());
+
+    // then
+    assertThat(document.getString("id")).isEqualTo("test-rule");
+    assertThat(document.getBoolean("enabled")).isFalse();
+    assertThat(document.getString("scope")).isEqualTo("PER_API_KEY");
+    assertThat(document.getString("onLimitExceedPolicy")).isEqualTo("WAIT_FOR_REFILL");
+    assertThat(document.getList("bands", Document.class))
+        .extracting(band -> band.getLong("windowSeconds"))
+        .containsExactly(1L, 60L);
+    assertThat(document.get("attributes", Document.class).getString("owner")).isEqualTo("team-a");
+  }
+
+  @Test
+  @DisplayName("should read back an equivalent rule")
+  void shouldRoundTrip() {
+    // when
+    RateLimitRule rule = RuleDocumentMapper.toRule(RuleDocumentMapper.toDocument(createTestRule()));
+
+    // then
+    assertThat(rule.getId()).isEqualTo("test-rule");
+    assertThat(rule.getName()).isEqualTo("Test Rule");
+    assertThat(rule.isEnabled()).isFalse();
+    assertThat(rule.getScope()).isEqualTo(LimitScope.PER_API_KEY);
+    assertThat(rule.getOnLimitExceedPolicy()).isEqualTo(OnLimitExceedPolicy.WAIT_FOR_REFILL);
+    assertThat(rule.getRuleSetIdOrNull()).isEqualTo("test-ruleset");
+    assertThat(rule.getBands()).hasSize(2);
+    assertThat(rule.getBands().get(1).getCapacity()).isEqualTo(100);
+    assertThat(rule.getBands().get(1).getLabel()).isEqualTo("minute");
+    assertThat(rule.getAttributes()).containsEntry("tags", List.of("payments"));
+  }
+
+  @Test
+  @DisplayName("should accept integer band values written by other clients")
+  void shouldAcceptIntegerBandValues() {
+    // given
+    Document document = RuleDocumentMapper.toDocument(createTestRule());
+    document.put("bands", List.of(new Document("windowSeconds", 30).append("capacity", 5)));
+
+    // when
+    RateLimitRule rule = RuleDocumentMapper.toRule(document);
+
+    // then
+    assertThat(rule.getBands().get(0).getWindow()).isEqualTo(Duration.ofSeconds(30));
+    assertThat(rule.getBands().get(0).getCapacity()).isEqualTo(5);
+  }
+}
@@ -0,0 +1,174 @@
+package org.fluxgate.studio.admin.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class RuleSuggestIndexTest {
+
+  private RuleSuggestIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new RuleSuggestIndex();
+    index.put("checkout-api", "Checkout API", "shop", List.of("payments", "eu"));
+    index.put("checkout-web", "Checkout Web", "shop", List.of("web"));
+    index.put("login-limit", "Login attempts", "auth", List.of("security"));
+    index.put("payments-partner", "Partner payouts", "partners", List.of("payments"));
+  }
+
+  private List<String> suggestIds(String query) {
+    return index.suggest(query, 10).stream().map(RuleSuggestion::id).toList();
+  }
+
+  @Nested
+  @DisplayName("suggest")
+  class Suggest {
+
+    @Test
+    @DisplayName("should match the start of ID, name and tag words")
+    void shouldMatchPrefixes() {
+      // when/then
+      assertThat(suggestIds("chec")).containsExactlyInAnyOrder("checkout-api", "checkout-web");
+      assertThat(suggestIds("attem")).containsExactly("login-limit");
+      assertThat(suggestIds("secur")).containsExactly("login-limit");
+      assertThat(suggestIds("checkout-w")).first().isEqualTo("checkout-web");
+    }
+
+    @Test
+    @DisplayName("should rank ID matches above tag matches")
+    void shouldRankIdMatchesFirst() {
+      // when
+      List<String> ids = suggestIds("payments");
+
+      // then
+      assertThat(ids).containsExactly("payments-partner", "checkout-api");
+    }
+
+    @Test
+    @DisplayName("should require every query word to match")
+    void shouldIntersectQueryWords() {
+      // when/then
+      assertThat(suggestIds("checkout pay")).containsExactly("checkout-api");
+      assertThat(suggestIds("CHECKOUT  Web")).containsExactly("checkout-web");
+      assertThat(suggestIds("checkout security")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should tolerate a typo when nothing matches the prefix")
+    void shouldMatchTypos() {
+      // when/then
+      assertThat(suggestIds("chekout")).containsExactlyInAnyOrder("checkout-api", "checkout-web");
+      assertThat(suggestIds("logn")).containsExactly("login-limit");
+      assertThat(suggestIds("chekout secrity")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should rank exact and prefix matches above typos")
+    void shouldRankPrefixAboveTypos() {
+      // given
+      index.put("chekov", "Chekov", null, null);
+
+      // when
+      List<String> ids = suggestIds("chekov");
+
+      // then
+      assertThat(ids).first().isEqualTo("chekov");
+    }
+
+    @Test
+    @DisplayName("should return the rule set and tags with each suggestion")
+    void shouldReturnRuleDetails() {
+      // when
+      RuleSuggestion suggestion = index.suggest("login", 1).get(0);
+
+      // then
+      assertThat(suggestion.name()).isEqualTo("Login attempts");
+      assertThat(suggestion.ruleSetId()).isEqualTo("auth");
+      assertThat(suggestion.tags()).containsExactly("security");
+      assertThat(suggestion.score()).isPositive();
+    }
+
+    @Test
+    @DisplayName("should honor the limit and ignore blank queries")
+    void shouldHonorLimit() {
+      // when/then
+      assertThat(index.suggest("c", 1)).hasSize(1);
+      assertThat(index.suggest("  ", 10)).isEmpty();
+      assertThat(index.suggest("zzz", 10)).isEmpty();
+    }
+  }
+
+  @Nested
+  @DisplayName("updates")
+  class Updates {
+
+    @Test
+    @DisplayName("should replace the terms of a rule that is put again")
+    void shouldReplaceRule() {
+      // when
+      index.put("login-limit", "Sign-in attempts", "auth", List.of());
+
+      // then
+      assertThat(suggestIds("sign")).containsExactly("login-limit");
+      assertThat(suggestIds("secur")).isEmpty();
+      assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("should forget removed rules and their terms")
+    void shouldRemoveRule() {
+      // when
+      boolean removed = index.remove("login-limit");
+
+      // then
+      assertThat(removed).isTrue();
+      assertThat(index.remove("login-limit")).isFalse();
+      assertThat(suggestIds("login")).isEmpty();
+      assertThat(suggestIds("secur")).isEmpty();
+      assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should remove all rules of a rule set")
+    void shouldRemoveRuleSet() {
+      // when
+      int removed = index.removeRuleSet("shop");
+
+      // then
+      assertThat(removed).isEqualTo(2);
+      assertThat(suggestIds("checkout")).isEmpty();
+      assertThat(suggestIds("payments")).containsExactly("payments-partner");
+    }
+
+    @Test
+    @DisplayName("should reuse the slots of removed rules")
+    void shouldReuseSlots() {
+      // when
+      for (int i = 0; i < 1000; i++) {
+        index.put("temp-" + i, "Temporary " + i, "temp", null);
+        index.remove("temp-" + i);
+      }
+      index.put("temp-final", "Temporary final", "temp", null);
+
+      // then
+      assertThat(suggestIds("temp")).containsExactly("temp-final");
+      assertThat(index.size()).isEqualTo(5);
+    }
+  }
+
+  @Test
+  @DisplayName("should measure the edit distance to the closest prefix of a text")
+  void shouldMeasurePrefixDistance() {
+    // when/then
+    assertThat(RuleSuggestIndex.prefixDistance("check", "checkout", 1)).isZero();
+    assertThat(RuleSuggestIndex.prefixDistance("chek", "checkout", 1)).isEqualTo(1);
+    assertThat(RuleSuggestIndex.prefixDistance("chkout", "checkout", 2)).isEqualTo(2);
+    assertThat(RuleSuggestIndex.prefixDistance("xyz", "checkout", 1)).isEqualTo(2);
+  }
+}
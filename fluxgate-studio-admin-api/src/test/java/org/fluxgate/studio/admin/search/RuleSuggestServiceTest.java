@@ -0,0 +1,232 @@
+package org.fluxgate.studio.admin.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestResponse;
+import org.fluxgate.studio.admin.dto.response.RuleSuggestion;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.service.RuleMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RuleSuggestServiceTest {
+
+  @Mock private RuleStore ruleStore;
+
+  private MeterRegistry registry;
+
+  private RuleSuggestService suggestService;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    suggestService =
+        new RuleSuggestService(
+            ruleStore, new RuleSuggestProperties(true, Duration.ofMinutes(5), 20), registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    suggestService.close();
+  }
+
+  private RateLimitRule createTestRule(String id, String name, String ruleSetId) {
+    return RateLimitRule.builder(id)
+        .name(name)
+        .enabled(true)
+        .scope(LimitScope.PER_IP)
+        .keyStrategyId("ip")
+        .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+        .ruleSetId(ruleSetId)
+        .attributes(Map.of("tags", List.of("payments")))
+        .addBand(RateLimitBand.builder(Duration.ofSeconds(60), 100).build())
+        .build();
+  }
+
+  private void givenStoredRules(RateLimitRule... rules) {
+    doAnswer(
+            invocation -> {
+              Consumer<RateLimitRule> action = invocation.getArgument(1);
+              for (RateLimitRule rule : rules) {
+                action.accept(rule);
+              }
+              return null;
+            })
+        .when(ruleStore)
+        .forEach(isNull(), any());
+  }
+
+  private List<String> suggestIds(String query) {
+    return suggestService.suggest(query, 10).suggestions().stream()
+        .map(RuleSuggestion::id)
+        .toList();
+  }
+
+  @Test
+  @DisplayName("should report not ready until the index is built")
+  void shouldNotBeReadyBeforeFirstBuild() {
+    // when
+    RuleSuggestResponse response = suggestService.suggest("checkout", 10);
+
+    // then
+    assertThat(response.ready()).isFalse();
+    assertThat(response.suggestions()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should build the index from all stored rules")
+  void shouldBuildIndexFromStore() {
+    // given
+    givenStoredRules(
+        createTestRule("checkout-api", "Checkout API", "shop"),
+        createTestRule("login-limit", "Login attempts", "auth"));
+
+    // when
+    suggestService.rebuild();
+    RuleSuggestResponse response = suggestService.suggest("checkout", 10);
+
+    // then
+    assertThat(response.ready()).isTrue();
+    assertThat(response.suggestions())
+        .singleElement()
+        .satisfies(
+            suggestion -> {
+              assertThat(suggestion.id()).isEqualTo("checkout-api");
+              assertThat(suggestion.ruleSetId()).isEqualTo("shop");
+              assertThat(suggestion.tags()).containsExactly("payments");
+            });
+    assertThat(registry.get("studio.rule.suggest.size").gauge().value()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("should apply rule changes to the index in place")
+  void shouldApplyRuleChanges() {
+    // given
+    givenStoredRules(
+        createTestRule("checkout-api", "Checkout API", "shop"),
+        createTestRule("checkout-web", "Checkout Web", "shop"),
+        createTestRule("login-limit", "Login attempts", "auth"));
+    suggestService.rebuild();
+    RuleResponse created = RuleMapper.toResponse(createTestRule("signup", "Signup", "auth"));
+
+    // when/then
+    suggestService.onRuleChanged(RuleChangedEvent.created(created));
+    assertThat(suggestIds("sign")).containsExactly("signup");
+
+    suggestService.onRuleChanged(RuleChangedEvent.deleted("login-limit", "auth"));
+    assertThat(suggestIds("login")).isEmpty();
+
+    suggestService.onRuleChanged(RuleChangedEvent.ruleSetDeleted("shop"));
+    assertThat(suggestIds("checkout")).isEmpty();
+    assertThat(suggestIds("payments")).containsExactly("signup");
+  }
+
+  @Test
+  @DisplayName("should log and not throw a change that cannot be applied")
+  void shouldNotThrowFromListener() {
+    // given
+    givenStoredRules(createTestRule("checkout-api", "Checkout API", "shop"));
+    suggestService.rebuild();
+    RuleChangedEvent broken =
+        new RuleChangedEvent(RuleChangedEvent.Type.CREATED, "signup", "auth", null);
+
+    // when/then
+    assertThatCode(() -> suggestService.onRuleChanged(broken)).doesNotThrowAnyException();
+    assertThat(suggestIds("checkout")).containsExactly("checkout-api");
+  }
+
+  @Test
+  @DisplayName("should keep changes made while a rebuild reads the store")
+  void shouldKeepChangesDuringRebuild() {
+    // given
+    RuleResponse created = RuleMapper.toResponse(createTestRule("signup", "Signup", "auth"));
+    doAnswer(
+            invocation -> {
+              Consumer<RateLimitRule> action = invocation.getArgument(1);
+              action.accept(createTestRule("login-limit", "Login attempts", "auth"));
+              // Written after the store was read past it
+              suggestService.onRuleChanged(RuleChangedEvent.created(created));
+              return null;
+            })
+        .when(ruleStore)
+        .forEach(isNull(), any());
+
+    // when
+    suggestService.rebuild();
+
+    // then
+    assertThat(suggestIds("sign")).containsExactly("signup");
+    assertThat(suggestIds("login")).containsExactly("login-limit");
+  }
+
+  @Test
+  @DisplayName("should keep the previous index when a rebuild fails")
+  void shouldKeepIndexWhenRebuildFails() {
+    // given
+    givenStoredRules(createTestRule("checkout-api", "Checkout API", "shop"));
+    suggestService.rebuild();
+    doThrow(new RuntimeException("connection lost")).when(ruleStore).forEach(isNull(), any());
+
+    // when
+    suggestService.rebuild();
+
+    // then
+    assertThat(suggestIds("checkout")).containsExactly("checkout-api");
+  }
+
+  @Test
+  @DisplayName("should reject blank queries and out-of-range limits")
+  void shouldValidateRequest() {
+    // when/then
+    assertThatThrownBy(() -> suggestService.suggest(" ", 10))
+        .isInstanceOf(InvalidRequestException.class);
+    assertThatThrownBy(() -> suggestService.suggest("checkout", 0))
+        .isInstanceOf(InvalidRequestException.class);
+    assertThatThrownBy(() -> suggestService.suggest("checkout", 21))
+        .isInstanceOf(InvalidRequestException.class)
+        .hasMessageContaining("20");
+  }
+
+  @Test
+  @DisplayName("should reject queries when suggestions are disabled")
+  void shouldRejectWhenDisabled() {
+    // given
+    RuleSuggestService disabled =
+        new RuleSuggestService(
+            ruleStore, new RuleSuggestProperties(false, null, 0), new SimpleMeterRegistry());
+
+    // when/then
+    try {
+      assertThatThrownBy(() -> disabled.suggest("checkout", 10))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("disabled");
+    } finally {
+      disabled.close();
+    }
+  }
+}
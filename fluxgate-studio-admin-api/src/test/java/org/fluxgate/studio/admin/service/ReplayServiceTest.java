@@ -0,0 +1,132 @@
+package org.fluxgate.studio.admin.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.request.ReplayRequest;
+import org.fluxgate.studio.admin.dto.response.ReplayResponse;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.simulation.ReplayProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReplayServiceTest {
+
+  @TempDir private Path directory;
+
+  @Mock private RuleService ruleService;
+
+  private ReplayService replayService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Path logs = Files.createDirectory(directory.resolve("logs"));
+    Files.writeString(
+        logs.resolve("access.csv"),
+        "1767225600,10.0.0.1,,,/a\n1767225600,10.0.0.1,,,/a\n1767225600,10.0.0.2,,,/a\n");
+    Files.writeString(directory.resolve("secret.csv"), "1767225600,10.0.0.1,,,/a\n");
+    replayService =
+        new ReplayService(ruleService, new ReplayProperties(logs.toString(), 2, null, 0));
+  }
+
+  @AfterEach
+  void tearDown() {
+    replayService.close();
+  }
+
+  private RateLimitRule createTestRule() {
+    return RateLimitRule.builder("per-ip")
+        .name("Per IP")
+        .enabled(true)
+        .scope(LimitScope.PER_IP)
+        .keyStrategyId("ip")
+        .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+        .ruleSetId("set-a")
+        .addBand(RateLimitBand.builder(Duration.ofSeconds(1), 1).label("1-per-second").build())
+        .build();
+  }
+
+  @Test
+  @DisplayName("should replay a log from the replay directory with the format of its extension")
+  void shouldReplayLogFromDirectory() {
+    // given
+    when(ruleService.getRules("set-a")).thenReturn(List.of(createTestRule()));
+
+    // when
+    ReplayResponse response =
+        replayService.replay(new ReplayRequest("set-a", "access.csv", null, null, null));
+
+    // then
+    assertThat(response.format()).isEqualTo("CSV");
+    assertThat(response.requests()).isEqualTo(3);
+    assertThat(response.rules().get(0).rejected()).isEqualTo(1);
+    assertThat(response.rules().get(0).topRejectedKeys().get(0).key()).isEqualTo("10.0.0.1");
+  }
+
+  @Test
+  @DisplayName("should not read files outside the replay directory")
+  void shouldRejectPathTraversal() {
+    // when/then
+    assertThatThrownBy(
+            () ->
+                replayService.replay(
+                    new ReplayRequest("set-a", "../secret.csv", null, null, null)))
+        .isInstanceOf(InvalidRequestException.class);
+    assertThatThrownBy(
+            () ->
+                replayService.replay(
+                    new ReplayRequest(
+                        "set-a", directory.resolve("secret.csv").toString(), null, null, null)))
+        .isInstanceOf(InvalidRequestException.class);
+    verify(ruleService, never()).getRules(any());
+  }
+
+  @Test
+  @DisplayName("should reject a rule set without rules")
+  void shouldRejectEmptyRuleSet() {
+    // given
+    when(ruleService.getRules("empty")).thenReturn(List.of());
+
+    // when/then
+    assertThatThrownBy(
+            () -> replayService.replay(new ReplayRequest("empty", "access.csv", null, null, null)))
+        .isInstanceOf(InvalidRequestException.class)
+        .hasMessageContaining("empty");
+  }
+
+  @Test
+  @DisplayName("should be disabled without a replay directory")
+  void shouldBeDisabledWithoutDirectory() {
+    // given
+    ReplayService disabled = new ReplayService(ruleService, new ReplayProperties(null, 1, null, 0));
+
+    // when/then
+    try {
+      assertThatThrownBy(
+              () -> disabled.replay(new ReplayRequest("set-a", "access.csv", null, null, null)))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("disabled");
+    } finally {
+      disabled.close();
+    }
+  }
+}
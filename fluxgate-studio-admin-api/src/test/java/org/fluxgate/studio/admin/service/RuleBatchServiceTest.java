@@ -0,0 +1,353 @@
+package org.fluxgate.studio.admin.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.util.List;
+import org.fluxgate.studio.admin.cache.RuleCache;
+import org.fluxgate.studio.admin.cache.RuleCacheProperties;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
+import org.fluxgate.studio.admin.changelog.RuleChangeLogProperties;
+import org.fluxgate.studio.admin.dto.request.BatchRuleItem;
+import org.fluxgate.studio.admin.dto.request.BatchRuleRequest;
+import org.fluxgate.studio.admin.dto.request.CreateRuleRequest;
+import org.fluxgate.studio.admin.dto.request.RateBandRequest;
+import org.fluxgate.studio.admin.dto.request.SetEnabledRequest;
+import org.fluxgate.studio.admin.dto.request.UpdateRuleRequest;
+import org.fluxgate.studio.admin.dto.response.BatchRuleResponse;
+import org.fluxgate.studio.admin.dto.response.BatchRuleResult;
+import org.fluxgate.studio.admin.dto.response.SetEnabledResponse;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.notify.RuleChangeNotifier;
+import org.fluxgate.studio.admin.repository.EnabledChanges;
+import org.fluxgate.studio.admin.repository.RuleChangeLogStore;
+import org.fluxgate.studio.admin.repository.RuleChangeRecord;
+import org.fluxgate.studio.admin.repository.RuleQuery;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.repository.RuleWriteResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class RuleBatchServiceTest {
+
+  private static Validator validator;
+
+  @Mock private RuleStore ruleStore;
+
+  @Mock private RuleChangeLogStore changeLogStore;
+
+  @Mock private RuleChangeNotifier changeNotifier;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  private RuleBatchService ruleBatchService;
+
+  @BeforeAll
+  static void createValidator() {
+    validator = Validation.buildDefaultValidatorFactory().getValidator();
+  }
+
+  @BeforeEach
+  void setUp() {
+    RuleCache ruleCache =
+        new RuleCache(
+            ruleStore, new RuleCacheProperties(false, 0, null), new SimpleMeterRegistry());
+    RuleChangeLog changeLog =
+        new RuleChangeLog(
+            changeLogStore,
+            ruleStore,
+            new RuleChangeLogProperties(true, null, null, null, null, 0));
+    ruleBatchService =
+        new RuleBatchService(
+            ruleStore, ruleCache, changeLog, changeNotifier, eventPublisher, validator);
+  }
+
+  private static CreateRuleRequest createRequest(String id, String ruleSetId) {
+    return new CreateRuleRequest(
+        id,
+        "Rule " + id,
+        true,
+        "PER_IP",
+        "ip",
+        "REJECT_REQUEST",
+        List.of(new RateBandRequest(60L, 100L, "100-per-minute")),
+        ruleSetId,
+        null,
+        null);
+  }
+
+  private static UpdateRuleRequest updateRequest(String ruleSetId) {
+    return new UpdateRuleRequest(
+        "Updated",
+        false,
+        "PER_IP",
+        "ip",
+        "REJECT_REQUEST",
+        List.of(new RateBandRequest(60L, 50L, "50-per-minute")),
+        ruleSetId,
+        null,
+        null);
+  }
+
+  private static RuleWriteResult applied(String previousRuleSetId) {
+    return new RuleWriteResult(RuleWriteResult.Status.APPLIED, previousRuleSetId, null);
+  }
+
+  @Test
+  @DisplayName("should write all valid items in one bulk write and notify each rule set once")
+  void shouldWriteValidItemsAndNotifyOncePerRuleSet() {
+    // given
+    BatchRuleRequest request =
+        new BatchRuleRequest(
+            List.of(
+                new BatchRuleItem(createRequest("rule-1", "set-a"), null, null),
+                new BatchRuleItem(createRequest("rule-2", "set-a"), null, null),
+                new BatchRuleItem(null, "rule-3", updateRequest("set-b"))));
+    when(ruleStore.bulkWrite(anyList()))
+        .thenReturn(List.of(applied(null), applied(null), applied("set-c")));
+
+    // when
+    BatchRuleResponse response = ruleBatchService.applyBatch(request);
+
+    // then
+    assertThat(response.total()).isEqualTo(3);
+    assertThat(response.succeeded()).isEqualTo(3);
+    assertThat(response.failed()).isZero();
+    assertThat(response.affectedRuleSets()).containsExactly("set-a", "set-b", "set-c");
+    assertThat(response.results())
+        .extracting(BatchRuleResult::status)
+        .containsExactly("CREATED", "CREATED", "UPDATED");
+    verify(changeNotifier).ruleSetChanged("set-a");
+    verify(changeNotifier).ruleSetChanged("set-b");
+    verify(changeNotifier).ruleSetChanged("set-c");
+    verify(changeLogStore).prepareRules(List.of("rule-1", "rule-2", "rule-3"), false);
+    verify(changeLogStore)
+        .completeRules(
+            any(),
+            eq(
+                List.of(
+                    new RuleChangeRecord("rule-1", "set-a", null, false),
+                    new RuleChangeRecord("rule-2", "set-a", null, false),
+                    new RuleChangeRecord("rule-3", "set-b", "set-c", false))));
+    verify(changeNotifier, never()).fullReload();
+    verify(eventPublisher).publishEvent(RuleChangedEvent.bulkChanged());
+  }
+
+  @Test
+  @DisplayName("should report invalid items without writing them")
+  void shouldReportInvalidItems() {
+    // given
+    CreateRuleRequest invalid =
+        new CreateRuleRequest(
+            "bad id", "", true, "PER_IP", "ip", "REJECT_REQUEST", List.of(), null, null, null);
+    BatchRuleRequest request =
+        new BatchRuleRequest(
+            List.of(
+                new BatchRuleItem(invalid, null, null),
+                new BatchRuleItem(null, null, updateRequest("set-a")),
+                new BatchRuleItem(createRequest("rule-1", "set-a"), "rule-1", updateRequest(null)),
+                new BatchRuleItem(createRequest("rule-2", "set-a"), null, null),
+                new BatchRuleItem(null, "rule-2", updateRequest("set-a"))));
+    when(ruleStore.bulkWrite(anyList())).thenReturn(List.of(applied(null)));
+
+    // when
+    BatchRuleResponse response = ruleBatchService.applyBatch(request);
+
+    // then
+    assertThat(response.succeeded()).isEqualTo(1);
+    assertThat(response.failed()).isEqualTo(4);
+    assertThat(response.results())
+        .extracting(BatchRuleResult::status)
+        .containsExactly("INVALID", "INVALID", "INVALID", "CREATED", "INVALID");
+    assertThat(response.results().get(0).errors())
+        .anyMatch(error -> error.startsWith("id:"))
+        .anyMatch(error -> error.startsWith("name:"))
+        .anyMatch(error -> error.startsWith("bands:"));
+    assertThat(response.results().get(1).errors()).containsExactly("id: id is required for update");
+    assertThat(response.results().get(4).errors()).containsExactly("id: duplicate id in batch");
+  }
+
+  @Test
+  @DisplayName("should map store outcomes to per-item statuses")
+  void shouldMapStoreOutcomes() {
+    // given
+    BatchRuleRequest request =
+        new BatchRuleRequest(
+            List.of(
+                new BatchRuleItem(createRequest("rule-1", "set-a"), null, null),
+                new BatchRuleItem(null, "rule-2", updateRequest("set-a")),
+                new BatchRuleItem(createRequest("rule-3", "set-a"), null, null)));
+    when(ruleStore.bulkWrite(anyList()))
+        .thenReturn(
+            List.of(
+                new RuleWriteResult(RuleWriteResult.Status.DUPLICATE, null, "E11000"),
+                new RuleWriteResult(RuleWriteResult.Status.NOT_FOUND, null, null),
+                new RuleWriteResult(RuleWriteResult.Status.FAILED, null, "write failed")));
+
+    // when
+    BatchRuleResponse response = ruleBatchService.applyBatch(request);
+
+    // then
+    assertThat(response.succeeded()).isZero();
+    assertThat(response.results())
+        .extracting(BatchRuleResult::status)
+        .containsExactly("CONFLICT", "NOT_FOUND", "FAILED");
+    assertThat(response.results().get(2).errors()).containsExactly("write failed");
+    assertThat(response.affectedRuleSets()).isEmpty();
+    verify(changeLogStore).completeRules(any(), eq(List.of()));
+    verify(changeNotifier, never()).ruleSetChanged(any());
+    verify(changeNotifier, never()).fullReload();
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+  }
+
+  @Test
+  @DisplayName("should request a full reload when a rule without rule set is written")
+  void shouldRequestFullReloadForRulesWithoutRuleSet() {
+    // given
+    BatchRuleRequest request =
+        new BatchRuleRequest(
+            List.of(
+                new BatchRuleItem(createRequest("rule-1", null), null, null),
+                new BatchRuleItem(createRequest("rule-2", "set-a"), null, null)));
+    when(ruleStore.bulkWrite(anyList())).thenReturn(List.of(applied(null), applied(null)));
+
+    // when
+    ruleBatchService.applyBatch(request);
+
+    // then
+    verify(changeNotifier).fullReload();
+    verify(changeNotifier, never()).ruleSetChanged(any());
+  }
+
+  @Test
+  @DisplayName("should not touch the store when no item is valid")
+  void shouldSkipStoreWhenNothingIsValid() {
+    // given
+    BatchRuleRequest request = new BatchRuleRequest(List.of(new BatchRuleItem(null, null, null)));
+
+    // when
+    BatchRuleResponse response = ruleBatchService.applyBatch(request);
+
+    // then
+    assertThat(response.failed()).isEqualTo(1);
+    verify(ruleStore, never()).bulkWrite(anyList());
+  }
+
+  @Test
+  @DisplayName("should wrap store failures in StorageOperationException")
+  void shouldWrapStoreFailures() {
+    // given
+    BatchRuleRequest request =
+        new BatchRuleRequest(
+            List.of(new BatchRuleItem(createRequest("rule-1", "set-a"), null, null)));
+    when(ruleStore.bulkWrite(anyList())).thenThrow(new RuntimeException("connection lost"));
+
+    // when/then
+    assertThatThrownBy(() -> ruleBatchService.applyBatch(request))
+        .isInstanceOf(StorageOperationException.class)
+        .hasMessageContaining("bulkWrite");
+    verify(changeLogStore).completeRules(any(), isNull());
+    verify(changeNotifier, never()).ruleSetChanged(any());
+  }
+
+  @Test
+  @DisplayName("should report the batch when notifying gateways fails after the write")
+  void shouldIgnoreNotificationFailures() {
+    // given
+    BatchRuleRequest request =
+        new BatchRuleRequest(
+            List.of(new BatchRuleItem(createRequest("rule-1", "set-a"), null, null)));
+    when(ruleStore.bulkWrite(anyList())).thenReturn(List.of(applied(null)));
+    doThrow(new IllegalStateException("outbox unavailable"))
+        .when(changeNotifier)
+        .ruleSetChanged("set-a");
+
+    // when
+    BatchRuleResponse response = ruleBatchService.applyBatch(request);
+
+    // then
+    assertThat(response.succeeded()).isEqualTo(1);
+    verify(eventPublisher).publishEvent(RuleChangedEvent.bulkChanged());
+  }
+
+  @Test
+  @DisplayName("should disable matching rules with one store update and notify each rule set once")
+  void shouldSetEnabledByFilter() {
+    // given
+    List<RuleChangeRecord> changes =
+        List.of(
+            new RuleChangeRecord("rule-1", "checkout", null, false),
+            new RuleChangeRecord("rule-2", "checkout", null, false));
+    when(ruleStore.findEnabledChanges(
+            new RuleQuery("checkout", null, null, null, null, List.of("experimental"), null),
+            List.of(),
+            false))
+        .thenReturn(new EnabledChanges(3, changes));
+    when(ruleStore.setEnabled(List.of("rule-1", "rule-2"), false)).thenReturn(2L);
+
+    // when
+    SetEnabledResponse response =
+        ruleBatchService.setEnabled(
+            new SetEnabledRequest(false, "checkout", List.of("experimental"), null, null));
+
+    // then
+    assertThat(response).isEqualTo(new SetEnabledResponse(false, 3, 2, List.of("checkout")));
+    verify(changeLogStore).prepareRules(List.of("rule-1", "rule-2"), false);
+    verify(changeLogStore).completeRules(any(), eq(changes));
+    verify(changeNotifier).ruleSetChanged("checkout");
+    verify(changeNotifier, never()).fullReload();
+    verify(eventPublisher).publishEvent(RuleChangedEvent.bulkChanged());
+  }
+
+  @Test
+  @DisplayName("should not notify when every matching rule is already in the requested state")
+  void shouldNotNotifyWithoutChanges() {
+    // given
+    when(ruleStore.findEnabledChanges(any(RuleQuery.class), eq(List.of("rule-1")), eq(true)))
+        .thenReturn(new EnabledChanges(1, List.of()));
+
+    // when
+    SetEnabledResponse response =
+        ruleBatchService.setEnabled(
+            new SetEnabledRequest(true, null, null, null, List.of("rule-1")));
+
+    // then
+    assertThat(response.modified()).isZero();
+    verify(ruleStore, never()).setEnabled(anyList(), eq(true));
+    verify(changeLogStore, never()).prepareRules(anyList(), eq(false));
+    verify(changeNotifier, never()).ruleSetChanged(any());
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+  }
+
+  @Test
+  @DisplayName("should reject a request without any filter")
+  void shouldRejectMissingFilter() {
+    // when/then
+    assertThatThrownBy(
+            () ->
+                ruleBatchService.setEnabled(
+                    new SetEnabledRequest(false, " ", List.of(), null, null)))
+        .isInstanceOf(InvalidRequestException.class);
+    verify(ruleStore, never()).findEnabledChanges(any(), any(), eq(false));
+  }
+}
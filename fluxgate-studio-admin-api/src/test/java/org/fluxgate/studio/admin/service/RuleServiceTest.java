@@ -3,24 +3,61 @@ package org.fluxgate.studio.admin.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import org.fluxgate.core.config.LimitScope;
 import org.fluxgate.core.config.OnLimitExceedPolicy;
 import org.fluxgate.core.config.RateLimitBand;
 import org.fluxgate.core.config.RateLimitRule;
 import org.fluxgate.core.spi.RateLimitRuleRepository;
+import org.fluxgate.studio.admin.cache.RuleCache;
+import org.fluxgate.studio.admin.cache.RuleCacheProperties;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
+import org.fluxgate.studio.admin.changelog.RuleChangeLogProperties;
 import org.fluxgate.studio.admin.dto.request.CreateRuleRequest;
 import org.fluxgate.studio.admin.dto.request.RateBandRequest;
+import org.fluxgate.studio.admin.dto.request.RuleSearchRequest;
 import org.fluxgate.studio.admin.dto.request.UpdateRuleRequest;
+import org.fluxgate.studio.admin.dto.response.PartialRuleResponse;
+import org.fluxgate.studio.admin.dto.response.RulePageResponse;
 import org.fluxgate.studio.admin.dto.response.RuleResponse;
+import org.fluxgate.studio.admin.dto.response.RuleSearchResponse;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
 import org.fluxgate.studio.admin.exception.RuleAlreadyExistsException;
 import org.fluxgate.studio.admin.exception.RuleNotFoundException;
+import org.fluxgate.studio.admin.exception.RuleVersionConflictException;
+import org.fluxgate.studio.admin.exception.StorageOperationException;
+import org.fluxgate.studio.admin.notify.RuleChangeNotifier;
+import org.fluxgate.studio.admin.repository.PartialRule;
+import org.fluxgate.studio.admin.repository.RuleChangeLogStore;
+import org.fluxgate.studio.admin.repository.RuleChangeRecord;
+import org.fluxgate.studio.admin.repository.RuleFacets;
+import org.fluxgate.studio.admin.repository.RuleField;
+import org.fluxgate.studio.admin.repository.RulePatch;
+import org.fluxgate.studio.admin.repository.RulePatch.BandOperation;
+import org.fluxgate.studio.admin.repository.RuleQuery;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.repository.StoredRule;
+import org.fluxgate.studio.admin.repository.UpdatedRule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -28,17 +65,36 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class RuleServiceTest {
 
   @Mock private RateLimitRuleRepository ruleRepository;
 
+  @Mock private RuleStore ruleStore;
+
+  @Mock private RuleChangeLogStore changeLogStore;
+
+  @Mock private RuleChangeNotifier changeNotifier;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   private RuleService ruleService;
 
   @BeforeEach
   void setUp() {
-    ruleService = new RuleService(ruleRepository);
+    RuleCache ruleCache =
+        new RuleCache(
+            ruleStore, new RuleCacheProperties(false, 0, null), new SimpleMeterRegistry());
+    RuleChangeLog changeLog =
+        new RuleChangeLog(
+            changeLogStore,
+            ruleStore,
+            new RuleChangeLogProperties(true, null, null, null, null, 0));
+    ruleService =
+        new RuleService(
+            ruleRepository, ruleStore, ruleCache, changeLog, changeNotifier, eventPublisher);
   }
 
   private RateLimitRule createTestRule(String id, String name, boolean enabled) {
@@ -92,6 +148,216 @@ class RuleServiceTest {
     }
   }
 
+  @Nested
+  @DisplayName("getRulePage")
+  class GetRulePageTests {
+
+    @Test
+    @DisplayName("should return first page with next cursor when more rules exist")
+    void shouldReturnFirstPageWithNextCursor() {
+      // given
+      List<RateLimitRule> rules =
+          List.of(
+              createTestRule("rule-1", "Rule 1", true),
+              createTestRule("rule-2", "Rule 2", true),
+              createTestRule("rule-3", "Rule 3", true));
+      when(ruleStore.findPage(null, null, 3)).thenReturn(rules);
+
+      // when
+      RulePageResponse<RuleResponse> page = ruleService.getRulePage(null, null, 2);
+
+      // then
+      assertThat(page.items()).extracting(RuleResponse::id).containsExactly("rule-1", "rule-2");
+      assertThat(page.hasMore()).isTrue();
+      assertThat(page.nextCursor()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("should continue after the rule encoded in the cursor")
+    void shouldContinueAfterCursor() {
+      // given
+      when(ruleStore.findPage(null, null, 2))
+          .thenReturn(
+              List.of(
+                  createTestRule("rule-1", "Rule 1", true),
+                  createTestRule("rule-2", "Rule 2", true)));
+      when(ruleStore.findPage(null, "rule-1", 2))
+          .thenReturn(List.of(createTestRule("rule-2", "Rule 2", true)));
+      String cursor = ruleService.getRulePage(null, null, 1).nextCursor();
+
+      // when
+      RulePageResponse<RuleResponse> page = ruleService.getRulePage(null, cursor, 1);
+
+      // then
+      assertThat(page.items()).extracting(RuleResponse::id).containsExactly("rule-2");
+      assertThat(page.hasMore()).isFalse();
+      assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("should reject limit outside allowed range")
+    void shouldRejectInvalidLimit() {
+      assertThatThrownBy(() -> ruleService.getRulePage(null, null, 0))
+          .isInstanceOf(InvalidRequestException.class);
+      assertThatThrownBy(() -> ruleService.getRulePage(null, null, RuleService.MAX_PAGE_SIZE + 1))
+          .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("should reject malformed cursor")
+    void shouldRejectMalformedCursor() {
+      assertThatThrownBy(() -> ruleService.getRulePage(null, "not-a-cursor!", 10))
+          .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("should read only the selected fields and always the ID")
+    void shouldProjectSelectedFields() {
+      // given
+      Set<RuleField> fields = EnumSet.of(RuleField.ID, RuleField.NAME, RuleField.ENABLED);
+      RuleQuery query = new RuleQuery("test-ruleset", null, null, null, null, null, null);
+      when(ruleStore.findPartial(query, null, 2, fields))
+          .thenReturn(
+              List.of(
+                  new PartialRule("rule-1", "Rule 1", true, null, null, null, null, null, null),
+                  new PartialRule("rule-2", "Rule 2", false, null, null, null, null, null, null)));
+
+      // when
+      RulePageResponse<PartialRuleResponse> page =
+          ruleService.getPartialRulePage("test-ruleset", null, 1, " name, enabled ");
+
+      // then
+      assertThat(page.items()).hasSize(1);
+      PartialRuleResponse rule = page.items().get(0);
+      assertThat(rule.id()).isEqualTo("rule-1");
+      assertThat(rule.name()).isEqualTo("Rule 1");
+      assertThat(rule.enabled()).isTrue();
+      assertThat(rule.bands()).isNull();
+      assertThat(rule.attributes()).isNull();
+      assertThat(page.hasMore()).isTrue();
+      verify(ruleStore, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("should reject unknown fields")
+    void shouldRejectUnknownFields() {
+      assertThatThrownBy(() -> ruleService.getPartialRulePage(null, null, 10, "id,version"))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("Unknown field 'version'");
+      verify(ruleStore, never()).findPartial(any(), any(), anyInt(), any());
+    }
+  }
+
+  @Nested
+  @DisplayName("searchRules")
+  class SearchRulesTests {
+
+    @Test
+    @DisplayName("should pass normalized filters to the store and return facets")
+    void shouldSearchWithNormalizedFilters() {
+      // given
+      RuleSearchRequest request =
+          new RuleSearchRequest(
+              " ",
+              "per_api_key",
+              false,
+              "",
+              null,
+              List.of("payments", " ", "payments"),
+              " Checkout ");
+      RuleQuery expected =
+          new RuleQuery(null, "PER_API_KEY", false, null, null, List.of("payments"), "Checkout");
+      when(ruleStore.search(expected, null, 3))
+          .thenReturn(List.of(createTestRule("rule-1", "Checkout", false)));
+      when(ruleStore.countFacets(expected, RuleService.MAX_TAG_FACETS))
+          .thenReturn(
+              new RuleFacets(
+                  3,
+                  1,
+                  Map.of("PER_API_KEY", 3L),
+                  Map.of("REJECT_REQUEST", 3L),
+                  Map.of("api-key", 3L),
+                  Map.of("payments", 3L)));
+
+      // when
+      RuleSearchResponse<RuleResponse> response = ruleService.searchRules(request, null, 2, true);
+
+      // then
+      assertThat(response.items()).extracting(RuleResponse::id).containsExactly("rule-1");
+      assertThat(response.hasMore()).isFalse();
+      assertThat(response.facets().total()).isEqualTo(3);
+      assertThat(response.facets().disabled()).isEqualTo(2);
+      assertThat(response.facets().tags()).containsEntry("payments", 3L);
+    }
+
+    @Test
+    @DisplayName("should skip the facet count when not requested")
+    void shouldSkipFacetsWhenNotRequested() {
+      // given
+      RuleSearchRequest request = new RuleSearchRequest(null, null, true, null, null, null, null);
+      when(ruleStore.search(any(RuleQuery.class), isNull(), eq(11))).thenReturn(List.of());
+
+      // when
+      RuleSearchResponse<RuleResponse> response = ruleService.searchRules(request, null, 10, false);
+
+      // then
+      assertThat(response.items()).isEmpty();
+      assertThat(response.facets()).isNull();
+      verify(ruleStore, never()).countFacets(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("should reject unknown scope and policy values")
+    void shouldRejectUnknownEnumValues() {
+      assertThatThrownBy(
+              () ->
+                  ruleService.searchRules(
+                      new RuleSearchRequest(null, "PER_TENANT", null, null, null, null, null),
+                      null,
+                      10,
+                      false))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("scope must be one of");
+      assertThatThrownBy(
+              () ->
+                  ruleService.searchRules(
+                      new RuleSearchRequest(null, null, null, "DROP", null, null, null),
+                      null,
+                      10,
+                      false))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("onLimitExceedPolicy must be one of");
+      verify(ruleStore, never()).search(any(), any(), anyInt());
+    }
+  }
+
+  @Nested
+  @DisplayName("forEachRule")
+  class ForEachRuleTests {
+
+    @Test
+    @DisplayName("should pass every streamed rule to the consumer")
+    void shouldStreamRules() {
+      // given
+      doAnswer(
+              invocation -> {
+                Consumer<RateLimitRule> action = invocation.getArgument(1);
+                action.accept(createTestRule("rule-1", "Rule 1", true));
+                action.accept(createTestRule("rule-2", "Rule 2", false));
+                return null;
+              })
+          .when(ruleStore)
+          .forEach(eq("test-ruleset"), any());
+      List<RuleResponse> streamed = new ArrayList<>();
+
+      // when
+      ruleService.forEachRule("test-ruleset", streamed::add);
+
+      // then
+      assertThat(streamed).extracting(RuleResponse::id).containsExactly("rule-1", "rule-2");
+    }
+  }
+
   @Nested
   @DisplayName("getRuleById")
   class GetRuleByIdTests {
@@ -101,7 +367,7 @@ class RuleServiceTest {
     void shouldReturnRuleWhenFound() {
       // given
       RateLimitRule rule = createTestRule("test-rule", "Test Rule", true);
-      when(ruleRepository.findById("test-rule")).thenReturn(Optional.of(rule));
+      when(ruleStore.findById("test-rule")).thenReturn(Optional.of(new StoredRule(rule, 7)));
 
       // when
       RuleResponse result = ruleService.getRuleById("test-rule");
@@ -110,13 +376,14 @@ class RuleServiceTest {
       assertThat(result.id()).isEqualTo("test-rule");
       assertThat(result.name()).isEqualTo("Test Rule");
       assertThat(result.enabled()).isTrue();
+      assertThat(result.version()).isEqualTo(7);
     }
 
     @Test
     @DisplayName("should throw RuleNotFoundException when not found")
     void shouldThrowWhenNotFound() {
       // given
-      when(ruleRepository.findById("non-existent")).thenReturn(Optional.empty());
+      when(ruleStore.findById("non-existent")).thenReturn(Optional.empty());
 
       // when/then
       assertThatThrownBy(() -> ruleService.getRuleById("non-existent"))
@@ -145,7 +412,7 @@ class RuleServiceTest {
               "test-ruleset",
               List.of("api", "v1"),
               null);
-      when(ruleRepository.existsById("new-rule")).thenReturn(false);
+      when(ruleStore.insert(any(RateLimitRule.class))).thenReturn(true);
 
       // when
       RuleResponse result = ruleService.createRule(request);
@@ -153,7 +420,77 @@ class RuleServiceTest {
       // then
       assertThat(result.id()).isEqualTo("new-rule");
       assertThat(result.name()).isEqualTo("New Rule");
-      verify(ruleRepository).save(any(RateLimitRule.class));
+      assertThat(result.tags()).containsExactly("api", "v1");
+      assertThat(result.version()).isEqualTo(StoredRule.INITIAL_VERSION);
+      verify(ruleRepository, never()).existsById(any());
+      verify(changeNotifier).ruleSetChanged("test-ruleset");
+      verify(changeLogStore).prepareRules(List.of("new-rule"), false);
+      verify(changeLogStore)
+          .completeRules(
+              any(), eq(List.of(new RuleChangeRecord("new-rule", "test-ruleset", null, false))));
+      verify(eventPublisher).publishEvent(RuleChangedEvent.created(result));
+    }
+
+    @Test
+    @DisplayName("should not write the rule when its change log entry cannot be prepared")
+    void shouldNotWriteWithoutChangeLogEntry() {
+      // given
+      when(changeLogStore.prepareRules(List.of("new-rule"), false))
+          .thenThrow(new IllegalStateException("connection refused"));
+
+      // when/then
+      assertThatThrownBy(() -> ruleService.createRule(createRequest()))
+          .isInstanceOf(StorageOperationException.class);
+      verify(ruleStore, never()).insert(any());
+    }
+
+    @Test
+    @DisplayName("should keep the change log entry of a write whose outcome is unknown")
+    void shouldCompleteUnknownOutcome() {
+      // given
+      when(ruleStore.insert(any(RateLimitRule.class)))
+          .thenThrow(new IllegalStateException("socket timeout"));
+
+      // when/then
+      assertThatThrownBy(() -> ruleService.createRule(createRequest()))
+          .isInstanceOf(StorageOperationException.class)
+          .hasMessageContaining("create");
+      verify(changeLogStore).completeRules(any(), isNull());
+      verify(changeNotifier, never()).ruleSetChanged(any());
+    }
+
+    @Test
+    @DisplayName("should succeed and run every side effect when one of them fails")
+    void shouldIgnoreSideEffectFailures() {
+      // given
+      when(ruleStore.insert(any(RateLimitRule.class))).thenReturn(true);
+      doThrow(new IllegalStateException("outbox unavailable"))
+          .when(changeNotifier)
+          .ruleSetChanged("test-ruleset");
+      doThrow(new IllegalStateException("completion failed"))
+          .when(changeLogStore)
+          .completeRules(any(), any());
+
+      // when
+      RuleResponse result = ruleService.createRule(createRequest());
+
+      // then
+      assertThat(result.id()).isEqualTo("new-rule");
+      verify(eventPublisher).publishEvent(RuleChangedEvent.created(result));
+    }
+
+    private CreateRuleRequest createRequest() {
+      return new CreateRuleRequest(
+          "new-rule",
+          "New Rule",
+          true,
+          "PER_IP",
+          "ip",
+          "REJECT_REQUEST",
+          List.of(new RateBandRequest(60L, 100L, "100-per-minute")),
+          "test-ruleset",
+          null,
+          null);
     }
 
     @Test
@@ -172,13 +509,15 @@ class RuleServiceTest {
               null,
               null,
               null);
-      when(ruleRepository.existsById("existing-rule")).thenReturn(true);
+      when(ruleStore.insert(any(RateLimitRule.class))).thenReturn(false);
 
       // when/then
       assertThatThrownBy(() -> ruleService.createRule(request))
           .isInstanceOf(RuleAlreadyExistsException.class)
           .hasMessageContaining("existing-rule");
-      verify(ruleRepository, never()).save(any());
+      verify(changeLogStore).completeRules(any(), eq(List.of()));
+      verify(changeNotifier, never()).ruleSetChanged(any());
+      verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
   }
 
@@ -201,16 +540,31 @@ class RuleServiceTest {
               "updated-ruleset",
               null,
               null);
-      when(ruleRepository.existsById("test-rule")).thenReturn(true);
+      when(ruleStore.replace(any(RateLimitRule.class), isNull()))
+          .thenAnswer(
+              invocation ->
+                  Optional.of(
+                      new UpdatedRule(
+                          new StoredRule(invocation.getArgument(0), 4), "test-ruleset")));
 
       // when
-      RuleResponse result = ruleService.updateRule("test-rule", request);
+      RuleResponse result = ruleService.updateRule("test-rule", request, null);
 
       // then
       assertThat(result.id()).isEqualTo("test-rule");
       assertThat(result.name()).isEqualTo("Updated Rule");
       assertThat(result.enabled()).isFalse();
-      verify(ruleRepository).save(any(RateLimitRule.class));
+      assertThat(result.version()).isEqualTo(4);
+      verify(ruleRepository, never()).existsById(any());
+      verify(changeLogStore)
+          .completeRules(
+              any(),
+              eq(
+                  List.of(
+                      new RuleChangeRecord(
+                          "test-rule", "updated-ruleset", "test-ruleset", false))));
+      verify(changeNotifier).ruleSetChanged("updated-ruleset");
+      verify(changeNotifier).ruleSetChanged("test-ruleset");
     }
 
     @Test
@@ -228,12 +582,215 @@ class RuleServiceTest {
               null,
               null,
               null);
-      when(ruleRepository.existsById("non-existent")).thenReturn(false);
+      when(ruleStore.replace(any(RateLimitRule.class), isNull())).thenReturn(Optional.empty());
 
       // when/then
-      assertThatThrownBy(() -> ruleService.updateRule("non-existent", request))
+      assertThatThrownBy(() -> ruleService.updateRule("non-existent", request, null))
+          .isInstanceOf(RuleNotFoundException.class);
+      verify(ruleStore, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("should throw RuleVersionConflictException when the rule is at another version")
+    void shouldThrowOnVersionConflict() {
+      // given
+      when(ruleStore.replace(any(RateLimitRule.class), eq(3L))).thenReturn(Optional.empty());
+      when(ruleStore.findById("test-rule"))
+          .thenReturn(
+              Optional.of(new StoredRule(createTestRule("test-rule", "Test Rule", true), 5)));
+
+      // when/then
+      assertThatThrownBy(() -> ruleService.updateRule("test-rule", updateRequest(), 3L))
+          .isInstanceOf(RuleVersionConflictException.class)
+          .hasMessageContaining("version 5");
+      verify(changeLogStore).completeRules(any(), eq(List.of()));
+      verify(changeNotifier, never()).ruleSetChanged(any());
+    }
+
+    @Test
+    @DisplayName("should throw RuleNotFoundException when a conditional update finds no rule")
+    void shouldThrowWhenConditionalUpdateFindsNoRule() {
+      // given
+      when(ruleStore.replace(any(RateLimitRule.class), eq(3L))).thenReturn(Optional.empty());
+      when(ruleStore.findById("non-existent")).thenReturn(Optional.empty());
+
+      // when/then
+      assertThatThrownBy(() -> ruleService.updateRule("non-existent", updateRequest(), 3L))
           .isInstanceOf(RuleNotFoundException.class);
-      verify(ruleRepository, never()).save(any());
+    }
+
+    private UpdateRuleRequest updateRequest() {
+      return new UpdateRuleRequest(
+          "Updated Rule",
+          true,
+          "PER_IP",
+          "ip",
+          "REJECT_REQUEST",
+          List.of(new RateBandRequest(60L, 100L, "100-per-minute")),
+          null,
+          null,
+          null);
+    }
+  }
+
+  @Nested
+  @DisplayName("patchRule")
+  class PatchRuleTests {
+
+    @Test
+    @DisplayName("should turn the merge patch into field-level changes and notify")
+    void shouldPatchChangedFields() {
+      // given
+      RateLimitRule patched = createTestRule("test-rule", "Renamed", true);
+      when(ruleStore.patch(eq("test-rule"), any(RulePatch.class), eq(3L)))
+          .thenReturn(Optional.of(new UpdatedRule(new StoredRule(patched, 4), "old-ruleset")));
+      Map<String, Object> attributes = new HashMap<>();
+      attributes.put("team", "payments");
+      attributes.put("legacy", null);
+      Map<String, Object> mergePatch = new HashMap<>();
+      mergePatch.put("name", "Renamed");
+      mergePatch.put("ruleSetId", null);
+      mergePatch.put("attributes", attributes);
+      mergePatch.put(
+          "bandOperations",
+          List.of(Map.of("op", "update", "label", "100-per-minute", "capacity", 200)));
+
+      // when
+      RuleResponse result = ruleService.patchRule("test-rule", mergePatch, 3L);
+
+      // then
+      assertThat(result.name()).isEqualTo("Renamed");
+      assertThat(result.version()).isEqualTo(4);
+      verify(ruleStore)
+          .patch(
+              "test-rule",
+              new RulePatch(
+                  withNull(Map.of("name", "Renamed"), "ruleSetId"),
+                  withNull(Map.of("team", "payments"), "legacy"),
+                  null,
+                  List.of(
+                      new BandOperation(
+                          BandOperation.Type.UPDATE, "100-per-minute", null, 200L))),
+              3L);
+      verify(changeLogStore)
+          .completeRules(any(), eq(List.of(RuleChangeRecord.changed(patched, "old-ruleset"))));
+      verify(changeNotifier).ruleSetChanged("test-ruleset");
+      verify(changeNotifier).ruleSetChanged("old-ruleset");
+    }
+
+    @Test
+    @DisplayName("should return the current rule without notifying when nothing changes")
+    void shouldNotNotifyNoOp() {
+      // given
+      RateLimitRule current = createTestRule("test-rule", "Test Rule", true);
+      when(ruleStore.patch(eq("test-rule"), any(RulePatch.class), isNull()))
+          .thenReturn(Optional.empty());
+      when(ruleStore.findById("test-rule")).thenReturn(Optional.of(new StoredRule(current, 2)));
+
+      // when
+      RuleResponse result =
+          ruleService.patchRule("test-rule", Map.of("name", "Test Rule"), null);
+
+      // then
+      assertThat(result.version()).isEqualTo(2);
+      verify(changeLogStore).completeRules(any(), eq(List.of()));
+      verify(changeNotifier, never()).ruleSetChanged(any());
+      verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("should reject an update of a band that does not exist")
+    void shouldRejectUnknownBand() {
+      // given
+      when(ruleStore.patch(eq("test-rule"), any(RulePatch.class), isNull()))
+          .thenReturn(Optional.empty());
+      when(ruleStore.findById("test-rule"))
+          .thenReturn(
+              Optional.of(new StoredRule(createTestRule("test-rule", "Test Rule", true), 2)));
+      Map<String, Object> mergePatch =
+          Map.of(
+              "bandOperations",
+              List.of(Map.of("op", "update", "label", "per-hour", "capacity", 10)));
+
+      // when/then
+      assertThatThrownBy(() -> ruleService.patchRule("test-rule", mergePatch, null))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("per-hour");
+    }
+
+    @Test
+    @DisplayName("should reject removing the last band")
+    void shouldRejectRemovingLastBand() {
+      // given
+      when(ruleStore.patch(eq("test-rule"), any(RulePatch.class), isNull()))
+          .thenReturn(Optional.empty());
+      when(ruleStore.findById("test-rule"))
+          .thenReturn(
+              Optional.of(new StoredRule(createTestRule("test-rule", "Test Rule", true), 2)));
+      Map<String, Object> mergePatch =
+          Map.of("bandOperations", List.of(Map.of("op", "remove", "label", "100-per-minute")));
+
+      // when/then
+      assertThatThrownBy(() -> ruleService.patchRule("test-rule", mergePatch, null))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("at least one band");
+    }
+
+    @Test
+    @DisplayName("should throw RuleVersionConflictException when the rule is at another version")
+    void shouldThrowOnVersionConflict() {
+      // given
+      when(ruleStore.patch(eq("test-rule"), any(RulePatch.class), eq(3L)))
+          .thenReturn(Optional.empty());
+      when(ruleStore.findById("test-rule"))
+          .thenReturn(
+              Optional.of(new StoredRule(createTestRule("test-rule", "Test Rule", true), 5)));
+
+      // when/then
+      assertThatThrownBy(
+              () -> ruleService.patchRule("test-rule", Map.of("enabled", false), 3L))
+          .isInstanceOf(RuleVersionConflictException.class);
+      verify(changeLogStore).completeRules(any(), eq(List.of()));
+    }
+
+    @Test
+    @DisplayName("should throw RuleNotFoundException when rule does not exist")
+    void shouldThrowWhenRuleDoesNotExist() {
+      // given
+      when(ruleStore.patch(eq("non-existent"), any(RulePatch.class), isNull()))
+          .thenReturn(Optional.empty());
+      when(ruleStore.findById("non-existent")).thenReturn(Optional.empty());
+
+      // when/then
+      assertThatThrownBy(
+              () -> ruleService.patchRule("non-existent", Map.of("enabled", false), null))
+          .isInstanceOf(RuleNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("should reject read-only and invalid members without touching the store")
+    void shouldRejectInvalidPatch() {
+      // when/then
+      assertThatThrownBy(() -> ruleService.patchRule("test-rule", Map.of("id", "other"), null))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("id");
+      assertThatThrownBy(
+              () -> ruleService.patchRule("test-rule", Map.of("scope", "EVERYONE"), null))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("scope");
+      assertThatThrownBy(
+              () ->
+                  ruleService.patchRule(
+                      "test-rule", Map.of("attributes", Map.of("a.b", "c")), null))
+          .isInstanceOf(InvalidRequestException.class)
+          .hasMessageContaining("a.b");
+      verify(ruleStore, never()).patch(anyString(), any(), any());
+    }
+
+    private static Map<String, Object> withNull(Map<String, Object> values, String nullKey) {
+      Map<String, Object> map = new HashMap<>(values);
+      map.put(nullKey, null);
+      return map;
     }
   }
 
@@ -242,27 +799,38 @@ class RuleServiceTest {
   class DeleteRuleTests {
 
     @Test
-    @DisplayName("should delete rule successfully")
+    @DisplayName("should delete rule and notify only its rule set")
     void shouldDeleteRuleSuccessfully() {
       // given
-      when(ruleRepository.deleteById("test-rule")).thenReturn(true);
+      RateLimitRule deleted = createTestRule("test-rule", "Test Rule", true);
+      when(ruleStore.findAndDelete("test-rule"))
+          .thenReturn(Optional.of(new StoredRule(deleted, 2)));
 
       // when
       ruleService.deleteRule("test-rule");
 
       // then
-      verify(ruleRepository).deleteById("test-rule");
+      verify(ruleStore).findAndDelete("test-rule");
+      verify(changeLogStore).prepareRules(List.of("test-rule"), true);
+      verify(changeLogStore)
+          .completeRules(
+              any(), eq(List.of(new RuleChangeRecord("test-rule", "test-ruleset", null, true))));
+      verify(changeNotifier).ruleSetChanged("test-ruleset");
+      verify(changeNotifier, never()).fullReload();
+      verify(eventPublisher).publishEvent(RuleChangedEvent.deleted("test-rule", "test-ruleset"));
     }
 
     @Test
     @DisplayName("should throw RuleNotFoundException when rule does not exist")
     void shouldThrowWhenRuleDoesNotExist() {
       // given
-      when(ruleRepository.deleteById("non-existent")).thenReturn(false);
+      when(ruleStore.findAndDelete("non-existent")).thenReturn(Optional.empty());
 
       // when/then
       assertThatThrownBy(() -> ruleService.deleteRule("non-existent"))
           .isInstanceOf(RuleNotFoundException.class);
+      verify(changeLogStore).completeRules(any(), eq(List.of()));
+      verify(changeNotifier, never()).ruleSetChanged(any());
     }
   }
 
@@ -271,32 +839,50 @@ class RuleServiceTest {
   class ToggleRuleTests {
 
     @Test
-    @DisplayName("should toggle rule from enabled to disabled")
-    void shouldToggleFromEnabledToDisabled() {
+    @DisplayName("should return the rule as updated by the atomic toggle")
+    void shouldReturnToggledRule() {
       // given
-      RateLimitRule rule = createTestRule("test-rule", "Test Rule", true);
-      when(ruleRepository.findById("test-rule")).thenReturn(Optional.of(rule));
+      RateLimitRule toggled = createTestRule("test-rule", "Test Rule", false);
+      when(ruleStore.toggleEnabled("test-rule", null))
+          .thenReturn(Optional.of(new StoredRule(toggled, 2)));
 
       // when
-      RuleResponse result = ruleService.toggleRule("test-rule");
+      RuleResponse result = ruleService.toggleRule("test-rule", null);
 
       // then
       assertThat(result.enabled()).isFalse();
-      verify(ruleRepository).save(any(RateLimitRule.class));
+      assertThat(result.version()).isEqualTo(2);
+      verify(ruleRepository, never()).findById(any());
+      verify(ruleRepository, never()).save(any());
+      verify(changeNotifier).ruleSetChanged("test-ruleset");
+      verify(changeLogStore).completeRules(any(), eq(List.of(RuleChangeRecord.changed(toggled))));
+      verify(eventPublisher).publishEvent(RuleChangedEvent.toggled(result));
     }
 
     @Test
-    @DisplayName("should toggle rule from disabled to enabled")
-    void shouldToggleFromDisabledToEnabled() {
+    @DisplayName("should throw RuleNotFoundException when rule does not exist")
+    void shouldThrowWhenRuleDoesNotExist() {
       // given
-      RateLimitRule rule = createTestRule("test-rule", "Test Rule", false);
-      when(ruleRepository.findById("test-rule")).thenReturn(Optional.of(rule));
+      when(ruleStore.toggleEnabled("non-existent", null)).thenReturn(Optional.empty());
 
-      // when
-      RuleResponse result = ruleService.toggleRule("test-rule");
+      // when/then
+      assertThatThrownBy(() -> ruleService.toggleRule("non-existent", null))
+          .isInstanceOf(RuleNotFoundException.class);
+    }
 
-      // then
-      assertThat(result.enabled()).isTrue();
+    @Test
+    @DisplayName("should throw RuleVersionConflictException when the rule is at another version")
+    void shouldThrowOnVersionConflict() {
+      // given
+      when(ruleStore.toggleEnabled("test-rule", 1L)).thenReturn(Optional.empty());
+      when(ruleStore.findById("test-rule"))
+          .thenReturn(
+              Optional.of(new StoredRule(createTestRule("test-rule", "Test Rule", true), 2)));
+
+      // when/then
+      assertThatThrownBy(() -> ruleService.toggleRule("test-rule", 1L))
+          .isInstanceOf(RuleVersionConflictException.class);
+      verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
   }
 
@@ -337,6 +923,10 @@ class RuleServiceTest {
       // then
       assertThat(count).isEqualTo(3);
       verify(ruleRepository).deleteByRuleSetId("test-ruleset");
+      verify(changeLogStore).prepareRuleSetDeleted("test-ruleset");
+      verify(changeLogStore).completeRuleSetDeleted(any(), eq("test-ruleset"));
+      verify(changeNotifier).ruleSetChanged("test-ruleset");
+      verify(eventPublisher).publishEvent(RuleChangedEvent.ruleSetDeleted("test-ruleset"));
     }
   }
 }
@@ -0,0 +1,160 @@
+package org.fluxgate.studio.admin.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.changelog.RuleChangeLog;
+import org.fluxgate.studio.admin.event.RuleChangedEvent;
+import org.fluxgate.studio.admin.repository.RuleChangeLogPosition;
+import org.fluxgate.studio.admin.repository.RuleStore;
+import org.fluxgate.studio.admin.snapshot.RuleSetSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RuleSetSnapshotServiceTest {
+
+  @Mock private RuleService ruleService;
+
+  @Mock private RuleStore ruleStore;
+
+  @Mock private RuleChangeLog changeLog;
+
+  private RuleSetSnapshotService snapshotService;
+
+  @BeforeEach
+  void setUp() {
+    snapshotService =
+        new RuleSetSnapshotService(ruleService, ruleStore, changeLog, new SimpleMeterRegistry());
+  }
+
+  @Test
+  @DisplayName("should serve the compiled snapshot while the change log position is unchanged")
+  void shouldReuseSnapshotWhileUnchanged() {
+    // given
+    when(changeLog.isEnabled()).thenReturn(true);
+    when(changeLog.position()).thenReturn(new RuleChangeLogPosition(7, 7, 0));
+    storedRules(createRule("rule-1", 100));
+
+    // when
+    RuleSetSnapshot first = snapshotService.getSnapshot("set-a");
+    RuleSetSnapshot second = snapshotService.getSnapshot("set-a");
+
+    // then
+    assertThat(second).isSameAs(first);
+    assertThat(first.ruleCount()).isEqualTo(1);
+    verify(ruleStore, times(1)).forEach(eq("set-a"), any());
+    verifyNoInteractions(ruleService);
+  }
+
+  @Test
+  @DisplayName("should recompile from the store once a change becomes visible")
+  void shouldRecompileAfterChange() {
+    // given
+    when(changeLog.isEnabled()).thenReturn(true);
+    when(changeLog.position())
+        .thenReturn(new RuleChangeLogPosition(7, 7, 0), new RuleChangeLogPosition(8, 8, 0));
+    storedRules(createRule("rule-1", 100));
+    RuleSetSnapshot first = snapshotService.getSnapshot("set-a");
+    storedRules(createRule("rule-1", 200));
+
+    // when
+    RuleSetSnapshot second = snapshotService.getSnapshot("set-a");
+
+    // then
+    assertThat(second.etag()).isNotEqualTo(first.etag());
+    verify(ruleStore, times(2)).forEach(eq("set-a"), any());
+  }
+
+  @Test
+  @DisplayName("should not keep snapshots of rule sets without rules")
+  void shouldNotKeepEmptySnapshots() {
+    // given
+    when(changeLog.isEnabled()).thenReturn(true);
+    when(changeLog.position()).thenReturn(new RuleChangeLogPosition(7, 7, 0));
+    storedRules();
+
+    // when
+    RuleSetSnapshot snapshot = snapshotService.getSnapshot("set-a");
+
+    // then
+    assertThat(snapshot.ruleCount()).isZero();
+    assertThat(snapshotService.snapshotCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("should drop the snapshot of a deleted rule set")
+  void shouldDropSnapshotOfDeletedRuleSet() {
+    // given
+    when(changeLog.isEnabled()).thenReturn(true);
+    when(changeLog.position()).thenReturn(new RuleChangeLogPosition(7, 7, 0));
+    storedRules(createRule("rule-1", 100));
+    snapshotService.getSnapshot("set-a");
+
+    // when
+    snapshotService.onRuleChanged(RuleChangedEvent.ruleSetDeleted("set-a"));
+
+    // then
+    assertThat(snapshotService.snapshotCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("should compile on every pull when the change log is disabled")
+  void shouldCompileEveryPullWithoutChangeLog() {
+    // given
+    when(changeLog.isEnabled()).thenReturn(false);
+    when(ruleService.getRules("set-a")).thenReturn(List.of(createRule("rule-1", 100)));
+
+    // when
+    snapshotService.getSnapshot("set-a");
+    snapshotService.getSnapshot("set-a");
+
+    // then
+    verify(ruleService, times(2)).getRules("set-a");
+    verifyNoInteractions(ruleStore);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void storedRules(RateLimitRule... rules) {
+    doAnswer(
+            invocation -> {
+              Consumer<RateLimitRule> action = invocation.getArgument(1);
+              for (RateLimitRule rule : rules) {
+                action.accept(rule);
+              }
+              return null;
+            })
+        .when(ruleStore)
+        .forEach(eq("set-a"), any(Consumer.class));
+  }
+
+  private RateLimitRule createRule(String id, long capacity) {
+    return RateLimitRule.builder(id)
+        .name("Rule " + id)
+        .enabled(true)
+        .scope(LimitScope.PER_IP)
+        .keyStrategyId("ip")
+        .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+        .ruleSetId("set-a")
+        .addBand(RateLimitBand.builder(Duration.ofSeconds(60), capacity).build())
+        .build();
+  }
+}
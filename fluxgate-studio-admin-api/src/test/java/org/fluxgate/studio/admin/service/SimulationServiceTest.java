@@ -0,0 +1,171 @@
+package org.fluxgate.studio.admin.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.request.CreateRuleRequest;
+import org.fluxgate.studio.admin.dto.request.InlineSimulationRequest;
+import org.fluxgate.studio.admin.dto.request.LoadModelRequest;
+import org.fluxgate.studio.admin.dto.request.RateBandRequest;
+import org.fluxgate.studio.admin.dto.request.SimulationRequest;
+import org.fluxgate.studio.admin.dto.response.LoadModelResponse;
+import org.fluxgate.studio.admin.dto.response.SimulationResponse;
+import org.fluxgate.studio.admin.exception.InvalidRequestException;
+import org.fluxgate.studio.admin.exception.RuleNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SimulationServiceTest {
+
+  @Mock private RuleService ruleService;
+
+  private SimulationService simulationService;
+
+  @BeforeEach
+  void setUp() {
+    simulationService = new SimulationService(ruleService);
+  }
+
+  private RateLimitRule createTestRule() {
+    RateLimitRule.Builder builder =
+        RateLimitRule.builder("test-rule")
+            .name("Test Rule")
+            .enabled(true)
+            .scope(LimitScope.PER_IP)
+            .keyStrategyId("ip")
+            .onLimitExceedPolicy(OnLimitExceedPolicy.WAIT_FOR_REFILL);
+    builder.addBand(
+        RateLimitBand.builder(Duration.ofSeconds(60), 100).label("100-per-minute").build());
+    return builder.build();
+  }
+
+  @Test
+  @DisplayName("should simulate a stored rule with default wait and bucket settings")
+  void shouldSimulateStoredRule() {
+    // given
+    when(ruleService.getRule("test-rule")).thenReturn(createTestRule());
+    SimulationRequest request = new SimulationRequest(150, 0.0, 60_000L, null, null);
+
+    // when
+    SimulationResponse result = simulationService.simulate("test-rule", request);
+
+    // then: 600 ms per token, so only the first 8 extra requests fit into the 5 s default wait
+    assertThat(result.ruleId()).isEqualTo("test-rule");
+    assertThat(result.onLimitExceedPolicy()).isEqualTo("WAIT_FOR_REFILL");
+    assertThat(result.allowed()).isEqualTo(108);
+    assertThat(result.rejected()).isEqualTo(42);
+    assertThat(result.timeline()).hasSize(SimulationService.DEFAULT_BUCKETS);
+  }
+
+  @Test
+  @DisplayName("should simulate a rule that has not been stored")
+  void shouldSimulateInlineRule() {
+    // given
+    CreateRuleRequest rule =
+        new CreateRuleRequest(
+            "draft",
+            "Draft",
+            true,
+            "PER_IP",
+            "ip",
+            "REJECT_REQUEST",
+            List.of(new RateBandRequest(1L, 10L, "10-per-second")),
+            null,
+            null,
+            null);
+    InlineSimulationRequest request =
+        new InlineSimulationRequest(rule, new SimulationRequest(20, 1000.0, 3000L, null, 3));
+
+    // when
+    SimulationResponse result = simulationService.simulate(request);
+
+    // then
+    assertThat(result.ruleId()).isEqualTo("draft");
+    assertThat(result.totalRequests()).isEqualTo(60);
+    assertThat(result.allowed()).isEqualTo(30);
+    assertThat(result.bands().get(0).label()).isEqualTo("10-per-second");
+  }
+
+  @Test
+  @DisplayName("should reject timelines above the request limit")
+  void shouldRejectTooManyRequests() {
+    // given
+    when(ruleService.getRule("test-rule")).thenReturn(createTestRule());
+    SimulationRequest request = new SimulationRequest(1_000_000, 0.001, 3_600_000L, null, null);
+
+    // when/then
+    assertThatThrownBy(() -> simulationService.simulate("test-rule", request))
+        .isInstanceOf(InvalidRequestException.class)
+        .hasMessageContaining(String.valueOf(SimulationService.MAX_REQUESTS));
+  }
+
+  @Test
+  @DisplayName("should propagate RuleNotFoundException for unknown rules")
+  void shouldPropagateRuleNotFound() {
+    // given
+    when(ruleService.getRule("missing")).thenThrow(new RuleNotFoundException("missing"));
+
+    // when/then
+    assertThatThrownBy(
+            () -> simulationService.simulate("missing", new SimulationRequest(1, 0.0, 1L, 0L, 1)))
+        .isInstanceOf(RuleNotFoundException.class);
+  }
+
+  @Test
+  @DisplayName("should run a Poisson load model with default trials and echo the seed")
+  void shouldRunLoadModel() {
+    // given
+    when(ruleService.getRule("test-rule")).thenReturn(createTestRule());
+    LoadModelRequest request = new LoadModelRequest(null, 50, 3.0, null, 300_000L, null, null, 42L);
+
+    // when
+    LoadModelResponse result = simulationService.analyzeLoad("test-rule", request);
+
+    // then: 900 requests per key against 100 + 500 refilled tokens and 5 s of wait
+    assertThat(result.distribution()).isEqualTo("POISSON");
+    assertThat(result.trials()).isEqualTo(SimulationService.DEFAULT_TRIALS);
+    assertThat(result.seed()).isEqualTo(42L);
+    assertThat(result.rejectionRate().mean()).isBetween(0.3, 0.35);
+    assertThat(result.waitTime().maxMillis()).isLessThanOrEqualTo(5000);
+  }
+
+  @Test
+  @DisplayName("should require a mean burst size for bursty arrivals")
+  void shouldRequireBurstSizeForBurstyArrivals() {
+    // given
+    when(ruleService.getRule("test-rule")).thenReturn(createTestRule());
+    LoadModelRequest request =
+        new LoadModelRequest("BURSTY", 10, 3.0, null, 60_000L, 10, null, null);
+
+    // when/then
+    assertThatThrownBy(() -> simulationService.analyzeLoad("test-rule", request))
+        .isInstanceOf(InvalidRequestException.class)
+        .hasMessageContaining("meanBurstSize");
+  }
+
+  @Test
+  @DisplayName("should reject load models above the request limit")
+  void shouldRejectTooLargeLoadModels() {
+    // given
+    when(ruleService.getRule("test-rule")).thenReturn(createTestRule());
+    LoadModelRequest request =
+        new LoadModelRequest(null, 100_000, 100.0, null, 3_600_000L, 10_000, null, null);
+
+    // when/then
+    assertThatThrownBy(() -> simulationService.analyzeLoad("test-rule", request))
+        .isInstanceOf(InvalidRequestException.class)
+        .hasMessageContaining(String.valueOf(SimulationService.MAX_REQUESTS));
+  }
+}
@@ -0,0 +1,317 @@
+package org.fluxgate.studio.admin.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.KeyRejections;
+import org.fluxgate.studio.admin.dto.response.ReplayResponse;
+import org.fluxgate.studio.admin.dto.response.RuleReplayResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AccessLogReplayerTest {
+
+  private static final long MILLIS = 1_000_000L;
+  private static final long START_MILLIS = 1_767_225_600_000L;
+
+  @TempDir private Path directory;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private static RateLimitRule rule(
+      String id, LimitScope scope, OnLimitExceedPolicy policy, Duration window, long capacity) {
+    return RateLimitRule.builder(id)
+        .name(id)
+        .enabled(true)
+        .scope(scope)
+        .keyStrategyId("ip")
+        .onLimitExceedPolicy(policy)
+        .addBand(RateLimitBand.builder(window, capacity).label(capacity + "-per-window").build())
+        .build();
+  }
+
+  private static RateLimitRule rule(String id, LimitScope scope, Duration window, long capacity) {
+    return rule(id, scope, OnLimitExceedPolicy.REJECT_REQUEST, window, capacity);
+  }
+
+  private static String json(long timestampMillis, String ip, String userId) {
+    StringBuilder line = new StringBuilder("{\"timestamp\":").append(timestampMillis);
+    if (ip != null) {
+      line.append(",\"ip\":\"").append(ip).append('"');
+    }
+    if (userId != null) {
+      line.append(",\"userId\":\"").append(userId).append('"');
+    }
+    return line.append(",\"path\":\"/api/orders\"}").toString();
+  }
+
+  private Path write(String name, List<String> lines) throws IOException {
+    return Files.writeString(directory.resolve(name), String.join("\n", lines) + "\n");
+  }
+
+  private ReplayResponse replay(
+      Path file, AccessLogFormat format, List<RateLimitRule> rules, long maxWaitMillis)
+      throws Exception {
+    return new AccessLogReplayer(executor, 4, 64 * 1024)
+        .replay(file, format, "set-a", rules, maxWaitMillis * MILLIS, 5);
+  }
+
+  @Test
+  @DisplayName("should count rejections per rule, band and key")
+  void shouldCountRejectionsPerKey() throws Exception {
+    // given
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 15; i++) {
+      lines.add(json(START_MILLIS + i, "10.0.0.1", "alice"));
+    }
+    for (int i = 0; i < 3; i++) {
+      lines.add(json(START_MILLIS + i, "10.0.0.2", "bob"));
+    }
+    lines.add(json(START_MILLIS + 20, null, "carol"));
+    lines.add("not json");
+    lines.add("");
+    Path file = write("access.ndjson", lines);
+    RateLimitRule perIp = rule("per-ip", LimitScope.PER_IP, Duration.ofSeconds(1), 10);
+
+    // when
+    ReplayResponse response = replay(file, AccessLogFormat.NDJSON, List.of(perIp), 0);
+
+    // then
+    assertThat(response.lines()).isEqualTo(20);
+    assertThat(response.requests()).isEqualTo(19);
+    assertThat(response.malformedLines()).isEqualTo(1);
+    assertThat(response.from()).isEqualTo("2026-01-01T00:00:00Z");
+    RuleReplayResult result = response.rules().get(0);
+    assertThat(result.status()).isEqualTo("EVALUATED");
+    assertThat(result.evaluated()).isEqualTo(18);
+    assertThat(result.allowed()).isEqualTo(13);
+    assertThat(result.rejected()).isEqualTo(5);
+    assertThat(result.unkeyed()).isEqualTo(1);
+    assertThat(result.distinctKeys()).isEqualTo(2);
+    assertThat(result.bands().get(0).rejected()).isEqualTo(5);
+    assertThat(result.topRejectedKeys()).containsExactly(new KeyRejections("10.0.0.1", 5));
+  }
+
+  @Test
+  @DisplayName("should read CSV logs with a header and ISO timestamps")
+  void shouldReplayCsvWithHeader() throws Exception {
+    // given
+    Path file =
+        write(
+            "access.csv",
+            List.of(
+                "timestamp,ip,userId,apiKey,path",
+                "2026-01-01T00:00:00Z,10.0.0.1,alice,,/a",
+                "2026-01-01T00:00:01Z,10.0.0.2,alice,,/a",
+                "2026-01-01T00:00:02Z,10.0.0.3,alice,,/a",
+                "2026-01-01T00:00:03Z,10.0.0.4,alice,,/a",
+                "2026-01-01T00:00:04Z,10.0.0.5,bob,,/a"));
+    RateLimitRule global = rule("global", LimitScope.GLOBAL, Duration.ofMinutes(1), 3);
+    RateLimitRule perUser = rule("per-user", LimitScope.PER_USER, Duration.ofMinutes(1), 2);
+
+    // when
+    ReplayResponse response = replay(file, AccessLogFormat.CSV, List.of(global, perUser), 0);
+
+    // then
+    assertThat(response.lines()).isEqualTo(5);
+    assertThat(response.malformedLines()).isZero();
+    assertThat(response.to()).isEqualTo("2026-01-01T00:00:04Z");
+    assertThat(response.rules())
+        .extracting(RuleReplayResult::ruleId, RuleReplayResult::allowed, RuleReplayResult::rejected)
+        .containsExactly(tuple("global", 3L, 2L), tuple("per-user", 3L, 2L));
+    assertThat(response.rules().get(0).topRejectedKeys())
+        .containsExactly(new KeyRejections("*", 2));
+    assertThat(response.rules().get(1).topRejectedKeys())
+        .containsExactly(new KeyRejections("alice", 2));
+  }
+
+  @Test
+  @DisplayName("should skip disabled rules and scopes that cannot be keyed from a log")
+  void shouldSkipUnsupportedRules() throws Exception {
+    // given
+    Path file = write("access.ndjson", List.of(json(START_MILLIS, "10.0.0.1", null)));
+    RateLimitRule custom = rule("custom", LimitScope.CUSTOM, Duration.ofSeconds(1), 10);
+    RateLimitRule disabled =
+        RateLimitRule.builder("disabled")
+            .name("disabled")
+            .enabled(false)
+            .scope(LimitScope.PER_IP)
+            .keyStrategyId("ip")
+            .onLimitExceedPolicy(OnLimitExceedPolicy.REJECT_REQUEST)
+            .addBand(RateLimitBand.builder(Duration.ofSeconds(1), 1).label("1").build())
+            .build();
+
+    // when
+    ReplayResponse response = replay(file, AccessLogFormat.NDJSON, List.of(custom, disabled), 0);
+
+    // then
+    assertThat(response.requests()).isEqualTo(1);
+    assertThat(response.rules())
+        .extracting(RuleReplayResult::status)
+        .containsExactly("SKIPPED", "SKIPPED");
+    assertThat(response.rules()).allSatisfy(rule -> assertThat(rule.message()).isNotBlank());
+  }
+
+  @Test
+  @DisplayName("should let WAIT_FOR_REFILL requests wait up to the max wait")
+  void shouldDelayWithinMaxWait() throws Exception {
+    // given
+    Path file =
+        write(
+            "access.ndjson",
+            List.of(
+                json(START_MILLIS, "10.0.0.1", null),
+                json(START_MILLIS, "10.0.0.1", null),
+                json(START_MILLIS, "10.0.0.1", null)));
+    RateLimitRule rule =
+        rule(
+            "wait",
+            LimitScope.PER_IP,
+            OnLimitExceedPolicy.WAIT_FOR_REFILL,
+            Duration.ofSeconds(1),
+            1);
+
+    // when
+    ReplayResponse response = replay(file, AccessLogFormat.NDJSON, List.of(rule), 1000);
+
+    // then
+    RuleReplayResult result = response.rules().get(0);
+    assertThat(result.allowed()).isEqualTo(2);
+    assertThat(result.delayed()).isEqualTo(1);
+    assertThat(result.rejected()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should give the same result regardless of chunking and partitioning")
+  void shouldNotDependOnChunksOrPartitions() throws Exception {
+    // given
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      lines.add(json(START_MILLIS + i / 10, "10.0." + (i % 7) + "." + (i % 31), "user-" + i % 13));
+    }
+    Path file = write("large.ndjson", lines);
+    List<RateLimitRule> rules =
+        List.of(
+            rule("per-ip", LimitScope.PER_IP, Duration.ofSeconds(1), 20),
+            rule("per-user", LimitScope.PER_USER, Duration.ofSeconds(1), 50),
+            rule("global", LimitScope.GLOBAL, Duration.ofSeconds(1), 5000));
+
+    // when
+    ReplayResponse chunked =
+        new AccessLogReplayer(executor, 4, 64 * 1024)
+            .replay(file, AccessLogFormat.NDJSON, "set-a", rules, 0, 3);
+    ReplayResponse single =
+        new AccessLogReplayer(executor, 1, 16 * 1024 * 1024)
+            .replay(file, AccessLogFormat.NDJSON, "set-a", rules, 0, 3);
+
+    // then
+    assertThat(Files.size(file)).isGreaterThan(64 * 1024 * 10);
+    assertThat(chunked.requests()).isEqualTo(20_000);
+    assertThat(chunked.rules())
+        .extracting(
+            RuleReplayResult::allowed,
+            RuleReplayResult::rejected,
+            RuleReplayResult::distinctKeys,
+            RuleReplayResult::bands)
+        .containsExactlyElementsOf(
+            single.rules().stream()
+                .map(
+                    rule ->
+                        tuple(
+                            rule.allowed(), rule.rejected(), rule.distinctKeys(), rule.bands()))
+                .toList());
+    assertThat(chunked.rules().get(0).rejected()).isPositive();
+  }
+
+  @Test
+  @DisplayName("should fail on a line longer than a chunk")
+  void shouldFailOnOversizedLine() throws Exception {
+    // given
+    Path file =
+        write(
+            "access.ndjson",
+            List.of("{\"timestamp\":1,\"path\":\"" + "x".repeat(70 * 1024) + "\"}", "{}"));
+
+    // when/then
+    assertThatThrownBy(
+            () ->
+                replay(
+                    file,
+                    AccessLogFormat.NDJSON,
+                    List.of(rule("r", LimitScope.GLOBAL, Duration.ofSeconds(1), 1)),
+                    0))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Nested
+  @DisplayName("AccessLogParser")
+  class ParserTests {
+
+    private long timestamp(AccessLogFormat format, String line) {
+      ByteBuffer buf = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+      AccessLogParser parser = new AccessLogParser(format);
+      assertThat(parser.parse(buf, 0, buf.limit())).isTrue();
+      return parser.timestampNanos(buf);
+    }
+
+    @Test
+    @DisplayName("should derive the epoch unit from the number of digits")
+    void shouldDetectEpochUnits() {
+      long expected = START_MILLIS * MILLIS;
+
+      assertThat(timestamp(AccessLogFormat.CSV, "1767225600,,,,")).isEqualTo(expected);
+      assertThat(timestamp(AccessLogFormat.CSV, "1767225600000,,,,")).isEqualTo(expected);
+      assertThat(timestamp(AccessLogFormat.CSV, "1767225600000000,,,,")).isEqualTo(expected);
+      assertThat(timestamp(AccessLogFormat.CSV, "1767225600000000000,,,,")).isEqualTo(expected);
+      assertThat(timestamp(AccessLogFormat.CSV, "1767225600.5,,,,"))
+          .isEqualTo(expected + 500 * MILLIS);
+    }
+
+    @Test
+    @DisplayName("should read ISO timestamps and skip unknown JSON fields")
+    void shouldParseIsoTimestampsInJson() {
+      String line =
+          "{\"status\":200,\"headers\":{\"a\":[1,2]},\"timestamp\":\"2026-01-01T00:00:00.25Z\","
+              + "\"ip\":\"10.0.0.1\\\"x\"}\r";
+
+      assertThat(timestamp(AccessLogFormat.NDJSON, line)).isEqualTo((START_MILLIS + 250) * MILLIS);
+    }
+
+    @Test
+    @DisplayName("should reject lines without a timestamp")
+    void shouldRejectLinesWithoutTimestamp() {
+      ByteBuffer buf = ByteBuffer.wrap("{\"ip\":\"10.0.0.1\"}".getBytes(StandardCharsets.UTF_8));
+
+      assertThat(new AccessLogParser(AccessLogFormat.NDJSON).parse(buf, 0, buf.limit())).isFalse();
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package org.fluxgate.studio.admin.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.LoadModelResponse;
+import org.fluxgate.studio.admin.dto.response.MetricSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MonteCarloSimulatorTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownNow();
+  }
+
+  private static RateLimitRule rule(LimitScope scope, OnLimitExceedPolicy policy, long capacity) {
+    return RateLimitRule.builder("load-rule")
+        .name("Load")
+        .enabled(true)
+        .scope(scope)
+        .keyStrategyId("ip")
+        .onLimitExceedPolicy(policy)
+        .addBand(RateLimitBand.builder(Duration.ofSeconds(1), capacity).label("per-second").build())
+        .build();
+  }
+
+  private static LoadModel poisson(int keys, double rate, long seconds) {
+    return new LoadModel(ArrivalDistribution.POISSON, keys, rate, 1, seconds * SECOND);
+  }
+
+  private static void assertConsistent(MetricSummary summary) {
+    assertThat(summary.lower()).isLessThanOrEqualTo(summary.mean());
+    assertThat(summary.upper()).isGreaterThanOrEqualTo(summary.mean());
+    assertThat(summary.p5()).isLessThanOrEqualTo(summary.p50());
+    assertThat(summary.p50()).isLessThanOrEqualTo(summary.p95());
+  }
+
+  @Test
+  @DisplayName("should reject the traffic above the refill rate of each key")
+  void shouldRejectTrafficAboveRefillRate() {
+    // given: 10 rps per key against 1 token per second; a refilled token waits 0.1 s on average
+    // for the next request, so about 1 in 11 requests passes
+    RateLimitRule rule = rule(LimitScope.PER_IP, OnLimitExceedPolicy.REJECT_REQUEST, 1);
+
+    // when
+    LoadModelResponse response =
+        MonteCarloSimulator.run(rule, poisson(20, 10, 60), 40, 0, 7, pool);
+
+    // then
+    assertThat(response.meanRequestsPerTrial()).isCloseTo(12_000, within(300.0));
+    assertThat(response.rejectionRate().mean()).isCloseTo(0.909, within(0.005));
+    assertThat(response.bands().get(0).rejectionRate()).isEqualTo(response.rejectionRate());
+    assertThat(response.confidenceLevel()).isEqualTo(MonteCarloSimulator.CONFIDENCE_LEVEL);
+    assertConsistent(response.rejectionRate());
+  }
+
+  @Test
+  @DisplayName("should barely reject traffic well below capacity")
+  void shouldNotRejectTrafficBelowCapacity() {
+    // given
+    RateLimitRule rule = rule(LimitScope.PER_IP, OnLimitExceedPolicy.REJECT_REQUEST, 100);
+
+    // when
+    LoadModelResponse response = MonteCarloSimulator.run(rule, poisson(50, 3, 60), 20, 0, 7, pool);
+
+    // then
+    assertThat(response.rejectionRate().mean()).isZero();
+    assertThat(response.waitTime().maxMillis()).isZero();
+  }
+
+  @Test
+  @DisplayName("should give identical results for the same seed regardless of parallelism")
+  void shouldBeReproducible() {
+    // given
+    RateLimitRule rule = rule(LimitScope.PER_IP, OnLimitExceedPolicy.REJECT_REQUEST, 3);
+    LoadModel model = new LoadModel(ArrivalDistribution.BURSTY, 30, 2, 5, 30 * SECOND);
+    ForkJoinPool single = new ForkJoinPool(1);
+
+    // when
+    LoadModelResponse parallel = MonteCarloSimulator.run(rule, model, 16, 0, 99, pool);
+    LoadModelResponse sequential = MonteCarloSimulator.run(rule, model, 16, 0, 99, single);
+    single.shutdownNow();
+
+    // then
+    assertThat(parallel).isEqualTo(sequential);
+    assertThat(parallel.rejectionRate().stdDev()).isPositive();
+  }
+
+  @Test
+  @DisplayName("should report waits of WAIT_FOR_REFILL rules up to the max wait")
+  void shouldReportWaitDistribution() {
+    // given
+    RateLimitRule rule = rule(LimitScope.PER_API_KEY, OnLimitExceedPolicy.WAIT_FOR_REFILL, 5);
+    LoadModel model = new LoadModel(ArrivalDistribution.BURSTY, 50, 4, 8, 60 * SECOND);
+
+    // when
+    LoadModelResponse response = MonteCarloSimulator.run(rule, model, 20, 2 * SECOND, 3, pool);
+
+    // then
+    assertThat(response.delayedRate().mean()).isPositive();
+    assertThat(response.waitTime().p50Millis())
+        .isLessThanOrEqualTo(response.waitTime().p99Millis());
+    assertThat(response.waitTime().maxMillis()).isLessThanOrEqualTo(2000);
+    assertThat(response.p99WaitMillis().mean()).isPositive().isLessThanOrEqualTo(2000);
+    assertConsistent(response.delayedRate());
+  }
+
+  @Test
+  @DisplayName("should share one bucket among all keys for GLOBAL rules")
+  void shouldMergeKeysForGlobalRules() {
+    // given: 1000 keys at 1 rps each against 100 tokens per second
+    RateLimitRule rule = rule(LimitScope.GLOBAL, OnLimitExceedPolicy.REJECT_REQUEST, 100);
+
+    // when
+    LoadModelResponse response =
+        MonteCarloSimulator.run(rule, poisson(1000, 1, 60), 10, 0, 5, pool);
+
+    // then
+    assertThat(response.rejectionRate().mean()).isCloseTo(0.898, within(0.01));
+  }
+}
@@ -0,0 +1,178 @@
+package org.fluxgate.studio.admin.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+import java.time.Duration;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.fluxgate.studio.admin.dto.response.BandSimulationBucket;
+import org.fluxgate.studio.admin.dto.response.BandSimulationResult;
+import org.fluxgate.studio.admin.dto.response.SimulationBucket;
+import org.fluxgate.studio.admin.dto.response.SimulationResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class TrafficSimulatorTest {
+
+  private static final long MILLIS = 1_000_000L;
+
+  private static RateLimitRule rule(OnLimitExceedPolicy policy, RateLimitBand... bands) {
+    RateLimitRule.Builder builder =
+        RateLimitRule.builder("sim-rule")
+            .name("Simulated")
+            .enabled(true)
+            .scope(LimitScope.PER_IP)
+            .keyStrategyId("ip")
+            .onLimitExceedPolicy(policy);
+    for (RateLimitBand band : bands) {
+      builder.addBand(band);
+    }
+    return builder.build();
+  }
+
+  private static RateLimitBand band(Duration window, long capacity, String label) {
+    return RateLimitBand.builder(window, capacity).label(label).build();
+  }
+
+  private static BurstTraffic traffic(int burstSize, long intervalMillis, long durationMillis) {
+    return new BurstTraffic(burstSize, intervalMillis * (double) MILLIS, durationMillis * MILLIS);
+  }
+
+  @Nested
+  @DisplayName("REJECT_REQUEST")
+  class RejectRequestTests {
+
+    @Test
+    @DisplayName("should reject the part of a burst above capacity")
+    void shouldRejectBurstAboveCapacity() {
+      // given
+      RateLimitRule rule =
+          rule(OnLimitExceedPolicy.REJECT_REQUEST, band(Duration.ofSeconds(1), 10, "10/s"));
+
+      // when
+      SimulationResponse result = TrafficSimulator.run(rule, traffic(15, 0, 1000), 0, 10);
+
+      // then
+      assertThat(result.totalRequests()).isEqualTo(15);
+      assertThat(result.allowed()).isEqualTo(10);
+      assertThat(result.rejected()).isEqualTo(5);
+      assertThat(result.delayed()).isZero();
+      assertThat(result.timeline().get(0).allowed()).isEqualTo(10);
+      assertThat(result.bands().get(0).rejected()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("should refill continuously between bursts")
+    void shouldRefillBetweenBursts() {
+      // given
+      RateLimitRule rule =
+          rule(OnLimitExceedPolicy.REJECT_REQUEST, band(Duration.ofSeconds(1), 10, "10/s"));
+
+      // when
+      SimulationResponse result = TrafficSimulator.run(rule, traffic(10, 100, 1000), 0, 10);
+
+      // then: the first burst empties the bucket, each later burst finds one refilled token
+      assertThat(result.totalRequests()).isEqualTo(100);
+      assertThat(result.allowed()).isEqualTo(19);
+      assertThat(result.timeline())
+          .extracting(SimulationBucket::allowed)
+          .containsExactly(10L, 1L, 1L, 1L, 1L, 1L, 1L, 1L, 1L, 1L);
+      assertThat(result.bands().get(0).timeline())
+          .extracting(BandSimulationBucket::remainingTokens)
+          .allSatisfy(tokens -> assertThat(tokens).isCloseTo(1.0, within(1e-9)));
+    }
+
+    @Test
+    @DisplayName("should attribute rejections to the band that ran out")
+    void shouldAttributeRejectionsPerBand() {
+      // given
+      RateLimitRule rule =
+          rule(
+              OnLimitExceedPolicy.REJECT_REQUEST,
+              band(Duration.ofSeconds(1), 5, "5/s"),
+              band(Duration.ofMinutes(1), 100, "100/min"));
+
+      // when
+      SimulationResponse result = TrafficSimulator.run(rule, traffic(10, 0, 1000), 0, 1);
+
+      // then
+      assertThat(result.allowed()).isEqualTo(5);
+      assertThat(result.bands())
+          .extracting(BandSimulationResult::label, BandSimulationResult::rejected)
+          .containsExactly(tuple("5/s", 5L), tuple("100/min", 0L));
+      // 95 tokens left after the burst, plus one second of refill at 100 per minute
+      assertThat(result.bands().get(1).timeline().get(0).remainingTokens())
+          .isCloseTo(95.0 + 100.0 / 60, within(1e-6));
+    }
+  }
+
+  @Nested
+  @DisplayName("WAIT_FOR_REFILL")
+  class WaitForRefillTests {
+
+    @Test
+    @DisplayName("should delay requests until a token is refilled")
+    void shouldDelayUntilRefill() {
+      // given
+      RateLimitRule rule =
+          rule(OnLimitExceedPolicy.WAIT_FOR_REFILL, band(Duration.ofSeconds(1), 10, "10/s"));
+
+      // when
+      SimulationResponse result =
+          TrafficSimulator.run(rule, traffic(15, 0, 1000), 1000 * MILLIS, 1);
+
+      // then: the extra requests wait 100, 200, 300, 400 and 500 ms
+      assertThat(result.allowed()).isEqualTo(15);
+      assertThat(result.delayed()).isEqualTo(5);
+      assertThat(result.maxWaitMillis()).isCloseTo(500.0, within(0.001));
+      assertThat(result.averageWaitMillis()).isCloseTo(300.0, within(0.001));
+    }
+
+    @Test
+    @DisplayName("should reject requests that would wait longer than the maximum")
+    void shouldRejectBeyondMaxWait() {
+      // given
+      RateLimitRule rule =
+          rule(OnLimitExceedPolicy.WAIT_FOR_REFILL, band(Duration.ofSeconds(1), 10, "10/s"));
+
+      // when
+      SimulationResponse result =
+          TrafficSimulator.run(rule, traffic(15, 0, 1000), 250 * MILLIS, 1);
+
+      // then
+      assertThat(result.allowed()).isEqualTo(12);
+      assertThat(result.rejected()).isEqualTo(3);
+      assertThat(result.maxWaitMillis()).isCloseTo(200.0, within(0.001));
+    }
+  }
+
+  @Test
+  @DisplayName("should simulate ten million requests on the virtual clock in well under a second")
+  void shouldSimulateMillionsOfRequestsQuickly() {
+    // given
+    RateLimitRule rule =
+        rule(
+            OnLimitExceedPolicy.REJECT_REQUEST,
+            band(Duration.ofSeconds(1), 1_000, "1000/s"),
+            band(Duration.ofMinutes(1), 30_000, "30000/min"));
+
+    // when
+    SimulationResponse result =
+        assertTimeout(
+            Duration.ofSeconds(2),
+            () -> TrafficSimulator.run(rule, traffic(1000, 1, 10_000), 0, 100));
+
+    // then
+    assertThat(result.totalRequests()).isEqualTo(10_000_000);
+    assertThat(result.allowed() + result.rejected()).isEqualTo(10_000_000);
+    assertThat(result.timeline()).hasSize(100);
+    assertThat(result.timeline().stream().mapToLong(SimulationBucket::allowed).sum())
+        .isEqualTo(result.allowed());
+  }
+}
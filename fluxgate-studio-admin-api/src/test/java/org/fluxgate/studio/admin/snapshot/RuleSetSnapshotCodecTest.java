@@ -0,0 +1,158 @@
+package org.fluxgate.studio.admin.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.fluxgate.core.config.LimitScope;
+import org.fluxgate.core.config.OnLimitExceedPolicy;
+import org.fluxgate.core.config.RateLimitBand;
+import org.fluxgate.core.config.RateLimitRule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RuleSetSnapshotCodecTest {
+
+  private RateLimitRule createTestRule(String id, Map<String, Object> attributes) {
+    return createTestRule(id, true, attributes);
+  }
+
+  private RateLimitRule createTestRule(
+      String id, boolean enabled, Map<String, Object> attributes) {
+    return RateLimitRule.builder(id)
+        .name("Rule " + id)
+        .enabled(enabled)
+        .scope(LimitScope.PER_API_KEY)
+        .keyStrategyId("apiKey")
+        .onLimitExceedPolicy(OnLimitExceedPolicy.WAIT_FOR_REFILL)
+        .ruleSetId("set-a")
+        .attributes(attributes)
+        .addBand(RateLimitBand.builder(Duration.ofSeconds(1), 10).label("per-second").build())
+        .addBand(RateLimitBand.builder(Duration.ofHours(1), 5_000).label("per-hour").build())
+        .build();
+  }
+
+  @Test
+  @DisplayName("should decode every field of the encoded rules in ID order")
+  void shouldRoundTripRules() {
+    // given
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("tags", List.of("payments", "eu"));
+    attributes.put("owner", Map.of("team", "checkout", "pager", true));
+    attributes.put("weight", 2.5);
+    attributes.put("priority", 7);
+    attributes.put("note", null);
+    List<RateLimitRule> rules =
+        List.of(createTestRule("rule-b", attributes), createTestRule("rule-a", false, Map.of()));
+
+    // when
+    List<RateLimitRule> decoded =
+        RuleSetSnapshotCodec.decode(RuleSetSnapshotCodec.encode("set-a", rules));
+
+    // then
+    assertThat(decoded).extracting(RateLimitRule::getId).containsExactly("rule-a", "rule-b");
+    RateLimitRule rule = decoded.get(1);
+    assertThat(rule.getName()).isEqualTo("Rule rule-b");
+    assertThat(rule.isEnabled()).isTrue();
+    assertThat(decoded.get(0).isEnabled()).isFalse();
+    assertThat(rule.getScope()).isEqualTo(LimitScope.PER_API_KEY);
+    assertThat(rule.getKeyStrategyId()).isEqualTo("apiKey");
+    assertThat(rule.getOnLimitExceedPolicy()).isEqualTo(OnLimitExceedPolicy.WAIT_FOR_REFILL);
+    assertThat(rule.getRuleSetIdOrNull()).isEqualTo("set-a");
+    assertThat(rule.getBands())
+        .extracting(RateLimitBand::getWindow, RateLimitBand::getCapacity, RateLimitBand::getLabel)
+        .containsExactly(
+            tuple(Duration.ofSeconds(1), 10L, "per-second"),
+            tuple(Duration.ofHours(1), 5_000L, "per-hour"));
+    assertThat(rule.getAttributes())
+        .containsEntry("tags", List.of("payments", "eu"))
+        .containsEntry("owner", Map.of("pager", true, "team", "checkout"))
+        .containsEntry("weight", 2.5)
+        .containsEntry("priority", 7L)
+        .containsEntry("note", null);
+  }
+
+  @Test
+  @DisplayName("should share one instance per distinct string")
+  void shouldInternStrings() {
+    // given
+    List<RateLimitRule> rules =
+        List.of(createTestRule("rule-1", Map.of()), createTestRule("rule-2", Map.of()));
+
+    // when
+    List<RateLimitRule> decoded =
+        RuleSetSnapshotCodec.decode(RuleSetSnapshotCodec.encode("set-a", rules));
+
+    // then
+    assertThat(decoded.get(0).getKeyStrategyId()).isSameAs(decoded.get(1).getKeyStrategyId());
+    assertThat(decoded.get(0).getBands().get(0).getLabel())
+        .isSameAs(decoded.get(1).getBands().get(0).getLabel());
+  }
+
+  @Test
+  @DisplayName("should encode equal rule sets to equal bytes regardless of order")
+  void shouldEncodeDeterministically() {
+    // given
+    Map<String, Object> forward = new LinkedHashMap<>();
+    forward.put("a", 1);
+    forward.put("b", 2);
+    Map<String, Object> backward = new LinkedHashMap<>();
+    backward.put("b", 2);
+    backward.put("a", 1);
+
+    // when
+    byte[] first =
+        RuleSetSnapshotCodec.encode(
+            "set-a",
+            List.of(createTestRule("rule-1", forward), createTestRule("rule-2", Map.of())));
+    byte[] second =
+        RuleSetSnapshotCodec.encode(
+            "set-a",
+            List.of(createTestRule("rule-2", Map.of()), createTestRule("rule-1", backward)));
+
+    // then
+    assertThat(first).isEqualTo(second);
+    assertThat(RuleSetSnapshot.compile("set-a", List.of(createTestRule("rule-1", forward))).etag())
+        .isNotEqualTo(
+            RuleSetSnapshot.compile("set-a", List.of(createTestRule("rule-1", Map.of()))).etag());
+  }
+
+  @Test
+  @DisplayName("should encode an empty rule set")
+  void shouldEncodeEmptyRuleSet() {
+    // when
+    byte[] snapshot = RuleSetSnapshotCodec.encode("empty", List.of());
+
+    // then
+    assertThat(RuleSetSnapshotCodec.decode(snapshot)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should reject bytes that are not a complete snapshot")
+  void shouldRejectCorruptSnapshots() {
+    // given
+    byte[] snapshot =
+        RuleSetSnapshotCodec.encode("set-a", List.of(createTestRule("rule-1", Map.of())));
+    byte[] otherVersion = snapshot.clone();
+    otherVersion[5] = 9;
+
+    // when/then
+    assertThatThrownBy(
+            () -> RuleSetSnapshotCodec.decode("not a snapshot".getBytes(StandardCharsets.UTF_8)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Not a rule set snapshot");
+    assertThatThrownBy(() -> RuleSetSnapshotCodec.decode(otherVersion))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("version 9");
+    assertThatThrownBy(
+            () -> RuleSetSnapshotCodec.decode(Arrays.copyOf(snapshot, snapshot.length - 3)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Corrupt");
+  }
+}
@@ -0,0 +1,171 @@
+package org.fluxgate.studio.admin.threading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestConcurrencyFilterTest {
+
+  private SimpleMeterRegistry registry;
+  private RequestConcurrencyFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    filter =
+        new RequestConcurrencyFilter(
+            new RequestConcurrencyProperties(1, Duration.ofMillis(50)),
+            new ObjectMapper().registerModule(new JavaTimeModule()),
+            registry);
+  }
+
+  private static MockHttpServletRequest request(String path) {
+    return new MockHttpServletRequest("GET", path);
+  }
+
+  /** Starts a request that holds its slot until {@code release} is counted down. */
+  private Thread holdSlot(CountDownLatch entered, CountDownLatch release) {
+    FilterChain blocking =
+        (req, res) -> {
+          entered.countDown();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        };
+    return Thread.ofVirtual()
+        .start(
+            () -> {
+              try {
+                filter.doFilter(
+                    request("/api/rules/slow"), new MockHttpServletResponse(), blocking);
+              } catch (Exception e) {
+                throw new IllegalStateException(e);
+              }
+            });
+  }
+
+  @Test
+  @DisplayName("should reject API requests with 503 while all slots are taken")
+  void shouldRejectWhenSaturated() throws Exception {
+    // given
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder = holdSlot(entered, release);
+    assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+    AtomicInteger handled = new AtomicInteger();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // when
+    filter.doFilter(request("/api/rules"), response, (req, res) -> handled.incrementAndGet());
+
+    // then
+    assertThat(handled).hasValue(0);
+    assertThat(response.getStatus()).isEqualTo(503);
+    assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    assertThat(response.getContentAsString()).contains("\"path\":\"/api/rules\"");
+    assertThat(registry.counter("studio.requests.rejected").count()).isEqualTo(1);
+    assertThat(registry.get("studio.requests.active").gauge().value()).isEqualTo(1);
+
+    release.countDown();
+    holder.join();
+    assertThat(filter.activeRequests()).isZero();
+  }
+
+  @Test
+  @DisplayName("should admit a waiting request once a slot is released")
+  void shouldAdmitAfterRelease() throws Exception {
+    // given
+    filter =
+        new RequestConcurrencyFilter(
+            new RequestConcurrencyProperties(1, Duration.ofSeconds(5)),
+            new ObjectMapper(),
+            new SimpleMeterRegistry());
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder = holdSlot(entered, release);
+    assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+    AtomicInteger handled = new AtomicInteger();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // when
+    Thread.ofVirtual().start(release::countDown);
+    filter.doFilter(request("/api/rules"), response, (req, res) -> handled.incrementAndGet());
+
+    // then
+    holder.join();
+    assertThat(handled).hasValue(1);
+    assertThat(response.getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  @DisplayName("should keep the slot of an async request until it completes")
+  void shouldHoldSlotUntilAsyncCompletion() throws Exception {
+    // given
+    MockHttpServletRequest request = request("/api/rules:stream");
+    request.setAsyncSupported(true);
+
+    // when
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+    // then
+    assertThat(filter.activeRequests()).isEqualTo(1);
+    request.getAsyncContext().complete();
+    assertThat(filter.activeRequests()).isZero();
+  }
+
+  @Test
+  @DisplayName("should give the slot of a watch back once it starts waiting")
+  void shouldReleaseSlotOfWaitingWatch() throws Exception {
+    // given
+    MockHttpServletRequest request = request("/api/rules/watch");
+    request.setAsyncSupported(true);
+
+    // when
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+    // then
+    assertThat(filter.activeRequests()).isZero();
+  }
+
+  @Test
+  @DisplayName("should not count the event stream and non-API paths")
+  void shouldSkipEventStreamAndNonApiPaths() throws Exception {
+    // given
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder = holdSlot(entered, release);
+    assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+    AtomicInteger handled = new AtomicInteger();
+
+    // when
+    filter.doFilter(
+        request("/api/rules/events"),
+        new MockHttpServletResponse(),
+        (req, res) -> handled.incrementAndGet());
+    filter.doFilter(
+        request("/actuator/health"),
+        new MockHttpServletResponse(),
+        (req, res) -> handled.incrementAndGet());
+
+    // then
+    assertThat(handled).hasValue(2);
+    assertThat(registry.counter("studio.requests.rejected").count()).isZero();
+
+    release.countDown();
+    holder.join();
+  }
+}
@@ -0,0 +1,115 @@
+package org.fluxgate.studio.admin.threading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+/** Blocking inside {@code synchronized} no longer pins from Java 24 on (JEP 491). */
+@EnabledForJreRange(max = JRE.JAVA_23)
+class VirtualThreadPinningMonitorTest {
+
+  private static final long EVENT_WAIT_MILLIS = 10_000;
+
+  private SimpleMeterRegistry registry;
+  private VirtualThreadPinningMonitor monitor;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    monitor =
+        new VirtualThreadPinningMonitor(
+            new PinningMonitorProperties(true, Duration.ofMillis(10), 5), registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    monitor.close();
+  }
+
+  private Timer pinned() {
+    return registry.get("studio.threads.virtual.pinned").timer();
+  }
+
+  private void awaitPinnings(long count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + EVENT_WAIT_MILLIS;
+    while (pinned().count() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+  }
+
+  @Test
+  @DisplayName("should record a virtual thread that sleeps inside synchronized")
+  void shouldRecordPinnedSleep() throws Exception {
+    // given
+    Object monitorLock = new Object();
+
+    // when
+    Thread.ofVirtual()
+        .start(
+            () -> {
+              synchronized (monitorLock) {
+                sleep(50);
+              }
+            })
+        .join();
+    awaitPinnings(1);
+
+    // then
+    assertThat(pinned().count()).isEqualTo(1);
+    assertThat(pinned().totalTime(TimeUnit.MILLISECONDS))
+        .isGreaterThanOrEqualTo(40);
+  }
+
+  @Test
+  @DisplayName("should not record a virtual thread that blocks while holding a ReentrantLock")
+  void shouldIgnoreUnmountingBlock() throws Exception {
+    // given
+    ReentrantLock lock = new ReentrantLock();
+    Object monitorLock = new Object();
+
+    // when
+    Thread.ofVirtual()
+        .start(
+            () -> {
+              lock.lock();
+              try {
+                sleep(50);
+              } finally {
+                lock.unlock();
+              }
+            })
+        .join();
+    // A pinned sleep afterwards shows that the stream has delivered the earlier events
+    Thread.ofVirtual()
+        .start(
+            () -> {
+              synchronized (monitorLock) {
+                sleep(50);
+              }
+            })
+        .join();
+    awaitPinnings(1);
+    Thread.sleep(200);
+
+    // then
+    assertThat(pinned().count()).isEqualTo(1);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
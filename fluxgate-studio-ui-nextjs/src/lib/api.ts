@@ -30,6 +30,71 @@ export interface ApiDashboardStats {
   lastUpdated: string;
 }
 
+export interface ApiSimulationRequest {
+  burstSize: number;
+  intervalMillis: number;
+  durationMillis: number;
+  maxWaitMillis?: number;
+  buckets?: number;
+}
+
+export interface ApiSimulationBucket {
+  startMillis: number;
+  allowed: number;
+  rejected: number;
+  delayed: number;
+}
+
+export interface ApiBandSimulationBucket {
+  startMillis: number;
+  allowed: number;
+  rejected: number;
+  remainingTokens: number;
+}
+
+export interface ApiBandSimulationResult {
+  label: string | null;
+  windowSeconds: number;
+  capacity: number;
+  allowed: number;
+  rejected: number;
+  timeline: ApiBandSimulationBucket[];
+}
+
+export interface ApiSimulationResult {
+  ruleId: string;
+  onLimitExceedPolicy: string;
+  totalRequests: number;
+  allowed: number;
+  rejected: number;
+  delayed: number;
+  averageWaitMillis: number;
+  maxWaitMillis: number;
+  timeline: ApiSimulationBucket[];
+  bands: ApiBandSimulationResult[];
+}
+
+export type ApiRuleChangeType =
+  | 'CREATED'
+  | 'UPDATED'
+  | 'TOGGLED'
+  | 'DELETED'
+  | 'RULE_SET_DELETED'
+  | 'BULK_CHANGED';
+
+export interface ApiRuleChangeEvent {
+  type: ApiRuleChangeType;
+  ruleId: string | null;
+  ruleSetId: string | null;
+  rule: ApiRule | null;
+}
+
+export interface RuleEventHandlers {
+  onRuleChange: (event: ApiRuleChangeEvent) => void;
+  onStats: (stats: ApiDashboardStats) => void;
+  onOpen?: () => void;
+}
+
 export interface CreateRuleRequest {
   id: string;
   name: string;
@@ -170,4 +235,73 @@ export async function deleteRulesByRuleSetId(ruleSetId: string): Promise<{ delet
   return handleResponse<{ deletedCount: number }>(response);
 }
 
+// Simulation API
+export async function simulateRule(
+  id: string,
+  request: ApiSimulationRequest
+): Promise<ApiSimulationResult> {
+  const headers = await getAuthHeaders();
+  const response = await fetch(`${API_BASE_URL}/api/rules/${encodeURIComponent(id)}/simulate`, {
+    method: 'POST',
+    headers,
+    body: JSON.stringify(request),
+  });
+  return handleResponse<ApiSimulationResult>(response);
+}
+
+// Rule change events (Server-Sent Events)
+// EventSource cannot send the bearer token, so the stream is read with fetch instead.
+export async function subscribeRuleEvents(
+  handlers: RuleEventHandlers,
+  signal: AbortSignal
+): Promise<void> {
+  const headers = await getAuthHeaders();
+  const response = await fetch(`${API_BASE_URL}/api/rules/events`, {
+    headers: { ...headers, Accept: 'text/event-stream' },
+    signal,
+  });
+  if (!response.ok || !response.body) {
+    await handleResponse<void>(response);
+    throw new ApiError(response.status, 'Event stream unavailable');
+  }
+  handlers.onOpen?.();
+
+  const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = '';
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) {
+      return;
+    }
+    buffer += value.replace(/\r\n?/g, '\n');
+    let boundary = buffer.indexOf('\n\n');
+    while (boundary >= 0) {
+      dispatchRuleEvent(buffer.slice(0, boundary), handlers);
+      buffer = buffer.slice(boundary + 2);
+      boundary = buffer.indexOf('\n\n');
+    }
+  }
+}
+
+function dispatchRuleEvent(block: string, handlers: RuleEventHandlers) {
+  let name = 'message';
+  const data: string[] = [];
+  for (const line of block.split('\n')) {
+    if (line.startsWith('event:')) {
+      name = line.slice(6).trim();
+    } else if (line.startsWith('data:')) {
+      data.push(line.slice(5).replace(/^ /, ''));
+    }
+  }
+  if (data.length === 0) {
+    return; // keep-alive comment
+  }
+  const payload = JSON.parse(data.join('\n'));
+  if (name === 'rule') {
+    handlers.onRuleChange(payload as ApiRuleChangeEvent);
+  } else if (name === 'stats') {
+    handlers.onStats(payload as ApiDashboardStats);
+  }
+}
+
 export { ApiError };
@@ -1,6 +1,13 @@
-import type { LimitExceedPolicy, RateBand, Rule, RuleScope, Stats } from '@/modules/admin/types';
+import type {
+  LimitExceedPolicy,
+  RateBand,
+  Rule,
+  RuleScope,
+  SimulationResult,
+  Stats,
+} from '@/modules/admin/types';
 
-import type { ApiDashboardStats, ApiRateBand, ApiRule } from './api';
+import type { ApiDashboardStats, ApiRateBand, ApiRule, ApiSimulationResult } from './api';
 
 export function mapApiRuleToRule(apiRule: ApiRule): Rule {
   return {
@@ -35,6 +42,21 @@ export function mapApiStatsToStats(apiStats: ApiDashboardStats): Stats {
   };
 }
 
+export function mapApiSimulationToSimulationResult(
+  apiResult: ApiSimulationResult
+): SimulationResult {
+  return {
+    totalRequests: apiResult.totalRequests,
+    allowed: apiResult.allowed,
+    rejected: apiResult.rejected,
+    delayed: apiResult.delayed,
+    averageWaitMillis: apiResult.averageWaitMillis,
+    maxWaitMillis: apiResult.maxWaitMillis,
+    timeline: apiResult.timeline,
+    bands: apiResult.bands.map((band) => ({ ...band, label: band.label || '' })),
+  };
+}
+
 export function mapRuleToCreateRequest(rule: Partial<Rule> & { id: string }) {
   return {
     id: rule.id,
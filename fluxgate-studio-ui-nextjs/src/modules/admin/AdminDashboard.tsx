@@ -1,6 +1,6 @@
 'use client';
 
-import React, { useCallback, useEffect, useState } from 'react';
+import React, { useCallback, useEffect, useRef, useState } from 'react';
 import Image from 'next/image';
 import { signOut, useSession } from 'next-auth/react';
 
@@ -19,10 +19,12 @@ import {
 } from 'lucide-react';
 
 import {
+  type ApiRuleChangeEvent,
   createRule as apiCreateRule,
   deleteRule as apiDeleteRule,
   fetchDashboardStats,
   fetchRules,
+  subscribeRuleEvents,
   toggleRule as apiToggleRule,
   updateRule as apiUpdateRule,
 } from '@/lib/api';
@@ -44,6 +46,14 @@ import {
 import { useTheme } from './contexts/ThemeContext';
 import { type Rule, type Stats } from './types';
 
+const EVENT_RECONNECT_MIN_MS = 1000;
+const EVENT_RECONNECT_MAX_MS = 30000;
+
+const upsertRule = (rules: Rule[], rule: Rule): Rule[] =>
+  rules.some((r) => r.id === rule.id)
+    ? rules.map((r) => (r.id === rule.id ? rule : r))
+    : [...rules, rule];
+
 export const AdminDashboard = () => {
   const { theme } = useTheme();
   const { data: session } = useSession();
@@ -74,6 +84,86 @@ export const AdminDashboard = () => {
     loadData();
   }, [loadData]);
 
+  // While the event stream is connected, stats arrive with every change
+  const liveRef = useRef(false);
+
+  const applyRuleChange = useCallback((event: ApiRuleChangeEvent) => {
+    const rule = event.rule ? mapApiRuleToRule(event.rule) : null;
+    switch (event.type) {
+      case 'CREATED':
+      case 'UPDATED':
+      case 'TOGGLED':
+        if (rule) {
+          setRules((current) => upsertRule(current, rule));
+        }
+        break;
+      case 'DELETED':
+        setRules((current) => current.filter((r) => r.id !== event.ruleId));
+        break;
+      case 'RULE_SET_DELETED':
+        setRules((current) => current.filter((r) => r.ruleSetId !== event.ruleSetId));
+        break;
+      case 'BULK_CHANGED':
+        fetchRules()
+          .then((rulesData) => setRules(rulesData.map(mapApiRuleToRule)))
+          .catch(() => undefined);
+        break;
+    }
+  }, []);
+
+  useEffect(() => {
+    const controller = new AbortController();
+    let delay = EVENT_RECONNECT_MIN_MS;
+    let connectedOnce = false;
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          await subscribeRuleEvents(
+            {
+              onOpen: () => {
+                liveRef.current = true;
+                delay = EVENT_RECONNECT_MIN_MS;
+                // Changes may have been missed while disconnected
+                if (connectedOnce) {
+                  fetchRules()
+                    .then((rulesData) => setRules(rulesData.map(mapApiRuleToRule)))
+                    .catch(() => undefined);
+                }
+                connectedOnce = true;
+              },
+              onRuleChange: applyRuleChange,
+              onStats: (statsData) => setStats(mapApiStatsToStats(statsData)),
+            },
+            controller.signal
+          );
+        } catch {
+          // Reconnect below
+        }
+        liveRef.current = false;
+        if (controller.signal.aborted) {
+          return;
+        }
+        await new Promise((resolve) => setTimeout(resolve, delay));
+        delay = Math.min(delay * 2, EVENT_RECONNECT_MAX_MS);
+      }
+    };
+
+    connect();
+    return () => {
+      controller.abort();
+      liveRef.current = false;
+    };
+  }, [applyRuleChange]);
+
+  const refreshStats = async () => {
+    if (liveRef.current) {
+      return;
+    }
+    const statsData = await fetchDashboardStats();
+    setStats(mapApiStatsToStats(statsData));
+  };
+
   const filteredRules = rules.filter(
     (rule) =>
       rule.name.toLowerCase().includes(searchQuery.toLowerCase()) ||
@@ -83,7 +173,7 @@ export const AdminDashboard = () => {
   const handleToggle = async (id: string) => {
     try {
       const updatedRule = await apiToggleRule(id);
-      setRules(rules.map((r) => (r.id === id ? mapApiRuleToRule(updatedRule) : r)));
+      setRules((current) => upsertRule(current, mapApiRuleToRule(updatedRule)));
     } catch (err) {
       setError(err instanceof Error ? err.message : 'Failed to toggle rule');
     }
@@ -92,10 +182,8 @@ export const AdminDashboard = () => {
   const handleDelete = async (id: string) => {
     try {
       await apiDeleteRule(id);
-      setRules(rules.filter((r) => r.id !== id));
-      // Refresh stats
-      const statsData = await fetchDashboardStats();
-      setStats(mapApiStatsToStats(statsData));
+      setRules((current) => current.filter((r) => r.id !== id));
+      await refreshStats();
     } catch (err) {
       setError(err instanceof Error ? err.message : 'Failed to delete rule');
     }
@@ -106,15 +194,13 @@ export const AdminDashboard = () => {
       if (selectedRule) {
         // Update existing rule
         const updatedRule = await apiUpdateRule(data.id, mapRuleToUpdateRequest(data));
-        setRules(rules.map((r) => (r.id === data.id ? mapApiRuleToRule(updatedRule) : r)));
+        setRules((current) => upsertRule(current, mapApiRuleToRule(updatedRule)));
       } else {
         // Create new rule
         const newRule = await apiCreateRule(mapRuleToCreateRequest(data));
-        setRules([...rules, mapApiRuleToRule(newRule)]);
+        setRules((current) => upsertRule(current, mapApiRuleToRule(newRule)));
       }
-      // Refresh stats
-      const statsData = await fetchDashboardStats();
-      setStats(mapApiStatsToStats(statsData));
+      await refreshStats();
       setShowForm(false);
       setSelectedRule(null);
     } catch (err) {
@@ -2,7 +2,10 @@
 
 import React, { useState } from 'react';
 
-import { AlertTriangle, CheckCircle, Play, XCircle } from 'lucide-react';
+import { AlertTriangle, CheckCircle, Clock, Loader2, Play, XCircle } from 'lucide-react';
+
+import { simulateRule } from '@/lib/api';
+import { mapApiSimulationToSimulationResult } from '@/lib/mappers';
 
 import { useTheme } from '../contexts/ThemeContext';
 import { type Rule, type SimulationResult } from '../types';
@@ -14,26 +17,37 @@ interface SimulationPanelProps {
 
 export const SimulationPanel = ({ rule, onClose }: SimulationPanelProps) => {
   const { theme } = useTheme();
-  const [key, setKey] = useState('192.168.1.100');
-  const [path, setPath] = useState('/api/orders');
   const [burst, setBurst] = useState(15);
+  const [intervalMillis, setIntervalMillis] = useState(1000);
+  const [durationMillis, setDurationMillis] = useState(60000);
+  const [maxWaitMillis, setMaxWaitMillis] = useState(5000);
   const [result, setResult] = useState<SimulationResult | null>(null);
+  const [running, setRunning] = useState(false);
+  const [error, setError] = useState<string | null>(null);
+
+  const waitsForRefill = rule.onLimitExceedPolicy === 'WAIT_FOR_REFILL';
 
-  const runSimulation = () => {
-    setResult({
-      allowed: burst <= 10,
-      consumed: Math.min(burst, 10),
-      remaining: Math.max(0, 10 - burst),
-      bands: rule.bands.map((band) => ({
-        label: band.label,
-        capacity: band.capacity,
-        consumed: Math.min(burst, band.capacity),
-        remaining: Math.max(0, band.capacity - burst),
-        exceeded: burst > band.capacity,
-      })),
-    });
+  const runSimulation = async () => {
+    try {
+      setRunning(true);
+      setError(null);
+      const apiResult = await simulateRule(rule.id, {
+        burstSize: burst,
+        intervalMillis,
+        durationMillis,
+        maxWaitMillis: waitsForRefill ? maxWaitMillis : undefined,
+        buckets: 30,
+      });
+      setResult(mapApiSimulationToSimulationResult(apiResult));
+    } catch (err) {
+      setError(err instanceof Error ? err.message : 'Simulation failed');
+    } finally {
+      setRunning(false);
+    }
   };
 
+  const peak = result ? Math.max(1, ...result.timeline.map((b) => b.allowed + b.rejected)) : 1;
+
   return (
     <div
       className={`fixed inset-0 ${theme.colors.bgOverlay} z-50 flex items-center justify-center p-4 backdrop-blur-sm`}
@@ -62,93 +76,130 @@ export const SimulationPanel = ({ rule, onClose }: SimulationPanelProps) => {
         </div>
 
         <div className="space-y-4 p-4">
-          <div>
-            <label className={`block text-xs ${theme.colors.textTertiary} mb-1.5`}>
-              Key (IP / User ID / API Key)
-            </label>
-            <input
-              type="text"
-              value={key}
-              onChange={(e) => setKey(e.target.value)}
-              className={`w-full px-3 py-2 ${theme.colors.bgInput} ${theme.colors.border} rounded-lg border text-sm ${theme.colors.textPrimary} placeholder-slate-500 focus:outline-none ${theme.colors.borderFocus} focus:ring-1 focus:ring-cyan-500/50`}
-              placeholder="e.g., 192.168.1.100"
-            />
-          </div>
-
-          <div>
-            <label className={`block text-xs ${theme.colors.textTertiary} mb-1.5`}>Path</label>
-            <input
-              type="text"
-              value={path}
-              onChange={(e) => setPath(e.target.value)}
-              className={`w-full px-3 py-2 ${theme.colors.bgInput} ${theme.colors.border} rounded-lg border text-sm ${theme.colors.textPrimary} placeholder-slate-500 focus:outline-none ${theme.colors.borderFocus}`}
-              placeholder="e.g., /api/orders"
-            />
-          </div>
-
-          <div>
-            <label className={`block text-xs ${theme.colors.textTertiary} mb-1.5`}>
-              Burst Count
-            </label>
-            <input
-              type="number"
-              value={burst}
-              onChange={(e) => setBurst(parseInt(e.target.value) || 0)}
-              className={`w-full px-3 py-2 ${theme.colors.bgInput} ${theme.colors.border} rounded-lg border text-sm ${theme.colors.textPrimary} placeholder-slate-500 focus:outline-none ${theme.colors.borderFocus}`}
-              min="1"
-              max="1000"
-            />
+          <div className="grid grid-cols-2 gap-3">
+            {[
+              { label: 'Burst Size', value: burst, onChange: setBurst, min: 1 },
+              {
+                label: 'Interval (ms)',
+                value: intervalMillis,
+                onChange: setIntervalMillis,
+                min: 0,
+              },
+              {
+                label: 'Duration (ms)',
+                value: durationMillis,
+                onChange: setDurationMillis,
+                min: 1,
+              },
+              ...(waitsForRefill
+                ? [
+                    {
+                      label: 'Max Wait (ms)',
+                      value: maxWaitMillis,
+                      onChange: setMaxWaitMillis,
+                      min: 0,
+                    },
+                  ]
+                : []),
+            ].map((field) => (
+              <div key={field.label}>
+                <label className={`block text-xs ${theme.colors.textTertiary} mb-1.5`}>
+                  {field.label}
+                </label>
+                <input
+                  type="number"
+                  value={field.value}
+                  onChange={(e) => field.onChange(parseInt(e.target.value) || 0)}
+                  className={`w-full px-3 py-2 ${theme.colors.bgInput} ${theme.colors.border} rounded-lg border text-sm ${theme.colors.textPrimary} placeholder-slate-500 focus:outline-none ${theme.colors.borderFocus}`}
+                  min={field.min}
+                />
+              </div>
+            ))}
           </div>
 
           <button
             onClick={runSimulation}
-            className={`w-full bg-gradient-to-r py-2.5 ${theme.colors.gradientPrimary} rounded-lg font-medium text-white transition-all duration-200 hover:opacity-90 ${theme.colors.shadowAccent}`}
+            disabled={running}
+            className={`flex w-full items-center justify-center gap-2 bg-gradient-to-r py-2.5 ${theme.colors.gradientPrimary} rounded-lg font-medium text-white transition-all duration-200 hover:opacity-90 disabled:opacity-60 ${theme.colors.shadowAccent}`}
           >
+            {running && <Loader2 size={16} className="animate-spin" />}
             Run Simulation
           </button>
 
+          {error && <p className={`text-sm ${theme.colors.danger}`}>{error}</p>}
+
           {result && (
             <div
-              className={`mt-4 p-4 ${theme.colors.bgTertiary} rounded-xl ${theme.colors.borderSubtle} border`}
+              className={`mt-4 p-4 ${theme.colors.bgTertiary} rounded-xl ${theme.colors.borderSubtle} space-y-4 border`}
             >
-              <div className="mb-3 flex items-center gap-2">
-                {result.allowed ? (
+              <div className="flex items-center gap-2">
+                {result.rejected === 0 ? (
                   <CheckCircle size={18} className={theme.colors.success} />
                 ) : (
                   <AlertTriangle size={18} className={theme.colors.danger} />
                 )}
                 <span
-                  className={`font-medium ${result.allowed ? theme.colors.success : theme.colors.danger}`}
+                  className={`font-medium ${result.rejected === 0 ? theme.colors.success : theme.colors.danger}`}
                 >
-                  {result.allowed ? 'Request Allowed' : 'Rate Limit Exceeded'}
+                  {result.allowed.toLocaleString()} allowed / {result.rejected.toLocaleString()}{' '}
+                  rejected of {result.totalRequests.toLocaleString()}
                 </span>
               </div>
 
+              {result.delayed > 0 && (
+                <div className={`flex items-center gap-2 text-xs ${theme.colors.warning}`}>
+                  <Clock size={14} />
+                  {result.delayed.toLocaleString()} delayed, avg{' '}
+                  {result.averageWaitMillis.toFixed(1)} ms, max {result.maxWaitMillis.toFixed(1)} ms
+                </div>
+              )}
+
+              <div className="flex h-16 items-end gap-px" title="Allowed / rejected over time">
+                {result.timeline.map((bucket) => (
+                  <div
+                    key={bucket.startMillis}
+                    className="flex flex-1 flex-col-reverse"
+                    style={{ height: `${((bucket.allowed + bucket.rejected) / peak) * 100}%` }}
+                  >
+                    <div
+                      className="bg-cyan-500"
+                      style={{
+                        height: `${(bucket.allowed / Math.max(1, bucket.allowed + bucket.rejected)) * 100}%`,
+                      }}
+                    />
+                    <div className="flex-1 bg-red-500" />
+                  </div>
+                ))}
+              </div>
+
               <div className="space-y-2">
-                {result.bands.map((band, idx) => (
-                  <div key={idx} className="flex items-center justify-between text-sm">
-                    <span className={theme.colors.textTertiary}>{band.label}</span>
-                    <div className="flex items-center gap-2">
-                      <div
-                        className={`h-1.5 w-24 ${theme.colors.bgInput} overflow-hidden rounded-full`}
-                      >
+                {result.bands.map((band, idx) => {
+                  const total = Math.max(1, band.allowed + band.rejected);
+                  return (
+                    <div key={idx} className="flex items-center justify-between text-sm">
+                      <span className={theme.colors.textTertiary}>
+                        {band.label || `${band.capacity} / ${band.windowSeconds}s`}
+                      </span>
+                      <div className="flex items-center gap-2">
                         <div
-                          className={`h-full rounded-full transition-all duration-500 ${
-                            band.exceeded ? 'bg-red-500' : 'bg-cyan-500'
-                          }`}
-                          style={{
-                            width: `${Math.min(100, (band.consumed / band.capacity) * 100)}%`,
-                          }}
-                        />
+                          className={`h-1.5 w-24 ${theme.colors.bgInput} overflow-hidden rounded-full`}
+                        >
+                          <div
+                            className={`h-full rounded-full transition-all duration-500 ${
+                              band.rejected > 0 ? 'bg-red-500' : 'bg-cyan-500'
+                            }`}
+                            style={{ width: `${(band.rejected / total) * 100}%` }}
+                          />
+                        </div>
+                        <span
+                          className={`font-mono text-xs ${band.rejected > 0 ? theme.colors.danger : theme.colors.textSecondary}`}
+                        >
+                          {band.rejected.toLocaleString()} rejected
+                        </span>
                       </div>
-                      <span
-                        className={`font-mono text-xs ${band.exceeded ? theme.colors.danger : theme.colors.textSecondary}`}
-                      >
-                        {band.consumed}/{band.capacity}
-                      </span>
                     </div>
-                  </div>
-                ))}
+                  );
+                })}
               </div>
             </div>
           )}
@@ -92,15 +92,34 @@ export interface Theme {
   colors: ThemeColors;
 }
 
-export interface SimulationResult {
-  allowed: boolean;
-  consumed: number;
-  remaining: number;
-  bands: {
-    label: string;
-    capacity: number;
-    consumed: number;
-    remaining: number;
-    exceeded: boolean;
+export interface SimulationBucket {
+  startMillis: number;
+  allowed: number;
+  rejected: number;
+  delayed: number;
+}
+
+export interface BandSimulation {
+  label: string;
+  windowSeconds: number;
+  capacity: number;
+  allowed: number;
+  rejected: number;
+  timeline: {
+    startMillis: number;
+    allowed: number;
+    rejected: number;
+    remainingTokens: number;
   }[];
 }
+
+export interface SimulationResult {
+  totalRequests: number;
+  allowed: number;
+  rejected: number;
+  delayed: number;
+  averageWaitMillis: number;
+  maxWaitMillis: number;
+  timeline: SimulationBucket[];
+  bands: BandSimulation[];
+}